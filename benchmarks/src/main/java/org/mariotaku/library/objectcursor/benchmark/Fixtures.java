@@ -0,0 +1,122 @@
+package org.mariotaku.library.objectcursor.benchmark;
+
+import android.content.ContentValues;
+
+import org.mariotaku.library.objectcursor.ObjectCursor;
+import org.mariotaku.library.objectcursor.benchmark.model.ConverterModel;
+import org.mariotaku.library.objectcursor.benchmark.model.InheritedModel;
+import org.mariotaku.library.objectcursor.benchmark.model.NarrowModel;
+import org.mariotaku.library.objectcursor.benchmark.model.User;
+import org.mariotaku.library.objectcursor.benchmark.model.WideModel;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic test data for every benchmark model
+ * <p>
+ * Created by mariotaku on 16/5/10.
+ */
+public class Fixtures {
+
+    public enum Model {
+        NARROW(NarrowModel.class), WIDE(WideModel.class), INHERITED(InheritedModel.class),
+        CONVERTER(ConverterModel.class);
+
+        public final Class<?> cls;
+
+        Model(Class<?> cls) {
+            this.cls = cls;
+        }
+    }
+
+    private Fixtures() {
+    }
+
+    public static List<Object> objects(Model model, int count) {
+        final Random random = new Random(count);
+        final List<Object> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            list.add(newObject(model, i, random));
+        }
+        return list;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static InMemoryCursor cursor(Model model, int count) throws IOException {
+        final ObjectCursor.ValuesCreator<Object> creator = (ObjectCursor.ValuesCreator<Object>)
+                ObjectCursor.valuesCreatorFrom(model.cls);
+        final List<ContentValues> valuesList = new ArrayList<>(count);
+        for (Object object : objects(model, count)) {
+            valuesList.add(creator.create(object));
+        }
+        return InMemoryCursor.from(ObjectCursor.tableInfoFrom(model.cls).getColumns(), valuesList);
+    }
+
+    private static Object newObject(Model model, int i, Random random) {
+        switch (model) {
+            case NARROW: {
+                final NarrowModel object = new NarrowModel();
+                fillNarrow(object, i, random);
+                return object;
+            }
+            case INHERITED: {
+                final InheritedModel object = new InheritedModel();
+                fillNarrow(object, i, random);
+                object.timestamp = 1460000000000L + random.nextInt();
+                object.text = "Status text #" + i + " with some more words in it " + random.nextLong();
+                object.score = random.nextDouble();
+                return object;
+            }
+            case WIDE: {
+                final WideModel object = new WideModel();
+                for (int field = 0; field < 20; field++) {
+                    setField(object, "l" + field, random.nextLong());
+                    setField(object, "i" + field, random.nextInt());
+                    setField(object, "s" + field, "value " + field + " " + random.nextInt(1000));
+                }
+                for (int field = 0; field < 4; field++) {
+                    setField(object, "d" + field, random.nextDouble());
+                }
+                return object;
+            }
+            case CONVERTER: {
+                final ConverterModel object = new ConverterModel();
+                object.id = i;
+                object.text = "Status text #" + i;
+                object.user = newUser(random);
+                object.retweetedBy = random.nextBoolean() ? newUser(random) : null;
+                object.quotedUser = random.nextBoolean() ? newUser(random) : null;
+                return object;
+            }
+        }
+        throw new AssertionError(model);
+    }
+
+    private static void fillNarrow(NarrowModel object, int i, Random random) {
+        object.id = i;
+        object.name = "user_" + random.nextInt(500);
+        object.flags = random.nextInt();
+        object.read = random.nextBoolean();
+    }
+
+    private static User newUser(Random random) {
+        final User user = new User();
+        user.id = random.nextLong();
+        user.screenName = "user_" + random.nextInt(500);
+        user.name = "User Name " + random.nextInt(500);
+        user.profileImageUrl = "https://example.com/avatar/" + random.nextInt(500) + ".png";
+        user.verified = random.nextBoolean();
+        return user;
+    }
+
+    private static void setField(Object object, String name, Object value) {
+        try {
+            object.getClass().getField(name).set(object, value);
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
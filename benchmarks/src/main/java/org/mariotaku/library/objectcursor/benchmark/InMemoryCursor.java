@@ -0,0 +1,109 @@
+package org.mariotaku.library.objectcursor.benchmark;
+
+import android.content.ContentValues;
+import android.database.AbstractCursor;
+
+import java.util.List;
+
+/**
+ * Cursor over rows in memory, stands in for SQLiteCursor so benchmarks measure generated code only
+ * <p>
+ * Created by mariotaku on 16/5/10.
+ */
+public class InMemoryCursor extends AbstractCursor {
+
+    private final String[] mColumnNames;
+    private final Object[][] mRows;
+
+    public InMemoryCursor(String[] columnNames, Object[][] rows) {
+        mColumnNames = columnNames;
+        mRows = rows;
+    }
+
+    /**
+     * Values are stored the way SQLite does, booleans become integers
+     */
+    public static InMemoryCursor from(String[] columnNames, List<ContentValues> valuesList) {
+        final Object[][] rows = new Object[valuesList.size()][];
+        for (int i = 0, j = valuesList.size(); i < j; i++) {
+            final ContentValues values = valuesList.get(i);
+            final Object[] row = new Object[columnNames.length];
+            for (int col = 0; col < columnNames.length; col++) {
+                final Object value = values.get(columnNames[col]);
+                if (value instanceof Boolean) {
+                    row[col] = (Boolean) value ? 1L : 0L;
+                } else {
+                    row[col] = value;
+                }
+            }
+            rows[i] = row;
+        }
+        return new InMemoryCursor(columnNames, rows);
+    }
+
+    @Override
+    public int getCount() {
+        return mRows.length;
+    }
+
+    @Override
+    public String[] getColumnNames() {
+        return mColumnNames;
+    }
+
+    @Override
+    public String getString(int column) {
+        final Object value = mRows[mPos][column];
+        return value != null ? value.toString() : null;
+    }
+
+    @Override
+    public short getShort(int column) {
+        final Object value = mRows[mPos][column];
+        return value != null ? ((Number) value).shortValue() : 0;
+    }
+
+    @Override
+    public int getInt(int column) {
+        final Object value = mRows[mPos][column];
+        return value != null ? ((Number) value).intValue() : 0;
+    }
+
+    @Override
+    public long getLong(int column) {
+        final Object value = mRows[mPos][column];
+        return value != null ? ((Number) value).longValue() : 0;
+    }
+
+    @Override
+    public float getFloat(int column) {
+        final Object value = mRows[mPos][column];
+        return value != null ? ((Number) value).floatValue() : 0;
+    }
+
+    @Override
+    public double getDouble(int column) {
+        final Object value = mRows[mPos][column];
+        return value != null ? ((Number) value).doubleValue() : 0;
+    }
+
+    @Override
+    public byte[] getBlob(int column) {
+        return (byte[]) mRows[mPos][column];
+    }
+
+    @Override
+    public int getType(int column) {
+        final Object value = mRows[mPos][column];
+        if (value == null) return FIELD_TYPE_NULL;
+        if (value instanceof byte[]) return FIELD_TYPE_BLOB;
+        if (value instanceof Float || value instanceof Double) return FIELD_TYPE_FLOAT;
+        if (value instanceof Number) return FIELD_TYPE_INTEGER;
+        return FIELD_TYPE_STRING;
+    }
+
+    @Override
+    public boolean isNull(int column) {
+        return mRows[mPos][column] == null;
+    }
+}
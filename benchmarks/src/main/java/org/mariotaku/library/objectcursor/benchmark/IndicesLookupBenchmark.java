@@ -0,0 +1,64 @@
+package org.mariotaku.library.objectcursor.benchmark;
+
+import android.database.Cursor;
+
+import org.mariotaku.library.objectcursor.ObjectCursor;
+import org.mariotaku.library.objectcursor.benchmark.model.BenchmarkRegistry;
+import org.mariotaku.library.objectcursor.benchmark.model.InheritedModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looking up CursorIndices: plain reflection (old behavior), memoized reflection, generated registry and schema
+ * cache. Steady state by default, run with {@code -Pjmh='-bm ss -wi 0 -i 1 -f 30'} for first call latency.
+ * <p>
+ * Created by mariotaku on 16/5/10.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class IndicesLookupBenchmark {
+
+    private Cursor cursor;
+
+    @Setup
+    public void setup() throws IOException {
+        cursor = Fixtures.cursor(Fixtures.Model.INHERITED, 1);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public ObjectCursor.CursorIndices<InheritedModel> reflection() throws Exception {
+        final Class<?> cls = Class.forName(InheritedModel.class.getName() + ObjectCursor.CursorIndices.CURSOR_INDICES_SUFFIX);
+        return (ObjectCursor.CursorIndices<InheritedModel>) cls.getConstructor(Cursor.class).newInstance(cursor);
+    }
+
+    @Benchmark
+    public ObjectCursor.CursorIndices<InheritedModel> indicesFrom() {
+        return ObjectCursor.indicesFrom(cursor, InheritedModel.class);
+    }
+
+    @Benchmark
+    public ObjectCursor.CursorIndices<InheritedModel> registry() {
+        return BenchmarkRegistry.INSTANCE.newIndices(InheritedModel.class, cursor);
+    }
+
+    @Benchmark
+    public ObjectCursor.CursorIndices<InheritedModel> cachedIndicesFrom() {
+        return ObjectCursor.cachedIndicesFrom(cursor, InheritedModel.class);
+    }
+}
@@ -0,0 +1,70 @@
+package org.mariotaku.library.objectcursor.benchmark;
+
+import org.mariotaku.library.objectcursor.ObjectCursor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Row materialization through generated CursorIndices
+ * <p>
+ * Created by mariotaku on 16/5/10.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MaterializationBenchmark {
+
+    static final int ROWS = 1024;
+
+    @Param({"NARROW", "WIDE", "INHERITED", "CONVERTER"})
+    public Fixtures.Model model;
+
+    private InMemoryCursor cursor;
+    private ObjectCursor.CursorIndices<Object> indices;
+    private Object reuse;
+    private int position;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() throws IOException {
+        cursor = Fixtures.cursor(model, ROWS);
+        indices = ObjectCursor.indicesFrom(cursor, (Class<Object>) model.cls);
+        cursor.moveToFirst();
+        reuse = indices.newObject(cursor);
+    }
+
+    @Benchmark
+    public Object newObject() throws IOException {
+        next();
+        return indices.newObject(cursor);
+    }
+
+    @Benchmark
+    public Object parseFields() throws IOException {
+        next();
+        indices.parseFields(reuse, cursor);
+        return reuse;
+    }
+
+    private void next() {
+        if (++position >= ROWS) {
+            position = 0;
+        }
+        cursor.moveToPosition(position);
+    }
+}
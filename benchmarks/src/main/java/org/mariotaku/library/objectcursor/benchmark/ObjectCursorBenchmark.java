@@ -0,0 +1,93 @@
+package org.mariotaku.library.objectcursor.benchmark;
+
+import org.mariotaku.library.objectcursor.ObjectCursor;
+import org.mariotaku.library.objectcursor.cache.AtomicRowCache;
+import org.mariotaku.library.objectcursor.cache.LruRowCache;
+import org.mariotaku.library.objectcursor.cache.SparseRowCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ObjectCursor#get(int)} with different cache policies, and sequential scans
+ * <p>
+ * Created by mariotaku on 16/5/10.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ObjectCursorBenchmark {
+
+    static final int ROWS = 1024;
+
+    @Param({"NARROW", "CONVERTER"})
+    public Fixtures.Model model;
+
+    @Param({"NONE", "SPARSE", "LRU", "ATOMIC"})
+    public String cache;
+
+    private ObjectCursor<Object> list;
+    private int position;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() throws IOException {
+        final InMemoryCursor cursor = Fixtures.cursor(model, ROWS);
+        final ObjectCursor.CursorIndices<Object> indices = ObjectCursor.indicesFrom(cursor, (Class<Object>) model.cls);
+        switch (cache) {
+            case "SPARSE":
+                list = new ObjectCursor<>(cursor, indices, new SparseRowCache<>());
+                break;
+            case "LRU":
+                // Half of the rows fit, so a sequential walk keeps evicting
+                list = new ObjectCursor<>(cursor, indices, new LruRowCache<>(ROWS / 2));
+                break;
+            case "ATOMIC":
+                list = new ObjectCursor<>(cursor, indices, new AtomicRowCache<>(ROWS));
+                break;
+            default:
+                list = new ObjectCursor<>(cursor, indices);
+                break;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        list.close();
+    }
+
+    @Benchmark
+    public Object get() {
+        if (++position >= ROWS) {
+            position = 0;
+        }
+        return list.get(position);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void forwardScan(Blackhole blackhole) {
+        final Iterator<Object> iterator = list.forwardIterator();
+        while (iterator.hasNext()) {
+            blackhole.consume(iterator.next());
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package org.mariotaku.library.objectcursor.benchmark;
+
+import org.mariotaku.objectcursor.processor.AnnotationProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+/**
+ * Annotation processor throughput over synthetic models, each field has getter and setter so member lookup is
+ * exercised. Runs javac with {@code -proc:only}, generated files are kept in memory.
+ * <p>
+ * Created by mariotaku on 16/5/13.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ProcessorBenchmark {
+
+    static final String PACKAGE_NAME = "org.mariotaku.library.objectcursor.benchmark.generated";
+
+    @Param({"10", "100"})
+    public int classes;
+
+    @Param({"8", "64"})
+    public int fields;
+
+    private JavaCompiler compiler;
+    private StandardJavaFileManager standardFileManager;
+    private List<JavaFileObject> sources;
+    private List<String> options;
+
+    @Setup
+    public void setup() {
+        compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("Processor benchmark must run on JDK");
+        }
+        standardFileManager = compiler.getStandardFileManager(null, Locale.US, null);
+        sources = new ArrayList<>(classes);
+        for (int i = 0; i < classes; i++) {
+            sources.add(new SourceFile("Model" + i, modelSource(i, fields)));
+        }
+        options = Arrays.asList("-proc:only", "-classpath", System.getProperty("java.class.path"),
+                "-A" + AnnotationProcessor.OPTION_REGISTRY_CLASS + "=" + PACKAGE_NAME + ".Registry");
+    }
+
+    @Benchmark
+    public int process() {
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        final InMemoryFileManager fileManager = new InMemoryFileManager(standardFileManager);
+        final JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, options, null,
+                sources);
+        task.setProcessors(Collections.singletonList(new AnnotationProcessor()));
+        if (!task.call()) {
+            for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+                if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                    throw new IllegalStateException(diagnostic.toString());
+                }
+            }
+        }
+        return fileManager.outputCount;
+    }
+
+    static String modelSource(int index, int fields) {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("package ").append(PACKAGE_NAME).append(";\n\n");
+        sb.append("import org.mariotaku.library.objectcursor.annotation.CursorField;\n");
+        sb.append("import org.mariotaku.library.objectcursor.annotation.CursorObject;\n\n");
+        sb.append("@CursorObject(valuesCreator = true, tableInfo = true)\n");
+        sb.append("public class Model").append(index).append(" {\n");
+        for (int i = 0; i < fields; i++) {
+            final String type = fieldType(i);
+            sb.append("    @CursorField(\"column_").append(i).append("\")\n");
+            sb.append("    ").append(type).append(" mField").append(i).append(";\n");
+        }
+        for (int i = 0; i < fields; i++) {
+            final String type = fieldType(i);
+            sb.append("    public ").append(type).append(" getField").append(i).append("() { return mField")
+                    .append(i).append("; }\n");
+            sb.append("    public void setField").append(i).append("(").append(type).append(" value) { mField")
+                    .append(i).append(" = value; }\n");
+        }
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    private static String fieldType(int index) {
+        switch (index % 4) {
+            case 0:
+                return "long";
+            case 1:
+                return "String";
+            case 2:
+                return "int";
+            default:
+                return "boolean";
+        }
+    }
+
+    static class SourceFile extends SimpleJavaFileObject {
+
+        private final String content;
+
+        SourceFile(String simpleName, String content) {
+            super(URI.create("string:///" + PACKAGE_NAME.replace('.', '/') + "/" + simpleName
+                    + Kind.SOURCE.extension), Kind.SOURCE);
+            this.content = content;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return content;
+        }
+    }
+
+    /**
+     * Keeps generated sources in memory, nothing is written to disk
+     */
+    static class InMemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+        int outputCount;
+
+        InMemoryFileManager(StandardJavaFileManager fileManager) {
+            super(fileManager);
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(JavaFileManager.Location location, String className,
+                                                   JavaFileObject.Kind kind, FileObject sibling) {
+            outputCount++;
+            return new OutputFile(className, kind);
+        }
+    }
+
+    static class OutputFile extends SimpleJavaFileObject {
+
+        private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+        OutputFile(String className, Kind kind) {
+            super(URI.create("mem:///" + className.replace('.', '/') + kind.extension), kind);
+        }
+
+        @Override
+        public OutputStream openOutputStream() {
+            return content;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return content.toString();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.mariotaku.library.objectcursor.benchmark;
+
+import android.content.ContentValues;
+
+import org.mariotaku.library.objectcursor.ObjectCursor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generated ValuesCreator
+ * <p>
+ * Created by mariotaku on 16/5/10.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ValuesCreatorBenchmark {
+
+    static final int ROWS = 1024;
+
+    @Param({"NARROW", "WIDE", "INHERITED", "CONVERTER"})
+    public Fixtures.Model model;
+
+    private List<Object> objects;
+    private ObjectCursor.ValuesCreator<Object> creator;
+    private ContentValues reuse;
+    private int position;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        objects = Fixtures.objects(model, ROWS);
+        creator = (ObjectCursor.ValuesCreator<Object>) ObjectCursor.valuesCreatorFrom(model.cls);
+        reuse = new ContentValues();
+    }
+
+    @Benchmark
+    public ContentValues create() throws IOException {
+        return creator.create(next());
+    }
+
+    @Benchmark
+    public ContentValues writeTo() throws IOException {
+        reuse.clear();
+        creator.writeTo(next(), reuse);
+        return reuse;
+    }
+
+    @Benchmark
+    public ContentValues createReuse() throws IOException {
+        return reuse = creator.create(next(), reuse);
+    }
+
+    private Object next() {
+        if (++position >= ROWS) {
+            position = 0;
+        }
+        return objects.get(position);
+    }
+}
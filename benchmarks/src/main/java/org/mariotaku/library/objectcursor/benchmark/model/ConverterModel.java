@@ -0,0 +1,27 @@
+package org.mariotaku.library.objectcursor.benchmark.model;
+
+import org.mariotaku.library.objectcursor.annotation.CursorField;
+import org.mariotaku.library.objectcursor.annotation.CursorObject;
+
+/**
+ * Created by mariotaku on 16/5/10.
+ */
+@CursorObject(valuesCreator = true, tableInfo = true)
+public class ConverterModel {
+
+    @CursorField("_id")
+    public long id;
+
+    @CursorField("text")
+    public String text;
+
+    @CursorField(value = "user", converter = UserConverter.class)
+    public User user;
+
+    @CursorField(value = "retweeted_by", converter = UserConverter.class)
+    public User retweetedBy;
+
+    @CursorField(value = "quoted_user", converter = UserConverter.class)
+    public User quotedUser;
+
+}
@@ -0,0 +1,21 @@
+package org.mariotaku.library.objectcursor.benchmark.model;
+
+import org.mariotaku.library.objectcursor.annotation.CursorField;
+import org.mariotaku.library.objectcursor.annotation.CursorObject;
+
+/**
+ * Created by mariotaku on 16/5/10.
+ */
+@CursorObject(valuesCreator = true, tableInfo = true)
+public class InheritedModel extends NarrowModel {
+
+    @CursorField("timestamp")
+    public long timestamp;
+
+    @CursorField("text")
+    public String text;
+
+    @CursorField("score")
+    public double score;
+
+}
@@ -0,0 +1,24 @@
+package org.mariotaku.library.objectcursor.benchmark.model;
+
+import org.mariotaku.library.objectcursor.annotation.CursorField;
+import org.mariotaku.library.objectcursor.annotation.CursorObject;
+
+/**
+ * Created by mariotaku on 16/5/10.
+ */
+@CursorObject(valuesCreator = true, tableInfo = true)
+public class NarrowModel {
+
+    @CursorField("_id")
+    public long id;
+
+    @CursorField("name")
+    public String name;
+
+    @CursorField("flags")
+    public int flags;
+
+    @CursorField("is_read")
+    public boolean read;
+
+}
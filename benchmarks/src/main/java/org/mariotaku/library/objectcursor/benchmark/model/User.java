@@ -0,0 +1,14 @@
+package org.mariotaku.library.objectcursor.benchmark.model;
+
+/**
+ * Created by mariotaku on 16/5/10.
+ */
+public class User {
+
+    public long id;
+    public String screenName;
+    public String name;
+    public String profileImageUrl;
+    public boolean verified;
+
+}
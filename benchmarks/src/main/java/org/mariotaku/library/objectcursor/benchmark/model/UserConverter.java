@@ -0,0 +1,61 @@
+package org.mariotaku.library.objectcursor.benchmark.model;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.mariotaku.library.objectcursor.converter.CursorFieldConverter;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+
+/**
+ * Stores {@link User} as JSON text, like most real world converters
+ * <p>
+ * Created by mariotaku on 16/5/10.
+ */
+public class UserConverter implements CursorFieldConverter<User> {
+
+    @Override
+    public User parseField(Cursor cursor, int columnIndex, ParameterizedType fieldType) throws IOException {
+        final String json = cursor.getString(columnIndex);
+        if (json == null) return null;
+        try {
+            final JSONObject object = new JSONObject(json);
+            final User user = new User();
+            user.id = object.getLong("id");
+            user.screenName = object.getString("screen_name");
+            user.name = object.getString("name");
+            user.profileImageUrl = object.optString("profile_image_url", null);
+            user.verified = object.optBoolean("verified");
+            return user;
+        } catch (JSONException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public void writeField(ContentValues values, User object, String columnName, ParameterizedType fieldType)
+            throws IOException {
+        if (object == null) {
+            values.putNull(columnName);
+            return;
+        }
+        values.put(columnName, toJson(object));
+    }
+
+    private static String toJson(User user) {
+        try {
+            final JSONObject json = new JSONObject();
+            json.put("id", user.id);
+            json.put("screen_name", user.screenName);
+            json.put("name", user.name);
+            json.put("profile_image_url", user.profileImageUrl);
+            json.put("verified", user.verified);
+            return json.toString();
+        } catch (JSONException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package org.mariotaku.library.objectcursor.benchmark.model;
+
+import org.mariotaku.library.objectcursor.annotation.CursorField;
+import org.mariotaku.library.objectcursor.annotation.CursorObject;
+
+/**
+ * 64 columns
+ * <p>
+ * Created by mariotaku on 16/5/10.
+ */
+@CursorObject(valuesCreator = true, tableInfo = true)
+public class WideModel {
+
+    @CursorField("long_0")
+    public long l0;
+
+    @CursorField("long_1")
+    public long l1;
+
+    @CursorField("long_2")
+    public long l2;
+
+    @CursorField("long_3")
+    public long l3;
+
+    @CursorField("long_4")
+    public long l4;
+
+    @CursorField("long_5")
+    public long l5;
+
+    @CursorField("long_6")
+    public long l6;
+
+    @CursorField("long_7")
+    public long l7;
+
+    @CursorField("long_8")
+    public long l8;
+
+    @CursorField("long_9")
+    public long l9;
+
+    @CursorField("long_10")
+    public long l10;
+
+    @CursorField("long_11")
+    public long l11;
+
+    @CursorField("long_12")
+    public long l12;
+
+    @CursorField("long_13")
+    public long l13;
+
+    @CursorField("long_14")
+    public long l14;
+
+    @CursorField("long_15")
+    public long l15;
+
+    @CursorField("long_16")
+    public long l16;
+
+    @CursorField("long_17")
+    public long l17;
+
+    @CursorField("long_18")
+    public long l18;
+
+    @CursorField("long_19")
+    public long l19;
+
+    @CursorField("int_0")
+    public int i0;
+
+    @CursorField("int_1")
+    public int i1;
+
+    @CursorField("int_2")
+    public int i2;
+
+    @CursorField("int_3")
+    public int i3;
+
+    @CursorField("int_4")
+    public int i4;
+
+    @CursorField("int_5")
+    public int i5;
+
+    @CursorField("int_6")
+    public int i6;
+
+    @CursorField("int_7")
+    public int i7;
+
+    @CursorField("int_8")
+    public int i8;
+
+    @CursorField("int_9")
+    public int i9;
+
+    @CursorField("int_10")
+    public int i10;
+
+    @CursorField("int_11")
+    public int i11;
+
+    @CursorField("int_12")
+    public int i12;
+
+    @CursorField("int_13")
+    public int i13;
+
+    @CursorField("int_14")
+    public int i14;
+
+    @CursorField("int_15")
+    public int i15;
+
+    @CursorField("int_16")
+    public int i16;
+
+    @CursorField("int_17")
+    public int i17;
+
+    @CursorField("int_18")
+    public int i18;
+
+    @CursorField("int_19")
+    public int i19;
+
+    @CursorField("text_0")
+    public String s0;
+
+    @CursorField("text_1")
+    public String s1;
+
+    @CursorField("text_2")
+    public String s2;
+
+    @CursorField("text_3")
+    public String s3;
+
+    @CursorField("text_4")
+    public String s4;
+
+    @CursorField("text_5")
+    public String s5;
+
+    @CursorField("text_6")
+    public String s6;
+
+    @CursorField("text_7")
+    public String s7;
+
+    @CursorField("text_8")
+    public String s8;
+
+    @CursorField("text_9")
+    public String s9;
+
+    @CursorField("text_10")
+    public String s10;
+
+    @CursorField("text_11")
+    public String s11;
+
+    @CursorField("text_12")
+    public String s12;
+
+    @CursorField("text_13")
+    public String s13;
+
+    @CursorField("text_14")
+    public String s14;
+
+    @CursorField("text_15")
+    public String s15;
+
+    @CursorField("text_16")
+    public String s16;
+
+    @CursorField("text_17")
+    public String s17;
+
+    @CursorField("text_18")
+    public String s18;
+
+    @CursorField("text_19")
+    public String s19;
+
+    @CursorField("real_0")
+    public double d0;
+
+    @CursorField("real_1")
+    public double d1;
+
+    @CursorField("real_2")
+    public double d2;
+
+    @CursorField("real_3")
+    public double d3;
+
+}
@@ -0,0 +1,25 @@
+package org.mariotaku.library.objectcursor.snapshot;
+
+import org.mariotaku.library.objectcursor.annotation.CursorField;
+import org.mariotaku.library.objectcursor.annotation.CursorObject;
+
+/**
+ * Created by mariotaku on 16/5/13.
+ */
+@CursorObject(bufferCodec = true)
+public class SnapshotRow {
+
+    @CursorField("_id")
+    public long id;
+
+    @CursorField("text")
+    public String text;
+
+    public SnapshotRow() {
+    }
+
+    SnapshotRow(long id, String text) {
+        this.id = id;
+        this.text = text;
+    }
+}
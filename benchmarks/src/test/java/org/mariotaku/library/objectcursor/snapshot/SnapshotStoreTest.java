@@ -0,0 +1,90 @@
+package org.mariotaku.library.objectcursor.snapshot;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Created by mariotaku on 16/5/13.
+ */
+public class SnapshotStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void saveGrowsBufferForManyRows() throws IOException {
+        final List<SnapshotRow> rows = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            rows.add(new SnapshotRow(i, "Row " + i + " with some text to take up space"));
+        }
+        final SnapshotStore<SnapshotRow> store = newStore();
+        store.save(rows, rows.size());
+        assertRows(rows, store.open());
+    }
+
+    @Test
+    public void saveGrowsBufferForFixedSizeRows() throws IOException {
+        // Null text takes no variable space, buffer runs out exactly at a record header
+        final List<SnapshotRow> rows = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            rows.add(new SnapshotRow(i, null));
+        }
+        final SnapshotStore<SnapshotRow> store = newStore();
+        store.save(rows, rows.size());
+        assertRows(rows, store.open());
+    }
+
+    @Test
+    public void saveGrowsBufferForLargeRow() throws IOException {
+        final char[] chars = new char[20000];
+        Arrays.fill(chars, 'x');
+        final List<SnapshotRow> rows = Arrays.asList(new SnapshotRow(1, "first"),
+                new SnapshotRow(2, new String(chars)), new SnapshotRow(3, null));
+        final SnapshotStore<SnapshotRow> store = newStore();
+        store.save(rows, rows.size());
+        assertRows(rows, store.open());
+    }
+
+    @Test
+    public void saveKeepsFirstRows() throws IOException {
+        final List<SnapshotRow> rows = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            rows.add(new SnapshotRow(i, String.valueOf(i)));
+        }
+        final SnapshotStore<SnapshotRow> store = newStore();
+        store.save(rows, 4);
+        assertRows(rows.subList(0, 4), store.open());
+    }
+
+    @Test(expected = BufferOverflowException.class)
+    public void writeToThrowsOverflowWhenFixedSizeDoesNotFit() throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(SnapshotRowBufferCodec.FIXED_SIZE);
+        SnapshotRowBufferCodec.INSTANCE.writeTo(new SnapshotRow(1, null), buffer);
+    }
+
+    private SnapshotStore<SnapshotRow> newStore() throws IOException {
+        return new SnapshotStore<>(new File(folder.getRoot(), "snapshot"), SnapshotRow.class);
+    }
+
+    private static void assertRows(List<SnapshotRow> expected, SnapshotList<SnapshotRow> actual) {
+        assertNotNull(actual);
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).id, actual.get(i).id);
+            assertEquals(expected.get(i).text, actual.get(i).text);
+        }
+        actual.close();
+    }
+}
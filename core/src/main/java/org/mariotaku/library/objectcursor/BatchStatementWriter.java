@@ -0,0 +1,99 @@
+package org.mariotaku.library.objectcursor;
+
+import android.content.ContentValues;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import java.io.IOException;
+
+/**
+ * Inserts objects with a compiled statement, in chunked transactions.
+ * <p>
+ * Created by mariotaku on 16/5/6.
+ */
+public class BatchStatementWriter<T> {
+
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+
+    private static final String[] CONFLICT_VALUES = new String[]
+            {"", " OR ROLLBACK ", " OR ABORT ", " OR FAIL ", " OR IGNORE ", " OR REPLACE "};
+
+    private final SQLiteDatabase mDatabase;
+    private final ObjectCursor.StatementBinder<T> mBinder;
+    private final String mSql;
+    private final int mChunkSize;
+
+    public BatchStatementWriter(SQLiteDatabase database, String table, ObjectCursor.StatementBinder<T> binder) {
+        this(database, table, binder, SQLiteDatabase.CONFLICT_NONE, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param conflictAlgorithm One of {@code SQLiteDatabase.CONFLICT_*}
+     * @param chunkSize         Rows inserted in one transaction
+     */
+    public BatchStatementWriter(SQLiteDatabase database, String table, ObjectCursor.StatementBinder<T> binder,
+                                int conflictAlgorithm, int chunkSize) {
+        if (chunkSize < 1) throw new IllegalArgumentException("chunkSize < 1");
+        mDatabase = database;
+        mBinder = binder;
+        mSql = getInsertSql(table, binder.getColumns(), conflictAlgorithm);
+        mChunkSize = chunkSize;
+    }
+
+    /**
+     * @return Number of rows inserted successfully
+     */
+    public int insert(Iterable<? extends T> objects) throws IOException {
+        final SQLiteStatement statement = mDatabase.compileStatement(mSql);
+        // Shared by all rows, so converters don't allocate a ContentValues per row
+        final ContentValues scratch = new ContentValues();
+        int inserted = 0, inChunk = 0;
+        try {
+            mDatabase.beginTransaction();
+            try {
+                for (T object : objects) {
+                    mBinder.bindTo(object, statement, scratch);
+                    if (statement.executeInsert() != -1) {
+                        inserted++;
+                    }
+                    statement.clearBindings();
+                    if (++inChunk == mChunkSize) {
+                        mDatabase.setTransactionSuccessful();
+                        mDatabase.endTransaction();
+                        mDatabase.beginTransaction();
+                        inChunk = 0;
+                    }
+                }
+                mDatabase.setTransactionSuccessful();
+            } finally {
+                mDatabase.endTransaction();
+            }
+        } finally {
+            statement.close();
+        }
+        return inserted;
+    }
+
+    public String getSql() {
+        return mSql;
+    }
+
+    public static String getInsertSql(String table, String[] columns, int conflictAlgorithm) {
+        final StringBuilder sql = new StringBuilder();
+        sql.append("INSERT");
+        sql.append(CONFLICT_VALUES[conflictAlgorithm]);
+        sql.append(" INTO ");
+        sql.append(table);
+        sql.append(" (");
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) sql.append(',');
+            sql.append(columns[i]);
+        }
+        sql.append(") VALUES (");
+        for (int i = 0; i < columns.length; i++) {
+            sql.append(i > 0 ? ",?" : "?");
+        }
+        sql.append(')');
+        return sql.toString();
+    }
+}
@@ -0,0 +1,65 @@
+package org.mariotaku.library.objectcursor;
+
+import android.content.ContentResolver;
+import android.content.ContentValues;
+import android.net.Uri;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Writes objects into a pool of {@link ContentValues} for {@link ContentResolver#bulkInsert(Uri, ContentValues[])},
+ * the same instances are cleared and reused for every batch, so batch loops allocate almost nothing per row.
+ * <p>
+ * Arrays returned by {@link #next(Iterator)} are only valid until next call. Not thread safe.
+ * <p>
+ * Created by mariotaku on 16/5/12.
+ */
+public class BulkValuesWriter<T> {
+
+    public static final int DEFAULT_BATCH_SIZE = 100;
+
+    private final ObjectCursor.ValuesCreator<T> mCreator;
+    private final ContentValues[] mPool;
+
+    public BulkValuesWriter(ObjectCursor.ValuesCreator<T> creator) {
+        this(creator, DEFAULT_BATCH_SIZE);
+    }
+
+    public BulkValuesWriter(ObjectCursor.ValuesCreator<T> creator, int batchSize) {
+        if (batchSize < 1) throw new IllegalArgumentException("batchSize < 1");
+        mCreator = creator;
+        mPool = new ContentValues[batchSize];
+    }
+
+    /**
+     * Writes up to batch size objects from {@code objects}
+     *
+     * @return Pooled values, empty array if there are no more objects
+     */
+    public ContentValues[] next(Iterator<? extends T> objects) throws IOException {
+        int count = 0;
+        while (count < mPool.length && objects.hasNext()) {
+            // Null pool entry gets created with known column count
+            mPool[count] = mCreator.create(objects.next(), mPool[count]);
+            count++;
+        }
+        if (count == mPool.length) return mPool;
+        return Arrays.copyOf(mPool, count);
+    }
+
+    /**
+     * Inserts all {@code objects} in batches
+     *
+     * @return Number of rows inserted, sum of {@link ContentResolver#bulkInsert(Uri, ContentValues[])} results
+     */
+    public int bulkInsert(ContentResolver resolver, Uri uri, Iterable<? extends T> objects) throws IOException {
+        final Iterator<? extends T> iterator = objects.iterator();
+        int inserted = 0;
+        while (iterator.hasNext()) {
+            inserted += resolver.bulkInsert(uri, next(iterator));
+        }
+        return inserted;
+    }
+}
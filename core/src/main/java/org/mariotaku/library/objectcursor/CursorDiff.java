@@ -0,0 +1,347 @@
+package org.mariotaku.library.objectcursor;
+
+import android.database.Cursor;
+
+import org.mariotaku.library.objectcursor.internal.LongIntMap;
+
+import java.util.Arrays;
+
+/**
+ * Difference between two {@link ObjectCursor}s of the same class, calculated from
+ * {@link org.mariotaku.library.objectcursor.annotation.CursorField#key() key} and
+ * {@link org.mariotaku.library.objectcursor.annotation.CursorField#version() version} columns only, no row is parsed.
+ * <p>
+ * Rows with the same key are the same row. With a version column, the row is changed if versions differ, otherwise
+ * it's considered unchanged. Operations are dispatched in the order of removals, moves, insertions and changes,
+ * positions are relative to the list after previous operations applied, as {@code RecyclerView.Adapter} expects.
+ * Moves are minimal, rows in longest increasing subsequence stay.
+ * <p>
+ * Created by mariotaku on 16/5/13.
+ */
+public final class CursorDiff {
+
+    private static final int OP_REMOVE = 0;
+    private static final int OP_MOVE = 1;
+    private static final int OP_INSERT = 2;
+    private static final int OP_CHANGE = 3;
+
+    private final int[] mOldToNew;
+    private final int[] mNewToOld;
+    private final int mCarriedOver;
+    // Operations, 3 ints each: type, position (or from), count (or to)
+    private int[] mOps = new int[24];
+    private int mOpsSize;
+
+    CursorDiff(int[] oldToNew, int[] newToOld, boolean[] changed, int carriedOver) {
+        mOldToNew = oldToNew;
+        mNewToOld = newToOld;
+        mCarriedOver = carriedOver;
+        addRemovals();
+        addMoves();
+        addInsertions();
+        addChanges(changed);
+    }
+
+    /**
+     * Same as {@link #calculate(ObjectCursor, ObjectCursor, boolean)}, cached rows are carried over
+     */
+    public static <E> CursorDiff calculate(ObjectCursor<E> oldList, ObjectCursor<E> newList) {
+        return calculate(oldList, newList, true);
+    }
+
+    /**
+     * @param carryOverCache Put cached objects of unchanged rows from {@code oldList} into cache of
+     *                       {@code newList}, so they're not parsed again. Objects are shared, don't modify them
+     *                       through {@code oldList} afterwards.
+     * @throws IllegalArgumentException If class has no key column, or key column is not in projection
+     */
+    public static <E> CursorDiff calculate(ObjectCursor<E> oldList, ObjectCursor<E> newList, boolean carryOverCache) {
+        final int oldCount = oldList.size(), newCount = newList.size();
+        final long[] oldKeys = new long[oldCount], newKeys = new long[newCount];
+        final long[] oldVersions = new long[oldCount], newVersions = new long[newCount];
+        final boolean hasVersion = readKeys(oldList, oldKeys, oldVersions) & readKeys(newList, newKeys, newVersions);
+
+        final int[] oldToNew = new int[oldCount], newToOld = new int[newCount];
+        Arrays.fill(oldToNew, -1);
+        Arrays.fill(newToOld, -1);
+        final LongIntMap oldPositions = new LongIntMap(oldCount);
+        for (int i = 0; i < oldCount; i++) {
+            // First occurrence wins for duplicated keys
+            oldPositions.putIfAbsent(oldKeys[i], i);
+        }
+        final boolean[] changed = new boolean[newCount];
+        final boolean carryOver = carryOverCache && oldList.isUsingCache() && newList.isUsingCache();
+        int carriedOver = 0;
+        for (int newPosition = 0; newPosition < newCount; newPosition++) {
+            final int oldPosition = oldPositions.get(newKeys[newPosition]);
+            if (oldPosition == -1 || oldToNew[oldPosition] != -1) continue;
+            oldToNew[oldPosition] = newPosition;
+            newToOld[newPosition] = oldPosition;
+            changed[newPosition] = hasVersion && oldVersions[oldPosition] != newVersions[newPosition];
+            if (!carryOver || changed[newPosition]) continue;
+            final E cached = oldList.getCached(oldPosition);
+            if (cached != null && newList.putPrefetched(newPosition, cached)) {
+                carriedOver++;
+            }
+        }
+        return new CursorDiff(oldToNew, newToOld, changed, carriedOver);
+    }
+
+    /**
+     * @return True if both lists have a version column in projection
+     */
+    private static boolean readKeys(ObjectCursor<?> list, long[] keys, long[] versions) {
+        final ObjectCursor.CursorIndices<?> indices = list.getIndices();
+        if (!(indices instanceof ObjectCursor.KeyedCursorIndices)) {
+            throw new IllegalArgumentException(indices.getClass().getName() + " has no key column");
+        }
+        final int keyIndex = ((ObjectCursor.KeyedCursorIndices<?>) indices).getKeyIndex();
+        final int versionIndex = ((ObjectCursor.KeyedCursorIndices<?>) indices).getVersionIndex();
+        if (keyIndex == -1) throw new IllegalArgumentException("Key column is not in projection");
+        // Same lock ObjectCursor uses for its cursor
+        synchronized (list) {
+            final Cursor cursor = list.getCursor();
+            for (int i = 0, j = keys.length; i < j; i++) {
+                if (!cursor.moveToPosition(i)) break;
+                keys[i] = cursor.getLong(keyIndex);
+                if (versionIndex != -1) {
+                    versions[i] = cursor.getLong(versionIndex);
+                }
+            }
+        }
+        return versionIndex != -1;
+    }
+
+    /**
+     * @return Position of row in new list, or -1 if removed
+     */
+    public int getNewPosition(int oldPosition) {
+        return mOldToNew[oldPosition];
+    }
+
+    /**
+     * @return Position of row in old list, or -1 if inserted
+     */
+    public int getOldPosition(int newPosition) {
+        return mNewToOld[newPosition];
+    }
+
+    /**
+     * @return Number of cached objects put into new list
+     */
+    public int getCarriedOverCount() {
+        return mCarriedOver;
+    }
+
+    public boolean isEmpty() {
+        return mOpsSize == 0;
+    }
+
+    public void dispatchUpdatesTo(Callback callback) {
+        for (int i = 0; i < mOpsSize; i += 3) {
+            switch (mOps[i]) {
+                case OP_REMOVE: {
+                    callback.onRemoved(mOps[i + 1], mOps[i + 2]);
+                    break;
+                }
+                case OP_MOVE: {
+                    callback.onMoved(mOps[i + 1], mOps[i + 2]);
+                    break;
+                }
+                case OP_INSERT: {
+                    callback.onInserted(mOps[i + 1], mOps[i + 2]);
+                    break;
+                }
+                case OP_CHANGE: {
+                    callback.onChanged(mOps[i + 1], mOps[i + 2]);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Removals from last row, so positions of earlier rows are still valid
+     */
+    private void addRemovals() {
+        int end = -1;
+        for (int i = mOldToNew.length - 1; i >= 0; i--) {
+            if (mOldToNew[i] == -1) {
+                if (end == -1) {
+                    end = i;
+                }
+            } else if (end != -1) {
+                addOp(OP_REMOVE, i + 1, end - i);
+                end = -1;
+            }
+        }
+        if (end != -1) {
+            addOp(OP_REMOVE, 0, end + 1);
+        }
+    }
+
+    /**
+     * Kept rows in old order, reordered to new order. Rows in longest increasing subsequence of new positions stay,
+     * others are moved after the nearest settled row before them.
+     * <p>
+     * Settled rows are always in new order, and a row not moved yet stays right before the same settled row, as
+     * moved rows are put right after their predecessor. So positions are counted with Fenwick trees instead of
+     * shifting a list, in {@code O(n log n)}.
+     */
+    private void addMoves() {
+        final int newCount = mNewToOld.length;
+        // New positions of kept rows, in old order
+        final int[] current = new int[mOldToNew.length];
+        int size = 0;
+        for (int newPosition : mOldToNew) {
+            if (newPosition != -1) {
+                current[size++] = newPosition;
+            }
+        }
+        final boolean[] settled = new boolean[newCount];
+        final int[] lis = longestIncreasingSubsequence(current, size);
+        for (int newPosition : lis) {
+            settled[newPosition] = true;
+        }
+        // Settled rows by new position
+        final FenwickTree settledTree = new FenwickTree(newCount);
+        // Unsettled rows by index in old order, and by new position of settled row following them (newCount if none)
+        final FenwickTree unsettledTree = new FenwickTree(size);
+        final FenwickTree followingTree = new FenwickTree(newCount + 1);
+        final int[] indexOf = new int[newCount];
+        final int[] following = new int[size];
+        int next = newCount;
+        for (int i = size - 1; i >= 0; i--) {
+            final int newPosition = current[i];
+            indexOf[newPosition] = i;
+            if (settled[newPosition]) {
+                settledTree.add(newPosition, 1);
+                next = newPosition;
+            } else {
+                unsettledTree.add(i, 1);
+                followingTree.add(next, 1);
+                following[i] = next;
+            }
+        }
+        for (int newPosition = 0; newPosition < newCount; newPosition++) {
+            if (mNewToOld[newPosition] == -1 || settled[newPosition]) continue;
+            final int index = indexOf[newPosition];
+            final int from = settledTree.count(following[index]) + unsettledTree.count(index);
+            unsettledTree.add(index, -1);
+            followingTree.add(following[index], -1);
+            // Every kept row before it is settled, it goes after them and before unsettled rows following them
+            final int to = settledTree.count(newPosition) + followingTree.count(newPosition);
+            settledTree.add(newPosition, 1);
+            settled[newPosition] = true;
+            if (from != to) {
+                addOp(OP_MOVE, from, to);
+            }
+        }
+    }
+
+    private void addInsertions() {
+        int start = -1;
+        for (int i = 0, j = mNewToOld.length; i <= j; i++) {
+            final boolean inserted = i < j && mNewToOld[i] == -1;
+            if (inserted && start == -1) {
+                start = i;
+            } else if (!inserted && start != -1) {
+                addOp(OP_INSERT, start, i - start);
+                start = -1;
+            }
+        }
+    }
+
+    private void addChanges(boolean[] changed) {
+        int start = -1;
+        for (int i = 0, j = changed.length; i <= j; i++) {
+            final boolean isChanged = i < j && changed[i];
+            if (isChanged && start == -1) {
+                start = i;
+            } else if (!isChanged && start != -1) {
+                addOp(OP_CHANGE, start, i - start);
+                start = -1;
+            }
+        }
+    }
+
+    private void addOp(int type, int a, int b) {
+        if (mOpsSize + 3 > mOps.length) {
+            mOps = Arrays.copyOf(mOps, mOps.length * 2);
+        }
+        mOps[mOpsSize++] = type;
+        mOps[mOpsSize++] = a;
+        mOps[mOpsSize++] = b;
+    }
+
+    /**
+     * @return Values of longest strictly increasing subsequence of {@code values[0, size)}
+     */
+    static int[] longestIncreasingSubsequence(int[] values, int size) {
+        // tails[k]: index of smallest tail of increasing subsequences with length k + 1
+        final int[] tails = new int[size];
+        final int[] previous = new int[size];
+        int length = 0;
+        for (int i = 0; i < size; i++) {
+            int low = 0, high = length;
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                if (values[tails[mid]] < values[i]) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            previous[i] = low > 0 ? tails[low - 1] : -1;
+            tails[low] = i;
+            if (low == length) {
+                length++;
+            }
+        }
+        final int[] result = new int[length];
+        for (int i = length - 1, k = length > 0 ? tails[length - 1] : -1; i >= 0; i--, k = previous[k]) {
+            result[i] = values[k];
+        }
+        return result;
+    }
+
+    private static final class FenwickTree {
+
+        private final int[] mTree;
+
+        FenwickTree(int size) {
+            mTree = new int[size + 1];
+        }
+
+        void add(int index, int delta) {
+            for (int i = index + 1; i < mTree.length; i += i & -i) {
+                mTree[i] += delta;
+            }
+        }
+
+        /**
+         * @return Sum of values in {@code [0, end)}
+         */
+        int count(int end) {
+            int sum = 0;
+            for (int i = end; i > 0; i -= i & -i) {
+                sum += mTree[i];
+            }
+            return sum;
+        }
+    }
+
+    /**
+     * Same as {@code ListUpdateCallback} of RecyclerView
+     */
+    public interface Callback {
+
+        void onInserted(int position, int count);
+
+        void onRemoved(int position, int count);
+
+        void onMoved(int fromPosition, int toPosition);
+
+        void onChanged(int position, int count);
+    }
+}
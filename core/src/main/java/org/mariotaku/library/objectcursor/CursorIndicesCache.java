@@ -0,0 +1,91 @@
+package org.mariotaku.library.objectcursor;
+
+import android.database.Cursor;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reuses resolved {@link ObjectCursor.CursorIndices} for cursors with identical column names, so one instance can be
+ * shared by any number of cursors with the same projection. Cached indices are
+ * {@link ObjectCursor.CursorIndices#markShared() marked shared}, rebinding them or setting their string pool throws
+ * {@link IllegalStateException}.
+ * <p>
+ * Created by mariotaku on 16/5/8.
+ */
+public class CursorIndicesCache {
+
+    public static final int DEFAULT_SCHEMAS_PER_CLASS = 4;
+
+    private static final CursorIndicesCache DEFAULT = new CursorIndicesCache(DEFAULT_SCHEMAS_PER_CLASS);
+
+    private final Map<Class<?>, Entry[]> mEntries;
+    private final int mSchemasPerClass;
+    private int mHitCount, mMissCount;
+
+    /**
+     * @param schemasPerClass Number of different projections remembered for each class
+     */
+    public CursorIndicesCache(int schemasPerClass) {
+        if (schemasPerClass < 1) throw new IllegalArgumentException("schemasPerClass < 1");
+        mEntries = new HashMap<>();
+        mSchemasPerClass = schemasPerClass;
+    }
+
+    public static CursorIndicesCache getDefault() {
+        return DEFAULT;
+    }
+
+    public <T> ObjectCursor.CursorIndices<T> get(Cursor cursor, Class<T> cls) {
+        final String[] columnNames = cursor.getColumnNames();
+        synchronized (this) {
+            Entry[] entries = mEntries.get(cls);
+            if (entries == null) {
+                entries = new Entry[mSchemasPerClass];
+                mEntries.put(cls, entries);
+            }
+            for (int i = 0; i < entries.length; i++) {
+                final Entry entry = entries[i];
+                if (entry == null) break;
+                if (entry.columnNames == columnNames || Arrays.equals(entry.columnNames, columnNames)) {
+                    // Move to front, most recently used schema will be compared first
+                    System.arraycopy(entries, 0, entries, 1, i);
+                    entries[0] = entry;
+                    mHitCount++;
+                    //noinspection unchecked
+                    return (ObjectCursor.CursorIndices<T>) entry.indices;
+                }
+            }
+            mMissCount++;
+            final ObjectCursor.CursorIndices<T> indices = ObjectCursor.indicesFrom(cursor, cls);
+            indices.markShared();
+            // Least recently used one will be dropped if full
+            System.arraycopy(entries, 0, entries, 1, entries.length - 1);
+            entries[0] = new Entry(columnNames, indices);
+            return indices;
+        }
+    }
+
+    public synchronized void clear() {
+        mEntries.clear();
+    }
+
+    public synchronized int hitCount() {
+        return mHitCount;
+    }
+
+    public synchronized int missCount() {
+        return mMissCount;
+    }
+
+    private static class Entry {
+        final String[] columnNames;
+        final ObjectCursor.CursorIndices<?> indices;
+
+        Entry(String[] columnNames, ObjectCursor.CursorIndices<?> indices) {
+            this.columnNames = columnNames;
+            this.indices = indices;
+        }
+    }
+}
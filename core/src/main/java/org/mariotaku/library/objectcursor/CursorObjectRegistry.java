@@ -0,0 +1,27 @@
+package org.mariotaku.library.objectcursor;
+
+import android.database.Cursor;
+
+/**
+ * Maps {@code @CursorObject} classes to their generated companions without reflection. Annotation processor generates
+ * one implementation per compilation, register it with {@link ObjectCursor#register(CursorObjectRegistry)} on start.
+ * <p>
+ * All methods return null for unknown classes.
+ * <p>
+ * Created by mariotaku on 16/5/9.
+ */
+public interface CursorObjectRegistry {
+
+    <T> ObjectCursor.CursorIndices<T> newIndices(Class<T> cls, Cursor cursor);
+
+    <T> ObjectCursor.ValuesCreator<T> getValuesCreator(Class<T> cls);
+
+    <T> ObjectCursor.StatementBinder<T> getStatementBinder(Class<T> cls);
+
+    <T> ObjectCursor.RowCodec<T> getRowCodec(Class<T> cls);
+
+    <T> ObjectCursor.BufferCodec<T> getBufferCodec(Class<T> cls);
+
+    ObjectCursor.TableInfo getTableInfo(Class<?> cls);
+
+}
@@ -0,0 +1,122 @@
+package org.mariotaku.library.objectcursor;
+
+import org.mariotaku.library.objectcursor.internal.Snapshots;
+
+import java.util.Arrays;
+
+/**
+ * Column values of a {@link org.mariotaku.library.objectcursor.annotation.CursorObject#trackChanges() change tracked}
+ * object, as read from cursor. Primitive fields are kept in a {@code long[]} ({@code double} as its bits,
+ * {@code boolean} as 1 or 0), so are fields with primitive converters, which may hold {@code NULL} as well.
+ * Everything else is in an {@code Object[]}. Slots are assigned by generated code.
+ * <p>
+ * A slot is absent until it's read, columns not in cursor projection stay absent and are never written by
+ * {@link ObjectCursor.ValuesCreator#writeChangedTo(Object, android.content.ContentValues)}.
+ * <p>
+ * Created by mariotaku on 16/5/12.
+ */
+public final class CursorSnapshot {
+
+    private static final Object ABSENT = new Object();
+
+    private final long[] mLongs;
+    private final long[] mLongsPresent;
+    private final long[] mLongsNull;
+    private final Object[] mObjects;
+
+    public CursorSnapshot(int longCount, int objectCount) {
+        mLongs = new long[longCount];
+        mLongsPresent = new long[(longCount + 63) >> 6];
+        mLongsNull = new long[mLongsPresent.length];
+        mObjects = new Object[objectCount];
+        Arrays.fill(mObjects, ABSENT);
+    }
+
+    private CursorSnapshot(CursorSnapshot from) {
+        mLongs = from.mLongs.clone();
+        mLongsPresent = from.mLongsPresent.clone();
+        mLongsNull = from.mLongsNull.clone();
+        mObjects = from.mObjects.clone();
+    }
+
+    /**
+     * @return Snapshot with the same values, values are not copied as they're never modified
+     */
+    public CursorSnapshot copy() {
+        return new CursorSnapshot(this);
+    }
+
+    public void putLong(int slot, long value) {
+        mLongs[slot] = value;
+        mLongsPresent[slot >> 6] |= 1L << slot;
+        mLongsNull[slot >> 6] &= ~(1L << slot);
+    }
+
+    /**
+     * Marks slot as present and {@code NULL}, for fields with primitive converters
+     */
+    public void putLongNull(int slot) {
+        mLongs[slot] = 0;
+        mLongsPresent[slot >> 6] |= 1L << slot;
+        mLongsNull[slot >> 6] |= 1L << slot;
+    }
+
+    public void putDouble(int slot, double value) {
+        // Compare bits so NaN equals to itself
+        putLong(slot, Double.doubleToLongBits(value));
+    }
+
+    public void putBoolean(int slot, boolean value) {
+        putLong(slot, value ? 1 : 0);
+    }
+
+    public void putObject(int slot, Object value) {
+        mObjects[slot] = value;
+    }
+
+    public boolean hasLong(int slot) {
+        return (mLongsPresent[slot >> 6] & (1L << slot)) != 0;
+    }
+
+    public boolean hasObject(int slot) {
+        return mObjects[slot] != ABSENT;
+    }
+
+    /**
+     * @return Value in slot, null if absent
+     */
+    public Object getObject(int slot) {
+        final Object value = mObjects[slot];
+        return value != ABSENT ? value : null;
+    }
+
+    /**
+     * @return True if slot is present and holds a different value or {@code NULL}
+     */
+    public boolean isLongChanged(int slot, long value) {
+        return hasLong(slot) && (isLongNull(slot) || mLongs[slot] != value);
+    }
+
+    /**
+     * @return True if slot is present and holds a value other than {@code NULL}
+     */
+    public boolean isLongNullChanged(int slot) {
+        return hasLong(slot) && !isLongNull(slot);
+    }
+
+    public boolean isDoubleChanged(int slot, double value) {
+        return isLongChanged(slot, Double.doubleToLongBits(value));
+    }
+
+    public boolean isBooleanChanged(int slot, boolean value) {
+        return isLongChanged(slot, value ? 1 : 0);
+    }
+
+    private boolean isLongNull(int slot) {
+        return (mLongsNull[slot >> 6] & (1L << slot)) != 0;
+    }
+
+    public boolean isObjectChanged(int slot, Object value) {
+        return hasObject(slot) && Snapshots.changed(mObjects[slot], value);
+    }
+}
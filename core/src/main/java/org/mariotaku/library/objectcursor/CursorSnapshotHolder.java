@@ -0,0 +1,21 @@
+package org.mariotaku.library.objectcursor;
+
+/**
+ * Implemented by {@link org.mariotaku.library.objectcursor.annotation.CursorObject#trackChanges() change tracked}
+ * objects, generated {@code CursorIndices} stores column values read from cursor here, and
+ * {@link ObjectCursor.ValuesCreator#writeChangedTo(Object, android.content.ContentValues)} compares against it.
+ * <p>
+ * Usually backed by a {@code transient} field.
+ * <p>
+ * Created by mariotaku on 16/5/12.
+ */
+public interface CursorSnapshotHolder {
+
+    CursorSnapshot getCursorSnapshot();
+
+    /**
+     * @param snapshot Snapshot of current values, or null to treat every column as changed
+     */
+    void setCursorSnapshot(CursorSnapshot snapshot);
+
+}
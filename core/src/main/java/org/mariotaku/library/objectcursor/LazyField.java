@@ -0,0 +1,136 @@
+package org.mariotaku.library.objectcursor;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+
+import org.mariotaku.library.objectcursor.converter.CursorFieldConverter;
+import org.mariotaku.library.objectcursor.internal.BufferRecords;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+
+/**
+ * Holder of a {@link org.mariotaku.library.objectcursor.annotation.CursorField#lazy() lazy} field.
+ * <p>
+ * Generated {@code parseFields} only captures raw column value ({@code String} or {@code byte[]}),
+ * converter runs when {@link #get()} is called for the first time. Unread value is written back
+ * as-is, so rows never opened never pay for decoding.
+ * <p>
+ * Created by mariotaku on 16/5/12.
+ */
+public final class LazyField<T> {
+
+    private final CursorFieldConverter<T> mConverter;
+    private final ParameterizedType mFieldType;
+    private Object mRawValue;
+    private T mValue;
+    private boolean mHydrated;
+
+    private LazyField(CursorFieldConverter<T> converter, ParameterizedType fieldType, Object rawValue) {
+        mConverter = converter;
+        mFieldType = fieldType;
+        mRawValue = rawValue;
+    }
+
+    /**
+     * Creates an already hydrated field, for objects not read from cursor
+     */
+    public LazyField(T value) {
+        mConverter = null;
+        mFieldType = null;
+        mValue = value;
+        mHydrated = true;
+    }
+
+    public static <T> LazyField<T> capture(Cursor cursor, int columnIndex, CursorFieldConverter<T> converter,
+                                           ParameterizedType fieldType) {
+        final Object rawValue;
+        switch (cursor.getType(columnIndex)) {
+            case Cursor.FIELD_TYPE_NULL: {
+                rawValue = null;
+                break;
+            }
+            case Cursor.FIELD_TYPE_BLOB: {
+                rawValue = cursor.getBlob(columnIndex);
+                break;
+            }
+            default: {
+                rawValue = cursor.getString(columnIndex);
+                break;
+            }
+        }
+        return new LazyField<>(converter, fieldType, rawValue);
+    }
+
+    /**
+     * Creates an unhydrated field from column value stored elsewhere (e.g. a snapshot), numbers are kept as text
+     * like {@link #capture(Cursor, int, CursorFieldConverter, ParameterizedType)} does
+     */
+    public static <T> LazyField<T> fromRawValue(CursorFieldConverter<T> converter, ParameterizedType fieldType,
+                                                Object rawValue) {
+        if (rawValue != null && !(rawValue instanceof byte[])) {
+            rawValue = rawValue.toString();
+        }
+        return new LazyField<>(converter, fieldType, rawValue);
+    }
+
+    /**
+     * Returns field value, parses it with converter on first call
+     */
+    public synchronized T get() throws IOException {
+        if (!mHydrated) {
+            mValue = parseRawValue();
+            // Value object may be modified from now on, raw value is stale
+            mRawValue = null;
+            mHydrated = true;
+        }
+        return mValue;
+    }
+
+    public synchronized void set(T value) {
+        mValue = value;
+        mRawValue = null;
+        mHydrated = true;
+    }
+
+    public synchronized boolean isHydrated() {
+        return mHydrated;
+    }
+
+    /**
+     * @return Captured column value, {@code String}, {@code byte[]} or null. Always null after hydrated.
+     */
+    public synchronized Object getRawValue() {
+        return mRawValue;
+    }
+
+    /**
+     * Writes this field to {@code values}. Raw value is copied directly if never hydrated,
+     * otherwise {@code converter} is used.
+     */
+    public synchronized void writeTo(ContentValues values, String columnName, CursorFieldConverter<T> converter,
+                                     ParameterizedType fieldType) throws IOException {
+        if (mHydrated) {
+            converter.writeField(values, mValue, columnName, fieldType);
+        } else if (mRawValue instanceof byte[]) {
+            values.put(columnName, (byte[]) mRawValue);
+        } else if (mRawValue != null) {
+            values.put(columnName, (String) mRawValue);
+        } else {
+            values.putNull(columnName);
+        }
+    }
+
+    private T parseRawValue() throws IOException {
+        // NULL goes through converter too, same as eager parsing
+        return BufferRecords.parseRaw(mConverter, mRawValue, mFieldType);
+    }
+
+    @Override
+    public String toString() {
+        return "LazyField{" +
+                "hydrated=" + mHydrated +
+                ", value=" + mValue +
+                '}';
+    }
+}
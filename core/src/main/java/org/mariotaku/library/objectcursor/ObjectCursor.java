@@ -22,47 +22,153 @@ package org.mariotaku.library.objectcursor;
 import android.content.ContentValues;
 import android.database.Cursor;
 import android.database.CursorIndexOutOfBoundsException;
-import android.util.SparseArray;
+import android.database.CursorWindow;
+import android.database.sqlite.SQLiteStatement;
+
+import org.mariotaku.library.objectcursor.cache.AtomicRowCache;
+import org.mariotaku.library.objectcursor.cache.RecordReader;
+import org.mariotaku.library.objectcursor.cache.RecordWriter;
+import org.mariotaku.library.objectcursor.cache.RowCache;
+import org.mariotaku.library.objectcursor.cache.SparseRowCache;
+import org.mariotaku.library.objectcursor.cache.StringPool;
+import org.mariotaku.library.objectcursor.cache.ThreadSafeRowCache;
+import org.mariotaku.library.objectcursor.internal.LongIntMap;
+import org.mariotaku.library.objectcursor.internal.WindowCursor;
+import org.mariotaku.library.objectcursor.metrics.CursorMetrics;
+import org.mariotaku.library.objectcursor.metrics.Metrics;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.nio.ByteBuffer;
 import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 
 /**
  * Created by mariotaku on 15/7/5.
  */
 public class ObjectCursor<E> extends AbstractList<E> implements Closeable {
 
+    private static final List<CursorObjectRegistry> sRegistries = new CopyOnWriteArrayList<>();
+    private static final Map<Class<?>, Constructor<?>> sIndicesConstructors = new ConcurrentHashMap<>();
+    private static final Map<String, Object> sGeneratedInstances = new ConcurrentHashMap<>();
+
     private final Cursor mCursor;
     private final CursorIndices<E> mIndices;
-    private final SparseArray<E> mCache;
+    private final RowCache<E> mCache;
     private final boolean mUseCache;
+    private final boolean mConcurrent;
+
+    private volatile boolean mClosed;
+    private volatile int mCount = -1;
+    private volatile RowPrefetcher<E> mPrefetcher;
+
+    private final long mCreatedNanos = System.nanoTime();
+    private volatile Class<?> mObjectClass;
+    private int mRowsMaterialized;
+    // Key to position index, built on first key lookup
+    private LongIntMap mKeyIndex;
 
     public ObjectCursor(Cursor cursor, CursorIndices<E> indies) {
         this(cursor, indies, false);
     }
 
+    /**
+     * @param useCache If true, every materialized row will be kept until this list is closed
+     */
     public ObjectCursor(Cursor cursor, CursorIndices<E> indies, boolean useCache) {
+        this(cursor, indies, new SparseRowCache<E>(), useCache);
+    }
+
+    /**
+     * @param cache Cache policy for materialized rows, e.g.
+     *              {@link org.mariotaku.library.objectcursor.cache.LruRowCache}. With a
+     *              {@link ThreadSafeRowCache}, this list works in concurrent mode: cached rows, size and closed state
+     *              are read without locking.
+     */
+    public ObjectCursor(Cursor cursor, CursorIndices<E> indies, RowCache<E> cache) {
+        this(cursor, indies, cache, true);
+    }
+
+    /**
+     * Creates a list with its own indices, {@code dedup} fields are read with {@code pool}. Pool of other cursors,
+     * e.g. ones using {@link #cachedIndicesFrom(Cursor, Class)}, stays unchanged.
+     */
+    public ObjectCursor(Cursor cursor, Class<E> cls, StringPool pool) {
+        this(cursor, indicesFrom(cursor, cls, pool), false);
+    }
+
+    private ObjectCursor(Cursor cursor, CursorIndices<E> indies, RowCache<E> cache, boolean useCache) {
+        if (cache == null) throw new NullPointerException();
         mCursor = cursor;
         mIndices = indies;
-        mCache = new SparseArray<>();
+        mCache = cache;
         mUseCache = useCache;
+        mConcurrent = cache instanceof ThreadSafeRowCache;
+    }
+
+    /**
+     * Creates a list in concurrent mode, backed by an {@link AtomicRowCache}
+     */
+    public static <T> ObjectCursor<T> concurrent(Cursor cursor, CursorIndices<T> indices) {
+        return new ObjectCursor<>(cursor, indices, new AtomicRowCache<T>(cursor.getCount()));
     }
 
     @Override
     public E get(final int location) {
-        ensureCursor();
+        final E object = getInternal(location);
+        final RowPrefetcher<E> prefetcher = mPrefetcher;
+        if (prefetcher != null) {
+            prefetcher.onAccess(location, size());
+        }
+        return object;
+    }
+
+    private E getInternal(final int location) {
+        final CursorMetrics metrics = Metrics.get();
+        if (mConcurrent) {
+            if (mClosed) throw new IllegalStateException("Cursor is closed");
+            final E cached = mCache.get(location);
+            if (cached != null) {
+                if (metrics.isEnabled()) {
+                    metrics.onCacheHit(cached.getClass());
+                }
+                return cached;
+            }
+        }
         synchronized (this) {
-            final int idxOfCache = mCache.indexOfKey(location);
-            if (idxOfCache >= 0) return mCache.valueAt(idxOfCache);
+            checkCursor();
+            // Another thread may have parsed this row while we are waiting for lock, miss is counted already
+            final E cached = mConcurrent ? ((ThreadSafeRowCache<E>) mCache).peek(location) : mCache.get(location);
+            if (cached != null) {
+                if (metrics.isEnabled()) {
+                    metrics.onCacheHit(cached.getClass());
+                }
+                return cached;
+            }
             if (mCursor.moveToPosition(location)) {
                 final E object;
+                final long start = metrics.isEnabled() ? System.nanoTime() : 0;
                 try {
                     object = get(mCursor, mIndices);
                 } catch (IOException e) {
                     throw new RuntimeException(e);
                 }
-                if (mUseCache) {
+                mRowsMaterialized++;
+                if (metrics.isEnabled() && object != null) {
+                    final Class<?> objectClass = object.getClass();
+                    metrics.onRowMaterialized(objectClass, System.nanoTime() - start);
+                    metrics.onCacheMiss(objectClass);
+                    mObjectClass = objectClass;
+                }
+                // Null row is parsed again next time, caches may not accept null
+                if (mUseCache && object != null) {
                     mCache.put(location, object);
                 }
                 return object;
@@ -73,6 +179,16 @@ public class ObjectCursor<E> extends AbstractList<E> implements Closeable {
 
     @Override
     public int size() {
+        if (mConcurrent) {
+            int count = mCount;
+            if (count < 0) {
+                synchronized (this) {
+                    count = mCursor.getCount();
+                }
+                mCount = count;
+            }
+            return count;
+        }
         synchronized (this) {
             return mCursor.getCount();
         }
@@ -80,11 +196,15 @@ public class ObjectCursor<E> extends AbstractList<E> implements Closeable {
 
     @Override
     public E set(int index, E element) {
-        mCache.put(index, element);
+        synchronized (this) {
+            mCache.put(index, element);
+        }
         return element;
     }
 
     public boolean isClosed() {
+        if (mClosed) return true;
+        if (mConcurrent) return false;
         synchronized (this) {
             return mCursor.isClosed();
         }
@@ -92,25 +212,82 @@ public class ObjectCursor<E> extends AbstractList<E> implements Closeable {
 
     @Override
     public void close() {
+        disablePrefetch();
         synchronized (this) {
+            final boolean wasClosed = mClosed;
+            mClosed = true;
             mCursor.close();
+            mCache.clear();
+            mKeyIndex = null;
+            final CursorMetrics metrics = Metrics.get();
+            if (!wasClosed && metrics.isEnabled()) {
+                final Class<?> objectClass = mObjectClass;
+                metrics.onCursorClosed(objectClass != null ? objectClass : mIndices.getClass(),
+                        System.nanoTime() - mCreatedNanos, mRowsMaterialized);
+            }
+        }
+    }
+
+    /**
+     * Call this from {@link android.content.ComponentCallbacks2#onTrimMemory(int)} to release cached rows
+     */
+    public void onTrimMemory(int level) {
+        synchronized (this) {
+            mCache.trimMemory(level);
+        }
+    }
+
+    /**
+     * Parses up to {@code distance} rows ahead of {@link #get(int)} in scroll direction on {@code executor}, so most
+     * rows are already in cache when requested. Prefetching stops when this list is closed.
+     * <p>
+     * Rows failed to parse are left to {@link #get(int)}, which throws as usual. Other errors, e.g. from the
+     * underlying cursor, stop prefetching and are thrown on the executor thread.
+     * <p>
+     * {@link #get(Cursor, CursorIndices)} will be called from threads of {@code executor}, see
+     * {@link #toList(Executor, int)}.
+     */
+    public void enablePrefetch(final Executor executor, final int distance) {
+        if (executor == null) throw new NullPointerException();
+        if (!mUseCache) throw new IllegalStateException("Prefetch requires cache");
+        ensureCursor();
+        final RowPrefetcher<E> prefetcher = new RowPrefetcher<>(this, executor, distance);
+        synchronized (this) {
+            if (mPrefetcher != null) {
+                mPrefetcher.cancel();
+            }
+            mPrefetcher = prefetcher;
         }
     }
 
+    public void disablePrefetch() {
+        synchronized (this) {
+            if (mPrefetcher != null) {
+                mPrefetcher.cancel();
+                mPrefetcher = null;
+            }
+        }
+    }
+
+    /**
+     * @return Cache of this list, for hit, miss and eviction counts
+     */
+    public RowCache<E> getCache() {
+        return mCache;
+    }
+
     public CursorIndices<E> getIndices() {
         return mIndices;
     }
 
     public Cursor getCursor() {
         ensureCursor();
-        synchronized (this) {
-            return mCursor;
-        }
+        return mCursor;
     }
 
     public E setInto(final int location, final E object) {
-        ensureCursor();
         synchronized (this) {
+            checkCursor();
             if (mCursor.moveToPosition(location)) {
                 try {
                     mIndices.parseFields(object, mCursor);
@@ -123,35 +300,332 @@ public class ObjectCursor<E> extends AbstractList<E> implements Closeable {
         }
     }
 
+    /**
+     * Finds position of row with {@code key} without parsing any row. Key to position index is built on first call
+     * by reading key column only, so later lookups are O(1). First row wins if keys are duplicated.
+     *
+     * @return Position of row, or -1 if not found
+     * @throws IllegalArgumentException If class has no key column, or key column is not in projection
+     * @see org.mariotaku.library.objectcursor.annotation.CursorField#key()
+     */
+    public int indexOfKey(final long key) {
+        synchronized (this) {
+            checkCursor();
+            if (mKeyIndex == null) {
+                mKeyIndex = buildKeyIndex();
+            }
+            return mKeyIndex.get(key);
+        }
+    }
+
+    /**
+     * @return Object of row with {@code key}, or null if not found
+     * @see #indexOfKey(long)
+     */
+    public E findByKey(final long key) {
+        final int position = indexOfKey(key);
+        if (position < 0) return null;
+        return get(position);
+    }
+
+    /**
+     * Must be called with lock held
+     */
+    private LongIntMap buildKeyIndex() {
+        if (!(mIndices instanceof KeyedCursorIndices)) {
+            throw new IllegalArgumentException(mIndices.getClass().getName() + " has no key column");
+        }
+        final int keyIndex = ((KeyedCursorIndices<E>) mIndices).getKeyIndex();
+        if (keyIndex == -1) throw new IllegalArgumentException("Key column is not in projection");
+        final int count = mCursor.getCount();
+        final LongIntMap index = new LongIntMap(count);
+        for (int position = 0; position < count && mCursor.moveToPosition(position); position++) {
+            index.putIfAbsent(mCursor.getLong(keyIndex), position);
+        }
+        return index;
+    }
+
+    /**
+     * Sequential, forward only iterator. It walks the cursor with {@link Cursor#moveToNext()} and bypasses cache and
+     * lock of this list, so don't use it while other threads are reading this list.
+     */
+    public Iterator<E> forwardIterator() {
+        ensureCursor();
+        return new ForwardIterator<>(this, null);
+    }
+
+    /**
+     * Same as {@link #forwardIterator()}, but every row is parsed into {@code reuse} with
+     * {@link CursorIndices#parseFields(Object, Cursor)}. Returned object is only valid until next call of
+     * {@link Iterator#next()}.
+     */
+    public Iterator<E> forwardIterator(final E reuse) {
+        if (reuse == null) throw new NullPointerException();
+        ensureCursor();
+        return new ForwardIterator<>(this, reuse);
+    }
+
+    /**
+     * Visits rows in order with {@link #forwardIterator()}
+     *
+     * @param reuse Object to parse rows into, or null to create object for every row
+     */
+    public void forEachRow(final E reuse, final RowCallback<? super E> callback) {
+        final Iterator<E> iterator = reuse != null ? forwardIterator(reuse) : forwardIterator();
+        int position = 0;
+        while (iterator.hasNext()) {
+            if (!callback.onRow(position++, iterator.next())) break;
+        }
+    }
+
+    /**
+     * Materializes all rows in at most {@code parallelism} ranges per window, on a thread pool shared by all lists
+     * (one thread per CPU core, idle threads exit). See {@link #toList(Executor, int)}
+     */
+    public List<E> toList(final int parallelism) {
+        return toList(ParallelMaterializer.getDefaultExecutor(), parallelism);
+    }
+
+    /**
+     * Materializes all rows in parallel. Rows are copied into {@link CursorWindow}s and parsed on {@code executor},
+     * split into at most {@code parallelism} ranges per window.
+     * <p>
+     * Cache of this list is neither read nor populated. {@link #get(Cursor, CursorIndices)} will be called from
+     * threads of {@code executor} with the shared {@link CursorIndices}, so it must be thread safe if overridden.
+     */
+    public List<E> toList(final Executor executor, final int parallelism) {
+        ensureCursor();
+        return new ParallelMaterializer<>(this, executor, parallelism).materialize();
+    }
+
+    /**
+     * Not counted as cache hit or miss
+     */
+    boolean isCached(final int position) {
+        if (mConcurrent) return mCache.contains(position);
+        synchronized (this) {
+            return mCache.contains(position);
+        }
+    }
+
+    boolean isUsingCache() {
+        return mUseCache;
+    }
+
+    E getCached(final int position) {
+        if (mConcurrent) return mCache.get(position);
+        synchronized (this) {
+            return mCache.get(position);
+        }
+    }
+
+    /**
+     * @return False if this list is closed
+     */
+    boolean putPrefetched(final int position, final E object) {
+        synchronized (this) {
+            if (mClosed) return false;
+            // Reader may have parsed this row already, keep returned instance
+            if (object != null && !mCache.contains(position)) {
+                mCache.put(position, object);
+            }
+            return true;
+        }
+    }
+
+    CursorWindow fillWindow(final int position) {
+        synchronized (this) {
+            checkCursor();
+            return WindowCursor.fill(mCursor, position);
+        }
+    }
+
+    /**
+     * Copies rows following last row of {@code window}, list is locked only while copying this chunk
+     *
+     * @return Number of rows copied, less than {@code maxRows} if window is full or there are no more rows
+     */
+    int appendRows(final CursorWindow window, final int maxRows) {
+        synchronized (this) {
+            checkCursor();
+            return WindowCursor.appendRows(mCursor, window, maxRows);
+        }
+    }
+
     protected E get(final Cursor cursor, final CursorIndices<E> indices) throws IOException {
         return indices.newObject(cursor);
     }
 
     private void ensureCursor() {
+        if (mClosed) throw new IllegalStateException("Cursor is closed");
+        if (mConcurrent) return;
         synchronized (this) {
-            if (mCursor.isClosed()) throw new IllegalStateException("Cursor is closed");
+            checkCursor();
+        }
+    }
+
+    /**
+     * Must be called with lock held
+     */
+    private void checkCursor() {
+        if (mClosed || mCursor.isClosed()) throw new IllegalStateException("Cursor is closed");
+    }
+
+    /**
+     * Registers generated registry, it will be consulted before looking up generated classes with reflection
+     */
+    public static void register(CursorObjectRegistry registry) {
+        if (registry == null) throw new NullPointerException();
+        if (!sRegistries.contains(registry)) {
+            sRegistries.add(registry);
         }
     }
 
     public static <T> CursorIndices<T> indicesFrom(Cursor cursor, Class<T> cls) {
+        for (CursorObjectRegistry registry : sRegistries) {
+            final CursorIndices<T> indices = registry.newIndices(cls, cursor);
+            if (indices != null) return indices;
+        }
         try {
+            Constructor<?> constructor = sIndicesConstructors.get(cls);
+            if (constructor == null) {
+                constructor = Class.forName(cls.getName() + CursorIndices.CURSOR_INDICES_SUFFIX)
+                        .getConstructor(Cursor.class);
+                sIndicesConstructors.put(cls, constructor);
+            }
             //noinspection unchecked
-            Class<CursorIndices<T>> indicesClass = (Class<CursorIndices<T>>)
-                    Class.forName(cls.getName() + CursorIndices.CURSOR_INDICES_SUFFIX);
-            return indicesClass.getConstructor(Cursor.class).newInstance(cursor);
+            return (CursorIndices<T>) constructor.newInstance(cursor);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
     }
 
+    private static <T> CursorIndices<T> indicesFrom(Cursor cursor, Class<T> cls, StringPool pool) {
+        if (pool == null) throw new NullPointerException();
+        final CursorIndices<T> indices = indicesFrom(cursor, cls);
+        indices.setStringPool(pool);
+        return indices;
+    }
+
+    /**
+     * Same as {@link #indicesFrom(Cursor, Class)}, but returns shared instance if a cursor with same column names
+     * was seen before, see {@link CursorIndicesCache}. Returned instance can't be changed, use
+     * {@link #indicesFrom(Cursor, Class)} to rebind or set string pool.
+     */
+    public static <T> CursorIndices<T> cachedIndicesFrom(Cursor cursor, Class<T> cls) {
+        return CursorIndicesCache.getDefault().get(cursor, cls);
+    }
+
     public static <T> ValuesCreator<T> valuesCreatorFrom(Class<T> cls) {
+        for (CursorObjectRegistry registry : sRegistries) {
+            final ValuesCreator<T> creator = registry.getValuesCreator(cls);
+            if (creator != null) return creator;
+        }
+        //noinspection unchecked
+        return (ValuesCreator<T>) getGeneratedInstance(cls, ValuesCreator.VALUES_CREATOR_SUFFIX);
+    }
+
+    public static <T> StatementBinder<T> statementBinderFrom(Class<T> cls) {
+        for (CursorObjectRegistry registry : sRegistries) {
+            final StatementBinder<T> binder = registry.getStatementBinder(cls);
+            if (binder != null) return binder;
+        }
+        //noinspection unchecked
+        return (StatementBinder<T>) getGeneratedInstance(cls, StatementBinder.STATEMENT_BINDER_SUFFIX);
+    }
+
+    public static <T> RowCodec<T> rowCodecFrom(Class<T> cls) {
+        for (CursorObjectRegistry registry : sRegistries) {
+            final RowCodec<T> codec = registry.getRowCodec(cls);
+            if (codec != null) return codec;
+        }
+        //noinspection unchecked
+        return (RowCodec<T>) getGeneratedInstance(cls, RowCodec.ROW_CODEC_SUFFIX);
+    }
+
+    public static <T> BufferCodec<T> bufferCodecFrom(Class<T> cls) {
+        for (CursorObjectRegistry registry : sRegistries) {
+            final BufferCodec<T> codec = registry.getBufferCodec(cls);
+            if (codec != null) return codec;
+        }
+        //noinspection unchecked
+        return (BufferCodec<T>) getGeneratedInstance(cls, BufferCodec.BUFFER_CODEC_SUFFIX);
+    }
+
+    public static TableInfo tableInfoFrom(Class<?> cls) {
+        for (CursorObjectRegistry registry : sRegistries) {
+            final TableInfo info = registry.getTableInfo(cls);
+            if (info != null) return info;
+        }
+        return (TableInfo) getGeneratedInstance(cls, TableInfo.TABLE_INFO_SUFFIX);
+    }
+
+    private static Object getGeneratedInstance(Class<?> cls, String suffix) {
+        final String name = cls.getName() + suffix;
+        Object instance = sGeneratedInstances.get(name);
+        if (instance != null) return instance;
         try {
-            Class<?> creatorClass = Class.forName(cls.getName() + ValuesCreator.VALUES_CREATOR_SUFFIX);
-            //noinspection unchecked
-            return (ValuesCreator<T>) creatorClass.getDeclaredField("INSTANCE").get(null);
+            instance = Class.forName(name).getDeclaredField("INSTANCE").get(null);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
+        sGeneratedInstances.put(name, instance);
+        return instance;
+    }
+
+    public interface RowCallback<T> {
+
+        /**
+         * @return false to stop iteration
+         */
+        boolean onRow(int position, T object);
+    }
+
+    static class ForwardIterator<E> implements Iterator<E> {
+
+        private final ObjectCursor<E> mList;
+        private final E mReuse;
+        private final int mCount;
+        private int mPosition;
+
+        ForwardIterator(ObjectCursor<E> list, E reuse) {
+            mList = list;
+            mReuse = reuse;
+            mCount = list.mCursor.getCount();
+            mPosition = -1;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return mPosition + 1 < mCount;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            final Cursor cursor = mList.mCursor;
+            final int next = mPosition + 1;
+            // Someone else moved the cursor, fallback to random access
+            final boolean moved = cursor.getPosition() == mPosition ? cursor.moveToNext() : cursor.moveToPosition(next);
+            if (!moved) {
+                throw new CursorIndexOutOfBoundsException("length=" + cursor.getCount() + "; index=" + next);
+            }
+            mPosition = next;
+            try {
+                if (mReuse != null) {
+                    mList.mIndices.parseFields(mReuse, cursor);
+                    return mReuse;
+                }
+                return mList.get(cursor, mList.mIndices);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
     }
 
     public interface CursorIndices<T> {
@@ -168,6 +642,54 @@ public class ObjectCursor<E> extends AbstractList<E> implements Closeable {
 
         int get(String columnName);
 
+        /**
+         * Same as {@link #get(String)}, but looks up by {@code ORDINAL_} constant of generated class, without
+         * comparing strings
+         *
+         * @see org.mariotaku.library.objectcursor.column.CursorColumn#indexIn(CursorIndices)
+         */
+        int getIndex(int ordinal);
+
+        /**
+         * Resolves column indices again from {@code cursor}, so this instance can be reused for a cursor with
+         * different projection.
+         *
+         * @throws IllegalStateException If this instance is {@link #markShared() shared}
+         */
+        void rebind(Cursor cursor);
+
+        /**
+         * Sets pool used by {@link org.mariotaku.library.objectcursor.annotation.CursorField#dedup() dedup} fields,
+         * defaults to {@link StringPool#getDefault()}. Pool is passed to parent and embedded indices as well.
+         *
+         * @throws IllegalStateException If this instance is {@link #markShared() shared}
+         */
+        void setStringPool(StringPool pool);
+
+        /**
+         * Marks this instance as shared by cursors, e.g. by {@link CursorIndicesCache}, it can't be changed with
+         * {@link #rebind(Cursor)} or {@link #setStringPool(StringPool)} afterwards
+         */
+        void markShared();
+
+    }
+
+    /**
+     * Implemented by generated CursorIndices of classes with a
+     * {@link org.mariotaku.library.objectcursor.annotation.CursorField#key() key} column
+     */
+    public interface KeyedCursorIndices<T> extends CursorIndices<T> {
+
+        /**
+         * @return Index of key column, or -1 if not in projection
+         */
+        int getKeyIndex();
+
+        /**
+         * @return Index of version column, or -1 if not declared or not in projection
+         */
+        int getVersionIndex();
+
     }
 
     public interface ValuesCreator<T> {
@@ -176,8 +698,167 @@ public class ObjectCursor<E> extends AbstractList<E> implements Closeable {
 
         void writeTo(T instance, ContentValues values) throws IOException;
 
+        /**
+         * Writes columns changed since {@code instance} was read from cursor. Same as
+         * {@link #writeTo(Object, ContentValues)} if change tracking is not enabled, or {@code instance} has no
+         * snapshot. Columns not in projection of the cursor are not written. Snapshot is not updated, call
+         * {@link #updateSnapshot(Object)} after update succeeded.
+         *
+         * @see org.mariotaku.library.objectcursor.annotation.CursorObject#trackChanges()
+         */
+        void writeChangedTo(T instance, ContentValues values) throws IOException;
+
+        /**
+         * Same as {@link #writeChangedTo(Object, ContentValues)}, converter output is compared in {@code scratch}
+         * (cleared before use) instead of a new {@code ContentValues} per call. Reuse one instance for a batch.
+         *
+         * @param scratch Values used by converters only, or null to create one when needed
+         */
+        void writeChangedTo(T instance, ContentValues values, ContentValues scratch) throws IOException;
+
+        /**
+         * Takes current values of {@code instance} as saved ones, so they're not written by
+         * {@link #writeChangedTo(Object, ContentValues)} again. Columns absent from snapshot stay absent, unless
+         * {@code instance} had no snapshot. Does nothing if change tracking is not enabled.
+         */
+        void updateSnapshot(T instance) throws IOException;
+
+        /**
+         * Same as {@link #updateSnapshot(Object)}, converter output is written into {@code scratch} instead of a new
+         * {@code ContentValues} per call
+         *
+         * @param scratch Values used by converters only, or null to create one when needed
+         */
+        void updateSnapshot(T instance, ContentValues scratch) throws IOException;
+
         ContentValues create(T instance) throws IOException;
 
+        /**
+         * Writes {@code instance} into {@code values} after clearing it, a new one sized for
+         * {@link #getColumnCount()} is created if {@code values} is null
+         */
+        ContentValues create(T instance, ContentValues values) throws IOException;
+
+        /**
+         * @return Number of columns written by {@link #writeTo(Object, ContentValues)}, not including ones added by
+         * {@link org.mariotaku.library.objectcursor.annotation.BeforeWriteContentValues} or
+         * {@link org.mariotaku.library.objectcursor.annotation.AfterWriteContentValues} callbacks
+         */
+        int getColumnCount();
+
+    }
+
+    /**
+     * Encodes objects into compact records and back, used by
+     * {@link org.mariotaku.library.objectcursor.cache.SerializedRowCache}
+     *
+     * @see org.mariotaku.library.objectcursor.annotation.CursorObject#rowCodec()
+     */
+    public interface RowCodec<T> {
+
+        String ROW_CODEC_SUFFIX = "RowCodec";
+
+        /**
+         * Writes {@code instance} into record, a copy of its
+         * {@link CursorSnapshotHolder#getCursorSnapshot() snapshot} is kept if change tracking is enabled
+         */
+        void encode(T instance, RecordWriter writer) throws IOException;
+
+        /**
+         * Creates a new object from record, {@code BeforeCursorObjectCreated} and {@code AfterCursorObjectCreated}
+         * callbacks are called like {@link CursorIndices#newObject(Cursor)} does
+         */
+        T decode(RecordReader reader) throws IOException;
+
+    }
+
+    /**
+     * Encodes objects into fixed layout records of a {@link ByteBuffer}, used by
+     * {@link org.mariotaku.library.objectcursor.snapshot.SnapshotStore}. Each record starts with its length, followed
+     * by one fixed size slot per field at offsets derived from field list, then variable length data (strings and
+     * blobs) referenced by offset from their slots.
+     *
+     * @see org.mariotaku.library.objectcursor.annotation.CursorObject#bufferCodec()
+     */
+    public interface BufferCodec<T> {
+
+        String BUFFER_CODEC_SUFFIX = "BufferCodec";
+
+        /**
+         * Writes record at buffer position, position is moved to end of record
+         *
+         * @throws java.nio.BufferOverflowException if remaining space is not enough
+         */
+        void writeTo(T instance, ByteBuffer buffer) throws IOException;
+
+        /**
+         * Same as {@link #writeTo(Object, ByteBuffer)}, converter output is written into {@code scratch} (cleared
+         * before use) instead of a new {@code ContentValues} per record. Reuse one instance for a batch.
+         *
+         * @param scratch Values used by converters only, or null to create one when needed
+         */
+        void writeTo(T instance, ByteBuffer buffer, ContentValues scratch) throws IOException;
+
+        /**
+         * Creates a new object from record at buffer position, position is moved to end of record.
+         * {@code BeforeCursorObjectCreated} and {@code AfterCursorObjectCreated} callbacks are called like
+         * {@link CursorIndices#newObject(Cursor)} does
+         */
+        T readFrom(ByteBuffer buffer) throws IOException;
+
+        /**
+         * @return Hash of field names and types, changes whenever record layout changes
+         */
+        int getLayoutHash();
+
+    }
+
+    public interface StatementBinder<T> {
+
+        String STATEMENT_BINDER_SUFFIX = "StatementBinder";
+
+        /**
+         * @return Columns in bind order, bind index of column {@code i} is {@code i + 1}
+         */
+        String[] getColumns();
+
+        void bindTo(T instance, SQLiteStatement statement) throws IOException;
+
+        /**
+         * Same as {@link #bindTo(Object, SQLiteStatement)}, converter output is written into {@code scratch} (cleared
+         * before use) instead of a new {@code ContentValues} per call. Reuse one instance for a batch.
+         *
+         * @param scratch Values used by converters only, or null to create one when needed
+         */
+        void bindTo(T instance, SQLiteStatement statement, ContentValues scratch) throws IOException;
+
+    }
+
+    public interface TableInfo {
+
+        String TABLE_INFO_SUFFIX = "TableInfo";
+
+        String[] getColumns();
+
+        String[] getTypes();
+
+        /**
+         * @return {@code CREATE TABLE IF NOT EXISTS} statement with all columns and primary key
+         */
+        String getCreateTableSql(String table);
+
+        /**
+         * @return {@code CREATE INDEX IF NOT EXISTS} statements of indices declared with
+         * {@link org.mariotaku.library.objectcursor.annotation.CursorIndex}, in declaration order
+         */
+        String[] getCreateIndexSql(String table);
+
+        /**
+         * @return Hash of columns, types, primary key and indices, changes whenever generated statements change.
+         * Store it along with database to tell whether table needs migrating.
+         */
+        int getSchemaHash();
+
     }
 
 }
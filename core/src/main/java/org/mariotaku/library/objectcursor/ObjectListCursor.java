@@ -0,0 +1,142 @@
+package org.mariotaku.library.objectcursor;
+
+import android.database.AbstractCursor;
+import android.database.Cursor;
+import android.database.CursorIndexOutOfBoundsException;
+
+import java.util.List;
+
+/**
+ * Read only {@link Cursor} over a list of objects, base class of generated {@code ListCursor}s.
+ * <p>
+ * Generated subclasses override typed getters to read fields directly without boxing, getters here are the slow
+ * path over {@link #getValue(Object, int)}, for type mismatches (e.g. {@code getLong} of a text column) and
+ * converter columns. Conversions follow {@link android.database.MatrixCursor}.
+ * <p>
+ * Created by mariotaku on 16/5/13.
+ */
+public abstract class ObjectListCursor<T> extends AbstractCursor {
+
+    public static final String LIST_CURSOR_SUFFIX = "ListCursor";
+
+    private final List<T> mList;
+
+    protected ObjectListCursor(List<T> list) {
+        if (list == null) throw new NullPointerException();
+        mList = list;
+    }
+
+    public List<T> getList() {
+        return mList;
+    }
+
+    @Override
+    public int getCount() {
+        return mList.size();
+    }
+
+    /**
+     * @return Object at current position
+     */
+    protected final T getCurrent() {
+        final int position = getPosition();
+        if (position < 0 || position >= mList.size()) {
+            throw new CursorIndexOutOfBoundsException(position, mList.size());
+        }
+        return mList.get(position);
+    }
+
+    /**
+     * @return Value of {@code column} as written to {@code ContentValues}, boxed
+     */
+    protected abstract Object getValue(T item, int column);
+
+    @Override
+    public String getString(int column) {
+        final Object value = getValue(getCurrent(), column);
+        if (value == null) return null;
+        if (value instanceof Boolean) return (Boolean) value ? "1" : "0";
+        return value.toString();
+    }
+
+    @Override
+    public short getShort(int column) {
+        final Object value = getValue(getCurrent(), column);
+        if (value == null) return 0;
+        final Number number = toNumber(value);
+        if (number != null) return number.shortValue();
+        return Short.parseShort(value.toString());
+    }
+
+    @Override
+    public int getInt(int column) {
+        final Object value = getValue(getCurrent(), column);
+        if (value == null) return 0;
+        final Number number = toNumber(value);
+        if (number != null) return number.intValue();
+        return Integer.parseInt(value.toString());
+    }
+
+    @Override
+    public long getLong(int column) {
+        final Object value = getValue(getCurrent(), column);
+        if (value == null) return 0;
+        final Number number = toNumber(value);
+        if (number != null) return number.longValue();
+        return Long.parseLong(value.toString());
+    }
+
+    @Override
+    public float getFloat(int column) {
+        final Object value = getValue(getCurrent(), column);
+        if (value == null) return 0;
+        final Number number = toNumber(value);
+        if (number != null) return number.floatValue();
+        return Float.parseFloat(value.toString());
+    }
+
+    @Override
+    public double getDouble(int column) {
+        final Object value = getValue(getCurrent(), column);
+        if (value == null) return 0;
+        final Number number = toNumber(value);
+        if (number != null) return number.doubleValue();
+        return Double.parseDouble(value.toString());
+    }
+
+    @Override
+    public byte[] getBlob(int column) {
+        final Object value = getValue(getCurrent(), column);
+        if (value == null || value instanceof byte[]) return (byte[]) value;
+        throw new UnsupportedOperationException("Column " + column + " is not a blob");
+    }
+
+    @Override
+    public boolean isNull(int column) {
+        return getValue(getCurrent(), column) == null;
+    }
+
+    @Override
+    public int getType(int column) {
+        final Object value = getValue(getCurrent(), column);
+        if (value == null) {
+            return Cursor.FIELD_TYPE_NULL;
+        } else if (value instanceof byte[]) {
+            return Cursor.FIELD_TYPE_BLOB;
+        } else if (value instanceof Float || value instanceof Double) {
+            return Cursor.FIELD_TYPE_FLOAT;
+        } else if (value instanceof Number || value instanceof Boolean) {
+            return Cursor.FIELD_TYPE_INTEGER;
+        }
+        return Cursor.FIELD_TYPE_STRING;
+    }
+
+    /**
+     * @return Number value, booleans are stored as 1 or 0 like SQLite does, null if not a number
+     */
+    private static Number toNumber(Object value) {
+        if (value instanceof Number) return (Number) value;
+        if (value instanceof Boolean) return (Boolean) value ? 1 : 0;
+        return null;
+    }
+}
@@ -0,0 +1,185 @@
+package org.mariotaku.library.objectcursor;
+
+import android.database.Cursor;
+import android.database.CursorIndexOutOfBoundsException;
+import android.database.CursorWindow;
+
+import org.mariotaku.library.objectcursor.internal.WindowCursor;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Materializes all rows of an {@link ObjectCursor} on multiple threads.
+ * <p>
+ * Rows are copied into {@link CursorWindow}s while holding lock of the list, every window is then split into row
+ * ranges, each range is parsed on its own {@link WindowCursor}. Copying is cheap compared to parsing (converters), so
+ * filling next window overlaps with parsing previous ones. At most {@code parallelism} windows (at least 2) are
+ * alive at the same time, so native memory doesn't grow with row count.
+ * <p>
+ * Created by mariotaku on 16/5/4.
+ */
+class ParallelMaterializer<E> {
+
+    static final int MIN_ROWS_PER_TASK = 32;
+
+    private final ObjectCursor<E> mList;
+    private final Executor mExecutor;
+    private final int mParallelism;
+
+    ParallelMaterializer(ObjectCursor<E> list, Executor executor, int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("parallelism < 1");
+        mList = list;
+        mExecutor = executor;
+        mParallelism = parallelism;
+    }
+
+    /**
+     * Executor used by {@link ObjectCursor#toList(int)}, threads are created on demand and shared by all lists
+     */
+    static Executor getDefaultExecutor() {
+        return DefaultExecutorHolder.EXECUTOR;
+    }
+
+    List<E> materialize() {
+        final int count = mList.size();
+        final Object[] result = new Object[count];
+        final String[] columnNames = mList.getCursor().getColumnNames();
+        final List<FutureTask<Void>> tasks = new ArrayList<>();
+        final Semaphore windowPermits = new Semaphore(Math.max(2, mParallelism));
+        RuntimeException error = null;
+        int position = 0;
+        while (position < count) {
+            try {
+                windowPermits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                error = new RuntimeException(e);
+                break;
+            }
+            final CursorWindow window;
+            try {
+                window = mList.fillWindow(position);
+            } catch (RuntimeException e) {
+                windowPermits.release();
+                throw e;
+            }
+            final int end = window.getStartPosition() + window.getNumRows();
+            if (end <= position) {
+                window.close();
+                windowPermits.release();
+                throw new IllegalStateException("Row " + position + " doesn't fit in a CursorWindow");
+            }
+            final int rows = end - position;
+            final int rowsPerTask = Math.max(MIN_ROWS_PER_TASK, (rows + mParallelism - 1) / mParallelism);
+            final int taskCount = (rows + rowsPerTask - 1) / rowsPerTask;
+            final AtomicInteger remaining = new AtomicInteger(taskCount);
+            for (int from = position; from < end; from += rowsPerTask) {
+                final RangeTask<E> range = new RangeTask<>(mList, columnNames, window, windowPermits, remaining,
+                        result, from, Math.min(from + rowsPerTask, end));
+                final FutureTask<Void> task = new FutureTask<>(range, null);
+                mExecutor.execute(task);
+                tasks.add(task);
+            }
+            position = end;
+        }
+        for (FutureTask<Void> task : tasks) {
+            try {
+                task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (error == null) error = new RuntimeException(e);
+            } catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (error != null) continue;
+                if (cause instanceof RuntimeException) {
+                    error = (RuntimeException) cause;
+                } else {
+                    error = new RuntimeException(cause);
+                }
+            }
+        }
+        if (error != null) throw error;
+        //noinspection unchecked
+        return new ArrayList<>(Arrays.asList((E[]) result));
+    }
+
+    static class RangeTask<E> implements Runnable {
+
+        private final ObjectCursor<E> mList;
+        private final String[] mColumnNames;
+        private final CursorWindow mWindow;
+        private final Semaphore mWindowPermits;
+        private final AtomicInteger mRemaining;
+        private final Object[] mResult;
+        private final int mFrom, mTo;
+
+        RangeTask(ObjectCursor<E> list, String[] columnNames, CursorWindow window, Semaphore windowPermits,
+                  AtomicInteger remaining, Object[] result, int from, int to) {
+            mList = list;
+            mColumnNames = columnNames;
+            mWindow = window;
+            mWindowPermits = windowPermits;
+            mRemaining = remaining;
+            mResult = result;
+            mFrom = from;
+            mTo = to;
+        }
+
+        @Override
+        public void run() {
+            final Cursor cursor = new WindowCursor(mColumnNames, mWindow);
+            try {
+                final ObjectCursor.CursorIndices<E> indices = mList.getIndices();
+                for (int i = mFrom; i < mTo; i++) {
+                    if (!cursor.moveToPosition(i)) {
+                        throw new CursorIndexOutOfBoundsException("length=" + cursor.getCount() + "; index=" + i);
+                    }
+                    mResult[i] = mList.get(cursor, indices);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            } finally {
+                cursor.close();
+                if (mRemaining.decrementAndGet() == 0) {
+                    mWindow.close();
+                    mWindowPermits.release();
+                }
+            }
+        }
+    }
+
+    private static class DefaultExecutorHolder {
+
+        static final Executor EXECUTOR;
+
+        static {
+            final int threads = Runtime.getRuntime().availableProcessors();
+            final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                private final AtomicInteger mCount = new AtomicInteger();
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    final Thread thread = new Thread(r, "ObjectCursor-materializer-" + mCount.incrementAndGet());
+                    // Idle threads must not keep the process alive
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            executor.allowCoreThreadTimeOut(true);
+            EXECUTOR = executor;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package org.mariotaku.library.objectcursor;
+
+import android.database.CursorWindow;
+
+import org.mariotaku.library.objectcursor.internal.WindowCursor;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+
+/**
+ * Parses rows ahead of {@link ObjectCursor#get(int)} in scroll direction, and puts them into cache.
+ * <p>
+ * Rows are copied into a {@link CursorWindow} owned by this prefetcher, so parsing runs on its own cursor
+ * position. Copying is done in chunks of {@link #CHUNK_ROWS} rows, list is locked only while copying a chunk so
+ * reader is never blocked for long. The window is kept until requested rows fall outside of it. At most one task
+ * is running on the executor at a time, it picks up latest requested range when finished.
+ * <p>
+ * Rows failed to parse are skipped, reader gets the error when it parses them. Prefetching stops when list is
+ * closed, any other error stops it as well and is rethrown to executor.
+ * <p>
+ * Created by mariotaku on 16/5/12.
+ */
+class RowPrefetcher<E> implements Runnable {
+
+    /**
+     * Rows copied per lock acquisition
+     */
+    static final int CHUNK_ROWS = 16;
+
+    private final ObjectCursor<E> mList;
+    private final Executor mExecutor;
+    private final int mDistance;
+
+    private String[] mColumnNames;
+    private CursorWindow mWindow;
+
+    private int mLastPosition = -1;
+    private int mDirection = 1;
+    // Range requested by reader, and range already parsed
+    private int mTargetFrom, mTargetTo;
+    private int mDoneFrom, mDoneTo;
+    private boolean mScheduled;
+    private boolean mCancelled;
+
+    RowPrefetcher(ObjectCursor<E> list, Executor executor, int distance) {
+        if (distance < 1) throw new IllegalArgumentException("distance < 1");
+        mList = list;
+        mExecutor = executor;
+        mDistance = distance;
+    }
+
+    /**
+     * Called by reader after row at {@code position} is returned, cheap enough for UI thread
+     */
+    void onAccess(int position, int count) {
+        synchronized (this) {
+            if (mCancelled) return;
+            if (mLastPosition >= 0 && position != mLastPosition) {
+                mDirection = position > mLastPosition ? 1 : -1;
+            }
+            mLastPosition = position;
+            final int from, to;
+            if (mDirection > 0) {
+                from = position + 1;
+                to = Math.min(count, position + 1 + mDistance);
+            } else {
+                from = Math.max(0, position - mDistance);
+                to = position;
+            }
+            if (from >= to || (from >= mDoneFrom && to <= mDoneTo)) return;
+            mTargetFrom = from;
+            mTargetTo = to;
+            if (mScheduled) return;
+            mScheduled = true;
+        }
+        try {
+            mExecutor.execute(this);
+        } catch (RuntimeException e) {
+            // Executor rejected, try again on next access
+            synchronized (this) {
+                mScheduled = false;
+            }
+        }
+    }
+
+    void cancel() {
+        synchronized (this) {
+            mCancelled = true;
+            // Running task will release window when it finishes
+            if (!mScheduled) {
+                releaseWindow();
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            final int from, to, direction;
+            synchronized (this) {
+                if (mCancelled || (mTargetFrom >= mDoneFrom && mTargetTo <= mDoneTo)) {
+                    mScheduled = false;
+                    if (mCancelled) {
+                        releaseWindow();
+                    }
+                    return;
+                }
+                from = mTargetFrom;
+                to = mTargetTo;
+                direction = mDirection;
+            }
+            try {
+                prefetch(from, to, direction);
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    mCancelled = true;
+                    mScheduled = false;
+                    releaseWindow();
+                }
+                if (mList.isClosed()) return;
+                throw e;
+            }
+            synchronized (this) {
+                mDoneFrom = from;
+                mDoneTo = to;
+            }
+        }
+    }
+
+    /**
+     * Parses rows in {@code [from, to)}, nearest row to reader first
+     */
+    private void prefetch(int from, int to, int direction) {
+        final ObjectCursor.CursorIndices<E> indices = mList.getIndices();
+        WindowCursor cursor = null;
+        try {
+            for (int i = 0, j = to - from; i < j; i++) {
+                final int position = direction > 0 ? from + i : to - 1 - i;
+                if (isCancelled()) return;
+                if (mList.isCached(position)) continue;
+                if (mWindow == null || position < mWindow.getStartPosition()) {
+                    // Window is filled forward, start from lowest row when scrolling backward
+                    newWindow(direction > 0 ? position : from);
+                }
+                while (position >= mWindow.getStartPosition() + mWindow.getNumRows()) {
+                    if (isCancelled()) return;
+                    if (mList.appendRows(mWindow, CHUNK_ROWS) > 0) continue;
+                    // No more rows, or row doesn't fit in an empty window
+                    if (mWindow.getNumRows() == 0) return;
+                    // Window is full
+                    newWindow(position);
+                }
+                if (cursor == null || cursor.getWindow() != mWindow) {
+                    if (cursor != null) {
+                        cursor.close();
+                    }
+                    cursor = new WindowCursor(mColumnNames, mWindow);
+                }
+                if (!cursor.moveToPosition(position)) return;
+                final E object;
+                try {
+                    object = mList.get(cursor, indices);
+                } catch (IOException | RuntimeException e) {
+                    // Reader will get the error when it parses this row
+                    continue;
+                }
+                if (!mList.putPrefetched(position, object)) return;
+            }
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+    }
+
+    private void newWindow(int position) {
+        releaseWindow();
+        if (mColumnNames == null) {
+            mColumnNames = mList.getCursor().getColumnNames();
+        }
+        mWindow = WindowCursor.newWindow(mColumnNames.length, position);
+    }
+
+    private synchronized boolean isCancelled() {
+        return mCancelled;
+    }
+
+    private void releaseWindow() {
+        if (mWindow != null) {
+            mWindow.close();
+            mWindow = null;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package org.mariotaku.library.objectcursor.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Stores fields of a nested {@link CursorObject} in columns of the enclosing one, names prefixed with
+ * {@link #prefix()}. Values are read by CursorIndices of the nested type, and written by ValuesCreator of the
+ * enclosing type directly with prefixed column names.
+ * <p>
+ * Nested type must be a {@link CursorObject} in the same compilation, without
+ * {@link BeforeWriteContentValues} or {@link AfterWriteContentValues} methods if enclosing type writes
+ * ContentValues. Nested object is null if none of its columns is in projection or all of them are null.
+ * <p>
+ * Created by mariotaku on 16/5/13.
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.CLASS)
+public @interface CursorEmbedded {
+
+    /**
+     * Prepended to column names of nested type, e.g. {@code "user_"}
+     */
+    String prefix() default "";
+}
@@ -30,6 +30,41 @@ public @interface CursorField {
 
     Class<? extends CursorFieldConverter> converter() default EmptyCursorFieldConverter.class;
 
+    /**
+     * If true, converter runs only when value is read. Field type must be
+     * {@link org.mariotaku.library.objectcursor.LazyField LazyField&lt;T&gt;}, and {@link #converter()} is required.
+     * <p>
+     * Converter reads from cursor, so hydrating a value builds a single row {@code MatrixCursor} for it. Implement
+     * {@link org.mariotaku.library.objectcursor.converter.RawValueCursorFieldConverter RawValueCursorFieldConverter}
+     * to skip that.
+     */
+    boolean lazy() default false;
+
+    /**
+     * Marks this column as row key, used by {@link org.mariotaku.library.objectcursor.CursorDiff} to match rows of
+     * two cursors. At most one per class including parents, must be an integer field without converter.
+     */
+    boolean key() default false;
+
+    /**
+     * Marks this column as row version (e.g. modification time or content hash), rows with the same key and version
+     * are considered unchanged. At most one per class including parents, must be an integer field without converter.
+     */
+    boolean version() default false;
+
+    /**
+     * Marks this column as primary key of generated {@code CREATE TABLE}. Integer column becomes alias of
+     * {@code rowid}. Use {@link CursorObject#primaryKey()} for composite primary key.
+     */
+    boolean primaryKey() default false;
+
+    /**
+     * If true, equal values share one {@code String} instance from
+     * {@link org.mariotaku.library.objectcursor.cache.StringPool StringPool}, for low cardinality columns like
+     * user name or status. Field type must be {@code String}, without converter.
+     */
+    boolean dedup() default false;
+
     String type() default AUTO;
 
     boolean useGetter() default true;
@@ -0,0 +1,37 @@
+package org.mariotaku.library.objectcursor.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares an index created by generated {@code TableInfo#getCreateIndexSql(String)}. Put it on a
+ * {@link CursorField} for single column index, or in {@link CursorObject#indices()} for composite ones.
+ * <p>
+ * Index names are prefixed with table name, since they're shared by all tables of a database.
+ * <p>
+ * Created by mariotaku on 16/5/13.
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.CLASS)
+public @interface CursorIndex {
+
+    /**
+     * Index name without table prefix, defaults to column names joined by underscore
+     */
+    String name() default "";
+
+    /**
+     * Indexed columns, may be followed by {@code ASC}, {@code DESC} or {@code COLLATE}. Required in
+     * {@link CursorObject#indices()}, must be empty on a field.
+     */
+    String[] columns() default {};
+
+    boolean unique() default false;
+
+    /**
+     * Condition of partial index, without {@code WHERE}. Partial indices require SQLite 3.8.0 (API 21)
+     */
+    String where() default "";
+}
@@ -18,4 +18,62 @@ public @interface CursorObject {
 
     boolean tableInfo() default false;
 
+    /**
+     * Composite indices, created along with single column ones declared on fields
+     */
+    CursorIndex[] indices() default {};
+
+    /**
+     * Columns of composite primary key, use {@link CursorField#primaryKey()} for single column one
+     */
+    String[] primaryKey() default {};
+
+    /**
+     * Generates a binder writes object into compiled {@link android.database.sqlite.SQLiteStatement}, columns are
+     * the same as TableInfo, excluding {@link CursorField#excludeWrite()} ones.
+     * {@link BeforeWriteContentValues} and {@link AfterWriteContentValues} callbacks won't be called.
+     */
+    boolean statementBinder() default false;
+
+    /**
+     * Snapshots column values when parsing from cursor, so
+     * {@link org.mariotaku.library.objectcursor.ObjectCursor.ValuesCreator#writeChangedTo(Object, android.content.ContentValues)}
+     * only writes changed columns. Annotated class must implement
+     * {@link org.mariotaku.library.objectcursor.CursorSnapshotHolder}.
+     */
+    boolean trackChanges() default false;
+
+    /**
+     * Generates {@code Columns} holder in CursorIndices, and {@code readColumns(Cursor, int, int)} fills it for a
+     * range of rows. Every column is a primitive array ({@code String[]} and {@code byte[][]} for text and blob),
+     * boxed fields read null as 0. Columns not in cursor projection are left as 0 or null, check them with
+     * {@code Columns.isPresent(int)}. Fields using non-primitive converters are skipped.
+     */
+    boolean columnBatch() default false;
+
+    /**
+     * Generates {@code ListCursor}, a read only {@link android.database.Cursor} over {@code List} of annotated
+     * objects, columns are the same as TableInfo. Reverse of CursorIndices, useful for passing in-memory objects
+     * to cursor consumers without building a {@link android.database.MatrixCursor}.
+     */
+    boolean listCursor() default false;
+
+    /**
+     * Generates a typed {@link org.mariotaku.library.objectcursor.column.CursorColumn} constant in CursorIndices
+     * for each field, named {@code FIELD_NAME_COLUMN}. Fields using converters don't have handles.
+     */
+    boolean columnHandles() default false;
+
+    /**
+     * Generates {@code RowCodec} encoding objects into compact records for
+     * {@link org.mariotaku.library.objectcursor.cache.SerializedRowCache}. Parent class must enable it too.
+     */
+    boolean rowCodec() default false;
+
+    /**
+     * Generates {@code BufferCodec} writing objects into fixed layout binary records for
+     * {@link org.mariotaku.library.objectcursor.snapshot.SnapshotStore}. Parent class must enable it too.
+     */
+    boolean bufferCodec() default false;
+
 }
@@ -0,0 +1,115 @@
+package org.mariotaku.library.objectcursor.cache;
+
+import android.content.ComponentCallbacks2;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock free cache backed by an {@link AtomicReferenceArray}, one slot per row. Hit and miss counts are striped by
+ * position, so readers of different rows don't contend on one counter.
+ * <p>
+ * Created by mariotaku on 16/5/5.
+ */
+public class AtomicRowCache<E> implements ThreadSafeRowCache<E> {
+
+    private static final int STRIPE_COUNT = 8;
+    // Counters of a stripe are in their own 64 byte block, avoids false sharing
+    private static final int STRIPE_SHIFT = 4;
+
+    private final AtomicReferenceArray<E> mArray;
+    // Hit count at stripe index, miss count next to it
+    private final AtomicIntegerArray mCounts = new AtomicIntegerArray(STRIPE_COUNT << STRIPE_SHIFT);
+    private final AtomicInteger mEvictionCount = new AtomicInteger();
+
+    /**
+     * @param capacity Row count of the cursor, rows beyond it won't be cached
+     */
+    public AtomicRowCache(int capacity) {
+        mArray = new AtomicReferenceArray<>(capacity);
+    }
+
+    @Override
+    public E get(int position) {
+        final E object = peek(position);
+        final int stripe = (position & (STRIPE_COUNT - 1)) << STRIPE_SHIFT;
+        mCounts.incrementAndGet(object != null ? stripe : stripe + 1);
+        return object;
+    }
+
+    @Override
+    public E peek(int position) {
+        if (position < 0 || position >= mArray.length()) return null;
+        return mArray.get(position);
+    }
+
+    @Override
+    public boolean contains(int position) {
+        return peek(position) != null;
+    }
+
+    @Override
+    public void put(int position, E object) {
+        if (position < 0 || position >= mArray.length()) return;
+        mArray.set(position, object);
+    }
+
+    @Override
+    public void remove(int position) {
+        put(position, null);
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0, j = mArray.length(); i < j; i++) {
+            mArray.set(i, null);
+        }
+    }
+
+    @Override
+    public void trimMemory(int level) {
+        if (level < ComponentCallbacks2.TRIM_MEMORY_MODERATE) return;
+        int evicted = 0;
+        for (int i = 0, j = mArray.length(); i < j; i++) {
+            if (mArray.getAndSet(i, null) != null) {
+                evicted++;
+            }
+        }
+        mEvictionCount.addAndGet(evicted);
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (int i = 0, j = mArray.length(); i < j; i++) {
+            if (mArray.get(i) != null) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public int hitCount() {
+        return sumCounts(0);
+    }
+
+    @Override
+    public int missCount() {
+        return sumCounts(1);
+    }
+
+    @Override
+    public int evictionCount() {
+        return mEvictionCount.get();
+    }
+
+    private int sumCounts(int offset) {
+        int sum = 0;
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            sum += mCounts.get((i << STRIPE_SHIFT) + offset);
+        }
+        return sum;
+    }
+}
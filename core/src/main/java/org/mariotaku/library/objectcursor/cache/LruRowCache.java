@@ -0,0 +1,271 @@
+package org.mariotaku.library.objectcursor.cache;
+
+import android.content.ComponentCallbacks2;
+
+import java.util.Arrays;
+
+/**
+ * Size bounded cache, least recently used rows are evicted first.
+ * <p>
+ * By default every row counts as one entry, use {@link #LruRowCache(int, SizeEstimator)} to set an estimated byte
+ * budget instead.
+ * <p>
+ * Positions are kept as {@code int} in a chained hash table threaded by an access ordered list, lookups don't box
+ * and nodes of evicted rows are reused for new ones. Null rows are not cached.
+ * <p>
+ * Created by mariotaku on 16/5/2.
+ */
+public class LruRowCache<E> implements RowCache<E> {
+
+    private final int mMaxSize;
+    private final SizeEstimator<? super E> mEstimator;
+
+    private Node<E>[] mTable;
+    /**
+     * Sentinel of access ordered list, {@code head.after} is eldest
+     */
+    private final Node<E> mHead;
+    private Node<E> mRecycled;
+    private int mEntryCount;
+    private int mSize;
+    private int mHitCount, mMissCount, mEvictionCount;
+
+    public LruRowCache(int maxEntries) {
+        this(maxEntries, null);
+    }
+
+    /**
+     * @param maxSize   Maximum size, in unit of {@code estimator}
+     * @param estimator Size estimator for a row, or null to count entries
+     */
+    public LruRowCache(int maxSize, SizeEstimator<? super E> estimator) {
+        if (maxSize <= 0) throw new IllegalArgumentException("maxSize <= 0");
+        mMaxSize = maxSize;
+        mEstimator = estimator;
+        mTable = newTable(16);
+        mHead = new Node<>();
+        mHead.before = mHead.after = mHead;
+    }
+
+    @Override
+    public E get(int position) {
+        final Node<E> node = find(position);
+        if (node == null) {
+            mMissCount++;
+            return null;
+        }
+        mHitCount++;
+        unlink(node);
+        linkLast(node);
+        return node.value;
+    }
+
+    @Override
+    public boolean contains(int position) {
+        return find(position) != null;
+    }
+
+    @Override
+    public void put(int position, E object) {
+        if (object == null) {
+            remove(position);
+            return;
+        }
+        final int size = sizeOf(object);
+        Node<E> node = find(position);
+        if (node != null) {
+            mSize -= node.size;
+            unlink(node);
+        } else {
+            node = mRecycled;
+            if (node != null) {
+                mRecycled = node.next;
+            } else {
+                node = new Node<>();
+            }
+            node.key = position;
+            final int slot = slotOf(position, mTable.length);
+            node.next = mTable[slot];
+            mTable[slot] = node;
+            mEntryCount++;
+        }
+        node.value = object;
+        node.size = size;
+        mSize += size;
+        linkLast(node);
+        // Table is rebuilt from access order list, so node must be linked first
+        if (mEntryCount > mTable.length) {
+            resize(mTable.length << 1);
+        }
+        trimToSize(mMaxSize, true);
+    }
+
+    @Override
+    public void remove(int position) {
+        final Node<E> node = detach(position);
+        if (node != null) {
+            release(node);
+        }
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(mTable, null);
+        mHead.before = mHead.after = mHead;
+        mRecycled = null;
+        mEntryCount = 0;
+        mSize = 0;
+    }
+
+    @Override
+    public void trimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE) {
+            // Dropped for memory pressure, unlike explicit clear
+            mEvictionCount += mEntryCount;
+            clear();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
+            trimToSize(mMaxSize / 4, false);
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            trimToSize(mMaxSize / 2, false);
+        }
+    }
+
+    @Override
+    public int size() {
+        return mSize;
+    }
+
+    public int maxSize() {
+        return mMaxSize;
+    }
+
+    @Override
+    public int hitCount() {
+        return mHitCount;
+    }
+
+    @Override
+    public int missCount() {
+        return mMissCount;
+    }
+
+    @Override
+    public int evictionCount() {
+        return mEvictionCount;
+    }
+
+    @Override
+    public String toString() {
+        return "LruRowCache{maxSize=" + mMaxSize + ", hits=" + mHitCount + ", misses=" + mMissCount + "}";
+    }
+
+    /**
+     * @param recycle Keep evicted nodes for reuse, false when trimming for memory pressure
+     */
+    private void trimToSize(int maxSize, boolean recycle) {
+        while (mSize > maxSize && mHead.after != mHead) {
+            final Node<E> eldest = detach(mHead.after.key);
+            mEvictionCount++;
+            if (recycle) {
+                release(eldest);
+            } else {
+                eldest.value = null;
+            }
+        }
+        if (!recycle) {
+            mRecycled = null;
+        }
+    }
+
+    private int sizeOf(E object) {
+        if (mEstimator == null) return 1;
+        final int size = mEstimator.sizeOf(object);
+        if (size < 0) throw new IllegalStateException("Negative size: " + object);
+        return size;
+    }
+
+    private Node<E> find(int position) {
+        for (Node<E> node = mTable[slotOf(position, mTable.length)]; node != null; node = node.next) {
+            if (node.key == position) return node;
+        }
+        return null;
+    }
+
+    /**
+     * Removes node of {@code position} from table and access order list
+     */
+    private Node<E> detach(int position) {
+        final int slot = slotOf(position, mTable.length);
+        Node<E> prev = null;
+        for (Node<E> node = mTable[slot]; node != null; prev = node, node = node.next) {
+            if (node.key != position) continue;
+            if (prev == null) {
+                mTable[slot] = node.next;
+            } else {
+                prev.next = node.next;
+            }
+            unlink(node);
+            mEntryCount--;
+            mSize -= node.size;
+            return node;
+        }
+        return null;
+    }
+
+    private void release(Node<E> node) {
+        node.value = null;
+        node.next = mRecycled;
+        mRecycled = node;
+    }
+
+    private void resize(int capacity) {
+        final Node<E>[] table = newTable(capacity);
+        for (Node<E> node = mHead.after; node != mHead; node = node.after) {
+            final int slot = slotOf(node.key, capacity);
+            node.next = table[slot];
+            table[slot] = node;
+        }
+        mTable = table;
+    }
+
+    private void linkLast(Node<E> node) {
+        node.before = mHead.before;
+        node.after = mHead;
+        mHead.before.after = node;
+        mHead.before = node;
+    }
+
+    private static <E> void unlink(Node<E> node) {
+        node.before.after = node.after;
+        node.after.before = node.before;
+    }
+
+    private static int slotOf(int position, int capacity) {
+        // Sequential positions already spread evenly, only fold high bits in
+        return (position ^ (position >>> 16)) & (capacity - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> Node<E>[] newTable(int capacity) {
+        return new Node[capacity];
+    }
+
+    private static class Node<E> {
+        int key;
+        E value;
+        int size;
+        /**
+         * Next node in hash chain, or in recycled list
+         */
+        Node<E> next;
+        Node<E> before, after;
+    }
+
+    public interface SizeEstimator<E> {
+
+        /**
+         * @return Estimated retained size of this row in bytes, must not be negative
+         */
+        int sizeOf(E object);
+    }
+}
@@ -0,0 +1,154 @@
+package org.mariotaku.library.objectcursor.cache;
+
+import java.io.IOException;
+
+/**
+ * Reads a record written by {@link RecordWriter}, fields must be read in the same order as written.
+ * <p>
+ * Not thread safe, call {@link #reset(byte[], Object[])} before reading next record.
+ * <p>
+ * Created by mariotaku on 16/5/13.
+ */
+public final class RecordReader {
+
+    private byte[] mData;
+    private int mPosition;
+    private Object[] mRefs;
+    private int mRefsPosition;
+    private char[] mChars = new char[32];
+    private StringPool mStringPool = StringPool.getDefault();
+
+    public void reset(byte[] data, Object[] refs) {
+        mData = data;
+        mPosition = 0;
+        mRefs = refs;
+        mRefsPosition = 0;
+    }
+
+    public boolean readBoolean() {
+        return mData[mPosition++] != 0;
+    }
+
+    public int readInt() {
+        final long value = readVarLong();
+        return (int) ((value >>> 1) ^ -(value & 1));
+    }
+
+    public long readLong() {
+        final long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public float readFloat() {
+        return Float.intBitsToFloat((int) readFixed(4));
+    }
+
+    public double readDouble() {
+        return Double.longBitsToDouble(readFixed(8));
+    }
+
+    /**
+     * Sets pool used by {@link #readPooledString()}, defaults to {@link StringPool#getDefault()}
+     */
+    public void setStringPool(StringPool pool) {
+        if (pool == null) throw new NullPointerException();
+        mStringPool = pool;
+    }
+
+    public String readString() {
+        final int length = readChars();
+        if (length < 0) return null;
+        return new String(mChars, 0, length);
+    }
+
+    /**
+     * Same as {@link #readString()}, but returns pooled instance if an equal value is in pool, used by
+     * {@link org.mariotaku.library.objectcursor.annotation.CursorField#dedup() dedup} fields
+     */
+    public String readPooledString() {
+        final int length = readChars();
+        if (length < 0) return null;
+        return mStringPool.get(mChars, length);
+    }
+
+    /**
+     * @return Char count read into {@code mChars}, -1 for null
+     */
+    private int readChars() {
+        final int length = (int) readVarLong() - 1;
+        if (length < 0) return -1;
+        if (mChars.length < length) {
+            mChars = new char[Math.max(length, mChars.length * 2)];
+        }
+        final char[] chars = mChars;
+        final byte[] data = mData;
+        int position = mPosition;
+        for (int i = 0; i < length; i++) {
+            final int b = data[position++] & 0xFF;
+            if (b < 0x80) {
+                chars[i] = (char) b;
+            } else if (b < 0xE0) {
+                chars[i] = (char) (((b & 0x1F) << 6) | (data[position++] & 0x3F));
+            } else {
+                chars[i] = (char) (((b & 0x0F) << 12) | ((data[position++] & 0x3F) << 6)
+                        | (data[position++] & 0x3F));
+            }
+        }
+        mPosition = position;
+        return length;
+    }
+
+    public byte[] readBlob() {
+        final int length = (int) readVarLong() - 1;
+        if (length < 0) return null;
+        final byte[] value = new byte[length];
+        System.arraycopy(mData, mPosition, value, 0, length);
+        mPosition += length;
+        return value;
+    }
+
+    /**
+     * @return Value written by {@link RecordWriter#writeRaw(Object)}, {@code Long}, {@code Double}, {@code String},
+     * {@code byte[]} or null
+     */
+    public Object readRaw() throws IOException {
+        final byte tag = mData[mPosition++];
+        switch (tag) {
+            case RecordWriter.RAW_NULL:
+                return null;
+            case RecordWriter.RAW_LONG:
+                return readLong();
+            case RecordWriter.RAW_DOUBLE:
+                return readDouble();
+            case RecordWriter.RAW_STRING:
+                return readString();
+            case RecordWriter.RAW_BLOB:
+                return readBlob();
+        }
+        throw new IOException("Malformed raw value, tag " + tag);
+    }
+
+    public Object readObject() {
+        return mRefs[mRefsPosition++];
+    }
+
+    private long readVarLong() {
+        final byte[] data = mData;
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            final byte b = data[mPosition++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return value;
+            shift += 7;
+        }
+    }
+
+    private long readFixed(int bytes) {
+        long bits = 0;
+        for (int i = 0; i < bytes; i++) {
+            bits |= (long) (mData[mPosition++] & 0xFF) << (i * 8);
+        }
+        return bits;
+    }
+}
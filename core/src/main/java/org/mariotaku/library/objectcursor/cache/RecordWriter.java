@@ -0,0 +1,193 @@
+package org.mariotaku.library.objectcursor.cache;
+
+import android.content.ContentValues;
+
+import java.util.Arrays;
+
+/**
+ * Writes fields of a row into a compact record, used by generated {@code RowCodec}s. Integers are zigzag varints,
+ * strings are stored in modified UTF-8 with char count. Fields using converters are stored as column value written
+ * by converter, like {@code BufferCodec} does, so decoded objects never share mutable values with cached ones.
+ * Embedded objects and snapshots are kept as object references.
+ * <p>
+ * Not thread safe, call {@link #reset()} before writing next record.
+ * <p>
+ * Created by mariotaku on 16/5/13.
+ */
+public final class RecordWriter {
+
+    static final byte RAW_NULL = 0;
+    static final byte RAW_LONG = 1;
+    static final byte RAW_DOUBLE = 2;
+    static final byte RAW_STRING = 3;
+    static final byte RAW_BLOB = 4;
+
+    private static final Object[] EMPTY_REFS = new Object[0];
+
+    private byte[] mData = new byte[64];
+    private int mSize;
+    private Object[] mRefs = new Object[4];
+    private int mRefsSize;
+    private ContentValues mConverted;
+
+    public void reset() {
+        mSize = 0;
+        // Don't retain objects of previous record
+        Arrays.fill(mRefs, 0, mRefsSize, null);
+        mRefsSize = 0;
+        if (mConverted != null) {
+            mConverted.clear();
+        }
+    }
+
+    /**
+     * @return Values generated codecs write converter output into, reused for every record written by this writer
+     */
+    public ContentValues getConvertedValues() {
+        if (mConverted == null) {
+            mConverted = new ContentValues();
+        }
+        return mConverted;
+    }
+
+    public void writeBoolean(boolean value) {
+        ensureCapacity(1);
+        mData[mSize++] = (byte) (value ? 1 : 0);
+    }
+
+    public void writeInt(int value) {
+        writeVarLong(((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL);
+    }
+
+    public void writeLong(long value) {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    public void writeFloat(float value) {
+        writeFixed(Float.floatToRawIntBits(value), 4);
+    }
+
+    public void writeDouble(double value) {
+        writeFixed(Double.doubleToRawLongBits(value), 8);
+    }
+
+    /**
+     * Writes char count plus one (0 for null), then chars in modified UTF-8
+     */
+    public void writeString(String value) {
+        if (value == null) {
+            writeVarLong(0);
+            return;
+        }
+        final int length = value.length();
+        writeVarLong(length + 1);
+        ensureCapacity(length * 3);
+        final byte[] data = mData;
+        int size = mSize;
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c > 0 && c < 0x80) {
+                data[size++] = (byte) c;
+            } else if (c < 0x800) {
+                data[size++] = (byte) (0xC0 | (c >> 6));
+                data[size++] = (byte) (0x80 | (c & 0x3F));
+            } else {
+                data[size++] = (byte) (0xE0 | (c >> 12));
+                data[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                data[size++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        mSize = size;
+    }
+
+    /**
+     * Writes length plus one (0 for null), then bytes
+     */
+    public void writeBlob(byte[] value) {
+        if (value == null) {
+            writeVarLong(0);
+            return;
+        }
+        writeVarLong(value.length + 1);
+        ensureCapacity(value.length);
+        System.arraycopy(value, 0, mData, mSize, value.length);
+        mSize += value.length;
+    }
+
+    /**
+     * Writes column value as written by a converter to {@code ContentValues}, prefixed with type tag. Booleans are
+     * stored as 1 or 0 like SQLite does.
+     */
+    public void writeRaw(Object value) {
+        ensureCapacity(1);
+        if (value == null) {
+            mData[mSize++] = RAW_NULL;
+        } else if (value instanceof byte[]) {
+            mData[mSize++] = RAW_BLOB;
+            writeBlob((byte[]) value);
+        } else if (value instanceof Float || value instanceof Double) {
+            mData[mSize++] = RAW_DOUBLE;
+            writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof Number) {
+            mData[mSize++] = RAW_LONG;
+            writeLong(((Number) value).longValue());
+        } else if (value instanceof Boolean) {
+            mData[mSize++] = RAW_LONG;
+            writeLong((Boolean) value ? 1 : 0);
+        } else {
+            mData[mSize++] = RAW_STRING;
+            writeString(value.toString());
+        }
+    }
+
+    /**
+     * Keeps {@code value} as reference, nothing is written to data
+     */
+    public void writeObject(Object value) {
+        if (mRefsSize == mRefs.length) {
+            mRefs = Arrays.copyOf(mRefs, mRefs.length * 2);
+        }
+        mRefs[mRefsSize++] = value;
+    }
+
+    /**
+     * @return Copy of record data written since last reset
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(mData, mSize);
+    }
+
+    /**
+     * @return Copy of references written since last reset
+     */
+    public Object[] toRefsArray() {
+        if (mRefsSize == 0) return EMPTY_REFS;
+        return Arrays.copyOf(mRefs, mRefsSize);
+    }
+
+    private void writeVarLong(long value) {
+        ensureCapacity(10);
+        final byte[] data = mData;
+        int size = mSize;
+        while ((value & ~0x7FL) != 0) {
+            data[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[size++] = (byte) value;
+        mSize = size;
+    }
+
+    private void writeFixed(long bits, int bytes) {
+        ensureCapacity(bytes);
+        for (int i = 0; i < bytes; i++) {
+            mData[mSize++] = (byte) (bits >>> (i * 8));
+        }
+    }
+
+    private void ensureCapacity(int extra) {
+        final int required = mSize + extra;
+        if (required > mData.length) {
+            mData = Arrays.copyOf(mData, Math.max(required, mData.length * 2));
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package org.mariotaku.library.objectcursor.cache;
+
+/**
+ * Cache policy for rows materialized by {@link org.mariotaku.library.objectcursor.ObjectCursor}.
+ * <p>
+ * Implementations don't need to be thread safe, {@code ObjectCursor} only touches its cache while holding its own lock.
+ * <p>
+ * Created by mariotaku on 16/5/2.
+ */
+public interface RowCache<E> {
+
+    E get(int position);
+
+    /**
+     * Checks a row without counting hit or miss, or otherwise affecting eviction order
+     */
+    boolean contains(int position);
+
+    void put(int position, E object);
+
+    void remove(int position);
+
+    void clear();
+
+    /**
+     * Memory pressure hook, level constants are the same as
+     * {@link android.content.ComponentCallbacks2#onTrimMemory(int)}
+     */
+    void trimMemory(int level);
+
+    /**
+     * @return Current size of this cache, in the unit of its policy (entries or estimated bytes)
+     */
+    int size();
+
+    int hitCount();
+
+    int missCount();
+
+    int evictionCount();
+
+}
@@ -0,0 +1,246 @@
+package org.mariotaku.library.objectcursor.cache;
+
+import android.content.ComponentCallbacks2;
+import android.util.LruCache;
+
+import org.mariotaku.library.objectcursor.ObjectCursor;
+
+import java.io.IOException;
+import java.util.BitSet;
+
+/**
+ * Two tier cache, a few recently used rows are kept as objects, rows evicted from it are encoded into compact records
+ * with generated {@link ObjectCursor.RowCodec}, and decoded again on demand. Records are several times smaller than
+ * objects with many small strings and boxed fields, so more rows stay resident for the same heap.
+ * <p>
+ * Decoded object is a new instance, changes made to evicted objects are kept only if they were made before eviction.
+ * Change tracking snapshot is carried over, {@code dedup} strings are pooled again with
+ * {@link #setStringPool(StringPool)}.
+ * <p>
+ * Fields using converters are stored as column values, and converters run again on every decode, so decoded objects
+ * never share possibly mutable values with each other. This costs a conversion per converted field on each cold tier
+ * hit: primitive converters only call {@code fromLong} or alike, {@link
+ * org.mariotaku.library.objectcursor.converter.RawValueCursorFieldConverter RawValueCursorFieldConverter}s parse
+ * the value directly, other converters read it through a single row cursor. Lazy fields are not converted until
+ * accessed.
+ * <p>
+ * Created by mariotaku on 16/5/13.
+ */
+public class SerializedRowCache<E> implements RowCache<E> {
+
+    public static final int DEFAULT_HOT_ENTRIES = 16;
+
+    private final ObjectCursor.RowCodec<E> mCodec;
+    private final LruCache<Integer, E> mHot;
+    private final LruCache<Integer, Record> mCold;
+    private final RecordWriter mWriter = new RecordWriter();
+    private final RecordReader mReader = new RecordReader();
+    // Rows in either tier, LruCache can't be checked without counting and reordering
+    private final BitSet mPositions = new BitSet();
+
+    // Objects evicted from hot tier are dropped instead of encoded while true
+    private boolean mDropping;
+    private int mHitCount, mMissCount;
+
+    public SerializedRowCache(Class<E> cls, int maxBytes) {
+        this(ObjectCursor.rowCodecFrom(cls), maxBytes, DEFAULT_HOT_ENTRIES);
+    }
+
+    /**
+     * @param maxBytes   Maximum estimated size of records
+     * @param hotEntries Maximum number of rows kept as objects
+     */
+    public SerializedRowCache(ObjectCursor.RowCodec<E> codec, int maxBytes, int hotEntries) {
+        if (codec == null) throw new NullPointerException();
+        mCodec = codec;
+        mCold = new LruCache<Integer, Record>(maxBytes) {
+            @Override
+            protected int sizeOf(Integer key, Record value) {
+                return value.sizeOf();
+            }
+
+            @Override
+            protected void entryRemoved(boolean evicted, Integer key, Record oldValue, Record newValue) {
+                if (newValue == null) {
+                    mPositions.clear(key);
+                }
+            }
+        };
+        mHot = new LruCache<Integer, E>(hotEntries) {
+            @Override
+            protected void entryRemoved(boolean evicted, Integer key, E oldValue, E newValue) {
+                if (newValue == null) {
+                    mPositions.clear(key);
+                }
+                if (evicted && !mDropping) {
+                    final Record record = encode(oldValue);
+                    // Row failed to encode is parsed from cursor again
+                    if (record != null) {
+                        // Set first, record larger than cache is evicted right away
+                        mPositions.set(key);
+                        mCold.put(key, record);
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Sets pool used by {@code dedup} fields of decoded objects, defaults to {@link StringPool#getDefault()}
+     */
+    public void setStringPool(StringPool pool) {
+        mReader.setStringPool(pool);
+    }
+
+    @Override
+    public E get(int position) {
+        final E hot = mHot.get(position);
+        if (hot != null) {
+            mHitCount++;
+            return hot;
+        }
+        final Record record = mCold.remove(position);
+        if (record == null) {
+            mMissCount++;
+            return null;
+        }
+        mHitCount++;
+        final E object = decode(record);
+        mPositions.set(position);
+        mHot.put(position, object);
+        return object;
+    }
+
+    @Override
+    public void put(int position, E object) {
+        mCold.remove(position);
+        mPositions.set(position);
+        mHot.put(position, object);
+    }
+
+    @Override
+    public boolean contains(int position) {
+        return position >= 0 && mPositions.get(position);
+    }
+
+    @Override
+    public void remove(int position) {
+        mHot.remove(position);
+        mCold.remove(position);
+    }
+
+    @Override
+    public void clear() {
+        dropHot();
+        mCold.evictAll();
+    }
+
+    @Override
+    public void trimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE) {
+            clear();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
+            dropHot();
+            mCold.trimToSize(mCold.maxSize() / 4);
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            // Records are cheaper than objects, keep them
+            mHot.evictAll();
+            mCold.trimToSize(mCold.maxSize() / 2);
+        }
+    }
+
+    /**
+     * @return Estimated size of records in bytes, objects in hot tier are not counted
+     */
+    @Override
+    public int size() {
+        return mCold.size();
+    }
+
+    /**
+     * @return Number of rows kept as objects
+     */
+    public int hotSize() {
+        return mHot.size();
+    }
+
+    @Override
+    public int hitCount() {
+        return mHitCount;
+    }
+
+    @Override
+    public int missCount() {
+        return mMissCount;
+    }
+
+    @Override
+    public int evictionCount() {
+        return mCold.evictionCount();
+    }
+
+    private void dropHot() {
+        mDropping = true;
+        try {
+            mHot.evictAll();
+        } finally {
+            mDropping = false;
+        }
+    }
+
+    /**
+     * @return Encoded record, or null if a converter failed
+     */
+    private Record encode(E object) {
+        mWriter.reset();
+        try {
+            mCodec.encode(object, mWriter);
+            return new Record(mWriter.toByteArray(), mWriter.toRefsArray());
+        } catch (IOException e) {
+            return null;
+        } finally {
+            mWriter.reset();
+        }
+    }
+
+    private E decode(Record record) {
+        mReader.reset(record.data, record.refs);
+        try {
+            return mCodec.decode(mReader);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            mReader.reset(null, null);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SerializedRowCache{" +
+                "hot=" + mHot +
+                ", cold=" + mCold +
+                '}';
+    }
+
+    private static final class Record {
+
+        final byte[] data;
+        final Object[] refs;
+
+        Record(byte[] data, Object[] refs) {
+            this.data = data;
+            this.refs = refs;
+        }
+
+        /**
+         * @return Estimated retained size, including object headers
+         */
+        int sizeOf() {
+            int size = 16 + 16 + data.length;
+            if (refs.length > 0) {
+                size += 16 + refs.length * 4;
+            }
+            return size;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package org.mariotaku.library.objectcursor.cache;
+
+import android.content.ComponentCallbacks2;
+import android.util.SparseArray;
+
+/**
+ * Unbounded cache, keeps every materialized row until the list is closed.
+ * <p>
+ * Created by mariotaku on 16/5/2.
+ */
+public class SparseRowCache<E> implements RowCache<E> {
+
+    private final SparseArray<E> mArray;
+    private int mHitCount, mMissCount, mEvictionCount;
+
+    public SparseRowCache() {
+        mArray = new SparseArray<>();
+    }
+
+    @Override
+    public E get(int position) {
+        final int idx = mArray.indexOfKey(position);
+        if (idx >= 0) {
+            mHitCount++;
+            return mArray.valueAt(idx);
+        }
+        mMissCount++;
+        return null;
+    }
+
+    @Override
+    public boolean contains(int position) {
+        return mArray.get(position) != null;
+    }
+
+    @Override
+    public void put(int position, E object) {
+        mArray.put(position, object);
+    }
+
+    @Override
+    public void remove(int position) {
+        mArray.delete(position);
+    }
+
+    @Override
+    public void clear() {
+        mArray.clear();
+    }
+
+    @Override
+    public void trimMemory(int level) {
+        // There's nothing we can trim partially, drop everything only if the system really wants memory
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE) {
+            mEvictionCount += mArray.size();
+            mArray.clear();
+        }
+    }
+
+    @Override
+    public int size() {
+        return mArray.size();
+    }
+
+    @Override
+    public int hitCount() {
+        return mHitCount;
+    }
+
+    @Override
+    public int missCount() {
+        return mMissCount;
+    }
+
+    @Override
+    public int evictionCount() {
+        return mEvictionCount;
+    }
+
+    @Override
+    public String toString() {
+        return "SparseRowCache{size=" + size() + ", hits=" + mHitCount + ", misses=" + mMissCount + "}";
+    }
+}
@@ -0,0 +1,116 @@
+package org.mariotaku.library.objectcursor.cache;
+
+import android.database.CharArrayBuffer;
+import android.database.Cursor;
+
+import java.util.Arrays;
+
+/**
+ * Reuses one {@code String} instance for equal column values, used by generated code for
+ * {@link org.mariotaku.library.objectcursor.annotation.CursorField#dedup() dedup} fields.
+ * <p>
+ * Values are copied into a per-thread {@link CharArrayBuffer} and matched against the pool before a new
+ * {@code String} is allocated. The pool is a fixed size table without chaining, a value replaces the one in its
+ * slot on mismatch, so memory stays bounded and lookup never allocates. Long values rarely repeat, they're not
+ * pooled.
+ * <p>
+ * Thread safe. Strings are immutable, so racing writes to a slot only cost a missed match.
+ * <p>
+ * Created by mariotaku on 16/5/13.
+ */
+public final class StringPool {
+
+    public static final int DEFAULT_CAPACITY = 2048;
+    public static final int DEFAULT_MAX_LENGTH = 128;
+
+    private static final StringPool DEFAULT = new StringPool(DEFAULT_CAPACITY, DEFAULT_MAX_LENGTH);
+
+    private final String[] mTable;
+    private final int mMask;
+    private final int mMaxLength;
+    private final ThreadLocal<CharArrayBuffer> mBuffer = new ThreadLocal<CharArrayBuffer>() {
+        @Override
+        protected CharArrayBuffer initialValue() {
+            return new CharArrayBuffer(mMaxLength);
+        }
+    };
+
+    /**
+     * @param capacity  Number of slots, rounded up to power of two
+     * @param maxLength Values longer than this are not pooled
+     */
+    public StringPool(int capacity, int maxLength) {
+        int size = 16;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        mTable = new String[size];
+        mMask = size - 1;
+        mMaxLength = maxLength;
+    }
+
+    /**
+     * @return Pool shared by generated classes, unless another one is set
+     */
+    public static StringPool getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Same as {@link Cursor#getString(int)}, but returns pooled instance if an equal value is in pool
+     */
+    public String get(Cursor cursor, int columnIndex) {
+        final CharArrayBuffer buffer = mBuffer.get();
+        cursor.copyStringToBuffer(columnIndex, buffer);
+        final int length = buffer.sizeCopied;
+        // Null is copied as empty
+        if (length == 0) return cursor.isNull(columnIndex) ? null : "";
+        return get(buffer.data, length);
+    }
+
+    /**
+     * @return Pooled instance equal to first {@code length} chars of {@code chars}
+     */
+    public String get(char[] chars, int length) {
+        if (length > mMaxLength) return new String(chars, 0, length);
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        final int slot = slotOf(hash);
+        final String existing = mTable[slot];
+        if (existing != null && contentEquals(existing, chars, length)) return existing;
+        final String value = new String(chars, 0, length);
+        mTable[slot] = value;
+        return value;
+    }
+
+    /**
+     * @return Pooled instance equal to {@code value}, {@code value} itself is pooled if absent
+     */
+    public String intern(String value) {
+        if (value == null || value.length() > mMaxLength) return value;
+        final int slot = slotOf(value.hashCode());
+        final String existing = mTable[slot];
+        if (value.equals(existing)) return existing;
+        mTable[slot] = value;
+        return value;
+    }
+
+    public void clear() {
+        Arrays.fill(mTable, null);
+    }
+
+    private int slotOf(int hash) {
+        // Spread high bits, String hash of short values varies mostly in low bits
+        return (hash ^ (hash >>> 16)) & mMask;
+    }
+
+    private static boolean contentEquals(String value, char[] chars, int length) {
+        if (value.length() != length) return false;
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) != chars[i]) return false;
+        }
+        return true;
+    }
+}
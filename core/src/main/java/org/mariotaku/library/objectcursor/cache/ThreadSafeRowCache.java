@@ -0,0 +1,19 @@
+package org.mariotaku.library.objectcursor.cache;
+
+/**
+ * Cache safe to read and write without external locking.
+ * <p>
+ * {@link org.mariotaku.library.objectcursor.ObjectCursor} with such a cache serves cached rows without taking its
+ * lock, only moving the cursor and parsing a row is serialized.
+ * <p>
+ * Created by mariotaku on 16/5/5.
+ */
+public interface ThreadSafeRowCache<E> extends RowCache<E> {
+
+    /**
+     * Same as {@link #get(int)} but not counted as hit or miss, used to check a row again after a missed
+     * {@link #get(int)}
+     */
+    E peek(int position);
+
+}
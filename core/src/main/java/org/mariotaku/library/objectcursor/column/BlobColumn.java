@@ -0,0 +1,50 @@
+package org.mariotaku.library.objectcursor.column;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+
+/**
+ * Handle of {@code byte[]} column, compared as unsigned bytes like SQLite does
+ * <p>
+ * Created by mariotaku on 16/5/13.
+ */
+public abstract class BlobColumn<T> extends CursorColumn<T> {
+
+    protected BlobColumn(String name, int ordinal) {
+        super(name, ordinal);
+    }
+
+    public abstract byte[] get(T instance);
+
+    public abstract void set(T instance, byte[] value);
+
+    public byte[] read(Cursor cursor, int index) {
+        return cursor.getBlob(index);
+    }
+
+    @Override
+    public boolean isNull(T instance) {
+        return get(instance) == null;
+    }
+
+    @Override
+    public void read(T instance, Cursor cursor, int index) {
+        set(instance, cursor.getBlob(index));
+    }
+
+    @Override
+    public void write(T instance, ContentValues values) {
+        values.put(getName(), get(instance));
+    }
+
+    @Override
+    public int compare(T lhs, T rhs) {
+        final byte[] l = get(lhs), r = get(rhs);
+        if (l == null || r == null) return l == r ? 0 : (l == null ? -1 : 1);
+        for (int i = 0, j = Math.min(l.length, r.length); i < j; i++) {
+            final int diff = (l[i] & 0xFF) - (r[i] & 0xFF);
+            if (diff != 0) return diff;
+        }
+        return l.length - r.length;
+    }
+}
@@ -0,0 +1,60 @@
+package org.mariotaku.library.objectcursor.column;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+
+/**
+ * Handle of {@code boolean} column, stored as 1 or 0
+ * <p>
+ * Created by mariotaku on 16/5/13.
+ */
+public abstract class BooleanColumn<T> extends CursorColumn<T> {
+
+    protected BooleanColumn(String name, int ordinal) {
+        super(name, ordinal);
+    }
+
+    /**
+     * @return Field value, false if null
+     */
+    public abstract boolean get(T instance);
+
+    public abstract void set(T instance, boolean value);
+
+    /**
+     * Sets field to null, or false for primitive field
+     */
+    public void setNull(T instance) {
+        set(instance, false);
+    }
+
+    public boolean read(Cursor cursor, int index) {
+        return cursor.getShort(index) == 1;
+    }
+
+    @Override
+    public void read(T instance, Cursor cursor, int index) {
+        if (cursor.isNull(index)) {
+            setNull(instance);
+        } else {
+            set(instance, cursor.getShort(index) == 1);
+        }
+    }
+
+    @Override
+    public void write(T instance, ContentValues values) {
+        if (isNull(instance)) {
+            values.putNull(getName());
+        } else {
+            values.put(getName(), get(instance));
+        }
+    }
+
+    @Override
+    public int compare(T lhs, T rhs) {
+        final int nullResult = compareNull(lhs, rhs);
+        if (nullResult != 2) return nullResult;
+        final boolean l = get(lhs), r = get(rhs);
+        return l == r ? 0 : (l ? 1 : -1);
+    }
+}
@@ -0,0 +1,86 @@
+package org.mariotaku.library.objectcursor.column;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+
+import org.mariotaku.library.objectcursor.ObjectCursor;
+
+import java.util.Comparator;
+
+/**
+ * Handle of a column of annotated class, generated as {@code static final} constants in CursorIndices when
+ * {@link org.mariotaku.library.objectcursor.annotation.CursorObject#columnHandles()} is enabled.
+ * <p>
+ * Handles access object fields directly and find cursor column by ordinal, so comparators, projections and diffing
+ * don't need column name lookups or reflection. Comparing puts null first.
+ * <p>
+ * Created by mariotaku on 16/5/13.
+ */
+public abstract class CursorColumn<T> implements Comparator<T> {
+
+    private final String mName;
+    private final int mOrdinal;
+
+    protected CursorColumn(String name, int ordinal) {
+        mName = name;
+        mOrdinal = ordinal;
+    }
+
+    public final String getName() {
+        return mName;
+    }
+
+    /**
+     * @return Ordinal of this column, same as the {@code ORDINAL_} constant in CursorIndices
+     */
+    public final int getOrdinal() {
+        return mOrdinal;
+    }
+
+    /**
+     * @return Column index in cursor {@code indices} was created for, -1 if not in projection
+     */
+    public final int indexIn(ObjectCursor.CursorIndices<? extends T> indices) {
+        return indices.getIndex(mOrdinal);
+    }
+
+    /**
+     * @return True if field value is null, always false for primitive fields
+     */
+    public boolean isNull(T instance) {
+        return false;
+    }
+
+    public boolean valueEquals(T lhs, T rhs) {
+        return compare(lhs, rhs) == 0;
+    }
+
+    /**
+     * Copies value of column at {@code index} into field of {@code instance}
+     */
+    public abstract void read(T instance, Cursor cursor, int index);
+
+    /**
+     * Puts field value of {@code instance} into {@code values}
+     */
+    public abstract void write(T instance, ContentValues values);
+
+    /**
+     * @return Result of comparing nulls, or 2 if both are not null
+     */
+    final int compareNull(T lhs, T rhs) {
+        final boolean lhsNull = isNull(lhs), rhsNull = isNull(rhs);
+        if (lhsNull && rhsNull) return 0;
+        if (lhsNull) return -1;
+        if (rhsNull) return 1;
+        return 2;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{" +
+                "name='" + mName + '\'' +
+                ", ordinal=" + mOrdinal +
+                '}';
+    }
+}
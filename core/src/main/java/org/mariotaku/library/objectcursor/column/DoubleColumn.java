@@ -0,0 +1,59 @@
+package org.mariotaku.library.objectcursor.column;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+
+/**
+ * Handle of real column, for {@code float}, {@code double} fields and boxed ones
+ * <p>
+ * Created by mariotaku on 16/5/13.
+ */
+public abstract class DoubleColumn<T> extends CursorColumn<T> {
+
+    protected DoubleColumn(String name, int ordinal) {
+        super(name, ordinal);
+    }
+
+    /**
+     * @return Field value, 0 if null
+     */
+    public abstract double get(T instance);
+
+    public abstract void set(T instance, double value);
+
+    /**
+     * Sets field to null, or 0 for primitive field
+     */
+    public void setNull(T instance) {
+        set(instance, 0);
+    }
+
+    public double read(Cursor cursor, int index) {
+        return cursor.getDouble(index);
+    }
+
+    @Override
+    public void read(T instance, Cursor cursor, int index) {
+        if (cursor.isNull(index)) {
+            setNull(instance);
+        } else {
+            set(instance, cursor.getDouble(index));
+        }
+    }
+
+    @Override
+    public void write(T instance, ContentValues values) {
+        if (isNull(instance)) {
+            values.putNull(getName());
+        } else {
+            values.put(getName(), get(instance));
+        }
+    }
+
+    @Override
+    public int compare(T lhs, T rhs) {
+        final int nullResult = compareNull(lhs, rhs);
+        if (nullResult != 2) return nullResult;
+        return Double.compare(get(lhs), get(rhs));
+    }
+}
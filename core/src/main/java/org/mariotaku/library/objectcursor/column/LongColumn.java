@@ -0,0 +1,60 @@
+package org.mariotaku.library.objectcursor.column;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+
+/**
+ * Handle of integer column, for {@code byte}, {@code short}, {@code int}, {@code long} fields and boxed ones
+ * <p>
+ * Created by mariotaku on 16/5/13.
+ */
+public abstract class LongColumn<T> extends CursorColumn<T> {
+
+    protected LongColumn(String name, int ordinal) {
+        super(name, ordinal);
+    }
+
+    /**
+     * @return Field value, 0 if null
+     */
+    public abstract long get(T instance);
+
+    public abstract void set(T instance, long value);
+
+    /**
+     * Sets field to null, or 0 for primitive field
+     */
+    public void setNull(T instance) {
+        set(instance, 0);
+    }
+
+    public long read(Cursor cursor, int index) {
+        return cursor.getLong(index);
+    }
+
+    @Override
+    public void read(T instance, Cursor cursor, int index) {
+        if (cursor.isNull(index)) {
+            setNull(instance);
+        } else {
+            set(instance, cursor.getLong(index));
+        }
+    }
+
+    @Override
+    public void write(T instance, ContentValues values) {
+        if (isNull(instance)) {
+            values.putNull(getName());
+        } else {
+            values.put(getName(), get(instance));
+        }
+    }
+
+    @Override
+    public int compare(T lhs, T rhs) {
+        final int nullResult = compareNull(lhs, rhs);
+        if (nullResult != 2) return nullResult;
+        final long l = get(lhs), r = get(rhs);
+        return l < r ? -1 : (l == r ? 0 : 1);
+    }
+}
@@ -0,0 +1,46 @@
+package org.mariotaku.library.objectcursor.column;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+
+/**
+ * Handle of {@code String} column
+ * <p>
+ * Created by mariotaku on 16/5/13.
+ */
+public abstract class StringColumn<T> extends CursorColumn<T> {
+
+    protected StringColumn(String name, int ordinal) {
+        super(name, ordinal);
+    }
+
+    public abstract String get(T instance);
+
+    public abstract void set(T instance, String value);
+
+    public String read(Cursor cursor, int index) {
+        return cursor.getString(index);
+    }
+
+    @Override
+    public boolean isNull(T instance) {
+        return get(instance) == null;
+    }
+
+    @Override
+    public void read(T instance, Cursor cursor, int index) {
+        set(instance, cursor.getString(index));
+    }
+
+    @Override
+    public void write(T instance, ContentValues values) {
+        values.put(getName(), get(instance));
+    }
+
+    @Override
+    public int compare(T lhs, T rhs) {
+        final String l = get(lhs), r = get(rhs);
+        if (l == null || r == null) return l == r ? 0 : (l == null ? -1 : 1);
+        return l.compareTo(r);
+    }
+}
@@ -0,0 +1,29 @@
+package org.mariotaku.library.objectcursor.converter;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+
+/**
+ * Created by mariotaku on 16/5/11.
+ */
+public abstract class AbstractLongCursorFieldConverter<T> implements LongCursorFieldConverter<T> {
+
+    @Override
+    public final T parseField(Cursor cursor, int columnIndex, ParameterizedType fieldType) throws IOException {
+        if (cursor.isNull(columnIndex)) return null;
+        return fromLong(cursor.getLong(columnIndex));
+    }
+
+    @Override
+    public final void writeField(ContentValues values, T object, String columnName, ParameterizedType fieldType)
+            throws IOException {
+        if (object == null) {
+            values.putNull(columnName);
+            return;
+        }
+        values.put(columnName, toLong(object));
+    }
+}
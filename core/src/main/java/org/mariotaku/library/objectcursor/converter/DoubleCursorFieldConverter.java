@@ -0,0 +1,22 @@
+package org.mariotaku.library.objectcursor.converter;
+
+import java.io.IOException;
+
+/**
+ * {@code double} variant of {@link LongCursorFieldConverter}, for {@code REAL} columns
+ * <p>
+ * Created by mariotaku on 16/5/11.
+ */
+public interface DoubleCursorFieldConverter<T> extends CursorFieldConverter<T> {
+
+    /**
+     * @param value Column value, not called for {@code NULL}
+     */
+    T fromDouble(double value) throws IOException;
+
+    /**
+     * @param value Field value, not called for null
+     */
+    double toDouble(T value) throws IOException;
+
+}
@@ -0,0 +1,22 @@
+package org.mariotaku.library.objectcursor.converter;
+
+import java.io.IOException;
+
+/**
+ * {@code int} variant of {@link LongCursorFieldConverter}
+ * <p>
+ * Created by mariotaku on 16/5/11.
+ */
+public interface IntCursorFieldConverter<T> extends CursorFieldConverter<T> {
+
+    /**
+     * @param value Column value, not called for {@code NULL}
+     */
+    T fromInt(int value) throws IOException;
+
+    /**
+     * @param value Field value, not called for null
+     */
+    int toInt(T value) throws IOException;
+
+}
@@ -0,0 +1,29 @@
+package org.mariotaku.library.objectcursor.converter;
+
+import java.io.IOException;
+
+/**
+ * Converter for value types stored as {@code INTEGER} column, e.g. timestamps or flag sets. Generated code reads and
+ * binds the column with primitive {@code Cursor} and {@code SQLiteStatement} methods, and calls
+ * {@link #fromLong(long)} and {@link #toLong(Object)} directly, so the column value is never boxed between cursor
+ * or statement and field ({@code ContentValues} still boxes). {@code NULL} column and null field are handled by
+ * generated code.
+ * <p>
+ * Field type must be {@code T}, primitive fields don't need a converter. Other code paths use
+ * {@link CursorFieldConverter} methods, extend {@link AbstractLongCursorFieldConverter} to get them for free.
+ * <p>
+ * Created by mariotaku on 16/5/11.
+ */
+public interface LongCursorFieldConverter<T> extends CursorFieldConverter<T> {
+
+    /**
+     * @param value Column value, not called for {@code NULL}
+     */
+    T fromLong(long value) throws IOException;
+
+    /**
+     * @param value Field value, not called for null
+     */
+    long toLong(T value) throws IOException;
+
+}
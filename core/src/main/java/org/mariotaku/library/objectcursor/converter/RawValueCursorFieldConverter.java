@@ -0,0 +1,22 @@
+package org.mariotaku.library.objectcursor.converter;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+
+/**
+ * Converter that can parse a column value already read from cursor. Used when a
+ * {@link org.mariotaku.library.objectcursor.LazyField LazyField} is hydrated or a row is decoded from a
+ * {@code BufferCodec} record, converters not implementing this are handed a single row {@code MatrixCursor} instead.
+ * <p>
+ * Created by mariotaku on 16/5/13.
+ */
+public interface RawValueCursorFieldConverter<T> extends CursorFieldConverter<T> {
+
+    /**
+     * Same as {@link #parseField(android.database.Cursor, int, ParameterizedType)}
+     *
+     * @param rawValue Column value, {@code Long}, {@code Double}, {@code String}, {@code byte[]} or null
+     */
+    T parseRawValue(Object rawValue, ParameterizedType fieldType) throws IOException;
+
+}
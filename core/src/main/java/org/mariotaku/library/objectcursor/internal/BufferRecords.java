@@ -0,0 +1,184 @@
+package org.mariotaku.library.objectcursor.internal;
+
+import android.database.MatrixCursor;
+
+import org.mariotaku.library.objectcursor.converter.CursorFieldConverter;
+import org.mariotaku.library.objectcursor.converter.RawValueCursorFieldConverter;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.nio.ByteBuffer;
+
+/**
+ * Helpers used by generated {@code BufferCodec}s. Variable length values are appended at buffer position, their
+ * fixed slot holds offset (relative to record start) and byte length, length is -1 for null.
+ * <p>
+ * Strings are stored in modified UTF-8, same as {@link org.mariotaku.library.objectcursor.cache.RecordWriter}.
+ * <p>
+ * Created by mariotaku on 16/5/13.
+ */
+public class BufferRecords {
+
+    /**
+     * Size of fixed slot of variable length values
+     */
+    public static final int VARIABLE_SLOT_SIZE = 8;
+
+    private static final byte RAW_LONG = 1;
+    private static final byte RAW_DOUBLE = 2;
+    private static final byte RAW_STRING = 3;
+    private static final byte RAW_BLOB = 4;
+
+    private static final String[] RAW_COLUMNS = {"value"};
+
+    private BufferRecords() {
+    }
+
+    public static void putString(ByteBuffer buffer, int start, int slot, String value) {
+        if (value == null) {
+            putSlot(buffer, start, slot, 0, -1);
+            return;
+        }
+        final int offset = buffer.position();
+        putChars(buffer, value);
+        putSlot(buffer, start, slot, offset - start, buffer.position() - offset);
+    }
+
+    public static String getString(ByteBuffer buffer, int start, int slot) {
+        final int length = buffer.getInt(start + slot + 4);
+        if (length == -1) return null;
+        return getChars(buffer, start + buffer.getInt(start + slot), length);
+    }
+
+    public static void putBlob(ByteBuffer buffer, int start, int slot, byte[] value) {
+        if (value == null) {
+            putSlot(buffer, start, slot, 0, -1);
+            return;
+        }
+        final int offset = buffer.position();
+        buffer.put(value);
+        putSlot(buffer, start, slot, offset - start, value.length);
+    }
+
+    public static byte[] getBlob(ByteBuffer buffer, int start, int slot) {
+        final int length = buffer.getInt(start + slot + 4);
+        if (length == -1) return null;
+        final byte[] value = new byte[length];
+        final ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(start + buffer.getInt(start + slot));
+        duplicate.get(value);
+        return value;
+    }
+
+    /**
+     * Writes column value as written by a converter to {@code ContentValues}, prefixed with type tag. Booleans are
+     * stored as 1 or 0 like SQLite does.
+     */
+    public static void putRaw(ByteBuffer buffer, int start, int slot, Object value) {
+        if (value == null) {
+            putSlot(buffer, start, slot, 0, -1);
+            return;
+        }
+        final int offset = buffer.position();
+        if (value instanceof byte[]) {
+            buffer.put(RAW_BLOB);
+            buffer.put((byte[]) value);
+        } else if (value instanceof Float || value instanceof Double) {
+            buffer.put(RAW_DOUBLE);
+            buffer.putDouble(((Number) value).doubleValue());
+        } else if (value instanceof Number) {
+            buffer.put(RAW_LONG);
+            buffer.putLong(((Number) value).longValue());
+        } else if (value instanceof Boolean) {
+            buffer.put(RAW_LONG);
+            buffer.putLong((Boolean) value ? 1 : 0);
+        } else {
+            buffer.put(RAW_STRING);
+            putChars(buffer, value.toString());
+        }
+        putSlot(buffer, start, slot, offset - start, buffer.position() - offset);
+    }
+
+    /**
+     * @return {@code Long}, {@code Double}, {@code String}, {@code byte[]} or null
+     */
+    public static Object getRaw(ByteBuffer buffer, int start, int slot) {
+        final int length = buffer.getInt(start + slot + 4);
+        if (length == -1) return null;
+        final int offset = start + buffer.getInt(start + slot);
+        switch (buffer.get(offset)) {
+            case RAW_LONG:
+                return buffer.getLong(offset + 1);
+            case RAW_DOUBLE:
+                return buffer.getDouble(offset + 1);
+            case RAW_STRING:
+                return getChars(buffer, offset + 1, length - 1);
+            case RAW_BLOB: {
+                final byte[] value = new byte[length - 1];
+                final ByteBuffer duplicate = buffer.duplicate();
+                duplicate.position(offset + 1);
+                duplicate.get(value);
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed raw value at " + offset);
+    }
+
+    /**
+     * Converts raw column value with {@code converter}, through a single row cursor unless it's a
+     * {@link RawValueCursorFieldConverter}
+     */
+    public static <T> T parseRaw(CursorFieldConverter<T> converter, Object rawValue, ParameterizedType fieldType)
+            throws IOException {
+        if (converter instanceof RawValueCursorFieldConverter) {
+            return ((RawValueCursorFieldConverter<T>) converter).parseRawValue(rawValue, fieldType);
+        }
+        final MatrixCursor cursor = new MatrixCursor(RAW_COLUMNS, 1);
+        try {
+            cursor.addRow(new Object[]{rawValue});
+            cursor.moveToFirst();
+            return converter.parseField(cursor, 0, fieldType);
+        } finally {
+            cursor.close();
+        }
+    }
+
+    private static void putSlot(ByteBuffer buffer, int start, int slot, int offset, int length) {
+        buffer.putInt(start + slot, offset);
+        buffer.putInt(start + slot + 4, length);
+    }
+
+    private static void putChars(ByteBuffer buffer, String value) {
+        for (int i = 0, j = value.length(); i < j; i++) {
+            final char c = value.charAt(i);
+            if (c > 0 && c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | (c >> 6)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            } else {
+                buffer.put((byte) (0xE0 | (c >> 12)));
+                buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+    private static String getChars(ByteBuffer buffer, int offset, int length) {
+        // Byte length is upper bound of char count
+        final char[] chars = new char[length];
+        int count = 0;
+        for (int i = offset, end = offset + length; i < end; ) {
+            final int b = buffer.get(i++) & 0xFF;
+            if (b < 0x80) {
+                chars[count++] = (char) b;
+            } else if (b < 0xE0) {
+                chars[count++] = (char) (((b & 0x1F) << 6) | (buffer.get(i++) & 0x3F));
+            } else {
+                chars[count++] = (char) (((b & 0x0F) << 12) | ((buffer.get(i++) & 0x3F) << 6)
+                        | (buffer.get(i++) & 0x3F));
+            }
+        }
+        return new String(chars, 0, count);
+    }
+}
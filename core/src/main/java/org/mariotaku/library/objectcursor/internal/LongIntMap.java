@@ -0,0 +1,94 @@
+package org.mariotaku.library.objectcursor.internal;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing {@code long} to non-negative {@code int} map with linear probing, no boxing and no allocation per
+ * entry. Used as key to position index, so values can't be negative and entries can't be removed.
+ * <p>
+ * Created by mariotaku on 16/5/13.
+ */
+public final class LongIntMap {
+
+    private static final int EMPTY = -1;
+
+    private long[] mKeys;
+    private int[] mValues;
+    private int mMask;
+    private int mSize;
+
+    public LongIntMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * @return Value of {@code key}, or -1 if absent
+     */
+    public int get(long key) {
+        final long[] keys = mKeys;
+        final int[] values = mValues;
+        for (int slot = slotOf(key); ; slot = (slot + 1) & mMask) {
+            final int value = values[slot];
+            if (value == EMPTY || keys[slot] == key) return value;
+        }
+    }
+
+    /**
+     * @return False if {@code key} is already present, existing value is kept
+     */
+    public boolean putIfAbsent(long key, int value) {
+        if (value < 0) throw new IllegalArgumentException("value < 0");
+        int slot = slotOf(key);
+        while (mValues[slot] != EMPTY) {
+            if (mKeys[slot] == key) return false;
+            slot = (slot + 1) & mMask;
+        }
+        mKeys[slot] = key;
+        mValues[slot] = value;
+        // Keep load factor at most 0.5, probe sequences stay short
+        if (++mSize > mValues.length >> 1) {
+            rehash(mValues.length << 1);
+        }
+        return true;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    private int slotOf(long key) {
+        // Fibonacci hashing, IDs are often sequential
+        final long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mMask;
+    }
+
+    private void rehash(int capacity) {
+        final long[] oldKeys = mKeys;
+        final int[] oldValues = mValues;
+        allocate(capacity);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] == EMPTY) continue;
+            int slot = slotOf(oldKeys[i]);
+            while (mValues[slot] != EMPTY) {
+                slot = (slot + 1) & mMask;
+            }
+            mKeys[slot] = oldKeys[i];
+            mValues[slot] = oldValues[i];
+        }
+    }
+
+    private void allocate(int capacity) {
+        mKeys = new long[capacity];
+        mValues = new int[capacity];
+        Arrays.fill(mValues, EMPTY);
+        mMask = capacity - 1;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = 4;
+        while (capacity >> 1 < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
@@ -0,0 +1,53 @@
+package org.mariotaku.library.objectcursor.internal;
+
+import android.database.Cursor;
+
+import java.util.Arrays;
+
+/**
+ * Helpers used by generated change tracking code, see {@link org.mariotaku.library.objectcursor.CursorSnapshot}.
+ * <p>
+ * Created by mariotaku on 16/5/12.
+ */
+public class Snapshots {
+
+    private Snapshots() {
+    }
+
+    /**
+     * @return Column value as stored, without running any converter
+     */
+    public static Object rawValue(Cursor cursor, int columnIndex) {
+        if (columnIndex == -1) return null;
+        switch (cursor.getType(columnIndex)) {
+            case Cursor.FIELD_TYPE_NULL:
+                return null;
+            case Cursor.FIELD_TYPE_INTEGER:
+                return cursor.getLong(columnIndex);
+            case Cursor.FIELD_TYPE_FLOAT:
+                return cursor.getDouble(columnIndex);
+            case Cursor.FIELD_TYPE_BLOB:
+                return cursor.getBlob(columnIndex);
+            default:
+                return cursor.getString(columnIndex);
+        }
+    }
+
+    public static byte[] copyOf(byte[] value) {
+        return value != null ? value.clone() : null;
+    }
+
+    public static boolean changed(Object snapshot, Object value) {
+        if (snapshot == value) return false;
+        if (snapshot == null || value == null) return true;
+        if (snapshot instanceof byte[] && value instanceof byte[]) {
+            return !Arrays.equals((byte[]) snapshot, (byte[]) value);
+        }
+        if (snapshot instanceof Number && value instanceof Number) {
+            // Converters may write Integer while cursor returns Long
+            final Number sn = (Number) snapshot, vn = (Number) value;
+            return sn.longValue() != vn.longValue() || Double.compare(sn.doubleValue(), vn.doubleValue()) != 0;
+        }
+        return !snapshot.equals(value);
+    }
+}
@@ -0,0 +1,111 @@
+package org.mariotaku.library.objectcursor.internal;
+
+import android.database.AbstractWindowedCursor;
+import android.database.CrossProcessCursor;
+import android.database.Cursor;
+import android.database.CursorWindow;
+
+/**
+ * Read only cursor over rows copied into a {@link CursorWindow}. Positions are the same as the source cursor, only
+ * rows inside the window can be read.
+ * <p>
+ * Multiple instances can share one window, closing them won't close the window.
+ * <p>
+ * Created by mariotaku on 16/5/4.
+ */
+public class WindowCursor extends AbstractWindowedCursor {
+
+    private final String[] mColumnNames;
+
+    public WindowCursor(String[] columnNames, CursorWindow window) {
+        mColumnNames = columnNames;
+        setWindow(window);
+    }
+
+    @Override
+    public int getCount() {
+        return mWindow.getStartPosition() + mWindow.getNumRows();
+    }
+
+    @Override
+    public String[] getColumnNames() {
+        return mColumnNames;
+    }
+
+    @Override
+    public void close() {
+        // Window is owned by whoever filled it
+        mWindow = null;
+        super.close();
+    }
+
+    /**
+     * Copies rows of {@code cursor} into a new window, starting at {@code position}, until the window is full or
+     * there are no more rows. Position of {@code cursor} may change.
+     */
+    public static CursorWindow fill(Cursor cursor, int position) {
+        final CursorWindow window = newWindow(cursor.getColumnCount(), position);
+        if (cursor instanceof CrossProcessCursor) {
+            ((CrossProcessCursor) cursor).fillWindow(position, window);
+        } else {
+            appendRows(cursor, window, Integer.MAX_VALUE);
+        }
+        return window;
+    }
+
+    /**
+     * @return Empty window for rows starting at {@code position}, fill it with
+     * {@link #appendRows(Cursor, CursorWindow, int)}
+     */
+    public static CursorWindow newWindow(int numColumns, int position) {
+        final CursorWindow window = new CursorWindow(WindowCursor.class.getSimpleName());
+        window.setStartPosition(position);
+        window.setNumColumns(numColumns);
+        return window;
+    }
+
+    /**
+     * Copies up to {@code maxRows} rows of {@code cursor} following last row of {@code window}. Position of
+     * {@code cursor} may change.
+     *
+     * @return Number of rows copied, less than {@code maxRows} if window is full or there are no more rows
+     */
+    public static int appendRows(Cursor cursor, CursorWindow window, int maxRows) {
+        final int numColumns = cursor.getColumnCount();
+        int row = window.getStartPosition() + window.getNumRows();
+        if (maxRows <= 0 || !cursor.moveToPosition(row)) return 0;
+        int copied = 0;
+        do {
+            if (!window.allocRow()) return copied;
+            for (int column = 0; column < numColumns; column++) {
+                if (!putValue(cursor, window, row, column)) {
+                    // Window is full, this row will be in next window
+                    window.freeLastRow();
+                    return copied;
+                }
+            }
+            copied++;
+            row++;
+        } while (copied < maxRows && cursor.moveToNext());
+        return copied;
+    }
+
+    private static boolean putValue(Cursor cursor, CursorWindow window, int row, int column) {
+        switch (cursor.getType(column)) {
+            case Cursor.FIELD_TYPE_NULL:
+                return window.putNull(row, column);
+            case Cursor.FIELD_TYPE_INTEGER:
+                return window.putLong(cursor.getLong(column), row, column);
+            case Cursor.FIELD_TYPE_FLOAT:
+                return window.putDouble(cursor.getDouble(column), row, column);
+            case Cursor.FIELD_TYPE_BLOB: {
+                final byte[] value = cursor.getBlob(column);
+                return value != null ? window.putBlob(value, row, column) : window.putNull(row, column);
+            }
+            default: {
+                final String value = cursor.getString(column);
+                return value != null ? window.putString(value, row, column) : window.putNull(row, column);
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.mariotaku.library.objectcursor.metrics;
+
+/**
+ * Receives measurements of {@link org.mariotaku.library.objectcursor.ObjectCursor} and generated classes, install
+ * one with {@link Metrics#set(CursorMetrics)}.
+ * <p>
+ * Methods are called on hot paths from any thread, implementations must be thread safe and cheap.
+ * Durations are in nanoseconds.
+ * <p>
+ * Created by mariotaku on 16/5/12.
+ */
+public interface CursorMetrics {
+
+    /**
+     * @return False to skip taking timestamps at all, checked before every measurement
+     */
+    boolean isEnabled();
+
+    /**
+     * Called after a row is parsed into a new object by {@code ObjectCursor}
+     */
+    void onRowMaterialized(Class<?> objectClass, long nanos);
+
+    void onCacheHit(Class<?> objectClass);
+
+    void onCacheMiss(Class<?> objectClass);
+
+    /**
+     * Called by generated {@code CursorIndices} if metrics generation is enabled
+     */
+    void onConverterParse(Class<?> converterClass, long nanos);
+
+    /**
+     * Called by generated {@code ValuesCreator} if metrics generation is enabled
+     */
+    void onConverterWrite(Class<?> converterClass, long nanos);
+
+    /**
+     * Called by generated {@code ValuesCreator#create(Object)} if metrics generation is enabled
+     */
+    void onValuesCreated(Class<?> objectClass, int valuesCount);
+
+    /**
+     * @param rowsMaterialized Rows parsed by this cursor, not including prefetched or parallel materialized ones
+     */
+    void onCursorClosed(Class<?> objectClass, long lifetimeNanos, int rowsMaterialized);
+
+}
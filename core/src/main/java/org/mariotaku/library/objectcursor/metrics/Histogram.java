@@ -0,0 +1,85 @@
+package org.mariotaku.library.objectcursor.metrics;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock free histogram with power of 2 buckets, bucket {@code i} counts values in {@code [2^(i-1), 2^i)}.
+ * Percentiles are upper bounds of buckets, good enough to tell microseconds from milliseconds.
+ * <p>
+ * Created by mariotaku on 16/5/12.
+ */
+public final class Histogram {
+
+    private static final int BUCKET_COUNT = 64;
+
+    private final AtomicLongArray mBuckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong mCount = new AtomicLong();
+    private final AtomicLong mSum = new AtomicLong();
+    private final AtomicLong mMax = new AtomicLong();
+
+    public void record(long value) {
+        if (value < 0) value = 0;
+        mBuckets.incrementAndGet(BUCKET_COUNT - Long.numberOfLeadingZeros(value));
+        mCount.incrementAndGet();
+        mSum.addAndGet(value);
+        long max;
+        while (value > (max = mMax.get())) {
+            if (mMax.compareAndSet(max, value)) break;
+        }
+    }
+
+    public long count() {
+        return mCount.get();
+    }
+
+    public long sum() {
+        return mSum.get();
+    }
+
+    public long max() {
+        return mMax.get();
+    }
+
+    public double mean() {
+        final long count = mCount.get();
+        return count == 0 ? 0 : (double) mSum.get() / count;
+    }
+
+    /**
+     * @param percentile In range {@code [0, 100]}
+     * @return Upper bound of bucket the percentile falls in
+     */
+    public long percentile(double percentile) {
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += mBuckets.get(i);
+        }
+        if (total == 0) return 0;
+        final long rank = (long) Math.ceil(total * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += mBuckets.get(i);
+            if (seen >= rank && seen > 0) {
+                return i == 0 ? 0 : Math.min(mMax.get(), (1L << i) - 1);
+            }
+        }
+        return mMax.get();
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            mBuckets.set(i, 0);
+        }
+        mCount.set(0);
+        mSum.set(0);
+        mMax.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "count=%d, mean=%.1f, p50=%d, p90=%d, p99=%d, max=%d", count(), mean(),
+                percentile(50), percentile(90), percentile(99), max());
+    }
+}
@@ -0,0 +1,152 @@
+package org.mariotaku.library.objectcursor.metrics;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records every measurement into a {@link Histogram} per kind and class, call {@link #dump(Appendable)} to print
+ * them, e.g. from a debug screen or {@code dumpsys}.
+ * <p>
+ * Created by mariotaku on 16/5/12.
+ */
+public class HistogramCursorMetrics implements CursorMetrics {
+
+    public static final String ROW_MATERIALIZED = "rowMaterialized";
+    public static final String CONVERTER_PARSE = "converterParse";
+    public static final String CONVERTER_WRITE = "converterWrite";
+    public static final String VALUES_CREATED = "valuesCreated";
+    public static final String CURSOR_LIFETIME = "cursorLifetime";
+    public static final String CURSOR_ROWS = "cursorRows";
+    public static final String CACHE_HIT = "cacheHit";
+    public static final String CACHE_MISS = "cacheMiss";
+
+    // Keyed by class, so recording doesn't allocate
+    private final Map<String, ConcurrentMap<Class<?>, Histogram>> mHistograms = new HashMap<>();
+    private final Map<String, ConcurrentMap<Class<?>, AtomicLong>> mCounters = new HashMap<>();
+
+    public HistogramCursorMetrics() {
+        for (String kind : new String[]{ROW_MATERIALIZED, CONVERTER_PARSE, CONVERTER_WRITE, VALUES_CREATED,
+                CURSOR_LIFETIME, CURSOR_ROWS}) {
+            mHistograms.put(kind, new ConcurrentHashMap<Class<?>, Histogram>());
+        }
+        for (String kind : new String[]{CACHE_HIT, CACHE_MISS}) {
+            mCounters.put(kind, new ConcurrentHashMap<Class<?>, AtomicLong>());
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public void onRowMaterialized(Class<?> objectClass, long nanos) {
+        histogram(ROW_MATERIALIZED, objectClass).record(nanos);
+    }
+
+    @Override
+    public void onCacheHit(Class<?> objectClass) {
+        counter(CACHE_HIT, objectClass).incrementAndGet();
+    }
+
+    @Override
+    public void onCacheMiss(Class<?> objectClass) {
+        counter(CACHE_MISS, objectClass).incrementAndGet();
+    }
+
+    @Override
+    public void onConverterParse(Class<?> converterClass, long nanos) {
+        histogram(CONVERTER_PARSE, converterClass).record(nanos);
+    }
+
+    @Override
+    public void onConverterWrite(Class<?> converterClass, long nanos) {
+        histogram(CONVERTER_WRITE, converterClass).record(nanos);
+    }
+
+    @Override
+    public void onValuesCreated(Class<?> objectClass, int valuesCount) {
+        histogram(VALUES_CREATED, objectClass).record(valuesCount);
+    }
+
+    @Override
+    public void onCursorClosed(Class<?> objectClass, long lifetimeNanos, int rowsMaterialized) {
+        histogram(CURSOR_LIFETIME, objectClass).record(lifetimeNanos);
+        histogram(CURSOR_ROWS, objectClass).record(rowsMaterialized);
+    }
+
+    /**
+     * @param kind One of constants in this class
+     * @return Histogram of {@code kind} for {@code cls}, or null if nothing recorded yet
+     */
+    public Histogram getHistogram(String kind, Class<?> cls) {
+        final ConcurrentMap<Class<?>, Histogram> histograms = mHistograms.get(kind);
+        return histograms != null ? histograms.get(cls) : null;
+    }
+
+    public long getCount(String kind, Class<?> cls) {
+        final ConcurrentMap<Class<?>, AtomicLong> counters = mCounters.get(kind);
+        final AtomicLong counter = counters != null ? counters.get(cls) : null;
+        return counter != null ? counter.get() : 0;
+    }
+
+    public void reset() {
+        for (ConcurrentMap<Class<?>, Histogram> histograms : mHistograms.values()) {
+            histograms.clear();
+        }
+        for (ConcurrentMap<Class<?>, AtomicLong> counters : mCounters.values()) {
+            counters.clear();
+        }
+    }
+
+    /**
+     * Prints all histograms and counters sorted by name, one per line
+     */
+    public void dump(Appendable out) throws IOException {
+        final Map<String, String> lines = new TreeMap<>();
+        for (Map.Entry<String, ConcurrentMap<Class<?>, Histogram>> kind : mHistograms.entrySet()) {
+            for (Map.Entry<Class<?>, Histogram> entry : kind.getValue().entrySet()) {
+                lines.put(kind.getKey() + '/' + entry.getKey().getName(), entry.getValue().toString());
+            }
+        }
+        for (Map.Entry<String, ConcurrentMap<Class<?>, AtomicLong>> kind : mCounters.entrySet()) {
+            for (Map.Entry<Class<?>, AtomicLong> entry : kind.getValue().entrySet()) {
+                lines.put(kind.getKey() + '/' + entry.getKey().getName(), String.valueOf(entry.getValue().get()));
+            }
+        }
+        for (Map.Entry<String, String> line : lines.entrySet()) {
+            out.append(line.getKey()).append(": ").append(line.getValue()).append('\n');
+        }
+    }
+
+    private Histogram histogram(String kind, Class<?> cls) {
+        final ConcurrentMap<Class<?>, Histogram> histograms = mHistograms.get(kind);
+        Histogram histogram = histograms.get(cls);
+        if (histogram == null) {
+            final Histogram created = new Histogram();
+            histogram = histograms.putIfAbsent(cls, created);
+            if (histogram == null) {
+                histogram = created;
+            }
+        }
+        return histogram;
+    }
+
+    private AtomicLong counter(String kind, Class<?> cls) {
+        final ConcurrentMap<Class<?>, AtomicLong> counters = mCounters.get(kind);
+        AtomicLong counter = counters.get(cls);
+        if (counter == null) {
+            final AtomicLong created = new AtomicLong();
+            counter = counters.putIfAbsent(cls, created);
+            if (counter == null) {
+                counter = created;
+            }
+        }
+        return counter;
+    }
+}
@@ -0,0 +1,25 @@
+package org.mariotaku.library.objectcursor.metrics;
+
+/**
+ * Holds installed {@link CursorMetrics}, defaults to {@link NoOpCursorMetrics}
+ * <p>
+ * Created by mariotaku on 16/5/12.
+ */
+public final class Metrics {
+
+    private static volatile CursorMetrics sMetrics = NoOpCursorMetrics.INSTANCE;
+
+    private Metrics() {
+    }
+
+    public static CursorMetrics get() {
+        return sMetrics;
+    }
+
+    /**
+     * @param metrics Metrics to install, or null to restore no-op one
+     */
+    public static void set(CursorMetrics metrics) {
+        sMetrics = metrics != null ? metrics : NoOpCursorMetrics.INSTANCE;
+    }
+}
@@ -0,0 +1,48 @@
+package org.mariotaku.library.objectcursor.metrics;
+
+/**
+ * Default metrics, does nothing. Being the only implementation loaded keeps call sites monomorphic, so JIT can
+ * inline them away.
+ * <p>
+ * Created by mariotaku on 16/5/12.
+ */
+public final class NoOpCursorMetrics implements CursorMetrics {
+
+    public static final NoOpCursorMetrics INSTANCE = new NoOpCursorMetrics();
+
+    private NoOpCursorMetrics() {
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return false;
+    }
+
+    @Override
+    public void onRowMaterialized(Class<?> objectClass, long nanos) {
+    }
+
+    @Override
+    public void onCacheHit(Class<?> objectClass) {
+    }
+
+    @Override
+    public void onCacheMiss(Class<?> objectClass) {
+    }
+
+    @Override
+    public void onConverterParse(Class<?> converterClass, long nanos) {
+    }
+
+    @Override
+    public void onConverterWrite(Class<?> converterClass, long nanos) {
+    }
+
+    @Override
+    public void onValuesCreated(Class<?> objectClass, int valuesCount) {
+    }
+
+    @Override
+    public void onCursorClosed(Class<?> objectClass, long lifetimeNanos, int rowsMaterialized) {
+    }
+}
@@ -0,0 +1,66 @@
+package org.mariotaku.library.objectcursor.snapshot;
+
+import org.mariotaku.library.objectcursor.ObjectCursor;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+
+/**
+ * Read only list over records of a memory mapped snapshot, see {@link SnapshotStore#open()}. Records are decoded on
+ * first access and cached, like {@link ObjectCursor} does with cursor rows.
+ * <p>
+ * Created by mariotaku on 16/5/13.
+ */
+public class SnapshotList<E> extends AbstractList<E> implements Closeable {
+
+    private final ObjectCursor.BufferCodec<E> mCodec;
+    private final int mCount;
+    private ByteBuffer mBuffer;
+    private Object[] mObjects;
+
+    SnapshotList(ByteBuffer buffer, int count, ObjectCursor.BufferCodec<E> codec) {
+        mBuffer = buffer;
+        mCount = count;
+        mCodec = codec;
+        mObjects = new Object[count];
+    }
+
+    @Override
+    public synchronized E get(int location) {
+        if (mBuffer == null) throw new IllegalStateException("Snapshot is closed");
+        if (location < 0 || location >= mCount) {
+            throw new IndexOutOfBoundsException("length=" + mCount + "; index=" + location);
+        }
+        //noinspection unchecked
+        E object = (E) mObjects[location];
+        if (object != null) return object;
+        mBuffer.position(mBuffer.getInt(SnapshotStore.HEADER_SIZE + location * 4));
+        try {
+            object = mCodec.readFrom(mBuffer);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        mObjects[location] = object;
+        return object;
+    }
+
+    @Override
+    public int size() {
+        return mCount;
+    }
+
+    public synchronized boolean isClosed() {
+        return mBuffer == null;
+    }
+
+    /**
+     * Releases mapped buffer and cached objects, file is unmapped when buffer is garbage collected
+     */
+    @Override
+    public synchronized void close() {
+        mBuffer = null;
+        mObjects = null;
+    }
+}
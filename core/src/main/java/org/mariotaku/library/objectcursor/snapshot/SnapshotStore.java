@@ -0,0 +1,142 @@
+package org.mariotaku.library.objectcursor.snapshot;
+
+import android.content.ContentValues;
+
+import org.mariotaku.library.objectcursor.ObjectCursor;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+
+/**
+ * Persists first rows of a query to a file, so they can be shown on cold start before the query finishes.
+ * <pre>
+ * SnapshotList&lt;Status&gt; snapshot = store.open();
+ * if (snapshot != null) adapter.setData(snapshot);
+ * // Then, when query finished
+ * adapter.setData(cursor);
+ * store.save(cursor, 50);
+ * </pre>
+ * File is memory mapped when opened, records are decoded by generated {@link ObjectCursor.BufferCodec} without
+ * going through SQLite. Snapshot written with a different record layout is ignored.
+ * <p>
+ * Created by mariotaku on 16/5/13.
+ */
+public class SnapshotStore<T> {
+
+    static final int MAGIC = 0x4F43534E;
+    static final int VERSION = 1;
+    /**
+     * Magic, version, layout hash and record count, followed by offset of each record
+     */
+    static final int HEADER_SIZE = 16;
+
+    private static final int INITIAL_BUFFER_SIZE = 8192;
+
+    private final File mFile;
+    private final ObjectCursor.BufferCodec<T> mCodec;
+
+    public SnapshotStore(File file, Class<T> cls) {
+        this(file, ObjectCursor.bufferCodecFrom(cls));
+    }
+
+    public SnapshotStore(File file, ObjectCursor.BufferCodec<T> codec) {
+        mFile = file;
+        mCodec = codec;
+    }
+
+    public File getFile() {
+        return mFile;
+    }
+
+    /**
+     * Replaces snapshot with first {@code maxRows} items of {@code list}. File is written to a temporary one first,
+     * so readers never see a partially written snapshot.
+     */
+    public void save(List<? extends T> list, int maxRows) throws IOException {
+        final int count = Math.min(list.size(), maxRows);
+        final int tableEnd = HEADER_SIZE + count * 4;
+        ByteBuffer buffer = ByteBuffer.allocate(Math.max(INITIAL_BUFFER_SIZE, tableEnd * 2));
+        buffer.position(tableEnd);
+        final ContentValues scratch = new ContentValues();
+        for (int i = 0; i < count; i++) {
+            final T item = list.get(i);
+            final int start = buffer.position();
+            while (true) {
+                try {
+                    mCodec.writeTo(item, buffer, scratch);
+                    break;
+                } catch (BufferOverflowException e) {
+                    buffer = grow(buffer, start);
+                }
+            }
+            buffer.putInt(HEADER_SIZE + i * 4, start);
+        }
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, mCodec.getLayoutHash());
+        buffer.putInt(12, count);
+        buffer.flip();
+
+        final File tempFile = new File(mFile.getPath() + ".tmp");
+        final FileOutputStream os = new FileOutputStream(tempFile);
+        try {
+            final FileChannel channel = os.getChannel();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            os.getFD().sync();
+        } finally {
+            os.close();
+        }
+        if (!tempFile.renameTo(mFile)) {
+            //noinspection ResultOfMethodCallIgnored
+            tempFile.delete();
+            throw new IOException("Unable to rename " + tempFile + " to " + mFile);
+        }
+    }
+
+    /**
+     * @return Snapshot mapped from file, or null if there's no snapshot or it was written with another layout
+     */
+    public SnapshotList<T> open() throws IOException {
+        if (!mFile.exists()) return null;
+        final RandomAccessFile file = new RandomAccessFile(mFile, "r");
+        final ByteBuffer buffer;
+        try {
+            final long length = file.length();
+            if (length < HEADER_SIZE || length > Integer.MAX_VALUE) return null;
+            // Mapping stays valid after file is closed
+            buffer = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, length);
+        } finally {
+            file.close();
+        }
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                || buffer.getInt(8) != mCodec.getLayoutHash()) {
+            return null;
+        }
+        final int count = buffer.getInt(12);
+        if (count < 0 || HEADER_SIZE + (long) count * 4 > buffer.limit()) return null;
+        return new SnapshotList<>(buffer, count, mCodec);
+    }
+
+    public boolean delete() {
+        return mFile.delete();
+    }
+
+    /**
+     * @return Buffer with doubled capacity, holding content before {@code position}
+     */
+    private static ByteBuffer grow(ByteBuffer buffer, int position) {
+        final ByteBuffer grown = ByteBuffer.allocate(buffer.capacity() * 2);
+        buffer.position(0);
+        buffer.limit(position);
+        grown.put(buffer);
+        return grown;
+    }
+}
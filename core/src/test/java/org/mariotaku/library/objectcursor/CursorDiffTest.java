@@ -0,0 +1,111 @@
+package org.mariotaku.library.objectcursor;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Created by mariotaku on 16/5/13.
+ */
+public class CursorDiffTest {
+
+    @Test
+    public void updatesProduceNewList() {
+        final Random random = new Random(0);
+        for (int round = 0; round < 2000; round++) {
+            final int oldCount = random.nextInt(30);
+            final List<Integer> newList = new ArrayList<>();
+            for (int i = 0; i < oldCount; i++) {
+                if (random.nextInt(4) != 0) {
+                    newList.add(i);
+                }
+            }
+            final int inserted = random.nextInt(10);
+            for (int i = 0; i < inserted; i++) {
+                newList.add(oldCount + i);
+            }
+            Collections.shuffle(newList, random);
+            assertUpdates(oldCount, newList);
+        }
+    }
+
+    @Test(timeout = 2000)
+    public void reversedLargeList() {
+        final int count = 100000;
+        final int[] positions = new int[count];
+        for (int i = 0; i < count; i++) {
+            positions[i] = count - 1 - i;
+        }
+        final CursorDiff diff = new CursorDiff(positions, positions, new boolean[count], 0);
+        final int[] moves = new int[1];
+        diff.dispatchUpdatesTo(new CursorDiff.Callback() {
+            @Override
+            public void onInserted(int position, int count) {
+            }
+
+            @Override
+            public void onRemoved(int position, int count) {
+            }
+
+            @Override
+            public void onMoved(int fromPosition, int toPosition) {
+                moves[0]++;
+            }
+
+            @Override
+            public void onChanged(int position, int count) {
+            }
+        });
+        // Only one row stays
+        assertEquals(count - 1, moves[0]);
+    }
+
+    /**
+     * @param newList Positions in old list, or not less than {@code oldCount} for inserted rows
+     */
+    private static void assertUpdates(int oldCount, final List<Integer> newList) {
+        final int[] oldToNew = new int[oldCount], newToOld = new int[newList.size()];
+        Arrays.fill(oldToNew, -1);
+        for (int i = 0; i < newToOld.length; i++) {
+            final int oldPosition = newList.get(i);
+            newToOld[i] = oldPosition < oldCount ? oldPosition : -1;
+            if (oldPosition < oldCount) {
+                oldToNew[oldPosition] = i;
+            }
+        }
+        final CursorDiff diff = new CursorDiff(oldToNew, newToOld, new boolean[newToOld.length], 0);
+        final List<Integer> list = new ArrayList<>(oldCount);
+        for (int i = 0; i < oldCount; i++) {
+            list.add(i);
+        }
+        diff.dispatchUpdatesTo(new CursorDiff.Callback() {
+            @Override
+            public void onInserted(int position, int count) {
+                for (int i = 0; i < count; i++) {
+                    list.add(position + i, newList.get(position + i));
+                }
+            }
+
+            @Override
+            public void onRemoved(int position, int count) {
+                list.subList(position, position + count).clear();
+            }
+
+            @Override
+            public void onMoved(int fromPosition, int toPosition) {
+                list.add(toPosition, list.remove(fromPosition));
+            }
+
+            @Override
+            public void onChanged(int position, int count) {
+            }
+        });
+        assertEquals(newList, list);
+    }
+}
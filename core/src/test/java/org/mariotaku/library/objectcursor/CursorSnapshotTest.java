@@ -0,0 +1,43 @@
+package org.mariotaku.library.objectcursor;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by mariotaku on 16/5/13.
+ */
+public class CursorSnapshotTest {
+
+    @Test
+    public void absentLongIsNeverChanged() {
+        final CursorSnapshot snapshot = new CursorSnapshot(2, 0);
+        assertFalse(snapshot.isLongChanged(1, 0));
+        assertFalse(snapshot.isLongNullChanged(1));
+    }
+
+    @Test
+    public void nullLongComparesAgainstValues() {
+        final CursorSnapshot snapshot = new CursorSnapshot(70, 0);
+        snapshot.putLongNull(65);
+        assertTrue(snapshot.hasLong(65));
+        assertFalse(snapshot.isLongNullChanged(65));
+        assertTrue(snapshot.isLongChanged(65, 0));
+
+        snapshot.putLong(65, 0);
+        assertTrue(snapshot.isLongNullChanged(65));
+        assertFalse(snapshot.isLongChanged(65, 0));
+        assertTrue(snapshot.isLongChanged(65, 1));
+    }
+
+    @Test
+    public void copyKeepsNullSlots() {
+        final CursorSnapshot snapshot = new CursorSnapshot(1, 0);
+        snapshot.putLongNull(0);
+        final CursorSnapshot copy = snapshot.copy();
+        snapshot.putLong(0, 1);
+        assertFalse(copy.isLongNullChanged(0));
+        assertTrue(copy.isLongChanged(0, 1));
+    }
+}
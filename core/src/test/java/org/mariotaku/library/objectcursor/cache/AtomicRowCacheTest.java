@@ -0,0 +1,50 @@
+package org.mariotaku.library.objectcursor.cache;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Created by mariotaku on 16/5/5.
+ */
+public class AtomicRowCacheTest {
+
+    @Test
+    public void countsConcurrentReads() throws InterruptedException {
+        final AtomicRowCache<String> cache = new AtomicRowCache<>(100);
+        for (int i = 0; i < 50; i++) {
+            cache.put(i, String.valueOf(i));
+        }
+        final Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int round = 0; round < 1000; round++) {
+                        for (int position = 0; position < 100; position++) {
+                            cache.get(position);
+                        }
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(threads.length * 1000 * 50, cache.hitCount());
+        assertEquals(threads.length * 1000 * 50, cache.missCount());
+    }
+
+    @Test
+    public void peekIsNotCounted() {
+        final AtomicRowCache<String> cache = new AtomicRowCache<>(2);
+        cache.put(0, "0");
+        assertEquals("0", cache.peek(0));
+        assertNull(cache.peek(1));
+        assertNull(cache.peek(5));
+        assertEquals(0, cache.hitCount());
+        assertEquals(0, cache.missCount());
+    }
+}
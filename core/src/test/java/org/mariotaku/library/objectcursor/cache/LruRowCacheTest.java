@@ -0,0 +1,85 @@
+package org.mariotaku.library.objectcursor.cache;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by mariotaku on 16/5/2.
+ */
+public class LruRowCacheTest {
+
+    @Test
+    public void putPastInitialTableSize() {
+        final LruRowCache<String> cache = new LruRowCache<>(100);
+        for (int i = 0; i < 50; i++) {
+            cache.put(i, String.valueOf(i));
+        }
+        assertEquals(50, cache.size());
+        for (int i = 0; i < 50; i++) {
+            assertEquals(String.valueOf(i), cache.get(i));
+        }
+    }
+
+    @Test
+    public void evictsEldestPastInitialTableSize() {
+        final LruRowCache<String> cache = new LruRowCache<>(20);
+        for (int i = 0; i < 40; i++) {
+            cache.put(i, String.valueOf(i));
+        }
+        assertEquals(20, cache.size());
+        assertEquals(20, cache.evictionCount());
+        for (int i = 0; i < 20; i++) {
+            assertNull(cache.get(i));
+        }
+        for (int i = 20; i < 40; i++) {
+            assertEquals(String.valueOf(i), cache.get(i));
+        }
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        final LruRowCache<String> cache = new LruRowCache<>(20);
+        for (int i = 0; i < 20; i++) {
+            cache.put(i, String.valueOf(i));
+        }
+        // Touch first row, second one becomes eldest
+        assertEquals("0", cache.get(0));
+        cache.put(20, "20");
+        assertEquals("0", cache.get(0));
+        assertNull(cache.get(1));
+        assertEquals("20", cache.get(20));
+    }
+
+    @Test
+    public void clearIsNotEviction() {
+        final LruRowCache<String> cache = new LruRowCache<>(20);
+        for (int i = 0; i < 10; i++) {
+            cache.put(i, String.valueOf(i));
+        }
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.evictionCount());
+        assertNull(cache.get(0));
+        cache.put(0, "0");
+        assertEquals("0", cache.get(0));
+    }
+
+    @Test
+    public void containsKeepsOrderAndCounts() {
+        final LruRowCache<String> cache = new LruRowCache<>(20);
+        for (int i = 0; i < 20; i++) {
+            cache.put(i, String.valueOf(i));
+        }
+        assertTrue(cache.contains(0));
+        assertFalse(cache.contains(20));
+        assertEquals(0, cache.hitCount());
+        assertEquals(0, cache.missCount());
+        // First row is still eldest
+        cache.put(20, "20");
+        assertFalse(cache.contains(0));
+    }
+}
@@ -26,6 +26,7 @@ import org.mariotaku.library.objectcursor.annotation.AfterCursorObjectCreated;
 import org.mariotaku.library.objectcursor.annotation.AfterWriteContentValues;
 import org.mariotaku.library.objectcursor.annotation.BeforeCursorObjectCreated;
 import org.mariotaku.library.objectcursor.annotation.BeforeWriteContentValues;
+import org.mariotaku.library.objectcursor.annotation.CursorEmbedded;
 import org.mariotaku.library.objectcursor.annotation.CursorField;
 import org.mariotaku.library.objectcursor.annotation.CursorObject;
 
@@ -44,14 +45,41 @@ import javax.lang.model.element.VariableElement;
 import javax.lang.model.util.Elements;
 import javax.lang.model.util.Types;
 
+/**
+ * Registered as aggregating incremental processor for Gradle, because of the generated registry. Generated files
+ * list annotated class and its annotated parents as originating elements.
+ */
 public class AnnotationProcessor extends AbstractProcessor {
 
+    /**
+     * Fully qualified name of generated {@link org.mariotaku.library.objectcursor.CursorObjectRegistry}, defaults to
+     * {@code ObjectCursorRegistry} in common package of all annotated classes. Use different names for different
+     * modules.
+     */
+    public static final String OPTION_REGISTRY_CLASS = "objectcursor.registryClass";
+
+    /**
+     * Set to {@code true} to generate calls to {@link org.mariotaku.library.objectcursor.metrics.Metrics} for
+     * converters and ContentValues creation. Off by default, so release builds don't pay for it.
+     */
+    public static final String OPTION_METRICS = "objectcursor.metrics";
+
+    private boolean registryGenerated;
 
     @Override
     public Set<String> getSupportedAnnotationTypes() {
         HashSet<String> set = new HashSet<>();
         set.add(CursorObject.class.getName());
         set.add(CursorField.class.getName());
+        set.add(CursorEmbedded.class.getName());
+        return set;
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        HashSet<String> set = new HashSet<>();
+        set.add(OPTION_REGISTRY_CLASS);
+        set.add(OPTION_METRICS);
         return set;
     }
 
@@ -62,12 +90,17 @@ public class AnnotationProcessor extends AbstractProcessor {
 
     @Override
     public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        // Nothing to do in rounds only containing generated classes, and in the final round
+        if (annotations.isEmpty()) return true;
         HashMap<TypeName, CursorObjectClassInfo> cursorObjectClasses = new HashMap<>();
         final Elements elements = processingEnv.getElementUtils();
         final Types types = processingEnv.getTypeUtils();
+        final boolean generateMetrics = Boolean.parseBoolean(processingEnv.getOptions().get(OPTION_METRICS));
+        final MemberCache memberCache = new MemberCache(elements);
         for (Element element : roundEnv.getElementsAnnotatedWith(CursorObject.class)) {
             final TypeElement type = (TypeElement) element;
-            final CursorObjectClassInfo classInfo = new CursorObjectClassInfo(elements, type);
+            final CursorObjectClassInfo classInfo = new CursorObjectClassInfo(elements, memberCache, type);
+            classInfo.generateMetrics = generateMetrics;
 
             cursorObjectClasses.put(TypeName.get(type.asType()), classInfo);
         }
@@ -97,10 +130,20 @@ public class AnnotationProcessor extends AbstractProcessor {
             final CursorObjectClassInfo classInfo = getOrThrow(cursorObjectClasses, elements, type);
             classInfo.addField(var);
         }
+        for (Element element : roundEnv.getElementsAnnotatedWith(CursorEmbedded.class)) {
+            final VariableElement var = (VariableElement) element;
+            final TypeElement type = (TypeElement) var.getEnclosingElement();
+            final CursorObjectClassInfo classInfo = getOrThrow(cursorObjectClasses, elements, type);
+            classInfo.addEmbedded(var);
+        }
 
         final Filer filer = processingEnv.getFiler();
         for (CursorObjectClassInfo info : cursorObjectClasses.values()) {
             info.completeParentInfo(cursorObjectClasses);
+            info.completeEmbeddedInfo(cursorObjectClasses);
+        }
+        for (CursorObjectClassInfo info : cursorObjectClasses.values()) {
+            info.checkEmbeddedCycle(new HashSet<CursorObjectClassInfo>());
         }
         for (CursorObjectClassInfo classInfo : cursorObjectClasses.values()) {
             try {
@@ -116,9 +159,36 @@ public class AnnotationProcessor extends AbstractProcessor {
                     TableInfoClassGenerator tableInfoClassGenerator = new TableInfoClassGenerator(classInfo, elements);
                     tableInfoClassGenerator.saveValuesCreatorFile(filer, elements, types);
                 }
+                if (classInfo.wantStatementBinder) {
+                    StatementBinderClassGenerator statementBinderClassGenerator = new StatementBinderClassGenerator(classInfo, elements);
+                    statementBinderClassGenerator.saveStatementBinderFile(filer, elements, types);
+                }
+                if (classInfo.wantListCursor) {
+                    ListCursorClassGenerator listCursorClassGenerator = new ListCursorClassGenerator(classInfo, elements);
+                    listCursorClassGenerator.saveListCursorFile(filer, elements, types);
+                }
+                if (classInfo.wantRowCodec) {
+                    RowCodecClassGenerator rowCodecClassGenerator = new RowCodecClassGenerator(classInfo, elements);
+                    rowCodecClassGenerator.saveRowCodecFile(filer, elements, types);
+                }
+                if (classInfo.wantBufferCodec) {
+                    BufferCodecClassGenerator bufferCodecClassGenerator = new BufferCodecClassGenerator(classInfo, elements);
+                    bufferCodecClassGenerator.saveBufferCodecFile(filer, elements, types);
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        // Only one registry per compilation, classes generated in later rounds fall back to reflection
+        if (!registryGenerated && !cursorObjectClasses.isEmpty()) {
+            final String registryClass = processingEnv.getOptions().get(OPTION_REGISTRY_CLASS);
+            RegistryClassGenerator registryClassGenerator = new RegistryClassGenerator(cursorObjectClasses.values(), registryClass);
+            try {
+                registryClassGenerator.saveRegistryFile(filer, elements);
             } catch (IOException e) {
                 throw new IllegalStateException(e);
             }
+            registryGenerated = true;
         }
         return true;
     }
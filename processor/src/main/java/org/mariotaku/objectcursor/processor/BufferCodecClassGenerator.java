@@ -0,0 +1,512 @@
+package org.mariotaku.objectcursor.processor;
+
+import android.content.ContentValues;
+
+import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+
+import org.mariotaku.library.objectcursor.LazyField;
+import org.mariotaku.library.objectcursor.ObjectCursor;
+import org.mariotaku.library.objectcursor.annotation.CursorObject;
+import org.mariotaku.library.objectcursor.internal.BufferRecords;
+import org.mariotaku.library.objectcursor.internal.ParameterizedTypeImpl;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.ParameterizedType;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.JavaFileObject;
+
+import static org.mariotaku.library.objectcursor.ObjectCursor.BufferCodec.BUFFER_CODEC_SUFFIX;
+
+/**
+ * Generates {@link ObjectCursor.BufferCodec}. Fixed region of parent class comes first, followed by one slot per
+ * field, {@code OFFSET_} constants are offsets of slots from start of fixed region.
+ * <p>
+ * Created by mariotaku on 16/5/13.
+ */
+public class BufferCodecClassGenerator {
+
+    /**
+     * Record length before fixed region
+     */
+    private static final int RECORD_HEADER_SIZE = 4;
+
+    private final CursorObjectClassInfo objectClassInfo;
+    private final ClassName codecClassName;
+    private final String codecClassNameWithoutPackage;
+
+    BufferCodecClassGenerator(CursorObjectClassInfo objectClassInfo, Elements elements) {
+        this.objectClassInfo = objectClassInfo;
+        final String packageName = String.valueOf(elements.getPackageOf(objectClassInfo.objectType).getQualifiedName());
+        final String binaryName = String.valueOf(elements.getBinaryName(objectClassInfo.objectType));
+        codecClassNameWithoutPackage = binaryName.substring(packageName.length() + 1) + BUFFER_CODEC_SUFFIX;
+        codecClassName = ClassName.get(packageName, codecClassNameWithoutPackage);
+    }
+
+    private static String getConverterFieldName(TypeName converterClass) {
+        return converterClass.toString().replaceAll("[^\\w\\d]", "_").toUpperCase(Locale.US);
+    }
+
+    void writeContent(Appendable appendable, Elements elements, Types types) throws IOException {
+        objectClassInfo.checkNoEmbedded("BufferCodec");
+        final TypeSpec.Builder builder = TypeSpec.classBuilder(codecClassNameWithoutPackage);
+        TypeElement superClass = (TypeElement) types.asElement(objectClassInfo.getSuperclass());
+
+        ClassName parentCodecClass = null;
+        // Super class has BufferCodec implementation
+        if (superClass.getAnnotation(CursorObject.class) != null) {
+            if (objectClassInfo.parentClassInfo != null && !objectClassInfo.parentClassInfo.wantBufferCodec) {
+                throw new IllegalArgumentException(String.format("Parent class of %s must enable bufferCodec",
+                        objectClassInfo.objectClassName));
+            }
+            parentCodecClass = CursorObjectClassInfo.getSuffixedClassName(elements, superClass, BUFFER_CODEC_SUFFIX);
+        }
+
+        builder.addSuperinterface(ParameterizedTypeName.get(ClassName.get(ObjectCursor.BufferCodec.class),
+                objectClassInfo.objectClassName));
+
+        builder.addModifiers(Modifier.PUBLIC);
+
+        builder.addField(FieldSpec.builder(codecClassName, "INSTANCE", Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                .initializer("new $T()", codecClassName)
+                .build());
+
+        builder.addFields(getLayoutFields(parentCodecClass));
+
+        builder.addFields(getConverterFields());
+
+        builder.addFields(getTypeFields());
+
+        builder.addMethod(MethodSpec.constructorBuilder().build());
+
+        builder.addMethod(createWriteToMethod());
+
+        builder.addMethod(createWriteToWithScratchMethod());
+
+        builder.addMethod(createReadFromMethod());
+
+        builder.addMethod(createGetLayoutHashMethod());
+
+        builder.addMethod(createWriteFieldsMethod(parentCodecClass));
+
+        builder.addMethod(createReadFieldsMethod(parentCodecClass));
+
+        JavaFile.builder(objectClassInfo.getPackageName(), builder.build()).build().writeTo(appendable);
+    }
+
+    private List<FieldSpec> getLayoutFields(ClassName parentCodecClass) {
+        final List<FieldSpec> fieldSpecs = new ArrayList<>();
+        final StringBuilder layout = new StringBuilder();
+        int offset = 0;
+        for (CursorObjectClassInfo.CursorFieldInfo fieldInfo : objectClassInfo.getFieldInfoList()) {
+            fieldSpecs.add(createLayoutField(getOffsetFieldName(fieldInfo), parentCodecClass, offset));
+            offset += getSlotSize(fieldInfo);
+            layout.append(fieldInfo.objectFieldName).append(':').append(fieldInfo.type);
+            final TypeName primitiveConverterType = objectClassInfo.getPrimitiveConverterType(
+                    fieldInfo.objectFieldName, false);
+            if (primitiveConverterType != null) {
+                // Stored as primitive column value
+                layout.append('=').append(primitiveConverterType);
+            }
+            layout.append(';');
+        }
+        fieldSpecs.add(createLayoutField("FIXED_SIZE", parentCodecClass, offset));
+        final FieldSpec.Builder hashBuilder = FieldSpec.builder(TypeName.INT, "LAYOUT_HASH", Modifier.PUBLIC,
+                Modifier.STATIC, Modifier.FINAL);
+        if (parentCodecClass != null) {
+            hashBuilder.initializer("$T.LAYOUT_HASH * 31 + $L", parentCodecClass, layout.toString().hashCode());
+        } else {
+            hashBuilder.initializer("$L", layout.toString().hashCode());
+        }
+        fieldSpecs.add(hashBuilder.build());
+        return fieldSpecs;
+    }
+
+    /**
+     * @return Constant of {@code offset} after fixed region of parent class
+     */
+    private static FieldSpec createLayoutField(String name, ClassName parentCodecClass, int offset) {
+        final FieldSpec.Builder builder = FieldSpec.builder(TypeName.INT, name, Modifier.PUBLIC, Modifier.STATIC,
+                Modifier.FINAL);
+        if (parentCodecClass != null) {
+            builder.initializer("$T.FIXED_SIZE + $L", parentCodecClass, offset);
+        } else {
+            builder.initializer("$L", offset);
+        }
+        return builder.build();
+    }
+
+    private List<FieldSpec> getConverterFields() {
+        List<FieldSpec> fieldSpecs = new ArrayList<>();
+        for (ClassName converterClass : objectClassInfo.getCustomConverters()) {
+            fieldSpecs.add(FieldSpec.builder(converterClass, getConverterFieldName(converterClass), Modifier.FINAL, Modifier.STATIC)
+                    .initializer("new $T()", converterClass)
+                    .build());
+        }
+        return fieldSpecs;
+    }
+
+    private List<FieldSpec> getTypeFields() {
+        List<FieldSpec> fieldSpecs = new ArrayList<>();
+        for (TypeName typeName : objectClassInfo.getCustomTypes()) {
+            // String field is not a custom type
+            if (CursorObjectClassInfo.STRING.equals(typeName)) continue;
+            final FieldSpec.Builder builder = FieldSpec.builder(ParameterizedType.class,
+                    getConverterFieldName(typeName), Modifier.FINAL, Modifier.STATIC);
+            if (typeName instanceof ParameterizedTypeName) {
+                ParameterizedTypeName parameterizedTypeName = (ParameterizedTypeName) typeName;
+                Object[] formatArgs = new Object[2 + parameterizedTypeName.typeArguments.size()];
+                final StringBuilder placeHolders = new StringBuilder();
+                formatArgs[0] = ParameterizedTypeImpl.class;
+                formatArgs[1] = parameterizedTypeName.rawType;
+                for (int i = 0, j = parameterizedTypeName.typeArguments.size(); i < j; i++) {
+                    placeHolders.append(", $T.class");
+                    formatArgs[i + 2] = parameterizedTypeName.typeArguments.get(i);
+                }
+                final String format = String.format(Locale.ROOT, "$T.get($T.class, null%s)", placeHolders);
+                builder.initializer(format, formatArgs);
+            } else {
+                builder.initializer("$T.get($T.class, null)", ParameterizedTypeImpl.class, typeName);
+            }
+            fieldSpecs.add(builder.build());
+        }
+        return fieldSpecs;
+    }
+
+    private MethodSpec createWriteToMethod() {
+        final MethodSpec.Builder builder = MethodSpec.methodBuilder("writeTo");
+        builder.addAnnotation(Override.class);
+        builder.addModifiers(Modifier.PUBLIC);
+        builder.addParameter(objectClassInfo.objectClassName, "instance");
+        builder.addParameter(ByteBuffer.class, "buffer");
+        builder.addException(IOException.class);
+        builder.addStatement("writeTo(instance, buffer, null)");
+        return builder.build();
+    }
+
+    private MethodSpec createWriteToWithScratchMethod() {
+        final MethodSpec.Builder builder = MethodSpec.methodBuilder("writeTo");
+        builder.addAnnotation(Override.class);
+        builder.addModifiers(Modifier.PUBLIC);
+        builder.addParameter(objectClassInfo.objectClassName, "instance");
+        builder.addParameter(ByteBuffer.class, "buffer");
+        builder.addParameter(ContentValues.class, "scratch");
+        builder.addException(IOException.class);
+
+        // Fixed region is written with absolute puts, which don't throw BufferOverflowException
+        builder.beginControlFlow("if (buffer.remaining() < $L + FIXED_SIZE)", RECORD_HEADER_SIZE);
+        builder.addStatement("throw new $T()", BufferOverflowException.class);
+        builder.endControlFlow();
+        builder.addStatement("final int recordStart = buffer.position()");
+        builder.addStatement("final int start = recordStart + $L", RECORD_HEADER_SIZE);
+        // Reserve fixed region, variable length data goes after it
+        builder.addStatement("buffer.position(start + FIXED_SIZE)");
+        if (hasRawValueFields()) {
+            // Converters can only write into ContentValues
+            builder.addStatement("writeFields(instance, buffer, start, scratch != null ? scratch : new $T())",
+                    ContentValues.class);
+        } else {
+            builder.addStatement("writeFields(instance, buffer, start, null)");
+        }
+        builder.addStatement("buffer.putInt(recordStart, buffer.position() - recordStart)");
+        return builder.build();
+    }
+
+    private MethodSpec createReadFromMethod() {
+        final MethodSpec.Builder builder = MethodSpec.methodBuilder("readFrom");
+        builder.addAnnotation(Override.class);
+        builder.addModifiers(Modifier.PUBLIC);
+        builder.addParameter(ByteBuffer.class, "buffer");
+        builder.addException(IOException.class);
+        builder.returns(objectClassInfo.objectClassName);
+
+        builder.addStatement("final int recordStart = buffer.position()");
+        builder.addStatement("$T instance = new $T()", objectClassInfo.objectClassName, objectClassInfo.objectClassName);
+        // Same callback order as CursorIndices, parents are called first before created and last after created
+        final List<CursorObjectClassInfo> classInfoChain = new ArrayList<>();
+        for (CursorObjectClassInfo info = objectClassInfo; info != null; info = info.parentClassInfo) {
+            classInfoChain.add(0, info);
+        }
+        for (CursorObjectClassInfo info : classInfoChain) {
+            for (Element element : info.getBeforeCreated()) {
+                builder.addStatement("instance.$L()", element.getSimpleName());
+            }
+        }
+        builder.addStatement("readFields(instance, buffer, recordStart + $L)", RECORD_HEADER_SIZE);
+        for (int i = classInfoChain.size() - 1; i >= 0; i--) {
+            for (Element element : classInfoChain.get(i).getAfterCreated()) {
+                builder.addStatement("instance.$L()", element.getSimpleName());
+            }
+        }
+        builder.addStatement("buffer.position(recordStart + buffer.getInt(recordStart))");
+        builder.addStatement("return instance");
+        return builder.build();
+    }
+
+    private MethodSpec createGetLayoutHashMethod() {
+        final MethodSpec.Builder builder = MethodSpec.methodBuilder("getLayoutHash");
+        builder.addAnnotation(Override.class);
+        builder.addModifiers(Modifier.PUBLIC);
+        builder.returns(TypeName.INT);
+        builder.addStatement("return LAYOUT_HASH");
+        return builder.build();
+    }
+
+    private MethodSpec createWriteFieldsMethod(ClassName parentCodecClass) {
+        final MethodSpec.Builder builder = MethodSpec.methodBuilder("writeFields");
+        builder.addModifiers(Modifier.PUBLIC);
+        builder.addParameter(objectClassInfo.objectClassName, "instance");
+        builder.addParameter(ByteBuffer.class, "buffer");
+        builder.addParameter(TypeName.INT, "start");
+        builder.addParameter(ContentValues.class, "converted");
+        builder.addJavadoc("@param converted Values for converter output, not null if this class or a parent has "
+                + "fields stored as column value\n");
+        builder.addException(IOException.class);
+        if (parentCodecClass != null) {
+            builder.addStatement("$T.INSTANCE.writeFields(instance, buffer, start, converted)", parentCodecClass);
+        }
+        for (CursorObjectClassInfo.CursorFieldInfo fieldInfo : objectClassInfo.getFieldInfoList()) {
+            addWriteStatement(builder, fieldInfo);
+        }
+        return builder.build();
+    }
+
+    private MethodSpec createReadFieldsMethod(ClassName parentCodecClass) {
+        final MethodSpec.Builder builder = MethodSpec.methodBuilder("readFields");
+        builder.addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).addMember("value", "$S", "unchecked").build());
+        builder.addModifiers(Modifier.PUBLIC);
+        builder.addParameter(objectClassInfo.objectClassName, "instance");
+        builder.addParameter(ByteBuffer.class, "buffer");
+        builder.addParameter(TypeName.INT, "start");
+        builder.addException(IOException.class);
+        if (parentCodecClass != null) {
+            builder.addStatement("$T.INSTANCE.readFields(instance, buffer, start)", parentCodecClass);
+        }
+        for (CursorObjectClassInfo.CursorFieldInfo fieldInfo : objectClassInfo.getFieldInfoList()) {
+            addReadStatement(builder, fieldInfo);
+        }
+        return builder.build();
+    }
+
+    private void addWriteStatement(MethodSpec.Builder builder, CursorObjectClassInfo.CursorFieldInfo fieldInfo) {
+        final String readAccessCode = "instance." + fieldInfo.getReadAccessCode();
+        final String offsetCode = "start + " + getOffsetFieldName(fieldInfo);
+        final TypeName fieldType = CursorObjectClassInfo.unbox(fieldInfo.type);
+        final TypeName primitiveConverterType = objectClassInfo.getPrimitiveConverterType(fieldInfo.objectFieldName,
+                false);
+        if (fieldInfo.lazy) {
+            final ClassName converterClass = objectClassInfo.getConverter(fieldInfo.objectFieldName, false);
+            builder.addStatement("converted.clear()");
+            builder.beginControlFlow("if ($L != null)", readAccessCode);
+            builder.addStatement("$L.writeTo(converted, $S, $L, $L)", readAccessCode, fieldInfo.columnName,
+                    getConverterFieldName(converterClass), getConverterFieldName(fieldInfo.valueType));
+            builder.endControlFlow();
+            builder.addStatement("$T.putRaw(buffer, start, $L, converted.get($S))", BufferRecords.class,
+                    getOffsetFieldName(fieldInfo), fieldInfo.columnName);
+        } else if (primitiveConverterType != null) {
+            // Non-null flag, followed by column value
+            final ClassName converterClass = objectClassInfo.getConverter(fieldInfo.objectFieldName, false);
+            final String suffix = CursorObjectClassInfo.getPrimitiveConverterSuffix(primitiveConverterType);
+            builder.beginControlFlow("if ($L != null)", readAccessCode);
+            builder.addStatement("buffer.put($L, (byte) 1)", offsetCode);
+            builder.addStatement("buffer.put$L($L + 1, $L.to$L($L))", suffix, offsetCode,
+                    getConverterFieldName(converterClass), suffix, readAccessCode);
+            builder.nextControlFlow("else");
+            builder.addStatement("buffer.put($L, (byte) 0)", offsetCode);
+            builder.endControlFlow();
+        } else if (isStoredAsRawValue(fieldInfo)) {
+            final ClassName converterClass = objectClassInfo.getConverter(fieldInfo.objectFieldName, false);
+            builder.addStatement("converted.clear()");
+            builder.addStatement("$L.writeField(converted, $L, $S, $L)", getConverterFieldName(converterClass),
+                    readAccessCode, fieldInfo.columnName, getConverterFieldName(fieldType));
+            builder.addStatement("$T.putRaw(buffer, start, $L, converted.get($S))", BufferRecords.class,
+                    getOffsetFieldName(fieldInfo), fieldInfo.columnName);
+        } else if (fieldType.equals(CursorObjectClassInfo.STRING)) {
+            builder.addStatement("$T.putString(buffer, start, $L, $L)", BufferRecords.class,
+                    getOffsetFieldName(fieldInfo), readAccessCode);
+        } else if (isBlob(fieldType)) {
+            builder.addStatement("$T.putBlob(buffer, start, $L, $L)", BufferRecords.class,
+                    getOffsetFieldName(fieldInfo), readAccessCode);
+        } else if (!fieldType.equals(fieldInfo.type)) {
+            // Boxed value is prefixed with non-null flag
+            builder.beginControlFlow("if ($L != null)", readAccessCode);
+            builder.addStatement("buffer.put($L, (byte) 1)", offsetCode);
+            addPutPrimitiveStatement(builder, fieldInfo, fieldType, offsetCode + " + 1", readAccessCode);
+            builder.nextControlFlow("else");
+            builder.addStatement("buffer.put($L, (byte) 0)", offsetCode);
+            builder.endControlFlow();
+        } else {
+            addPutPrimitiveStatement(builder, fieldInfo, fieldType, offsetCode, readAccessCode);
+        }
+    }
+
+    private void addPutPrimitiveStatement(MethodSpec.Builder builder, CursorObjectClassInfo.CursorFieldInfo fieldInfo,
+                                          TypeName fieldType, String offsetCode, String valueCode) {
+        if (fieldType == TypeName.BOOLEAN) {
+            builder.addStatement("buffer.put($L, (byte) ($L ? 1 : 0))", offsetCode, valueCode);
+        } else {
+            builder.addStatement("buffer.$L($L, $L)", getPrimitiveMethod("put", fieldInfo, fieldType), offsetCode,
+                    valueCode);
+        }
+    }
+
+    private void addReadStatement(MethodSpec.Builder builder, CursorObjectClassInfo.CursorFieldInfo fieldInfo) {
+        final String offsetCode = "start + " + getOffsetFieldName(fieldInfo);
+        final TypeName fieldType = CursorObjectClassInfo.unbox(fieldInfo.type);
+        if (fieldInfo.useSetter()) {
+            builder.addCode("instance.$L(", fieldInfo.objectFieldSetter);
+        } else {
+            builder.addCode("instance.$L = ", fieldInfo.objectFieldName);
+        }
+        if (fieldInfo.lazy) {
+            final ClassName converterClass = objectClassInfo.getConverter(fieldInfo.objectFieldName, false);
+            builder.addCode("$T.fromRawValue($L, $L, $T.getRaw(buffer, start, $L))", LazyField.class,
+                    getConverterFieldName(converterClass), getConverterFieldName(fieldInfo.valueType),
+                    BufferRecords.class, getOffsetFieldName(fieldInfo));
+        } else if (objectClassInfo.getPrimitiveConverterType(fieldInfo.objectFieldName, false) != null) {
+            final ClassName converterClass = objectClassInfo.getConverter(fieldInfo.objectFieldName, false);
+            final String suffix = CursorObjectClassInfo.getPrimitiveConverterSuffix(
+                    objectClassInfo.getPrimitiveConverterType(fieldInfo.objectFieldName, false));
+            builder.addCode("buffer.get($L) != 0 ? $L.from$L(buffer.get$L($L + 1)) : null", offsetCode,
+                    getConverterFieldName(converterClass), suffix, suffix, offsetCode);
+        } else if (isStoredAsRawValue(fieldInfo)) {
+            final ClassName converterClass = objectClassInfo.getConverter(fieldInfo.objectFieldName, false);
+            builder.addCode("($T) $T.parseRaw($L, $T.getRaw(buffer, start, $L), $L)", fieldInfo.type,
+                    BufferRecords.class, getConverterFieldName(converterClass), BufferRecords.class,
+                    getOffsetFieldName(fieldInfo), getConverterFieldName(fieldType));
+        } else if (fieldType.equals(CursorObjectClassInfo.STRING)) {
+            builder.addCode("$T.getString(buffer, start, $L)", BufferRecords.class, getOffsetFieldName(fieldInfo));
+        } else if (isBlob(fieldType)) {
+            builder.addCode("$T.getBlob(buffer, start, $L)", BufferRecords.class, getOffsetFieldName(fieldInfo));
+        } else if (!fieldType.equals(fieldInfo.type)) {
+            builder.addCode("buffer.get($L) != 0 ? $T.valueOf($L) : null", offsetCode, fieldInfo.type,
+                    getPrimitiveValueCode(fieldInfo, fieldType, offsetCode + " + 1"));
+        } else {
+            builder.addCode("$L", getPrimitiveValueCode(fieldInfo, fieldType, offsetCode));
+        }
+        if (fieldInfo.useSetter()) {
+            builder.addCode(")");
+        }
+        builder.addStatement("");
+    }
+
+    private String getPrimitiveValueCode(CursorObjectClassInfo.CursorFieldInfo fieldInfo, TypeName fieldType,
+                                         String offsetCode) {
+        if (fieldType == TypeName.BOOLEAN) {
+            return "buffer.get(" + offsetCode + ") != 0";
+        }
+        return "buffer." + getPrimitiveMethod("get", fieldInfo, fieldType) + "(" + offsetCode + ")";
+    }
+
+    private String getPrimitiveMethod(String prefix, CursorObjectClassInfo.CursorFieldInfo fieldInfo,
+                                      TypeName fieldType) {
+        if (fieldType == TypeName.BYTE) {
+            return prefix;
+        } else if (fieldType == TypeName.SHORT) {
+            return prefix + "Short";
+        } else if (fieldType == TypeName.CHAR) {
+            return prefix + "Char";
+        } else if (fieldType == TypeName.INT) {
+            return prefix + "Int";
+        } else if (fieldType == TypeName.LONG) {
+            return prefix + "Long";
+        } else if (fieldType == TypeName.FLOAT) {
+            return prefix + "Float";
+        } else if (fieldType == TypeName.DOUBLE) {
+            return prefix + "Double";
+        }
+        throw new UnsupportedFieldTypeException(String.format("Unsupported type %s in %s.%s", fieldInfo.type,
+                objectClassInfo.objectClassName, fieldInfo.objectFieldName));
+    }
+
+    /**
+     * @return Size of fixed slot of this field, in bytes
+     */
+    private int getSlotSize(CursorObjectClassInfo.CursorFieldInfo fieldInfo) {
+        final TypeName primitiveConverterType = objectClassInfo.getPrimitiveConverterType(fieldInfo.objectFieldName,
+                false);
+        if (primitiveConverterType != null) {
+            // Non-null flag, followed by column value
+            return 1 + (primitiveConverterType == TypeName.INT ? 4 : 8);
+        }
+        final TypeName fieldType = CursorObjectClassInfo.unbox(fieldInfo.type);
+        if (fieldInfo.lazy || isStoredAsRawValue(fieldInfo) || fieldType.equals(CursorObjectClassInfo.STRING)
+                || isBlob(fieldType)) {
+            return BufferRecords.VARIABLE_SLOT_SIZE;
+        }
+        // Boxed value has a non-null flag
+        final int flagSize = fieldType.equals(fieldInfo.type) ? 0 : 1;
+        if (fieldType == TypeName.BOOLEAN || fieldType == TypeName.BYTE) {
+            return flagSize + 1;
+        } else if (fieldType == TypeName.SHORT || fieldType == TypeName.CHAR) {
+            return flagSize + 2;
+        } else if (fieldType == TypeName.INT || fieldType == TypeName.FLOAT) {
+            return flagSize + 4;
+        } else if (fieldType == TypeName.LONG || fieldType == TypeName.DOUBLE) {
+            return flagSize + 8;
+        }
+        throw new UnsupportedFieldTypeException(String.format("Unsupported type %s in %s.%s", fieldInfo.type,
+                objectClassInfo.objectClassName, fieldInfo.objectFieldName));
+    }
+
+    /**
+     * @return True if field is stored as column value written by its converter into {@code ContentValues}
+     */
+    private boolean isStoredAsRawValue(CursorObjectClassInfo.CursorFieldInfo fieldInfo) {
+        return isStoredAsRawValue(objectClassInfo, fieldInfo);
+    }
+
+    private static boolean isStoredAsRawValue(CursorObjectClassInfo classInfo,
+                                              CursorObjectClassInfo.CursorFieldInfo fieldInfo) {
+        return fieldInfo.lazy || (classInfo.getConverter(fieldInfo.objectFieldName, false) != null
+                && classInfo.getPrimitiveConverterType(fieldInfo.objectFieldName, false) == null);
+    }
+
+    /**
+     * @return True if this class or a parent has fields stored as column value
+     */
+    private boolean hasRawValueFields() {
+        for (CursorObjectClassInfo info = objectClassInfo; info != null; info = info.parentClassInfo) {
+            for (CursorObjectClassInfo.CursorFieldInfo fieldInfo : info.getFieldInfoList()) {
+                if (isStoredAsRawValue(info, fieldInfo)) return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isBlob(TypeName fieldType) {
+        return fieldType instanceof ArrayTypeName && ((ArrayTypeName) fieldType).componentType == TypeName.BYTE;
+    }
+
+    private static String getOffsetFieldName(CursorObjectClassInfo.CursorFieldInfo fieldInfo) {
+        return "OFFSET_" + CursorIndicesClassGenerator.toConstantName(fieldInfo.objectFieldName);
+    }
+
+    public void saveBufferCodecFile(Filer filer, Elements elements, Types types) throws IOException {
+        JavaFileObject fileObj = filer.createSourceFile(codecClassName.toString(),
+                objectClassInfo.getOriginatingElements());
+        try (Writer writer = fileObj.openWriter()) {
+            writeContent(writer, elements, types);
+            writer.flush();
+        }
+    }
+}
@@ -4,6 +4,7 @@ import android.database.Cursor;
 
 import com.squareup.javapoet.ArrayTypeName;
 import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.JavaFile;
 import com.squareup.javapoet.MethodSpec;
@@ -11,10 +12,20 @@ import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
 
+import org.mariotaku.library.objectcursor.CursorSnapshot;
+import org.mariotaku.library.objectcursor.LazyField;
 import org.mariotaku.library.objectcursor.ObjectCursor;
 import org.mariotaku.library.objectcursor.annotation.CursorField;
 import org.mariotaku.library.objectcursor.annotation.CursorObject;
+import org.mariotaku.library.objectcursor.cache.StringPool;
+import org.mariotaku.library.objectcursor.column.BlobColumn;
+import org.mariotaku.library.objectcursor.column.BooleanColumn;
+import org.mariotaku.library.objectcursor.column.DoubleColumn;
+import org.mariotaku.library.objectcursor.column.LongColumn;
+import org.mariotaku.library.objectcursor.column.StringColumn;
 import org.mariotaku.library.objectcursor.internal.ParameterizedTypeImpl;
+import org.mariotaku.library.objectcursor.internal.Snapshots;
+import org.mariotaku.library.objectcursor.metrics.Metrics;
 
 import java.io.IOException;
 import java.io.Writer;
@@ -59,8 +70,14 @@ public class CursorIndicesClassGenerator {
     void writeContent(Appendable appendable, Elements elements, Types types) throws IOException {
         final TypeSpec.Builder builder = TypeSpec.classBuilder(indicesClassNameWithoutPackage);
 
-        builder.addSuperinterface(ParameterizedTypeName.get(ClassName.get(ObjectCursor.CursorIndices.class),
-                objectClassInfo.objectClassName));
+        final CursorObjectClassInfo.CursorFieldInfo keyFieldInfo = objectClassInfo.getKeyFieldInfo();
+        if (keyFieldInfo != null) {
+            builder.addSuperinterface(ParameterizedTypeName.get(ClassName.get(ObjectCursor.KeyedCursorIndices.class),
+                    objectClassInfo.objectClassName));
+        } else {
+            builder.addSuperinterface(ParameterizedTypeName.get(ClassName.get(ObjectCursor.CursorIndices.class),
+                    objectClassInfo.objectClassName));
+        }
         builder.addModifiers(Modifier.PUBLIC);
 
         builder.addFields(getConverterFields());
@@ -88,10 +105,43 @@ public class CursorIndicesClassGenerator {
         }
 
 
+        builder.addField(String.class, "columnPrefix", Modifier.FINAL);
+
+        final boolean hasOwnColumns = !getOwnColumnNames().isEmpty();
+        if (hasOwnColumns) {
+            builder.addField(getColumnNamesField());
+            builder.addField(String[].class, "columnNames", Modifier.PRIVATE, Modifier.FINAL);
+        }
+
         builder.addFields(getIndexFields(superFields));
 
+        builder.addFields(getEmbeddedIndicesFields(elements));
+
+        builder.addFields(getOrdinalFields());
+
+        final boolean hasDedupFields = hasDedupFields();
+        if (hasDedupFields) {
+            builder.addField(FieldSpec.builder(StringPool.class, "stringPool", Modifier.PRIVATE)
+                    .initializer("$T.getDefault()", StringPool.class)
+                    .build());
+        }
+
+        builder.addField(TypeName.BOOLEAN, "shared", Modifier.PRIVATE);
+
+        if (objectClassInfo.wantColumnHandles) {
+            builder.addFields(getColumnHandleFields());
+        }
+
         // Add constructor
-        builder.addMethod(getConstructor(parentIndicesClass, superFields));
+        builder.addMethod(MethodSpec.constructorBuilder()
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(Cursor.class, "cursor")
+                .addStatement("this(cursor, $S)", "")
+                .build());
+
+        builder.addMethod(getConstructor(parentIndicesClass, superFields, elements, hasOwnColumns));
+
+        builder.addMethod(createRebindMethod(parentIndicesClass, superFields));
 
         builder.addMethod(createNewObjectMethod());
 
@@ -99,9 +149,32 @@ public class CursorIndicesClassGenerator {
 
         builder.addMethod(createAfterCreatedMethod(parentIndicesClass));
 
+        if (objectClassInfo.wantTrackChanges) {
+            builder.addMethod(createTrackedParseFieldsMethod());
+        }
+
         builder.addMethod(createParseFieldsMethod(parentIndicesClass));
 
-        builder.addMethod(createGetIndexMethod());
+        builder.addMethod(createHasValuesMethod(parentIndicesClass));
+
+        builder.addMethod(createSetStringPoolMethod(parentIndicesClass, hasDedupFields));
+
+        builder.addMethod(createMarkSharedMethod(parentIndicesClass));
+
+        builder.addMethod(createGetIndexMethod(parentIndicesClass));
+
+        builder.addMethod(createGetIndexByOrdinalMethod(parentIndicesClass));
+
+        if (keyFieldInfo != null) {
+            builder.addMethod(createGetKeyIndexMethod("getKeyIndex", keyFieldInfo));
+            builder.addMethod(createGetKeyIndexMethod("getVersionIndex", objectClassInfo.getVersionFieldInfo()));
+        }
+
+        if (objectClassInfo.wantColumnBatch) {
+            final List<CursorObjectClassInfo.CursorFieldInfo> batchFieldInfoList = getColumnBatchFieldInfoList();
+            builder.addType(createColumnsType(batchFieldInfoList));
+            builder.addMethod(createReadColumnsMethod(batchFieldInfoList));
+        }
 
         JavaFile.builder(objectClassInfo.getPackageName(), builder.build()).build().writeTo(appendable);
     }
@@ -163,26 +236,119 @@ public class CursorIndicesClassGenerator {
     }
 
 
-    private MethodSpec getConstructor(ClassName parentIndexClass, List<String> superFields) {
+    private List<FieldSpec> getEmbeddedIndicesFields(Elements elements) {
+        List<FieldSpec> fieldSpecs = new ArrayList<>();
+        for (CursorObjectClassInfo.CursorEmbeddedInfo embeddedInfo : objectClassInfo.embeddedInfoList) {
+            fieldSpecs.add(FieldSpec.builder(getEmbeddedIndicesClass(elements, embeddedInfo),
+                    embeddedInfo.getIndicesFieldName(), Modifier.PUBLIC, Modifier.FINAL)
+                    .build());
+        }
+        return fieldSpecs;
+    }
+
+    private ClassName getEmbeddedIndicesClass(Elements elements, CursorObjectClassInfo.CursorEmbeddedInfo embeddedInfo) {
+        if (!embeddedInfo.classInfo.wantCursorIndices) {
+            throw new IllegalArgumentException(String.format("Embedded type %s must enable cursorIndices",
+                    embeddedInfo.type));
+        }
+        return CursorObjectClassInfo.getSuffixedClassName(elements, embeddedInfo.classInfo.objectType,
+                CURSOR_INDICES_SUFFIX);
+    }
+
+    /**
+     * Column names are prefixed with {@code columnPrefix}, for indices of embedded objects
+     */
+    private MethodSpec getConstructor(ClassName parentIndexClass, List<String> superFields, Elements elements,
+                                      boolean hasOwnColumns) {
         final MethodSpec.Builder builder = MethodSpec.constructorBuilder();
         builder.addModifiers(Modifier.PUBLIC);
         builder.addParameter(Cursor.class, "cursor");
+        builder.addParameter(String.class, "columnPrefix");
+        builder.addStatement("this.columnPrefix = columnPrefix");
         if (parentIndexClass != null) {
-            builder.addStatement("parentIndices = new $T(cursor)", parentIndexClass);
+            builder.addStatement("parentIndices = new $T(cursor, columnPrefix)", parentIndexClass);
         }
         if (superFields != null) {
             for (String superField : superFields) {
                 builder.addStatement("this.$L = parentIndices.$L", superField, superField);
             }
         }
+        if (hasOwnColumns) {
+            // Prefixed once, reused by rebind
+            builder.beginControlFlow("if (columnPrefix.isEmpty())");
+            builder.addStatement("this.columnNames = COLUMN_NAMES");
+            builder.nextControlFlow("else");
+            builder.addStatement("this.columnNames = new String[COLUMN_NAMES.length]");
+            builder.beginControlFlow("for (int i = 0; i < COLUMN_NAMES.length; i++)");
+            builder.addStatement("this.columnNames[i] = columnPrefix + COLUMN_NAMES[i]");
+            builder.endControlFlow();
+            builder.endControlFlow();
+        }
+        addGetColumnIndexStatements(builder);
+        for (CursorObjectClassInfo.CursorEmbeddedInfo embeddedInfo : objectClassInfo.embeddedInfoList) {
+            builder.addStatement("this.$L = new $T(cursor, columnPrefix + $S)", embeddedInfo.getIndicesFieldName(),
+                    getEmbeddedIndicesClass(elements, embeddedInfo), embeddedInfo.prefix);
+        }
+
+        return builder.build();
+    }
+
+    private MethodSpec createRebindMethod(ClassName parentIndexClass, List<String> superFields) {
+        final MethodSpec.Builder builder = MethodSpec.methodBuilder("rebind");
+        builder.addAnnotation(Override.class);
+        builder.addModifiers(Modifier.PUBLIC);
+        builder.addParameter(Cursor.class, "cursor");
+        addCheckNotSharedStatement(builder);
+        if (parentIndexClass != null) {
+            builder.addStatement("parentIndices.rebind(cursor)");
+        }
+        if (superFields != null) {
+            for (String superField : superFields) {
+                builder.addStatement("this.$L = parentIndices.$L", superField, superField);
+            }
+        }
+        addGetColumnIndexStatements(builder);
+        for (CursorObjectClassInfo.CursorEmbeddedInfo embeddedInfo : objectClassInfo.embeddedInfoList) {
+            builder.addStatement("$L.rebind(cursor)", embeddedInfo.getIndicesFieldName());
+        }
+        return builder.build();
+    }
+
+    private void addGetColumnIndexStatements(MethodSpec.Builder builder) {
+        int i = 0;
         for (CursorObjectClassInfo.CursorFieldInfo fieldInfo : objectClassInfo.getFieldInfoList()) {
             if (fieldInfo.columnName.isEmpty()) continue;
-            builder.addStatement("this.$L = cursor.getColumnIndex($S)", fieldInfo.indexFieldName, fieldInfo.columnName);
+            builder.addStatement("this.$L = cursor.getColumnIndex(columnNames[$L])", fieldInfo.indexFieldName, i++);
         }
+    }
 
-        return builder.build();
+    /**
+     * @return Own column names, in the same order as {@code COLUMN_NAMES}
+     */
+    private List<String> getOwnColumnNames() {
+        final List<String> result = new ArrayList<>();
+        for (CursorObjectClassInfo.CursorFieldInfo fieldInfo : objectClassInfo.getFieldInfoList()) {
+            if (fieldInfo.columnName.isEmpty()) continue;
+            result.add(fieldInfo.columnName);
+        }
+        return result;
     }
 
+    private FieldSpec getColumnNamesField() {
+        final CodeBlock.Builder initializer = CodeBlock.builder();
+        initializer.add("{");
+        final List<String> columnNames = getOwnColumnNames();
+        for (int i = 0, j = columnNames.size(); i < j; i++) {
+            if (i > 0) {
+                initializer.add(", ");
+            }
+            initializer.add("$S", columnNames.get(i));
+        }
+        initializer.add("}");
+        return FieldSpec.builder(String[].class, "COLUMN_NAMES", Modifier.STATIC, Modifier.FINAL)
+                .initializer(initializer.build())
+                .build();
+    }
 
     private MethodSpec createNewObjectMethod() {
         final MethodSpec.Builder builder = MethodSpec.methodBuilder("newObject");
@@ -237,7 +403,7 @@ public class CursorIndicesClassGenerator {
         return builder.build();
     }
 
-    private MethodSpec createParseFieldsMethod(ClassName parentIndicesClass) {
+    private MethodSpec createTrackedParseFieldsMethod() {
         final MethodSpec.Builder builder = MethodSpec.methodBuilder("parseFields");
         builder.addAnnotation(Override.class);
         builder.addModifiers(Modifier.PUBLIC);
@@ -245,24 +411,190 @@ public class CursorIndicesClassGenerator {
         builder.addParameter(Cursor.class, "cursor");
         builder.addException(IOException.class);
 
+        builder.addStatement("final $T snapshot = new $T($L, $L)", CursorSnapshot.class, CursorSnapshot.class,
+                objectClassInfo.getSnapshotLongCount(), objectClassInfo.getSnapshotObjectCount());
+        builder.addStatement("parseFields(instance, cursor, snapshot)");
+        builder.addStatement("instance.setCursorSnapshot(snapshot)");
+        return builder.build();
+    }
+
+    private MethodSpec createParseFieldsMethod(ClassName parentIndicesClass) {
+        final boolean trackChanges = objectClassInfo.wantTrackChanges;
+        final MethodSpec.Builder builder = MethodSpec.methodBuilder("parseFields");
+        if (!trackChanges) {
+            builder.addAnnotation(Override.class);
+        }
+        builder.addModifiers(Modifier.PUBLIC);
+        builder.addParameter(objectClassInfo.objectClassName, "instance");
+        builder.addParameter(Cursor.class, "cursor");
+        if (trackChanges) {
+            builder.addParameter(CursorSnapshot.class, "snapshot");
+        }
+        builder.addException(IOException.class);
+
         if (parentIndicesClass != null) {
-            builder.addStatement("parentIndices.parseFields(instance, cursor)");
+            if (trackChanges && objectClassInfo.isParentTrackChanges()) {
+                builder.addStatement("parentIndices.parseFields(instance, cursor, snapshot)");
+            } else {
+                builder.addStatement("parentIndices.parseFields(instance, cursor)");
+            }
         }
 
-        for (CursorObjectClassInfo.CursorFieldInfo fieldInfo : objectClassInfo.getFieldInfoList()) {
+        final List<CursorObjectClassInfo.CursorFieldInfo> fieldInfoList = objectClassInfo.getFieldInfoList();
+        for (int i = 0, j = fieldInfoList.size(); i < j; i++) {
+            final CursorObjectClassInfo.CursorFieldInfo fieldInfo = fieldInfoList.get(i);
             if (fieldInfo.columnName.isEmpty()) {
-                addSetValueStatement(builder, fieldInfo);
+                addMeasuredSetValueStatement(builder, fieldInfo, i);
             } else {
                 builder.beginControlFlow("if ($L != -1)", fieldInfo.indexFieldName);
-                addSetValueStatement(builder, fieldInfo);
+                addMeasuredSetValueStatement(builder, fieldInfo, i);
+                if (trackChanges) {
+                    addSnapshotStatement(builder, fieldInfo);
+                }
                 builder.endControlFlow();
             }
         }
 
+        for (CursorObjectClassInfo.CursorEmbeddedInfo embeddedInfo : objectClassInfo.embeddedInfoList) {
+            final String indicesFieldName = embeddedInfo.getIndicesFieldName();
+            builder.addStatement("instance.$L$L.hasValues(cursor) ? $L.newObject(cursor) : null$L",
+                    embeddedInfo.getWriteAccessPrefix(), indicesFieldName, indicesFieldName,
+                    embeddedInfo.getWriteAccessSuffix());
+        }
+
         return builder.build();
     }
 
-    private MethodSpec createGetIndexMethod() {
+    /**
+     * Generates {@code hasValues(Cursor)}, used by enclosing types to tell whether embedded object is null
+     */
+    private MethodSpec createHasValuesMethod(ClassName parentIndicesClass) {
+        final MethodSpec.Builder builder = MethodSpec.methodBuilder("hasValues");
+        builder.addJavadoc("@return True if any column of this type is in projection and not null\n");
+        builder.addModifiers(Modifier.PUBLIC);
+        builder.addParameter(Cursor.class, "cursor");
+        builder.returns(TypeName.BOOLEAN);
+        if (parentIndicesClass != null) {
+            builder.addStatement("if (parentIndices.hasValues(cursor)) return true");
+        }
+        for (CursorObjectClassInfo.CursorFieldInfo fieldInfo : objectClassInfo.getFieldInfoList()) {
+            if (fieldInfo.columnName.isEmpty()) continue;
+            builder.addStatement("if ($L != -1 && !cursor.isNull($L)) return true", fieldInfo.indexFieldName,
+                    fieldInfo.indexFieldName);
+        }
+        for (CursorObjectClassInfo.CursorEmbeddedInfo embeddedInfo : objectClassInfo.embeddedInfoList) {
+            builder.addStatement("if ($L.hasValues(cursor)) return true", embeddedInfo.getIndicesFieldName());
+        }
+        builder.addStatement("return false");
+        return builder.build();
+    }
+
+    /**
+     * Generates {@code setStringPool(StringPool)}, pool is passed to parent and embedded indices as well
+     */
+    private MethodSpec createSetStringPoolMethod(ClassName parentIndicesClass, boolean hasDedupFields) {
+        final MethodSpec.Builder builder = MethodSpec.methodBuilder("setStringPool");
+        builder.addAnnotation(Override.class);
+        builder.addModifiers(Modifier.PUBLIC);
+        builder.addParameter(StringPool.class, "pool");
+        addCheckNotSharedStatement(builder);
+        if (hasDedupFields) {
+            builder.addStatement("this.stringPool = pool");
+        }
+        if (parentIndicesClass != null) {
+            builder.addStatement("parentIndices.setStringPool(pool)");
+        }
+        for (CursorObjectClassInfo.CursorEmbeddedInfo embeddedInfo : objectClassInfo.embeddedInfoList) {
+            builder.addStatement("$L.setStringPool(pool)", embeddedInfo.getIndicesFieldName());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Generates {@code markShared()}, parent and embedded indices are shared along with this one
+     */
+    private MethodSpec createMarkSharedMethod(ClassName parentIndicesClass) {
+        final MethodSpec.Builder builder = MethodSpec.methodBuilder("markShared");
+        builder.addAnnotation(Override.class);
+        builder.addModifiers(Modifier.PUBLIC);
+        builder.addStatement("this.shared = true");
+        if (parentIndicesClass != null) {
+            builder.addStatement("parentIndices.markShared()");
+        }
+        for (CursorObjectClassInfo.CursorEmbeddedInfo embeddedInfo : objectClassInfo.embeddedInfoList) {
+            builder.addStatement("$L.markShared()", embeddedInfo.getIndicesFieldName());
+        }
+        return builder.build();
+    }
+
+    private static void addCheckNotSharedStatement(MethodSpec.Builder builder) {
+        builder.beginControlFlow("if (shared)");
+        builder.addStatement("throw new $T($S)", IllegalStateException.class, "Shared indices can't be changed");
+        builder.endControlFlow();
+    }
+
+    /**
+     * @return True if this class reads dedup fields itself, parent fields are read by parent indices except in
+     * column batch
+     */
+    private boolean hasDedupFields() {
+        for (CursorObjectClassInfo.CursorFieldInfo fieldInfo : objectClassInfo.getFieldInfoList()) {
+            if (fieldInfo.dedup) return true;
+        }
+        if (!objectClassInfo.wantColumnBatch) return false;
+        for (CursorObjectClassInfo.CursorFieldInfo fieldInfo : getColumnBatchFieldInfoList()) {
+            if (fieldInfo.dedup) return true;
+        }
+        return false;
+    }
+
+    private void addMeasuredSetValueStatement(MethodSpec.Builder builder,
+                                              CursorObjectClassInfo.CursorFieldInfo fieldInfo, int fieldIndex) {
+        if (!objectClassInfo.generateMetrics || !objectClassInfo.isConvertedField(fieldInfo, false)) {
+            addSetValueStatement(builder, fieldInfo);
+            return;
+        }
+        final String startName = "parseStart" + fieldIndex;
+        builder.addStatement("final long $L = System.nanoTime()", startName);
+        addSetValueStatement(builder, fieldInfo);
+        builder.addStatement("$T.get().onConverterParse($T.class, System.nanoTime() - $L)", Metrics.class,
+                objectClassInfo.getConverter(fieldInfo.objectFieldName, false), startName);
+    }
+
+    private void addSnapshotStatement(MethodSpec.Builder builder, CursorObjectClassInfo.CursorFieldInfo fieldInfo) {
+        final String readAccessCode = fieldInfo.getReadAccessCode();
+        final int slot = objectClassInfo.getSnapshotSlot(fieldInfo);
+        final TypeName primitiveConverterType = objectClassInfo.getPrimitiveConverterType(fieldInfo.objectFieldName,
+                false);
+        if (fieldInfo.lazy) {
+            // Captured raw value, no need to copy
+            builder.addStatement("snapshot.putObject($L, instance.$L != null ? instance.$L.getRawValue() : null)",
+                    slot, readAccessCode, readAccessCode);
+        } else if (objectClassInfo.isSerializedInSnapshot(fieldInfo)) {
+            // Converted value may be mutable, compare serialized form instead
+            builder.addStatement("snapshot.putObject($L, $T.rawValue(cursor, $L))", slot, Snapshots.class,
+                    fieldInfo.indexFieldName);
+        } else if (fieldInfo.type instanceof ArrayTypeName) {
+            builder.addStatement("snapshot.putObject($L, $T.copyOf(instance.$L))", slot, Snapshots.class,
+                    readAccessCode);
+        } else if (primitiveConverterType != null) {
+            // Column value, converted value may be mutable
+            builder.beginControlFlow("if (cursor.isNull($L))", fieldInfo.indexFieldName);
+            builder.addStatement("snapshot.putLongNull($L)", slot);
+            builder.nextControlFlow("else");
+            builder.addStatement("snapshot.put$L($L, cursor.get$L($L))", objectClassInfo.getSnapshotLongSuffix(fieldInfo),
+                    slot, CursorObjectClassInfo.getPrimitiveConverterSuffix(primitiveConverterType),
+                    fieldInfo.indexFieldName);
+            builder.endControlFlow();
+        } else if (objectClassInfo.isLongInSnapshot(fieldInfo)) {
+            builder.addStatement("snapshot.put$L($L, instance.$L)", objectClassInfo.getSnapshotLongSuffix(fieldInfo), slot,
+                    readAccessCode);
+        } else {
+            builder.addStatement("snapshot.putObject($L, instance.$L)", slot, readAccessCode);
+        }
+    }
+
+    private MethodSpec createGetIndexMethod(ClassName parentIndicesClass) {
         final MethodSpec.Builder builder = MethodSpec.methodBuilder("get");
         builder.addAnnotation(Override.class);
         builder.addModifiers(Modifier.PUBLIC);
@@ -273,10 +605,350 @@ public class CursorIndicesClassGenerator {
             builder.addStatement("  case $S: return $L", fieldInfo.columnName, fieldInfo.indexFieldName);
         }
         builder.endControlFlow();
-        builder.addStatement("return -1");
+        if (objectClassInfo.getEmbeddedInfoListIncludingParents().isEmpty()) {
+            builder.addStatement("return -1");
+            return builder.build();
+        }
+        // Columns of embedded objects, names are prefixed
+        for (CursorObjectClassInfo.CursorEmbeddedInfo embeddedInfo : objectClassInfo.embeddedInfoList) {
+            builder.beginControlFlow("if (columnName.startsWith($S))", embeddedInfo.prefix);
+            builder.addStatement("final int index = $L.get(columnName.substring($L))",
+                    embeddedInfo.getIndicesFieldName(), embeddedInfo.prefix.length());
+            builder.addStatement("if (index != -1) return index");
+            builder.endControlFlow();
+        }
+        if (parentIndicesClass != null) {
+            builder.addStatement("return parentIndices.get(columnName)");
+        } else {
+            builder.addStatement("return -1");
+        }
+        return builder.build();
+    }
+
+    private MethodSpec createGetIndexByOrdinalMethod(ClassName parentIndicesClass) {
+        final MethodSpec.Builder builder = MethodSpec.methodBuilder("getIndex");
+        builder.addAnnotation(Override.class);
+        builder.addModifiers(Modifier.PUBLIC);
+        builder.addParameter(int.class, "ordinal");
+        builder.returns(int.class);
+        builder.beginControlFlow("switch (ordinal)");
+        for (final CursorObjectClassInfo.CursorFieldInfo fieldInfo : objectClassInfo.getFieldInfoList()) {
+            if (fieldInfo.columnName.isEmpty()) continue;
+            builder.addStatement("  case $L: return $L", getOrdinalFieldName(fieldInfo), fieldInfo.indexFieldName);
+        }
+        builder.endControlFlow();
+        if (parentIndicesClass != null) {
+            builder.addStatement("return ordinal < $L ? parentIndices.getIndex(ordinal) : -1",
+                    objectClassInfo.getOrdinalOffset());
+        } else {
+            builder.addStatement("return -1");
+        }
+        return builder.build();
+    }
+
+    private MethodSpec createGetKeyIndexMethod(String name, CursorObjectClassInfo.CursorFieldInfo fieldInfo) {
+        final MethodSpec.Builder builder = MethodSpec.methodBuilder(name);
+        builder.addAnnotation(Override.class);
+        builder.addModifiers(Modifier.PUBLIC);
+        builder.returns(int.class);
+        if (fieldInfo == null) {
+            builder.addStatement("return -1");
+        } else if (objectClassInfo.getFieldInfoList().contains(fieldInfo)) {
+            builder.addStatement("return $L", fieldInfo.indexFieldName);
+        } else {
+            // Parent indices may not be keyed, look up by name
+            builder.addStatement("return parentIndices.get($S)", fieldInfo.columnName);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Ordinals are the same as snapshot indices, fields of parent classes come first
+     */
+    private List<FieldSpec> getOrdinalFields() {
+        final List<FieldSpec> fieldSpecs = new ArrayList<>();
+        final int offset = objectClassInfo.getOrdinalOffset();
+        final List<CursorObjectClassInfo.CursorFieldInfo> fieldInfoList = objectClassInfo.getFieldInfoList();
+        for (int i = 0, j = fieldInfoList.size(); i < j; i++) {
+            final CursorObjectClassInfo.CursorFieldInfo fieldInfo = fieldInfoList.get(i);
+            fieldSpecs.add(FieldSpec.builder(TypeName.INT, getOrdinalFieldName(fieldInfo), Modifier.PUBLIC,
+                    Modifier.STATIC, Modifier.FINAL)
+                    .initializer("$L", offset + i)
+                    .build());
+        }
+        return fieldSpecs;
+    }
+
+    private List<FieldSpec> getColumnHandleFields() {
+        final List<FieldSpec> fieldSpecs = new ArrayList<>();
+        for (CursorObjectClassInfo.CursorFieldInfo fieldInfo : objectClassInfo.getFieldInfoList()) {
+            final ClassName handleClass = getColumnHandleClass(fieldInfo);
+            if (handleClass == null) continue;
+            final TypeName handleType = ParameterizedTypeName.get(handleClass, objectClassInfo.objectClassName);
+            final TypeSpec.Builder builder = TypeSpec.anonymousClassBuilder("$S, $L", fieldInfo.columnName,
+                    getOrdinalFieldName(fieldInfo));
+            builder.superclass(handleType);
+            addColumnHandleMethods(builder, handleClass, fieldInfo);
+            fieldSpecs.add(FieldSpec.builder(handleType, toConstantName(fieldInfo.objectFieldName) + "_COLUMN",
+                    Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                    .initializer("$L", builder.build())
+                    .build());
+        }
+        return fieldSpecs;
+    }
+
+    /**
+     * @return Handle class of this field, or null if field is read by converter
+     */
+    private ClassName getColumnHandleClass(CursorObjectClassInfo.CursorFieldInfo fieldInfo) {
+        if (fieldInfo.columnName.isEmpty() || fieldInfo.lazy
+                || objectClassInfo.getPrimitiveConverterType(fieldInfo.objectFieldName, false) != null) {
+            return null;
+        }
+        final TypeName fieldType = CursorObjectClassInfo.unbox(fieldInfo.type);
+        if (fieldType == TypeName.BOOLEAN) {
+            return ClassName.get(BooleanColumn.class);
+        } else if (fieldType == TypeName.BYTE || fieldType == TypeName.SHORT || fieldType == TypeName.INT
+                || fieldType == TypeName.LONG) {
+            return ClassName.get(LongColumn.class);
+        } else if (fieldType == TypeName.FLOAT || fieldType == TypeName.DOUBLE) {
+            return ClassName.get(DoubleColumn.class);
+        } else if (fieldType.equals(CursorObjectClassInfo.STRING)) {
+            return ClassName.get(StringColumn.class);
+        } else if (objectClassInfo.getConverter(fieldInfo.objectFieldName, false) != null) {
+            return null;
+        } else if (fieldType instanceof ArrayTypeName && ((ArrayTypeName) fieldType).componentType == TypeName.BYTE) {
+            return ClassName.get(BlobColumn.class);
+        }
+        return null;
+    }
+
+    private void addColumnHandleMethods(TypeSpec.Builder builder, ClassName handleClass,
+                                        CursorObjectClassInfo.CursorFieldInfo fieldInfo) {
+        final TypeName fieldType = CursorObjectClassInfo.unbox(fieldInfo.type);
+        final boolean boxed = !fieldType.equals(fieldInfo.type);
+        final String readAccessCode = "instance." + fieldInfo.getReadAccessCode();
+        // Value type of get and set
+        final TypeName valueType;
+        if (handleClass.equals(ClassName.get(LongColumn.class))) {
+            valueType = TypeName.LONG;
+        } else if (handleClass.equals(ClassName.get(DoubleColumn.class))) {
+            valueType = TypeName.DOUBLE;
+        } else {
+            valueType = fieldType;
+        }
+
+        final MethodSpec.Builder get = MethodSpec.methodBuilder("get");
+        get.addAnnotation(Override.class);
+        get.addModifiers(Modifier.PUBLIC);
+        get.addParameter(objectClassInfo.objectClassName, "instance");
+        get.returns(valueType);
+        if (!boxed) {
+            get.addStatement("return $L", readAccessCode);
+        } else if (fieldType == TypeName.BOOLEAN) {
+            get.addStatement("return $L != null && $L", readAccessCode, readAccessCode);
+        } else {
+            get.addStatement("return $L != null ? $L : 0", readAccessCode, readAccessCode);
+        }
+        builder.addMethod(get.build());
+
+        final MethodSpec.Builder set = MethodSpec.methodBuilder("set");
+        set.addAnnotation(Override.class);
+        set.addModifiers(Modifier.PUBLIC);
+        set.addParameter(objectClassInfo.objectClassName, "instance");
+        set.addParameter(valueType, "value");
+        if (valueType.equals(fieldType)) {
+            addColumnHandleSetStatement(set, fieldInfo, "value");
+        } else {
+            addColumnHandleSetStatement(set, fieldInfo, "(" + fieldType + ") value");
+        }
+        builder.addMethod(set.build());
+
+        if (boxed) {
+            builder.addMethod(MethodSpec.methodBuilder("isNull")
+                    .addAnnotation(Override.class)
+                    .addModifiers(Modifier.PUBLIC)
+                    .addParameter(objectClassInfo.objectClassName, "instance")
+                    .returns(TypeName.BOOLEAN)
+                    .addStatement("return $L == null", readAccessCode)
+                    .build());
+            final MethodSpec.Builder setNull = MethodSpec.methodBuilder("setNull");
+            setNull.addAnnotation(Override.class);
+            setNull.addModifiers(Modifier.PUBLIC);
+            setNull.addParameter(objectClassInfo.objectClassName, "instance");
+            addColumnHandleSetStatement(setNull, fieldInfo, "null");
+            builder.addMethod(setNull.build());
+        }
+    }
+
+    private void addColumnHandleSetStatement(MethodSpec.Builder builder, CursorObjectClassInfo.CursorFieldInfo fieldInfo,
+                                             String valueCode) {
+        if (fieldInfo.useSetter()) {
+            builder.addStatement("instance.$L($L)", fieldInfo.objectFieldSetter, valueCode);
+        } else {
+            builder.addStatement("instance.$L = $L", fieldInfo.objectFieldName, valueCode);
+        }
+    }
+
+    private static String getOrdinalFieldName(CursorObjectClassInfo.CursorFieldInfo fieldInfo) {
+        return "ORDINAL_" + toConstantName(fieldInfo.objectFieldName);
+    }
+
+    /**
+     * @return {@code fieldName} in upper snake case, e.g. {@code createdAt} to {@code CREATED_AT}
+     */
+    static String toConstantName(String fieldName) {
+        final StringBuilder sb = new StringBuilder(fieldName.length() + 4);
+        for (int i = 0, j = fieldName.length(); i < j; i++) {
+            final char c = fieldName.charAt(i);
+            if (i > 0 && Character.isUpperCase(c) && !Character.isUpperCase(fieldName.charAt(i - 1))) {
+                sb.append('_');
+            }
+            sb.append(Character.toUpperCase(c));
+        }
+        return sb.toString();
+    }
+
+    private List<CursorObjectClassInfo.CursorFieldInfo> getColumnBatchFieldInfoList() {
+        final List<CursorObjectClassInfo.CursorFieldInfo> result = new ArrayList<>();
+        for (CursorObjectClassInfo.CursorFieldInfo fieldInfo : objectClassInfo.getFieldInfoListIncludingParents()) {
+            if (fieldInfo.columnName.isEmpty() || getColumnArrayComponentType(fieldInfo) == null) continue;
+            result.add(fieldInfo);
+        }
+        return result;
+    }
+
+    /**
+     * @return Component type of column array, or null if this field can't be read in batch
+     */
+    private TypeName getColumnArrayComponentType(CursorObjectClassInfo.CursorFieldInfo fieldInfo) {
+        if (fieldInfo.lazy) return null;
+        final TypeName fieldType = CursorObjectClassInfo.unbox(fieldInfo.type);
+        // Stored column value of primitive converter field, e.g. timestamp
+        final TypeName primitiveConverterType = objectClassInfo.getPrimitiveConverterType(fieldInfo.objectFieldName,
+                true);
+        if (primitiveConverterType != null) return primitiveConverterType;
+        if (objectClassInfo.getConverter(fieldInfo.objectFieldName, true) != null) return null;
+        if (fieldType == TypeName.BOOLEAN || fieldType == TypeName.SHORT || fieldType == TypeName.INT
+                || fieldType == TypeName.LONG || fieldType == TypeName.FLOAT || fieldType == TypeName.DOUBLE
+                || fieldType.equals(CursorObjectClassInfo.STRING)) {
+            return fieldType;
+        } else if (fieldType instanceof ArrayTypeName && ((ArrayTypeName) fieldType).componentType == TypeName.BYTE) {
+            return fieldType;
+        }
+        return null;
+    }
+
+    private TypeSpec createColumnsType(List<CursorObjectClassInfo.CursorFieldInfo> fieldInfoList) {
+        final TypeSpec.Builder builder = TypeSpec.classBuilder("Columns");
+        builder.addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL);
+        builder.addField(TypeName.INT, "size", Modifier.PUBLIC, Modifier.FINAL);
+        builder.addField(boolean[].class, "present", Modifier.PRIVATE, Modifier.FINAL);
+        for (CursorObjectClassInfo.CursorFieldInfo fieldInfo : fieldInfoList) {
+            builder.addField(ArrayTypeName.of(getColumnArrayComponentType(fieldInfo)), fieldInfo.objectFieldName,
+                    Modifier.PUBLIC, Modifier.FINAL);
+        }
+        final MethodSpec.Builder constructor = MethodSpec.constructorBuilder();
+        constructor.addModifiers(Modifier.PUBLIC);
+        constructor.addParameter(TypeName.INT, "size");
+        constructor.addStatement("this.size = size");
+        constructor.addStatement("this.present = new boolean[$L]",
+                objectClassInfo.getFieldInfoListIncludingParents().size());
+        for (CursorObjectClassInfo.CursorFieldInfo fieldInfo : fieldInfoList) {
+            final TypeName componentType = getColumnArrayComponentType(fieldInfo);
+            if (componentType instanceof ArrayTypeName) {
+                constructor.addStatement("this.$L = new $T[size][]", fieldInfo.objectFieldName,
+                        ((ArrayTypeName) componentType).componentType);
+            } else {
+                constructor.addStatement("this.$L = new $T[size]", fieldInfo.objectFieldName, componentType);
+            }
+        }
+        builder.addMethod(constructor.build());
+        builder.addMethod(MethodSpec.methodBuilder("isPresent")
+                .addJavadoc("@param ordinal Ordinal of field, e.g. {@code ORDINAL_*} of this class\n")
+                .addJavadoc("@return True if column was in cursor projection, values of absent ones are 0 or null\n")
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(TypeName.INT, "ordinal")
+                .returns(TypeName.BOOLEAN)
+                .addStatement("return present[ordinal]")
+                .build());
+        return builder.build();
+    }
+
+    private MethodSpec createReadColumnsMethod(List<CursorObjectClassInfo.CursorFieldInfo> fieldInfoList)
+            throws UnsupportedFieldTypeException {
+        final ClassName columnsClassName = indicesClassName.nestedClass("Columns");
+        final MethodSpec.Builder builder = MethodSpec.methodBuilder("readColumns");
+        builder.addJavadoc("Reads rows in {@code [position, position + count)} into columns, cursor is left after " +
+                "the last row read\n");
+        builder.addModifiers(Modifier.PUBLIC);
+        builder.addParameter(Cursor.class, "cursor");
+        builder.addParameter(TypeName.INT, "position");
+        builder.addParameter(TypeName.INT, "count");
+        builder.addException(IOException.class);
+        builder.returns(columnsClassName);
+
+        builder.beginControlFlow("if (position < 0)");
+        builder.addStatement("throw new $T(\"position < 0\")", IllegalArgumentException.class);
+        builder.endControlFlow();
+        builder.addStatement("final int size = $T.max(0, $T.min(count, cursor.getCount() - position))", Math.class,
+                Math.class);
+        builder.addStatement("final $T columns = new $T(size)", columnsClassName, columnsClassName);
+        // Resolve indices once, parent ones are looked up by column name
+        final List<CursorObjectClassInfo.CursorFieldInfo> ownFieldInfoList = objectClassInfo.getFieldInfoList();
+        final List<CursorObjectClassInfo.CursorFieldInfo> allFieldInfoList =
+                objectClassInfo.getFieldInfoListIncludingParents();
+        for (int i = 0, j = fieldInfoList.size(); i < j; i++) {
+            final CursorObjectClassInfo.CursorFieldInfo fieldInfo = fieldInfoList.get(i);
+            if (ownFieldInfoList.contains(fieldInfo)) {
+                builder.addStatement("final int index$L = $L", i, fieldInfo.indexFieldName);
+            } else {
+                builder.addStatement("final int index$L = parentIndices.get($S)", i, fieldInfo.columnName);
+            }
+            builder.addStatement("columns.present[$L] = index$L != -1", allFieldInfoList.indexOf(fieldInfo), i);
+        }
+        builder.addStatement("if (size == 0 || !cursor.moveToPosition(position)) return columns");
+        builder.beginControlFlow("for (int i = 0; i < size; i++)");
+        for (int i = 0, j = fieldInfoList.size(); i < j; i++) {
+            final CursorObjectClassInfo.CursorFieldInfo fieldInfo = fieldInfoList.get(i);
+            builder.addStatement("if (index$L != -1) columns.$L[i] = $L", i, fieldInfo.objectFieldName,
+                    getColumnValueCode(fieldInfo, "index" + i));
+        }
+        builder.addStatement("if (!cursor.moveToNext()) break");
+        builder.endControlFlow();
+        builder.addStatement("return columns");
         return builder.build();
     }
 
+    private String getColumnValueCode(CursorObjectClassInfo.CursorFieldInfo fieldInfo, String index) {
+        final TypeName primitiveConverterType = objectClassInfo.getPrimitiveConverterType(fieldInfo.objectFieldName,
+                true);
+        if (primitiveConverterType != null) {
+            // Stored column value, converter is not called
+            return String.format(Locale.ROOT, "cursor.get%s(%s)",
+                    CursorObjectClassInfo.getPrimitiveConverterSuffix(primitiveConverterType), index);
+        }
+        final TypeName fieldType = CursorObjectClassInfo.unbox(fieldInfo.type);
+        if (fieldType == TypeName.BOOLEAN) {
+            return "cursor.getShort(" + index + ") == 1";
+        } else if (fieldType == TypeName.SHORT) {
+            return "cursor.getShort(" + index + ")";
+        } else if (fieldType == TypeName.INT) {
+            return "cursor.getInt(" + index + ")";
+        } else if (fieldType == TypeName.LONG) {
+            return "cursor.getLong(" + index + ")";
+        } else if (fieldType == TypeName.FLOAT) {
+            return "cursor.getFloat(" + index + ")";
+        } else if (fieldType == TypeName.DOUBLE) {
+            return "cursor.getDouble(" + index + ")";
+        } else if (fieldInfo.dedup) {
+            return "stringPool.get(cursor, " + index + ")";
+        } else if (fieldType.equals(CursorObjectClassInfo.STRING)) {
+            return "cursor.getString(" + index + ")";
+        }
+        return "cursor.getBlob(" + index + ")";
+    }
+
     private void addSetValueStatement(MethodSpec.Builder builder, CursorObjectClassInfo.CursorFieldInfo fieldInfo)
             throws UnsupportedFieldTypeException {
         boolean supported = true;
@@ -291,7 +963,20 @@ public class CursorIndicesClassGenerator {
         } else {
             builder.addCode("instance.$L = ", fieldInfo.objectFieldName);
         }
-        if (fieldType == TypeName.BOOLEAN) {
+        final TypeName primitiveConverterType = objectClassInfo.getPrimitiveConverterType(fieldInfo.objectFieldName,
+                false);
+        if (fieldInfo.lazy) {
+            final ClassName converterClass = objectClassInfo.getConverter(fieldInfo.objectFieldName, false);
+            builder.addCode("$T.capture(cursor, $L, $L, $L)", LazyField.class, fieldInfo.indexFieldName,
+                    getConverterFieldName(converterClass), getConverterFieldName(fieldInfo.valueType));
+        } else if (primitiveConverterType != null) {
+            final ClassName converterClass = objectClassInfo.getConverter(fieldInfo.objectFieldName, false);
+            builder.addCode("cursor.isNull($L) ? null : $L.from$L(cursor.get$L($L))", fieldInfo.indexFieldName,
+                    getConverterFieldName(converterClass),
+                    CursorObjectClassInfo.getPrimitiveConverterSuffix(primitiveConverterType),
+                    CursorObjectClassInfo.getPrimitiveConverterSuffix(primitiveConverterType),
+                    fieldInfo.indexFieldName);
+        } else if (fieldType == TypeName.BOOLEAN) {
             builder.addCode("cursor.getShort($L) == 1", fieldInfo.indexFieldName);
         } else if (fieldType == TypeName.INT) {
             builder.addCode("cursor.getInt($L)", fieldInfo.indexFieldName);
@@ -303,6 +988,8 @@ public class CursorIndicesClassGenerator {
             builder.addCode("cursor.getDouble($L)", fieldInfo.indexFieldName);
         } else if (fieldType == TypeName.SHORT) {
             builder.addCode("cursor.getShort($L)", fieldInfo.indexFieldName);
+        } else if (fieldInfo.dedup) {
+            builder.addCode("stringPool.get(cursor, $L)", fieldInfo.indexFieldName);
         } else if (fieldType.equals(CursorObjectClassInfo.STRING)) {
             builder.addCode("cursor.getString($L)", fieldInfo.indexFieldName);
         } else {
@@ -339,7 +1026,8 @@ public class CursorIndicesClassGenerator {
 
 
     public void saveCursorIndicesFile(Filer filer, Elements elements, Types types) throws IOException {
-        JavaFileObject fileObj = filer.createSourceFile(indicesClassName.toString());
+        JavaFileObject fileObj = filer.createSourceFile(indicesClassName.toString(),
+                objectClassInfo.getOriginatingElements());
         try (Writer writer = fileObj.openWriter()) {
             writeContent(writer, elements, types);
             writer.flush();
@@ -1,11 +1,19 @@
 package org.mariotaku.objectcursor.processor;
 
 import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeName;
 
+import org.mariotaku.library.objectcursor.CursorSnapshotHolder;
+import org.mariotaku.library.objectcursor.LazyField;
+import org.mariotaku.library.objectcursor.annotation.CursorEmbedded;
 import org.mariotaku.library.objectcursor.annotation.CursorField;
+import org.mariotaku.library.objectcursor.annotation.CursorIndex;
 import org.mariotaku.library.objectcursor.annotation.CursorObject;
+import org.mariotaku.library.objectcursor.converter.DoubleCursorFieldConverter;
 import org.mariotaku.library.objectcursor.converter.EmptyCursorFieldConverter;
+import org.mariotaku.library.objectcursor.converter.IntCursorFieldConverter;
+import org.mariotaku.library.objectcursor.converter.LongCursorFieldConverter;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -32,36 +40,70 @@ public class CursorObjectClassInfo {
 
     static final ClassName EMPTY_CONVERTER = ClassName.get(EmptyCursorFieldConverter.class);
     static final ClassName STRING = ClassName.get(String.class);
+    static final ClassName LAZY_FIELD = ClassName.get(LazyField.class);
 
     final Elements elements;
+    final MemberCache memberCache;
     final TypeElement objectType;
 
     final ClassName objectClassName;
 
 
     final List<CursorFieldInfo> fieldInfoList;
+    final List<CursorEmbeddedInfo> embeddedInfoList;
     private final Map<String, ClassName> converterMaps;
+    private final Map<String, TypeName> primitiveConverterMaps;
     private final Set<TypeName> customTypes;
     final boolean wantCursorIndices;
     final boolean wantValuesCreator;
 
     final boolean wantTableInfo;
+    final boolean wantStatementBinder;
+    final boolean wantTrackChanges;
+    final boolean wantColumnBatch;
+    final boolean wantListCursor;
+    final boolean wantColumnHandles;
+    final boolean wantRowCodec;
+    final boolean wantBufferCodec;
     final Set<Element> beforeCreated, afterCreated;
     final Set<Element> beforeValueWrite, afterValueWrite;
 
     CursorObjectClassInfo parentClassInfo;
 
+    /**
+     * Generate calls to {@link org.mariotaku.library.objectcursor.metrics.Metrics}, set from processor option
+     */
+    boolean generateMetrics;
+
     public CursorObjectClassInfo(Elements elements, TypeElement objectType) {
+        this(elements, new MemberCache(elements), objectType);
+    }
+
+    public CursorObjectClassInfo(Elements elements, MemberCache memberCache, TypeElement objectType) {
         this.elements = elements;
+        this.memberCache = memberCache;
         this.objectType = objectType;
         objectClassName = ClassName.get(objectType);
         final CursorObject annotation = objectType.getAnnotation(CursorObject.class);
         wantCursorIndices = annotation.cursorIndices();
         wantValuesCreator = annotation.valuesCreator();
         wantTableInfo = annotation.tableInfo();
+        wantStatementBinder = annotation.statementBinder();
+        wantTrackChanges = annotation.trackChanges();
+        wantColumnBatch = annotation.columnBatch();
+        wantListCursor = annotation.listCursor();
+        wantColumnHandles = annotation.columnHandles();
+        wantRowCodec = annotation.rowCodec();
+        wantBufferCodec = annotation.bufferCodec();
+        if (wantTrackChanges && !Utils.isSubtypeOf(objectType, CursorSnapshotHolder.class.getName())) {
+            throw new IllegalArgumentException(objectClassName + " must implement "
+                    + CursorSnapshotHolder.class.getSimpleName() + " to track changes");
+        }
         fieldInfoList = new ArrayList<>();
+        embeddedInfoList = new ArrayList<>();
         customTypes = new HashSet<>();
         converterMaps = new HashMap<>();
+        primitiveConverterMaps = new HashMap<>();
         beforeCreated = new HashSet<>();
         afterCreated = new HashSet<>();
         beforeValueWrite = new HashSet<>();
@@ -82,6 +124,17 @@ public class CursorObjectClassInfo {
         return converter;
     }
 
+    /**
+     * @return {@code int}, {@code long} or {@code double} if field uses a primitive converter, null otherwise
+     */
+    public TypeName getPrimitiveConverterType(String name, boolean findParent) {
+        TypeName type = primitiveConverterMaps.get(name);
+        if (findParent && type == null && parentClassInfo != null) {
+            type = parentClassInfo.getPrimitiveConverterType(name, true);
+        }
+        return type;
+    }
+
     public CursorFieldInfo addField(VariableElement field) {
         if (field.getKind() != ElementKind.FIELD) throw new AssertionError();
         final Set<Modifier> modifiers = field.getModifiers();
@@ -94,7 +147,7 @@ public class CursorObjectClassInfo {
         if (modifiers.contains(Modifier.PROTECTED)) {
             throw modifierNotAllowed(Modifier.PROTECTED, field);
         }
-        final CursorFieldInfo fieldInfo = new CursorFieldInfo(elements, field);
+        final CursorFieldInfo fieldInfo = new CursorFieldInfo(elements, memberCache, field);
 
         ClassName converterName;
         try {
@@ -103,15 +156,170 @@ public class CursorObjectClassInfo {
             converterName = (ClassName) TypeName.get(mte.getTypeMirror());
         }
 
-        if (!EMPTY_CONVERTER.equals(converterName)) {
-            // Custom data type
+        if (fieldInfo.lazy) {
+            if (EMPTY_CONVERTER.equals(converterName) || fieldInfo.columnName.isEmpty()) {
+                throw new UnsupportedFieldTypeException(String.format("Lazy field %s.%s requires converter and column",
+                        objectClassName, fieldInfo.objectFieldName));
+            }
+            converterMaps.put(fieldInfo.objectFieldName, converterName);
+            customTypes.add(fieldInfo.valueType);
+        } else if (!EMPTY_CONVERTER.equals(converterName)) {
             converterMaps.put(fieldInfo.objectFieldName, converterName);
+            final TypeElement converterElement = elements.getTypeElement(converterName.toString());
+            final TypeName primitiveType = getPrimitiveConverterType(converterElement);
+            if (primitiveType != null) {
+                checkPrimitiveConverter(fieldInfo, converterElement, primitiveType);
+                primitiveConverterMaps.put(fieldInfo.objectFieldName, primitiveType);
+            }
+            // Custom data type
             customTypes.add(fieldInfo.type);
         }
+        if (fieldInfo.dedup && (fieldInfo.lazy || !EMPTY_CONVERTER.equals(converterName)
+                || fieldInfo.columnName.isEmpty() || !STRING.equals(fieldInfo.type))) {
+            throw new UnsupportedFieldTypeException(String.format("Dedup field %s.%s must be a String column without converter",
+                    objectClassName, fieldInfo.objectFieldName));
+        }
+        if (fieldInfo.key || fieldInfo.version) {
+            checkKeyField(fieldInfo, !EMPTY_CONVERTER.equals(converterName));
+        }
         fieldInfoList.add(fieldInfo);
         return fieldInfo;
     }
 
+    public CursorEmbeddedInfo addEmbedded(VariableElement field) {
+        if (field.getKind() != ElementKind.FIELD) throw new AssertionError();
+        final Set<Modifier> modifiers = field.getModifiers();
+        if (modifiers.contains(Modifier.STATIC)) {
+            throw modifierNotAllowed(Modifier.STATIC, field);
+        }
+        if (modifiers.contains(Modifier.PRIVATE)) {
+            throw modifierNotAllowed(Modifier.PRIVATE, field);
+        }
+        if (modifiers.contains(Modifier.PROTECTED)) {
+            throw modifierNotAllowed(Modifier.PROTECTED, field);
+        }
+        if (field.getAnnotation(CursorField.class) != null) {
+            throw new IllegalArgumentException(String.format("Embedded field %s.%s can't be a CursorField",
+                    objectClassName, field.getSimpleName()));
+        }
+        final CursorEmbeddedInfo embeddedInfo = new CursorEmbeddedInfo(memberCache, field);
+        embeddedInfoList.add(embeddedInfo);
+        return embeddedInfo;
+    }
+
+    private void checkKeyField(CursorFieldInfo fieldInfo, boolean hasConverter) {
+        final String kind = fieldInfo.key ? "Key" : "Version";
+        if (fieldInfo.key && fieldInfo.version) {
+            throw new IllegalArgumentException(String.format("%s.%s can't be both key and version",
+                    objectClassName, fieldInfo.objectFieldName));
+        }
+        final TypeName fieldType = unbox(fieldInfo.type);
+        if (hasConverter || fieldInfo.lazy || fieldInfo.columnName.isEmpty() || !(fieldType == TypeName.BYTE
+                || fieldType == TypeName.SHORT || fieldType == TypeName.INT || fieldType == TypeName.LONG)) {
+            throw new UnsupportedFieldTypeException(String.format("%s field %s.%s must be an integer column without converter",
+                    kind, objectClassName, fieldInfo.objectFieldName));
+        }
+        for (CursorFieldInfo existing : fieldInfoList) {
+            if ((fieldInfo.key && existing.key) || (fieldInfo.version && existing.version)) {
+                throw new IllegalArgumentException(String.format("%s field of %s is already declared as %s",
+                        kind, objectClassName, existing.objectFieldName));
+            }
+        }
+    }
+
+    /**
+     * @return Key field of this class or parents, null if not declared
+     */
+    public CursorFieldInfo getKeyFieldInfo() {
+        return findFieldInfoIncludingParents(true);
+    }
+
+    /**
+     * @return Version field of this class or parents, null if not declared
+     */
+    public CursorFieldInfo getVersionFieldInfo() {
+        return findFieldInfoIncludingParents(false);
+    }
+
+    private CursorFieldInfo findFieldInfoIncludingParents(boolean key) {
+        CursorFieldInfo result = null;
+        for (CursorFieldInfo fieldInfo : getFieldInfoListIncludingParents()) {
+            if (key ? !fieldInfo.key : !fieldInfo.version) continue;
+            if (result != null) {
+                throw new IllegalArgumentException(String.format("%s declares more than one %s field: %s, %s",
+                        objectClassName, key ? "key" : "version", result.objectFieldName, fieldInfo.objectFieldName));
+            }
+            result = fieldInfo;
+        }
+        return result;
+    }
+
+    /**
+     * Primitive converter converts between column value and value type {@code T}, field must be of that type
+     */
+    private void checkPrimitiveConverter(CursorFieldInfo fieldInfo, TypeElement converter, TypeName primitiveType) {
+        final ClassName converterInterface = getPrimitiveConverterInterface(primitiveType);
+        final TypeMirror valueType = Utils.getTypeArgument(converter.asType(), converterInterface.toString(), 0);
+        if (valueType == null) {
+            throw new UnsupportedFieldTypeException(String.format("Converter %s must declare type argument of %s",
+                    converter, converterInterface));
+        }
+        // Primitive field reads and writes column directly, converter would only add boxing
+        if (!fieldInfo.type.box().equals(fieldInfo.type) || !TypeName.get(valueType).equals(fieldInfo.type)) {
+            throw new UnsupportedFieldTypeException(String.format("Converter %s can't be used for type %s in %s.%s",
+                    converter, fieldInfo.type, objectClassName, fieldInfo.objectFieldName));
+        }
+        if (fieldInfo.columnName.isEmpty()) {
+            throw new UnsupportedFieldTypeException(String.format("Converter %s requires column in %s.%s",
+                    converter, objectClassName, fieldInfo.objectFieldName));
+        }
+    }
+
+    static ClassName getPrimitiveConverterInterface(TypeName primitiveType) {
+        if (primitiveType == TypeName.INT) {
+            return ClassName.get(IntCursorFieldConverter.class);
+        } else if (primitiveType == TypeName.LONG) {
+            return ClassName.get(LongCursorFieldConverter.class);
+        } else if (primitiveType == TypeName.DOUBLE) {
+            return ClassName.get(DoubleCursorFieldConverter.class);
+        }
+        throw new AssertionError(primitiveType);
+    }
+
+    private static TypeName getPrimitiveConverterType(TypeElement converter) {
+        if (Utils.isSubtypeOf(converter, IntCursorFieldConverter.class.getName())) {
+            return TypeName.INT;
+        } else if (Utils.isSubtypeOf(converter, LongCursorFieldConverter.class.getName())) {
+            return TypeName.LONG;
+        } else if (Utils.isSubtypeOf(converter, DoubleCursorFieldConverter.class.getName())) {
+            return TypeName.DOUBLE;
+        }
+        return null;
+    }
+
+    /**
+     * @return Method suffix of primitive converter, e.g. {@code Long} for {@link LongCursorFieldConverter#fromLong(long)}
+     * and {@code Cursor.getLong(int)}
+     */
+    static String getPrimitiveConverterSuffix(TypeName primitiveType) {
+        if (primitiveType == TypeName.INT) {
+            return "Int";
+        } else if (primitiveType == TypeName.LONG) {
+            return "Long";
+        } else if (primitiveType == TypeName.DOUBLE) {
+            return "Double";
+        }
+        throw new AssertionError(primitiveType);
+    }
+
+    static TypeName unbox(TypeName typeName) {
+        try {
+            return typeName.unbox();
+        } catch (UnsupportedOperationException e) {
+            return typeName;
+        }
+    }
+
     private IllegalArgumentException modifierNotAllowed(Modifier modifier, VariableElement field) {
         throw new IllegalArgumentException(modifier + " field is not allowed for " + objectClassName + "." + field);
     }
@@ -148,6 +356,24 @@ public class CursorObjectClassInfo {
         return customTypes;
     }
 
+    public Set<ClassName> getCustomConvertersIncludingParents() {
+        Set<ClassName> result = new HashSet<>();
+        if (parentClassInfo != null) {
+            result.addAll(parentClassInfo.getCustomConvertersIncludingParents());
+        }
+        result.addAll(converterMaps.values());
+        return result;
+    }
+
+    public Set<TypeName> getCustomTypesIncludingParents() {
+        Set<TypeName> result = new HashSet<>();
+        if (parentClassInfo != null) {
+            result.addAll(parentClassInfo.getCustomTypesIncludingParents());
+        }
+        result.addAll(customTypes);
+        return result;
+    }
+
     public Set<Element> getBeforeCreated() {
         return beforeCreated;
     }
@@ -169,6 +395,142 @@ public class CursorObjectClassInfo {
         return result;
     }
 
+    /**
+     * @return Fields as columns in TableInfo, in the same order
+     */
+    public List<CursorFieldInfo> getTableColumnFieldInfoList() {
+        List<CursorFieldInfo> result = new ArrayList<>();
+        for (CursorFieldInfo fieldInfo : getFieldInfoListIncludingParents()) {
+            if (fieldInfo.annotation.excludeInfo()) continue;
+            result.add(fieldInfo);
+        }
+        return result;
+    }
+
+    /**
+     * @return Ordinal of first own field, fields of parent classes come first
+     */
+    public int getOrdinalOffset() {
+        if (parentClassInfo == null) return 0;
+        return parentClassInfo.getFieldInfoListIncludingParents().size();
+    }
+
+    /**
+     * @return True if field is kept in {@code long[]} of snapshot, false if in {@code Object[]}
+     */
+    public boolean isLongInSnapshot(CursorFieldInfo fieldInfo) {
+        return !isSerializedInSnapshot(fieldInfo) && (fieldInfo.type.isPrimitive()
+                || getPrimitiveConverterType(fieldInfo.objectFieldName, false) != null);
+    }
+
+    /**
+     * @return True if snapshot holds raw column value of this field, instead of field value. Fields with primitive
+     * converters hold column value in long slot instead
+     */
+    public boolean isSerializedInSnapshot(CursorFieldInfo fieldInfo) {
+        return fieldInfo.lazy || (getConverter(fieldInfo.objectFieldName, false) != null
+                && getPrimitiveConverterType(fieldInfo.objectFieldName, false) == null);
+    }
+
+    /**
+     * @return Slot of own field in its snapshot array, fields of parent classes come first
+     */
+    public int getSnapshotSlot(CursorFieldInfo fieldInfo) {
+        final boolean isLong = isLongInSnapshot(fieldInfo);
+        int slot = 0;
+        if (parentClassInfo != null) {
+            slot = isLong ? parentClassInfo.getSnapshotLongCount() : parentClassInfo.getSnapshotObjectCount();
+        }
+        for (CursorFieldInfo item : fieldInfoList) {
+            if (item == fieldInfo) return slot;
+            if (isLongInSnapshot(item) == isLong) {
+                slot++;
+            }
+        }
+        throw new IllegalArgumentException(fieldInfo + " is not a field of " + objectClassName);
+    }
+
+    /**
+     * @return Suffix of {@code CursorSnapshot} methods for a primitive field, floating point values are compared by
+     * bits and integral ones widened to {@code long}
+     */
+    static String getSnapshotLongSuffix(TypeName type) {
+        if (type == TypeName.FLOAT || type == TypeName.DOUBLE) {
+            return "Double";
+        } else if (type == TypeName.BOOLEAN) {
+            return "Boolean";
+        }
+        return "Long";
+    }
+
+    /**
+     * @return Suffix of {@code CursorSnapshot} methods for a field in long slot, column type is used for fields with
+     * primitive converters
+     */
+    String getSnapshotLongSuffix(CursorFieldInfo fieldInfo) {
+        final TypeName primitiveConverterType = getPrimitiveConverterType(fieldInfo.objectFieldName, false);
+        return getSnapshotLongSuffix(primitiveConverterType != null ? primitiveConverterType : fieldInfo.type);
+    }
+
+    public int getSnapshotLongCount() {
+        int count = parentClassInfo != null ? parentClassInfo.getSnapshotLongCount() : 0;
+        for (CursorFieldInfo fieldInfo : fieldInfoList) {
+            if (isLongInSnapshot(fieldInfo)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int getSnapshotObjectCount() {
+        int count = parentClassInfo != null ? parentClassInfo.getSnapshotObjectCount() : 0;
+        for (CursorFieldInfo fieldInfo : fieldInfoList) {
+            if (!isLongInSnapshot(fieldInfo)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public List<CursorEmbeddedInfo> getEmbeddedInfoListIncludingParents() {
+        List<CursorEmbeddedInfo> result = new ArrayList<>();
+        if (parentClassInfo != null) {
+            result.addAll(parentClassInfo.getEmbeddedInfoListIncludingParents());
+        }
+        result.addAll(embeddedInfoList);
+        return result;
+    }
+
+    /**
+     * @return Columns written by ValuesCreator, including parents and embedded objects, with {@code prefix}
+     */
+    public List<String> getWriteColumnNames(String prefix) {
+        final List<String> result = new ArrayList<>();
+        for (CursorFieldInfo fieldInfo : getFieldInfoListIncludingParents()) {
+            if (fieldInfo.annotation.excludeWrite() || fieldInfo.columnName.isEmpty()) continue;
+            result.add(prefix + fieldInfo.columnName);
+        }
+        for (CursorEmbeddedInfo embeddedInfo : getEmbeddedInfoListIncludingParents()) {
+            result.addAll(embeddedInfo.classInfo.getWriteColumnNames(prefix + embeddedInfo.prefix));
+        }
+        return result;
+    }
+
+    /**
+     * Throws if this class has embedded fields, for generated classes don't support them
+     */
+    public void checkNoEmbedded(String generated) {
+        final List<CursorEmbeddedInfo> embeddedInfoList = getEmbeddedInfoListIncludingParents();
+        if (!embeddedInfoList.isEmpty()) {
+            throw new UnsupportedFieldTypeException(String.format("%s doesn't support embedded field %s of %s",
+                    generated, embeddedInfoList.get(0).objectFieldName, objectClassName));
+        }
+    }
+
+    public boolean isParentTrackChanges() {
+        return parentClassInfo != null && parentClassInfo.wantTrackChanges;
+    }
+
     public void completeParentInfo(HashMap<TypeName, CursorObjectClassInfo> classes) {
         CursorObjectClassInfo info = classes.get(TypeName.get(getSuperclass()));
         if (info == null) return;
@@ -176,10 +538,106 @@ public class CursorObjectClassInfo {
         info.completeParentInfo(classes);
     }
 
+    /**
+     * Resolves class info of embedded types, they must be processed in the same round
+     */
+    public void completeEmbeddedInfo(HashMap<TypeName, CursorObjectClassInfo> classes) {
+        for (CursorEmbeddedInfo embeddedInfo : embeddedInfoList) {
+            final CursorObjectClassInfo info = classes.get(embeddedInfo.type);
+            if (info == null) {
+                throw new IllegalArgumentException(String.format("Type of embedded field %s.%s must be annotated " +
+                        "with @CursorObject in the same compilation", objectClassName, embeddedInfo.objectFieldName));
+            }
+            embeddedInfo.classInfo = info;
+        }
+    }
+
+    /**
+     * Throws if this type embeds itself directly or indirectly, call after {@link #completeEmbeddedInfo(HashMap)}
+     */
+    public void checkEmbeddedCycle(Set<CursorObjectClassInfo> visiting) {
+        if (!visiting.add(this)) {
+            throw new IllegalArgumentException(String.format("%s embeds itself", objectClassName));
+        }
+        for (CursorEmbeddedInfo embeddedInfo : getEmbeddedInfoListIncludingParents()) {
+            embeddedInfo.classInfo.checkEmbeddedCycle(visiting);
+        }
+        visiting.remove(this);
+    }
+
+    /**
+     * @return True if a converter runs for this field when parsing (excluding lazy field) or writing
+     */
+    public boolean isConvertedField(CursorFieldInfo fieldInfo, boolean write) {
+        if (fieldInfo.lazy) return write;
+        return getConverter(fieldInfo.objectFieldName, false) != null;
+    }
+
+    /**
+     * @return This type, annotated parent types and embedded types, generated code of this type depends on all
+     * of them
+     */
+    public Element[] getOriginatingElements() {
+        final List<Element> list = new ArrayList<>();
+        for (CursorObjectClassInfo info = this; info != null; info = info.parentClassInfo) {
+            list.add(info.objectType);
+            for (CursorEmbeddedInfo embeddedInfo : info.embeddedInfoList) {
+                list.add(embeddedInfo.classInfo.objectType);
+            }
+        }
+        return list.toArray(new Element[list.size()]);
+    }
+
     public boolean hasParentClassInfo() {
         return parentClassInfo != null;
     }
 
+    public static class CursorEmbeddedInfo {
+
+        final String objectFieldName;
+        final String objectFieldGetter;
+        final String objectFieldSetter;
+        final String prefix;
+        final TypeName type;
+
+        /**
+         * Class info of embedded type, set by {@link #completeEmbeddedInfo(HashMap)}
+         */
+        CursorObjectClassInfo classInfo;
+
+        public CursorEmbeddedInfo(MemberCache memberCache, VariableElement field) {
+            type = TypeName.get(field.asType());
+            prefix = field.getAnnotation(CursorEmbedded.class).prefix();
+            objectFieldName = String.valueOf(field.getSimpleName());
+            objectFieldGetter = Utils.getGetter(field, memberCache);
+            objectFieldSetter = Utils.getSetter(field, memberCache);
+        }
+
+        public String getReadAccessCode() {
+            if (objectFieldGetter != null) return objectFieldGetter + "()";
+            return objectFieldName;
+        }
+
+        /**
+         * @return Statement prefix assigning this field, followed by value and {@link #getWriteAccessSuffix()}
+         */
+        public String getWriteAccessPrefix() {
+            if (objectFieldSetter != null) return objectFieldSetter + "(";
+            return objectFieldName + " = ";
+        }
+
+        public String getWriteAccessSuffix() {
+            return objectFieldSetter != null ? ")" : "";
+        }
+
+        /**
+         * @return Name of field holding CursorIndices of embedded type
+         */
+        public String getIndicesFieldName() {
+            return objectFieldName + "Indices";
+        }
+    }
+
     public static class CursorFieldInfo {
 
         final String objectFieldName;
@@ -197,14 +655,43 @@ public class CursorObjectClassInfo {
 
         final TypeName type;
 
-        public CursorFieldInfo(Elements elements, VariableElement field) {
+        final boolean lazy;
+        final boolean key;
+        final boolean version;
+        final boolean primaryKey;
+        final boolean dedup;
+        /**
+         * Single column index declared on this field, null if not indexed
+         */
+        final CursorIndex index;
+        /**
+         * Type converter works with, {@code T} of {@code LazyField<T>} for lazy field
+         */
+        final TypeName valueType;
+
+        public CursorFieldInfo(Elements elements, MemberCache memberCache, VariableElement field) {
             type = TypeName.get(field.asType());
             annotation = field.getAnnotation(CursorField.class);
+            lazy = annotation.lazy();
+            key = annotation.key();
+            version = annotation.version();
+            primaryKey = annotation.primaryKey();
+            dedup = annotation.dedup();
+            index = field.getAnnotation(CursorIndex.class);
+            if (lazy) {
+                if (!(type instanceof ParameterizedTypeName) || !LAZY_FIELD.equals(((ParameterizedTypeName) type).rawType)) {
+                    throw new UnsupportedFieldTypeException(String.format("Lazy field %s must be declared as %s<T>",
+                            field, LAZY_FIELD));
+                }
+                valueType = ((ParameterizedTypeName) type).typeArguments.get(0);
+            } else {
+                valueType = type;
+            }
             nonNull = hasAnnotation(elements, field.getAnnotationMirrors(), "android.support.annotation.NonNull");
             columnName = annotation.value();
             objectFieldName = String.valueOf(field.getSimpleName());
-            objectFieldGetter = Utils.getGetter(field, elements);
-            objectFieldSetter = Utils.getSetter(field, elements);
+            objectFieldGetter = Utils.getGetter(field, memberCache);
+            objectFieldSetter = Utils.getSetter(field, memberCache);
             useGetter = annotation.useGetter();
             useSetter = annotation.useSetter();
             if (annotation.indexFieldName().length() > 0) {
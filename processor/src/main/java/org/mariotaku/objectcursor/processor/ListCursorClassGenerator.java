@@ -0,0 +1,498 @@
+package org.mariotaku.objectcursor.processor;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+
+import org.mariotaku.library.objectcursor.ObjectListCursor;
+import org.mariotaku.library.objectcursor.internal.ParameterizedTypeImpl;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.ParameterizedType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.JavaFileObject;
+
+import static org.mariotaku.library.objectcursor.ObjectListCursor.LIST_CURSOR_SUFFIX;
+
+/**
+ * Generates {@link ObjectListCursor} subclass, reverse of CursorIndices. Columns are the same as TableInfo.
+ * <p>
+ * Created by mariotaku on 16/5/13.
+ */
+public class ListCursorClassGenerator {
+
+    private static final int COLUMN_INTEGER = 1;
+    private static final int COLUMN_REAL = 2;
+    private static final int COLUMN_TEXT = 3;
+    private static final int COLUMN_BLOB = 4;
+    /**
+     * Written by converter, only readable through getValue
+     */
+    private static final int COLUMN_CONVERTED = 5;
+
+    private final CursorObjectClassInfo objectClassInfo;
+    private final ClassName cursorClassName;
+    private final String cursorClassNameWithoutPackage;
+
+    ListCursorClassGenerator(CursorObjectClassInfo objectClassInfo, Elements elements) {
+        this.objectClassInfo = objectClassInfo;
+        final String packageName = String.valueOf(elements.getPackageOf(objectClassInfo.objectType).getQualifiedName());
+        final String binaryName = String.valueOf(elements.getBinaryName(objectClassInfo.objectType));
+        cursorClassNameWithoutPackage = binaryName.substring(packageName.length() + 1) + LIST_CURSOR_SUFFIX;
+        cursorClassName = ClassName.get(packageName, cursorClassNameWithoutPackage);
+    }
+
+    private static String getConverterFieldName(TypeName converterClass) {
+        return converterClass.toString().replaceAll("[^\\w\\d]", "_").toUpperCase(Locale.US);
+    }
+
+    void writeContent(Appendable appendable, Elements elements, Types types) throws IOException {
+        objectClassInfo.checkNoEmbedded("ListCursor");
+        final TypeSpec.Builder builder = TypeSpec.classBuilder(cursorClassNameWithoutPackage);
+
+        builder.superclass(ParameterizedTypeName.get(ClassName.get(ObjectListCursor.class),
+                objectClassInfo.objectClassName));
+
+        builder.addModifiers(Modifier.PUBLIC);
+
+        final List<CursorObjectClassInfo.CursorFieldInfo> fieldInfoList = objectClassInfo.getTableColumnFieldInfoList();
+
+        builder.addField(getColumnsField(fieldInfoList));
+
+        builder.addFields(getConverterFields());
+
+        builder.addFields(getTypeFields());
+
+        if (hasColumn(fieldInfoList, COLUMN_CONVERTED)) {
+            builder.addField(FieldSpec.builder(ContentValues.class, "converted", Modifier.PRIVATE, Modifier.FINAL)
+                    .initializer("new $T()", ContentValues.class)
+                    .build());
+        }
+
+        builder.addMethod(MethodSpec.constructorBuilder()
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(ParameterizedTypeName.get(ClassName.get(List.class), objectClassInfo.objectClassName), "list")
+                .addStatement("super(list)")
+                .build());
+
+        builder.addMethod(MethodSpec.methodBuilder("getColumnNames")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .returns(String[].class)
+                .addStatement("return COLUMNS")
+                .build());
+
+        builder.addMethod(createNumberGetterMethod(fieldInfoList, "getShort", TypeName.SHORT));
+        builder.addMethod(createNumberGetterMethod(fieldInfoList, "getInt", TypeName.INT));
+        builder.addMethod(createNumberGetterMethod(fieldInfoList, "getLong", TypeName.LONG));
+        builder.addMethod(createNumberGetterMethod(fieldInfoList, "getFloat", TypeName.FLOAT));
+        builder.addMethod(createNumberGetterMethod(fieldInfoList, "getDouble", TypeName.DOUBLE));
+        builder.addMethod(createGetStringMethod(fieldInfoList));
+        builder.addMethod(createGetBlobMethod(fieldInfoList));
+        builder.addMethod(createIsNullMethod(fieldInfoList));
+        builder.addMethod(createGetTypeMethod(fieldInfoList));
+        builder.addMethod(createGetValueMethod(fieldInfoList));
+        for (int i = 0, j = fieldInfoList.size(); i < j; i++) {
+            if (isPrimitiveConverted(fieldInfoList.get(i))) {
+                builder.addMethod(createConvertColumnMethod(fieldInfoList.get(i), i));
+            }
+        }
+
+        JavaFile.builder(objectClassInfo.getPackageName(), builder.build()).build().writeTo(appendable);
+    }
+
+    private FieldSpec getColumnsField(List<CursorObjectClassInfo.CursorFieldInfo> fieldInfoList) {
+        final FieldSpec.Builder builder = FieldSpec.builder(String[].class, "COLUMNS", Modifier.PUBLIC, Modifier.STATIC,
+                Modifier.FINAL);
+        final CodeBlock.Builder init = CodeBlock.builder();
+        init.add("{\n");
+        init.indent();
+        for (CursorObjectClassInfo.CursorFieldInfo fieldInfo : fieldInfoList) {
+            init.add("$S, // $L.$L\n", fieldInfo.columnName, objectClassInfo.objectClassName, fieldInfo.objectFieldName);
+        }
+        init.unindent();
+        init.add("}");
+        builder.initializer(init.build());
+        return builder.build();
+    }
+
+    private List<FieldSpec> getConverterFields() {
+        List<FieldSpec> fieldSpecs = new ArrayList<>();
+        for (ClassName converterClass : objectClassInfo.getCustomConvertersIncludingParents()) {
+            fieldSpecs.add(FieldSpec.builder(converterClass, getConverterFieldName(converterClass), Modifier.FINAL, Modifier.STATIC)
+                    .initializer("new $T()", converterClass)
+                    .build());
+        }
+        return fieldSpecs;
+    }
+
+    private List<FieldSpec> getTypeFields() {
+        List<FieldSpec> fieldSpecs = new ArrayList<>();
+        for (TypeName typeName : objectClassInfo.getCustomTypesIncludingParents()) {
+            // String field is not a custom type
+            if (CursorObjectClassInfo.STRING.equals(typeName)) continue;
+            final FieldSpec.Builder builder = FieldSpec.builder(ParameterizedType.class,
+                    getConverterFieldName(typeName), Modifier.FINAL, Modifier.STATIC);
+            if (typeName instanceof ParameterizedTypeName) {
+                ParameterizedTypeName parameterizedTypeName = (ParameterizedTypeName) typeName;
+                Object[] formatArgs = new Object[2 + parameterizedTypeName.typeArguments.size()];
+                final StringBuilder placeHolders = new StringBuilder();
+                formatArgs[0] = ParameterizedTypeImpl.class;
+                formatArgs[1] = parameterizedTypeName.rawType;
+                for (int i = 0, j = parameterizedTypeName.typeArguments.size(); i < j; i++) {
+                    placeHolders.append(", $T.class");
+                    formatArgs[i + 2] = parameterizedTypeName.typeArguments.get(i);
+                }
+                final String format = String.format(Locale.ROOT, "$T.get($T.class, null%s)", placeHolders);
+                builder.initializer(format, formatArgs);
+            } else {
+                builder.initializer("$T.get($T.class, null)", ParameterizedTypeImpl.class, typeName);
+            }
+            fieldSpecs.add(builder.build());
+        }
+        return fieldSpecs;
+    }
+
+    private MethodSpec createNumberGetterMethod(List<CursorObjectClassInfo.CursorFieldInfo> fieldInfoList,
+                                                String name, TypeName returnType) {
+        final MethodSpec.Builder builder = createGetterBuilder(name, returnType);
+        final List<Integer> columns = new ArrayList<>();
+        for (int i = 0, j = fieldInfoList.size(); i < j; i++) {
+            final int columnType = getColumnType(fieldInfoList.get(i));
+            if (columnType == COLUMN_INTEGER || columnType == COLUMN_REAL) {
+                columns.add(i);
+            }
+        }
+        if (!columns.isEmpty()) {
+            builder.addStatement("final $T item = getCurrent()", objectClassInfo.objectClassName);
+            builder.beginControlFlow("switch (column)");
+            for (int column : columns) {
+                builder.addStatement("  case $L: return ($T) $L", column, returnType,
+                        getNumberValueCode(fieldInfoList.get(column), column));
+            }
+            builder.endControlFlow();
+        }
+        builder.addStatement("return super.$L(column)", name);
+        return builder.build();
+    }
+
+    private MethodSpec createGetStringMethod(List<CursorObjectClassInfo.CursorFieldInfo> fieldInfoList) {
+        final MethodSpec.Builder builder = createGetterBuilder("getString", CursorObjectClassInfo.STRING);
+        boolean hasColumns = false;
+        for (int i = 0, j = fieldInfoList.size(); i < j; i++) {
+            final CursorObjectClassInfo.CursorFieldInfo fieldInfo = fieldInfoList.get(i);
+            final int columnType = getColumnType(fieldInfo);
+            if (columnType == COLUMN_CONVERTED || columnType == COLUMN_BLOB) continue;
+            if (!hasColumns) {
+                builder.addStatement("final $T item = getCurrent()", objectClassInfo.objectClassName);
+                builder.beginControlFlow("switch (column)");
+                hasColumns = true;
+            }
+            final String valueCode = getValueCode(fieldInfo);
+            if (columnType == COLUMN_TEXT) {
+                builder.addStatement("  case $L: return $L", i, valueCode);
+            } else if (isNullable(fieldInfo)) {
+                builder.addStatement("  case $L: return $L != null ? String.valueOf($L) : null", i, valueCode,
+                        getNonNullNumberValueCode(fieldInfo, i));
+            } else {
+                builder.addStatement("  case $L: return String.valueOf($L)", i, getNumberValueCode(fieldInfo, i));
+            }
+        }
+        if (hasColumns) {
+            builder.endControlFlow();
+        }
+        builder.addStatement("return super.getString(column)");
+        return builder.build();
+    }
+
+    private MethodSpec createGetBlobMethod(List<CursorObjectClassInfo.CursorFieldInfo> fieldInfoList) {
+        final MethodSpec.Builder builder = createGetterBuilder("getBlob", ArrayTypeName.of(TypeName.BYTE));
+        final List<Integer> columns = new ArrayList<>();
+        for (int i = 0, j = fieldInfoList.size(); i < j; i++) {
+            if (getColumnType(fieldInfoList.get(i)) == COLUMN_BLOB) {
+                columns.add(i);
+            }
+        }
+        if (!columns.isEmpty()) {
+            builder.addStatement("final $T item = getCurrent()", objectClassInfo.objectClassName);
+            builder.beginControlFlow("switch (column)");
+            for (int column : columns) {
+                builder.addStatement("  case $L: return $L", column, getValueCode(fieldInfoList.get(column)));
+            }
+            builder.endControlFlow();
+        }
+        builder.addStatement("return super.getBlob(column)");
+        return builder.build();
+    }
+
+    private MethodSpec createIsNullMethod(List<CursorObjectClassInfo.CursorFieldInfo> fieldInfoList) {
+        final MethodSpec.Builder builder = createGetterBuilder("isNull", TypeName.BOOLEAN);
+        boolean hasColumns = false;
+        for (int i = 0, j = fieldInfoList.size(); i < j; i++) {
+            final CursorObjectClassInfo.CursorFieldInfo fieldInfo = fieldInfoList.get(i);
+            if (getColumnType(fieldInfo) == COLUMN_CONVERTED) continue;
+            if (!hasColumns) {
+                builder.addStatement("final $T item = getCurrent()", objectClassInfo.objectClassName);
+                builder.beginControlFlow("switch (column)");
+                hasColumns = true;
+            }
+            if (isPrimitive(fieldInfo)) {
+                builder.addStatement("  case $L: return false", i);
+            } else {
+                builder.addStatement("  case $L: return $L == null", i, getValueCode(fieldInfo));
+            }
+        }
+        if (hasColumns) {
+            builder.endControlFlow();
+        }
+        builder.addStatement("return super.isNull(column)");
+        return builder.build();
+    }
+
+    private MethodSpec createGetTypeMethod(List<CursorObjectClassInfo.CursorFieldInfo> fieldInfoList) {
+        final MethodSpec.Builder builder = createGetterBuilder("getType", TypeName.INT);
+        boolean hasColumns = false;
+        for (int i = 0, j = fieldInfoList.size(); i < j; i++) {
+            final CursorObjectClassInfo.CursorFieldInfo fieldInfo = fieldInfoList.get(i);
+            final int columnType = getColumnType(fieldInfo);
+            final String typeConstant;
+            switch (columnType) {
+                case COLUMN_INTEGER:
+                    typeConstant = "FIELD_TYPE_INTEGER";
+                    break;
+                case COLUMN_REAL:
+                    typeConstant = "FIELD_TYPE_FLOAT";
+                    break;
+                case COLUMN_TEXT:
+                    typeConstant = "FIELD_TYPE_STRING";
+                    break;
+                case COLUMN_BLOB:
+                    typeConstant = "FIELD_TYPE_BLOB";
+                    break;
+                default:
+                    continue;
+            }
+            if (!hasColumns) {
+                builder.addStatement("final $T item = getCurrent()", objectClassInfo.objectClassName);
+                builder.beginControlFlow("switch (column)");
+                hasColumns = true;
+            }
+            if (isPrimitive(fieldInfo)) {
+                builder.addStatement("  case $L: return $T.$L", i, Cursor.class, typeConstant);
+            } else {
+                builder.addStatement("  case $L: return $L != null ? $T.$L : $T.FIELD_TYPE_NULL", i,
+                        getValueCode(fieldInfo), Cursor.class, typeConstant, Cursor.class);
+            }
+        }
+        if (hasColumns) {
+            builder.endControlFlow();
+        }
+        builder.addStatement("return super.getType(column)");
+        return builder.build();
+    }
+
+    private MethodSpec createGetValueMethod(List<CursorObjectClassInfo.CursorFieldInfo> fieldInfoList) {
+        final MethodSpec.Builder builder = MethodSpec.methodBuilder("getValue");
+        builder.addAnnotation(Override.class);
+        builder.addModifiers(Modifier.PROTECTED);
+        builder.addParameter(objectClassInfo.objectClassName, "item");
+        builder.addParameter(TypeName.INT, "column");
+        builder.returns(Object.class);
+
+        final boolean hasConvertedColumns = hasColumn(fieldInfoList, COLUMN_CONVERTED);
+        if (hasConvertedColumns) {
+            builder.addStatement("converted.clear()");
+            builder.beginControlFlow("try");
+        }
+        builder.beginControlFlow("switch (column)");
+        for (int i = 0, j = fieldInfoList.size(); i < j; i++) {
+            final CursorObjectClassInfo.CursorFieldInfo fieldInfo = fieldInfoList.get(i);
+            final String valueCode = getValueCode(fieldInfo);
+            if (getColumnType(fieldInfo) == COLUMN_CONVERTED) {
+                addConvertedValueStatement(builder, fieldInfo, i);
+            } else if (isPrimitiveConverted(fieldInfo)) {
+                final TypeName primitiveConverterType = objectClassInfo.getPrimitiveConverterType(
+                        fieldInfo.objectFieldName, true);
+                builder.addStatement("  case $L: return $L != null ? ($T) $L : null", i, valueCode,
+                        primitiveConverterType.box(), getNonNullNumberValueCode(fieldInfo, i));
+            } else if (CursorObjectClassInfo.unbox(fieldInfo.type) == TypeName.CHAR) {
+                // Stored as int in ContentValues
+                if (isBoxed(fieldInfo)) {
+                    builder.addStatement("  case $L: return $L != null ? Integer.valueOf($L) : null", i, valueCode,
+                            valueCode);
+                } else {
+                    builder.addStatement("  case $L: return (int) $L", i, valueCode);
+                }
+            } else {
+                builder.addStatement("  case $L: return $L", i, valueCode);
+            }
+        }
+        builder.endControlFlow();
+        if (hasConvertedColumns) {
+            builder.nextControlFlow("catch ($T e)", IOException.class);
+            builder.addStatement("throw new $T(e)", IllegalStateException.class);
+            builder.endControlFlow();
+        }
+        builder.addStatement("throw new $T(\"Column \" + column + \" doesn't exist\")", IllegalArgumentException.class);
+        return builder.build();
+    }
+
+    private void addConvertedValueStatement(MethodSpec.Builder builder, CursorObjectClassInfo.CursorFieldInfo fieldInfo,
+                                            int column) {
+        final ClassName converterClass = objectClassInfo.getConverter(fieldInfo.objectFieldName, true);
+        final String valueCode = getValueCode(fieldInfo);
+        if (fieldInfo.lazy) {
+            builder.addStatement("  case $L: if ($L != null) $L.writeTo(converted, $S, $L, $L); return converted.get(COLUMNS[$L])", column,
+                    valueCode, valueCode, fieldInfo.columnName, getConverterFieldName(converterClass),
+                    getConverterFieldName(fieldInfo.valueType), column);
+        } else {
+            builder.addStatement("  case $L: $L.writeField(converted, $L, $S, $L); return converted.get(COLUMNS[$L])",
+                    column, getConverterFieldName(converterClass), valueCode, fieldInfo.columnName,
+                    getConverterFieldName(CursorObjectClassInfo.unbox(fieldInfo.type)), column);
+        }
+    }
+
+    /**
+     * Generates column value getter of a field with primitive converter, for typed getters and {@code getValue}
+     */
+    private MethodSpec createConvertColumnMethod(CursorObjectClassInfo.CursorFieldInfo fieldInfo, int column) {
+        final ClassName converterClass = objectClassInfo.getConverter(fieldInfo.objectFieldName, true);
+        final TypeName primitiveConverterType = objectClassInfo.getPrimitiveConverterType(fieldInfo.objectFieldName,
+                true);
+        // Called through interface, implementation may not declare IOException caught below
+        final TypeName converterInterface = ParameterizedTypeName.get(
+                CursorObjectClassInfo.getPrimitiveConverterInterface(primitiveConverterType), fieldInfo.type);
+        final MethodSpec.Builder builder = MethodSpec.methodBuilder(getConvertColumnMethodName(column));
+        builder.addJavadoc("@param item Field must not be null\n");
+        builder.addModifiers(Modifier.PRIVATE, Modifier.STATIC);
+        builder.addParameter(objectClassInfo.objectClassName, "item");
+        builder.returns(primitiveConverterType);
+        builder.beginControlFlow("try");
+        builder.addStatement("return (($T) $L).to$L($L)", converterInterface, getConverterFieldName(converterClass),
+                CursorObjectClassInfo.getPrimitiveConverterSuffix(primitiveConverterType), getValueCode(fieldInfo));
+        builder.nextControlFlow("catch ($T e)", IOException.class);
+        builder.addStatement("throw new $T(e)", IllegalStateException.class);
+        builder.endControlFlow();
+        return builder.build();
+    }
+
+    private static String getConvertColumnMethodName(int column) {
+        return "convertColumn" + column;
+    }
+
+    private MethodSpec.Builder createGetterBuilder(String name, TypeName returnType) {
+        final MethodSpec.Builder builder = MethodSpec.methodBuilder(name);
+        builder.addAnnotation(Override.class);
+        builder.addModifiers(Modifier.PUBLIC);
+        builder.addParameter(TypeName.INT, "column");
+        builder.returns(returnType);
+        return builder;
+    }
+
+    private int getColumnType(CursorObjectClassInfo.CursorFieldInfo fieldInfo) {
+        if (fieldInfo.lazy) {
+            return COLUMN_CONVERTED;
+        }
+        final TypeName primitiveConverterType = objectClassInfo.getPrimitiveConverterType(fieldInfo.objectFieldName,
+                true);
+        if (primitiveConverterType != null) {
+            return primitiveConverterType == TypeName.DOUBLE ? COLUMN_REAL : COLUMN_INTEGER;
+        }
+        // Same precedence as ValuesCreator, converter is ignored for primitive and String fields
+        final TypeName fieldType = CursorObjectClassInfo.unbox(fieldInfo.type);
+        if (fieldType == TypeName.BOOLEAN || fieldType == TypeName.BYTE || fieldType == TypeName.CHAR
+                || fieldType == TypeName.SHORT || fieldType == TypeName.INT || fieldType == TypeName.LONG) {
+            return COLUMN_INTEGER;
+        } else if (fieldType == TypeName.FLOAT || fieldType == TypeName.DOUBLE) {
+            return COLUMN_REAL;
+        } else if (fieldType.equals(CursorObjectClassInfo.STRING)) {
+            return COLUMN_TEXT;
+        } else if (objectClassInfo.getConverter(fieldInfo.objectFieldName, true) != null) {
+            return COLUMN_CONVERTED;
+        } else if (fieldType instanceof ArrayTypeName && ((ArrayTypeName) fieldType).componentType == TypeName.BYTE) {
+            return COLUMN_BLOB;
+        }
+        throw new UnsupportedFieldTypeException(String.format("Unsupported type %s in %s.%s", fieldInfo.type,
+                objectClassInfo.objectClassName, fieldInfo.objectFieldName));
+    }
+
+    private boolean hasColumn(List<CursorObjectClassInfo.CursorFieldInfo> fieldInfoList, int columnType) {
+        for (CursorObjectClassInfo.CursorFieldInfo fieldInfo : fieldInfoList) {
+            if (getColumnType(fieldInfo) == columnType) return true;
+        }
+        return false;
+    }
+
+    private static String getValueCode(CursorObjectClassInfo.CursorFieldInfo fieldInfo) {
+        return "item." + fieldInfo.getReadAccessCode();
+    }
+
+    /**
+     * @return Code of numeric value, boolean as 1 or 0, char as int, null as 0
+     */
+    private String getNumberValueCode(CursorObjectClassInfo.CursorFieldInfo fieldInfo, int column) {
+        final String numberCode = getNonNullNumberValueCode(fieldInfo, column);
+        if (isNullable(fieldInfo)) {
+            return "(" + getValueCode(fieldInfo) + " != null ? " + numberCode + " : 0)";
+        }
+        return numberCode;
+    }
+
+    /**
+     * @return Code of numeric value of a field checked not null, column value for fields with primitive converters
+     */
+    private String getNonNullNumberValueCode(CursorObjectClassInfo.CursorFieldInfo fieldInfo, int column) {
+        if (isPrimitiveConverted(fieldInfo)) return getConvertColumnMethodName(column) + "(item)";
+        final String valueCode = getValueCode(fieldInfo);
+        final TypeName fieldType = CursorObjectClassInfo.unbox(fieldInfo.type);
+        if (fieldType == TypeName.BOOLEAN) return "(" + valueCode + " ? 1 : 0)";
+        if (fieldType == TypeName.CHAR) return "(int) " + valueCode;
+        return valueCode;
+    }
+
+    private static boolean isBoxed(CursorObjectClassInfo.CursorFieldInfo fieldInfo) {
+        return !CursorObjectClassInfo.unbox(fieldInfo.type).equals(fieldInfo.type);
+    }
+
+    private boolean isPrimitiveConverted(CursorObjectClassInfo.CursorFieldInfo fieldInfo) {
+        return !fieldInfo.lazy && objectClassInfo.getPrimitiveConverterType(fieldInfo.objectFieldName, true) != null;
+    }
+
+    /**
+     * @return True if numeric column may be null
+     */
+    private boolean isNullable(CursorObjectClassInfo.CursorFieldInfo fieldInfo) {
+        return isBoxed(fieldInfo) || isPrimitiveConverted(fieldInfo);
+    }
+
+    private boolean isPrimitive(CursorObjectClassInfo.CursorFieldInfo fieldInfo) {
+        final int columnType = getColumnType(fieldInfo);
+        return (columnType == COLUMN_INTEGER || columnType == COLUMN_REAL) && !isNullable(fieldInfo);
+    }
+
+    public void saveListCursorFile(Filer filer, Elements elements, Types types) throws IOException {
+        JavaFileObject fileObj = filer.createSourceFile(cursorClassName.toString(),
+                objectClassInfo.getOriginatingElements());
+        try (Writer writer = fileObj.openWriter()) {
+            writeContent(writer, elements, types);
+            writer.flush();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package org.mariotaku.objectcursor.processor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+
+/**
+ * Methods of types, indexed by lower case name. {@link Elements#getAllMembers(TypeElement)} is called once per type
+ * instead of once per field. Elements are only valid in one round, so a new cache is used for every round.
+ * <p>
+ * Created by mariotaku on 16/5/13.
+ */
+public class MemberCache {
+
+    private final Elements elements;
+    private final Map<TypeElement, Map<String, List<ExecutableElement>>> methods = new HashMap<>();
+
+    public MemberCache(Elements elements) {
+        this.elements = elements;
+    }
+
+    /**
+     * @param lowerCaseName Method name in lower case
+     * @return Methods named {@code lowerCaseName} ignoring case, including inherited ones, in member order
+     */
+    public List<ExecutableElement> getMethods(TypeElement type, String lowerCaseName) {
+        Map<String, List<ExecutableElement>> typeMethods = methods.get(type);
+        if (typeMethods == null) {
+            typeMethods = new HashMap<>();
+            for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(type))) {
+                final String name = method.getSimpleName().toString().toLowerCase();
+                List<ExecutableElement> list = typeMethods.get(name);
+                if (list == null) {
+                    list = new ArrayList<>(1);
+                    typeMethods.put(name, list);
+                }
+                list.add(method);
+            }
+            methods.put(type, typeMethods);
+        }
+        final List<ExecutableElement> list = typeMethods.get(lowerCaseName);
+        if (list == null) return Collections.emptyList();
+        return list;
+    }
+}
@@ -0,0 +1,254 @@
+package org.mariotaku.objectcursor.processor;
+
+import android.database.Cursor;
+
+import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.TypeVariableName;
+import com.squareup.javapoet.WildcardTypeName;
+
+import org.mariotaku.library.objectcursor.CursorObjectRegistry;
+import org.mariotaku.library.objectcursor.ObjectCursor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.tools.JavaFileObject;
+
+import static org.mariotaku.library.objectcursor.ObjectCursor.BufferCodec.BUFFER_CODEC_SUFFIX;
+import static org.mariotaku.library.objectcursor.ObjectCursor.CursorIndices.CURSOR_INDICES_SUFFIX;
+import static org.mariotaku.library.objectcursor.ObjectCursor.RowCodec.ROW_CODEC_SUFFIX;
+import static org.mariotaku.library.objectcursor.ObjectCursor.StatementBinder.STATEMENT_BINDER_SUFFIX;
+import static org.mariotaku.library.objectcursor.ObjectCursor.TableInfo.TABLE_INFO_SUFFIX;
+import static org.mariotaku.library.objectcursor.ObjectCursor.ValuesCreator.VALUES_CREATOR_SUFFIX;
+
+/**
+ * Generates {@link CursorObjectRegistry} implementation for all classes in one compilation
+ * <p>
+ * Created by mariotaku on 16/5/9.
+ */
+public class RegistryClassGenerator {
+
+    public static final String DEFAULT_REGISTRY_SIMPLE_NAME = "ObjectCursorRegistry";
+
+    private final List<CursorObjectClassInfo> classInfoList;
+    private final ClassName registryClassName;
+
+    RegistryClassGenerator(Collection<CursorObjectClassInfo> classInfoList, String registryClass) {
+        this.classInfoList = new ArrayList<>();
+        for (CursorObjectClassInfo classInfo : classInfoList) {
+            // Registry lives in another package, only public classes can be referenced
+            if (isPublic(classInfo.objectType)) {
+                this.classInfoList.add(classInfo);
+            }
+        }
+        // Keep generated source stable between builds
+        Collections.sort(this.classInfoList, new Comparator<CursorObjectClassInfo>() {
+            @Override
+            public int compare(CursorObjectClassInfo lhs, CursorObjectClassInfo rhs) {
+                return lhs.objectClassName.toString().compareTo(rhs.objectClassName.toString());
+            }
+        });
+        if (registryClass != null && !registryClass.isEmpty()) {
+            registryClassName = ClassName.bestGuess(registryClass);
+        } else {
+            registryClassName = ClassName.get(getCommonPackage(classInfoList), DEFAULT_REGISTRY_SIMPLE_NAME);
+        }
+    }
+
+    private static boolean isPublic(TypeElement type) {
+        Element element = type;
+        while (element.getKind() != ElementKind.PACKAGE) {
+            if (!element.getModifiers().contains(Modifier.PUBLIC)) return false;
+            element = element.getEnclosingElement();
+        }
+        return true;
+    }
+
+    private static String getCommonPackage(Collection<CursorObjectClassInfo> classInfoList) {
+        String common = null, first = null;
+        for (CursorObjectClassInfo classInfo : classInfoList) {
+            final String packageName = classInfo.getPackageName();
+            if (first == null || packageName.compareTo(first) < 0) {
+                first = packageName;
+            }
+            if (common == null) {
+                common = packageName;
+                continue;
+            }
+            while (!common.isEmpty() && !packageName.equals(common) && !packageName.startsWith(common + ".")) {
+                final int lastDot = common.lastIndexOf('.');
+                common = lastDot < 0 ? "" : common.substring(0, lastDot);
+            }
+        }
+        // No common package, use the first one to keep the name stable
+        if (common == null || common.isEmpty()) return first;
+        return common;
+    }
+
+    public ClassName getRegistryClassName() {
+        return registryClassName;
+    }
+
+    void writeContent(Appendable appendable, Elements elements) throws IOException {
+        final TypeSpec.Builder builder = TypeSpec.classBuilder(registryClassName.simpleName());
+        builder.addSuperinterface(CursorObjectRegistry.class);
+        builder.addModifiers(Modifier.PUBLIC, Modifier.FINAL);
+
+        builder.addField(FieldSpec.builder(registryClassName, "INSTANCE", Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                .initializer("new $T()", registryClassName)
+                .build());
+
+        final TypeName idsType = ParameterizedTypeName.get(ClassName.get(IdentityHashMap.class),
+                ParameterizedTypeName.get(ClassName.get(Class.class), WildcardTypeName.subtypeOf(Object.class)),
+                ClassName.get(Integer.class));
+        builder.addField(FieldSpec.builder(idsType, "IDS", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("new $T($L)", idsType, classInfoList.size())
+                .build());
+
+        final CodeBlock.Builder staticBlock = CodeBlock.builder();
+        for (int i = 0, j = classInfoList.size(); i < j; i++) {
+            staticBlock.addStatement("IDS.put($T.class, $L)", classInfoList.get(i).objectClassName, i);
+        }
+        builder.addStaticBlock(staticBlock.build());
+
+        builder.addMethod(MethodSpec.constructorBuilder().addModifiers(Modifier.PRIVATE).build());
+
+        builder.addMethod(createIdOfMethod());
+
+        builder.addMethod(createNewIndicesMethod(elements));
+
+        builder.addMethod(createGetInstanceMethod(elements, "getValuesCreator", ObjectCursor.ValuesCreator.class,
+                VALUES_CREATOR_SUFFIX, true));
+
+        builder.addMethod(createGetInstanceMethod(elements, "getStatementBinder", ObjectCursor.StatementBinder.class,
+                STATEMENT_BINDER_SUFFIX, true));
+
+        builder.addMethod(createGetInstanceMethod(elements, "getTableInfo", ObjectCursor.TableInfo.class,
+                TABLE_INFO_SUFFIX, false));
+
+        builder.addMethod(createGetInstanceMethod(elements, "getRowCodec", ObjectCursor.RowCodec.class,
+                ROW_CODEC_SUFFIX, true));
+
+        builder.addMethod(createGetInstanceMethod(elements, "getBufferCodec", ObjectCursor.BufferCodec.class,
+                BUFFER_CODEC_SUFFIX, true));
+
+        JavaFile.builder(registryClassName.packageName(), builder.build()).build().writeTo(appendable);
+    }
+
+    private MethodSpec createIdOfMethod() {
+        final MethodSpec.Builder builder = MethodSpec.methodBuilder("idOf");
+        builder.addModifiers(Modifier.PRIVATE, Modifier.STATIC);
+        builder.addParameter(ParameterizedTypeName.get(ClassName.get(Class.class), WildcardTypeName.subtypeOf(Object.class)), "cls");
+        builder.returns(int.class);
+        builder.addStatement("final $T id = IDS.get(cls)", Integer.class);
+        builder.addStatement("return id != null ? id : -1");
+        return builder.build();
+    }
+
+    private MethodSpec createNewIndicesMethod(Elements elements) {
+        final TypeVariableName t = TypeVariableName.get("T");
+        final MethodSpec.Builder builder = MethodSpec.methodBuilder("newIndices");
+        builder.addAnnotation(Override.class);
+        builder.addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).addMember("value", "$S", "unchecked").build());
+        builder.addModifiers(Modifier.PUBLIC);
+        builder.addTypeVariable(t);
+        builder.addParameter(ParameterizedTypeName.get(ClassName.get(Class.class), t), "cls");
+        builder.addParameter(Cursor.class, "cursor");
+        builder.returns(ParameterizedTypeName.get(ClassName.get(ObjectCursor.CursorIndices.class), t));
+        builder.beginControlFlow("switch (idOf(cls))");
+        for (int i = 0, j = classInfoList.size(); i < j; i++) {
+            final CursorObjectClassInfo classInfo = classInfoList.get(i);
+            if (!classInfo.wantCursorIndices) continue;
+            final ClassName indicesClass = CursorObjectClassInfo.getSuffixedClassName(elements, classInfo.objectType,
+                    CURSOR_INDICES_SUFFIX);
+            builder.addStatement("  case $L: return ($T) new $T(cursor)", i,
+                    ParameterizedTypeName.get(ClassName.get(ObjectCursor.CursorIndices.class), t), indicesClass);
+        }
+        builder.endControlFlow();
+        builder.addStatement("return null");
+        return builder.build();
+    }
+
+    private MethodSpec createGetInstanceMethod(Elements elements, String name, Class<?> returnType, String suffix,
+                                               boolean generic) {
+        final TypeVariableName t = TypeVariableName.get("T");
+        final MethodSpec.Builder builder = MethodSpec.methodBuilder(name);
+        builder.addAnnotation(Override.class);
+        builder.addModifiers(Modifier.PUBLIC);
+        final TypeName resultType;
+        if (generic) {
+            builder.addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).addMember("value", "$S", "unchecked").build());
+            builder.addTypeVariable(t);
+            builder.addParameter(ParameterizedTypeName.get(ClassName.get(Class.class), t), "cls");
+            resultType = ParameterizedTypeName.get(ClassName.get(returnType), t);
+        } else {
+            builder.addParameter(ParameterizedTypeName.get(ClassName.get(Class.class), WildcardTypeName.subtypeOf(Object.class)), "cls");
+            resultType = ClassName.get(returnType);
+        }
+        builder.returns(resultType);
+        builder.beginControlFlow("switch (idOf(cls))");
+        for (int i = 0, j = classInfoList.size(); i < j; i++) {
+            final CursorObjectClassInfo classInfo = classInfoList.get(i);
+            if (!wants(classInfo, suffix)) continue;
+            final ClassName generatedClass = CursorObjectClassInfo.getSuffixedClassName(elements, classInfo.objectType,
+                    suffix);
+            if (generic) {
+                builder.addStatement("  case $L: return ($T) $T.INSTANCE", i, resultType, generatedClass);
+            } else {
+                builder.addStatement("  case $L: return $T.INSTANCE", i, generatedClass);
+            }
+        }
+        builder.endControlFlow();
+        builder.addStatement("return null");
+        return builder.build();
+    }
+
+    private static boolean wants(CursorObjectClassInfo classInfo, String suffix) {
+        switch (suffix) {
+            case VALUES_CREATOR_SUFFIX:
+                return classInfo.wantValuesCreator;
+            case STATEMENT_BINDER_SUFFIX:
+                return classInfo.wantStatementBinder;
+            case TABLE_INFO_SUFFIX:
+                return classInfo.wantTableInfo;
+            case ROW_CODEC_SUFFIX:
+                return classInfo.wantRowCodec;
+            case BUFFER_CODEC_SUFFIX:
+                return classInfo.wantBufferCodec;
+        }
+        return false;
+    }
+
+    public void saveRegistryFile(Filer filer, Elements elements) throws IOException {
+        final List<Element> originatingElements = new ArrayList<>();
+        for (CursorObjectClassInfo classInfo : classInfoList) {
+            originatingElements.add(classInfo.objectType);
+        }
+        JavaFileObject fileObj = filer.createSourceFile(registryClassName.toString(),
+                originatingElements.toArray(new Element[originatingElements.size()]));
+        try (Writer writer = fileObj.openWriter()) {
+            writeContent(writer, elements);
+            writer.flush();
+        }
+    }
+}
@@ -0,0 +1,374 @@
+package org.mariotaku.objectcursor.processor;
+
+import android.content.ContentValues;
+
+import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+
+import org.mariotaku.library.objectcursor.CursorSnapshot;
+import org.mariotaku.library.objectcursor.CursorSnapshotHolder;
+import org.mariotaku.library.objectcursor.LazyField;
+import org.mariotaku.library.objectcursor.ObjectCursor;
+import org.mariotaku.library.objectcursor.annotation.CursorObject;
+import org.mariotaku.library.objectcursor.cache.RecordReader;
+import org.mariotaku.library.objectcursor.cache.RecordWriter;
+import org.mariotaku.library.objectcursor.internal.BufferRecords;
+import org.mariotaku.library.objectcursor.internal.ParameterizedTypeImpl;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.ParameterizedType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.JavaFileObject;
+
+import static org.mariotaku.library.objectcursor.ObjectCursor.RowCodec.ROW_CODEC_SUFFIX;
+
+/**
+ * Generates {@link ObjectCursor.RowCodec}, fields are encoded in declaration order, parent fields first. Fields
+ * using converters are encoded as column value, like {@link BufferCodecClassGenerator} does.
+ * <p>
+ * Created by mariotaku on 16/5/13.
+ */
+public class RowCodecClassGenerator {
+
+    private final CursorObjectClassInfo objectClassInfo;
+    private final ClassName codecClassName;
+    private final String codecClassNameWithoutPackage;
+
+    RowCodecClassGenerator(CursorObjectClassInfo objectClassInfo, Elements elements) {
+        this.objectClassInfo = objectClassInfo;
+        final String packageName = String.valueOf(elements.getPackageOf(objectClassInfo.objectType).getQualifiedName());
+        final String binaryName = String.valueOf(elements.getBinaryName(objectClassInfo.objectType));
+        codecClassNameWithoutPackage = binaryName.substring(packageName.length() + 1) + ROW_CODEC_SUFFIX;
+        codecClassName = ClassName.get(packageName, codecClassNameWithoutPackage);
+    }
+
+    private static String getConverterFieldName(TypeName converterClass) {
+        return converterClass.toString().replaceAll("[^\\w\\d]", "_").toUpperCase(Locale.US);
+    }
+
+    void writeContent(Appendable appendable, Elements elements, Types types) throws IOException {
+        final TypeSpec.Builder builder = TypeSpec.classBuilder(codecClassNameWithoutPackage);
+        TypeElement superClass = (TypeElement) types.asElement(objectClassInfo.getSuperclass());
+
+        ClassName parentCodecClass = null;
+        // Super class has RowCodec implementation
+        if (superClass.getAnnotation(CursorObject.class) != null) {
+            if (objectClassInfo.parentClassInfo != null && !objectClassInfo.parentClassInfo.wantRowCodec) {
+                throw new IllegalArgumentException(String.format("Parent class of %s must enable rowCodec",
+                        objectClassInfo.objectClassName));
+            }
+            parentCodecClass = CursorObjectClassInfo.getSuffixedClassName(elements, superClass, ROW_CODEC_SUFFIX);
+        }
+
+        builder.addSuperinterface(ParameterizedTypeName.get(ClassName.get(ObjectCursor.RowCodec.class),
+                objectClassInfo.objectClassName));
+
+        builder.addModifiers(Modifier.PUBLIC);
+
+        builder.addField(FieldSpec.builder(codecClassName, "INSTANCE", Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                .initializer("new $T()", codecClassName)
+                .build());
+
+        builder.addFields(getConverterFields());
+
+        builder.addFields(getTypeFields());
+
+        builder.addMethod(MethodSpec.constructorBuilder().build());
+
+        builder.addMethod(createEncodeMethod());
+
+        builder.addMethod(createDecodeMethod());
+
+        builder.addMethod(createEncodeFieldsMethod(parentCodecClass));
+
+        builder.addMethod(createDecodeFieldsMethod(parentCodecClass));
+
+        JavaFile.builder(objectClassInfo.getPackageName(), builder.build()).build().writeTo(appendable);
+    }
+
+    private List<FieldSpec> getConverterFields() {
+        List<FieldSpec> fieldSpecs = new ArrayList<>();
+        for (ClassName converterClass : objectClassInfo.getCustomConverters()) {
+            fieldSpecs.add(FieldSpec.builder(converterClass, getConverterFieldName(converterClass), Modifier.FINAL, Modifier.STATIC)
+                    .initializer("new $T()", converterClass)
+                    .build());
+        }
+        return fieldSpecs;
+    }
+
+    private List<FieldSpec> getTypeFields() {
+        List<FieldSpec> fieldSpecs = new ArrayList<>();
+        for (TypeName typeName : objectClassInfo.getCustomTypes()) {
+            // String field is not a custom type
+            if (CursorObjectClassInfo.STRING.equals(typeName)) continue;
+            final FieldSpec.Builder builder = FieldSpec.builder(ParameterizedType.class,
+                    getConverterFieldName(typeName), Modifier.FINAL, Modifier.STATIC);
+            if (typeName instanceof ParameterizedTypeName) {
+                ParameterizedTypeName parameterizedTypeName = (ParameterizedTypeName) typeName;
+                Object[] formatArgs = new Object[2 + parameterizedTypeName.typeArguments.size()];
+                final StringBuilder placeHolders = new StringBuilder();
+                formatArgs[0] = ParameterizedTypeImpl.class;
+                formatArgs[1] = parameterizedTypeName.rawType;
+                for (int i = 0, j = parameterizedTypeName.typeArguments.size(); i < j; i++) {
+                    placeHolders.append(", $T.class");
+                    formatArgs[i + 2] = parameterizedTypeName.typeArguments.get(i);
+                }
+                final String format = String.format(Locale.ROOT, "$T.get($T.class, null%s)", placeHolders);
+                builder.initializer(format, formatArgs);
+            } else {
+                builder.initializer("$T.get($T.class, null)", ParameterizedTypeImpl.class, typeName);
+            }
+            fieldSpecs.add(builder.build());
+        }
+        return fieldSpecs;
+    }
+
+    private MethodSpec createEncodeMethod() {
+        final MethodSpec.Builder builder = MethodSpec.methodBuilder("encode");
+        builder.addAnnotation(Override.class);
+        builder.addModifiers(Modifier.PUBLIC);
+        builder.addParameter(objectClassInfo.objectClassName, "instance");
+        builder.addParameter(RecordWriter.class, "writer");
+        builder.addException(IOException.class);
+        builder.addStatement("encodeFields(instance, writer)");
+        if (isSnapshotHolder()) {
+            // Copied, instance may update its snapshot after encoded
+            builder.addStatement("final $T snapshot = instance.getCursorSnapshot()", CursorSnapshot.class);
+            builder.addStatement("writer.writeObject(snapshot != null ? snapshot.copy() : null)");
+        }
+        return builder.build();
+    }
+
+    private MethodSpec createDecodeMethod() {
+        final MethodSpec.Builder builder = MethodSpec.methodBuilder("decode");
+        builder.addAnnotation(Override.class);
+        builder.addModifiers(Modifier.PUBLIC);
+        builder.addParameter(RecordReader.class, "reader");
+        builder.addException(IOException.class);
+        builder.returns(objectClassInfo.objectClassName);
+
+        builder.addStatement("$T instance = new $T()", objectClassInfo.objectClassName, objectClassInfo.objectClassName);
+        // Same callback order as CursorIndices, parents are called first before created and last after created
+        final List<CursorObjectClassInfo> classInfoChain = new ArrayList<>();
+        for (CursorObjectClassInfo info = objectClassInfo; info != null; info = info.parentClassInfo) {
+            classInfoChain.add(0, info);
+        }
+        for (CursorObjectClassInfo info : classInfoChain) {
+            for (Element element : info.getBeforeCreated()) {
+                builder.addStatement("instance.$L()", element.getSimpleName());
+            }
+        }
+        builder.addStatement("decodeFields(instance, reader)");
+        if (isSnapshotHolder()) {
+            builder.addStatement("final $T snapshot = ($T) reader.readObject()", CursorSnapshot.class,
+                    CursorSnapshot.class);
+            builder.addStatement("instance.setCursorSnapshot(snapshot != null ? snapshot.copy() : null)");
+        }
+        for (int i = classInfoChain.size() - 1; i >= 0; i--) {
+            for (Element element : classInfoChain.get(i).getAfterCreated()) {
+                builder.addStatement("instance.$L()", element.getSimpleName());
+            }
+        }
+        builder.addStatement("return instance");
+        return builder.build();
+    }
+
+    private MethodSpec createEncodeFieldsMethod(ClassName parentCodecClass) {
+        final MethodSpec.Builder builder = MethodSpec.methodBuilder("encodeFields");
+        builder.addModifiers(Modifier.PUBLIC);
+        builder.addParameter(objectClassInfo.objectClassName, "instance");
+        builder.addParameter(RecordWriter.class, "writer");
+        builder.addException(IOException.class);
+        if (parentCodecClass != null) {
+            builder.addStatement("$T.INSTANCE.encodeFields(instance, writer)", parentCodecClass);
+        }
+        final List<CursorObjectClassInfo.CursorFieldInfo> fieldInfoList = objectClassInfo.getFieldInfoList();
+        for (CursorObjectClassInfo.CursorFieldInfo fieldInfo : fieldInfoList) {
+            if (isEncodedWithValues(fieldInfo)) {
+                builder.addStatement("final $T converted = writer.getConvertedValues()", ContentValues.class);
+                break;
+            }
+        }
+        for (CursorObjectClassInfo.CursorFieldInfo fieldInfo : fieldInfoList) {
+            addEncodeStatement(builder, fieldInfo);
+        }
+        // Embedded objects are kept as references
+        for (CursorObjectClassInfo.CursorEmbeddedInfo embeddedInfo : objectClassInfo.embeddedInfoList) {
+            builder.addStatement("writer.writeObject(instance.$L)", embeddedInfo.getReadAccessCode());
+        }
+        return builder.build();
+    }
+
+    private MethodSpec createDecodeFieldsMethod(ClassName parentCodecClass) {
+        final MethodSpec.Builder builder = MethodSpec.methodBuilder("decodeFields");
+        builder.addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).addMember("value", "$S", "unchecked").build());
+        builder.addModifiers(Modifier.PUBLIC);
+        builder.addParameter(objectClassInfo.objectClassName, "instance");
+        builder.addParameter(RecordReader.class, "reader");
+        builder.addException(IOException.class);
+        if (parentCodecClass != null) {
+            builder.addStatement("$T.INSTANCE.decodeFields(instance, reader)", parentCodecClass);
+        }
+        for (CursorObjectClassInfo.CursorFieldInfo fieldInfo : objectClassInfo.getFieldInfoList()) {
+            addDecodeStatement(builder, fieldInfo);
+        }
+        for (CursorObjectClassInfo.CursorEmbeddedInfo embeddedInfo : objectClassInfo.embeddedInfoList) {
+            builder.addStatement("instance.$L($T) reader.readObject()$L", embeddedInfo.getWriteAccessPrefix(),
+                    embeddedInfo.type, embeddedInfo.getWriteAccessSuffix());
+        }
+        return builder.build();
+    }
+
+    private void addEncodeStatement(MethodSpec.Builder builder, CursorObjectClassInfo.CursorFieldInfo fieldInfo) {
+        final String readAccessCode = "instance." + fieldInfo.getReadAccessCode();
+        final ClassName converterClass = objectClassInfo.getConverter(fieldInfo.objectFieldName, false);
+        final TypeName primitiveConverterType = objectClassInfo.getPrimitiveConverterType(fieldInfo.objectFieldName,
+                false);
+        if (fieldInfo.lazy) {
+            // Unread value is copied as captured
+            builder.addStatement("writer.writeBoolean($L != null)", readAccessCode);
+            builder.beginControlFlow("if ($L != null)", readAccessCode);
+            builder.addStatement("converted.clear()");
+            builder.addStatement("$L.writeTo(converted, $S, $L, $L)", readAccessCode, fieldInfo.columnName,
+                    getConverterFieldName(converterClass), getConverterFieldName(fieldInfo.valueType));
+            builder.addStatement("writer.writeRaw(converted.get($S))", fieldInfo.columnName);
+            builder.endControlFlow();
+            return;
+        } else if (primitiveConverterType != null) {
+            builder.addStatement("writer.writeBoolean($L != null)", readAccessCode);
+            builder.addStatement("if ($L != null) writer.write$L($L.to$L($L))", readAccessCode,
+                    CursorObjectClassInfo.getPrimitiveConverterSuffix(primitiveConverterType),
+                    getConverterFieldName(converterClass),
+                    CursorObjectClassInfo.getPrimitiveConverterSuffix(primitiveConverterType), readAccessCode);
+            return;
+        } else if (converterClass != null) {
+            builder.addStatement("converted.clear()");
+            builder.addStatement("$L.writeField(converted, $L, $S, $L)", getConverterFieldName(converterClass),
+                    readAccessCode, fieldInfo.columnName, getConverterFieldName(fieldInfo.type));
+            builder.addStatement("writer.writeRaw(converted.get($S))", fieldInfo.columnName);
+            return;
+        }
+        final String writeMethod = getWriteMethod(fieldInfo);
+        if (writeMethod == null) {
+            builder.addStatement("writer.writeObject($L)", readAccessCode);
+        } else if (isBoxed(fieldInfo)) {
+            builder.addStatement("writer.writeBoolean($L != null)", readAccessCode);
+            builder.addStatement("if ($L != null) writer.$L($L)", readAccessCode, writeMethod, readAccessCode);
+        } else {
+            builder.addStatement("writer.$L($L)", writeMethod, readAccessCode);
+        }
+    }
+
+    private void addDecodeStatement(MethodSpec.Builder builder, CursorObjectClassInfo.CursorFieldInfo fieldInfo) {
+        final String writeMethod = getWriteMethod(fieldInfo);
+        final TypeName fieldType = CursorObjectClassInfo.unbox(fieldInfo.type);
+        if (fieldInfo.useSetter()) {
+            builder.addCode("instance.$L(", fieldInfo.objectFieldSetter);
+        } else {
+            builder.addCode("instance.$L = ", fieldInfo.objectFieldName);
+        }
+        final ClassName converterClass = objectClassInfo.getConverter(fieldInfo.objectFieldName, false);
+        final TypeName primitiveConverterType = objectClassInfo.getPrimitiveConverterType(fieldInfo.objectFieldName,
+                false);
+        if (fieldInfo.lazy) {
+            builder.addCode("reader.readBoolean() ? $T.fromRawValue($L, $L, reader.readRaw()) : null",
+                    LazyField.class, getConverterFieldName(converterClass),
+                    getConverterFieldName(fieldInfo.valueType));
+        } else if (primitiveConverterType != null) {
+            final String suffix = CursorObjectClassInfo.getPrimitiveConverterSuffix(primitiveConverterType);
+            builder.addCode("reader.readBoolean() ? $L.from$L(reader.read$L()) : null",
+                    getConverterFieldName(converterClass), suffix, suffix);
+        } else if (converterClass != null) {
+            builder.addCode("($T) $T.parseRaw($L, reader.readRaw(), $L)", fieldInfo.type, BufferRecords.class,
+                    getConverterFieldName(converterClass), getConverterFieldName(fieldInfo.type));
+        } else if (fieldInfo.dedup) {
+            builder.addCode("reader.readPooledString()");
+        } else if (writeMethod == null) {
+            builder.addCode("($T) reader.readObject()", fieldInfo.type);
+        } else {
+            final String readCode = "reader." + writeMethod.replace("write", "read") + "()";
+            final String valueCode;
+            if (fieldType == TypeName.BYTE || fieldType == TypeName.SHORT || fieldType == TypeName.CHAR) {
+                valueCode = "(" + fieldType + ") " + readCode;
+            } else {
+                valueCode = readCode;
+            }
+            if (isBoxed(fieldInfo)) {
+                builder.addCode("reader.readBoolean() ? $T.valueOf($L) : null", fieldInfo.type, valueCode);
+            } else {
+                builder.addCode("$L", valueCode);
+            }
+        }
+        if (fieldInfo.useSetter()) {
+            builder.addCode(")");
+        }
+        builder.addStatement("");
+    }
+
+    /**
+     * @return Method of {@link RecordWriter} for this field, or null if stored as reference
+     */
+    private static String getWriteMethod(CursorObjectClassInfo.CursorFieldInfo fieldInfo) {
+        if (fieldInfo.lazy) return null;
+        final TypeName fieldType = CursorObjectClassInfo.unbox(fieldInfo.type);
+        if (fieldType == TypeName.BOOLEAN) {
+            return "writeBoolean";
+        } else if (fieldType == TypeName.BYTE || fieldType == TypeName.SHORT || fieldType == TypeName.CHAR
+                || fieldType == TypeName.INT) {
+            return "writeInt";
+        } else if (fieldType == TypeName.LONG) {
+            return "writeLong";
+        } else if (fieldType == TypeName.FLOAT) {
+            return "writeFloat";
+        } else if (fieldType == TypeName.DOUBLE) {
+            return "writeDouble";
+        } else if (fieldType.equals(CursorObjectClassInfo.STRING)) {
+            return "writeString";
+        } else if (fieldType instanceof ArrayTypeName && ((ArrayTypeName) fieldType).componentType == TypeName.BYTE) {
+            return "writeBlob";
+        }
+        return null;
+    }
+
+    /**
+     * @return True if field is converted into {@code ContentValues} before encoded
+     */
+    private boolean isEncodedWithValues(CursorObjectClassInfo.CursorFieldInfo fieldInfo) {
+        return fieldInfo.lazy || (objectClassInfo.getConverter(fieldInfo.objectFieldName, false) != null
+                && objectClassInfo.getPrimitiveConverterType(fieldInfo.objectFieldName, false) == null);
+    }
+
+    private boolean isSnapshotHolder() {
+        return Utils.isSubtypeOf(objectClassInfo.objectType, CursorSnapshotHolder.class.getName());
+    }
+
+    private static boolean isBoxed(CursorObjectClassInfo.CursorFieldInfo fieldInfo) {
+        return !CursorObjectClassInfo.unbox(fieldInfo.type).equals(fieldInfo.type);
+    }
+
+    public void saveRowCodecFile(Filer filer, Elements elements, Types types) throws IOException {
+        JavaFileObject fileObj = filer.createSourceFile(codecClassName.toString(),
+                objectClassInfo.getOriginatingElements());
+        try (Writer writer = fileObj.openWriter()) {
+            writeContent(writer, elements, types);
+            writer.flush();
+        }
+    }
+}
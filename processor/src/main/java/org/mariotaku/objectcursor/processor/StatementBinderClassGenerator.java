@@ -0,0 +1,297 @@
+package org.mariotaku.objectcursor.processor;
+
+import android.content.ContentValues;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteStatement;
+
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+
+import org.mariotaku.library.objectcursor.ObjectCursor;
+import org.mariotaku.library.objectcursor.internal.ParameterizedTypeImpl;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.ParameterizedType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.JavaFileObject;
+
+import static org.mariotaku.library.objectcursor.ObjectCursor.StatementBinder.STATEMENT_BINDER_SUFFIX;
+
+/**
+ * Created by mariotaku on 16/5/6.
+ */
+public class StatementBinderClassGenerator {
+
+    private final CursorObjectClassInfo objectClassInfo;
+    private final ClassName binderClassName;
+    private final String binderClassNameWithoutPackage;
+
+    StatementBinderClassGenerator(CursorObjectClassInfo objectClassInfo, Elements elements) {
+        this.objectClassInfo = objectClassInfo;
+        final String packageName = String.valueOf(elements.getPackageOf(objectClassInfo.objectType).getQualifiedName());
+        final String binaryName = String.valueOf(elements.getBinaryName(objectClassInfo.objectType));
+        binderClassNameWithoutPackage = binaryName.substring(packageName.length() + 1) + STATEMENT_BINDER_SUFFIX;
+        binderClassName = ClassName.get(packageName, binderClassNameWithoutPackage);
+    }
+
+    private static String getConverterFieldName(TypeName converterClass) {
+        return converterClass.toString().replaceAll("[^\\w\\d]", "_").toUpperCase(Locale.US);
+    }
+
+    void writeContent(Appendable appendable, Elements elements, Types types) throws IOException {
+        objectClassInfo.checkNoEmbedded("StatementBinder");
+        final TypeSpec.Builder builder = TypeSpec.classBuilder(binderClassNameWithoutPackage);
+
+        builder.addSuperinterface(ParameterizedTypeName.get(ClassName.get(ObjectCursor.StatementBinder.class),
+                objectClassInfo.objectClassName));
+
+        builder.addModifiers(Modifier.PUBLIC);
+
+        builder.addField(FieldSpec.builder(binderClassName, "INSTANCE", Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                .initializer("new $T()", binderClassName)
+                .build());
+
+        final List<CursorObjectClassInfo.CursorFieldInfo> fieldInfoList = getBindFieldInfoList();
+
+        builder.addField(getColumnsField(fieldInfoList));
+
+        builder.addFields(getConverterFields());
+
+        builder.addFields(getTypeFields());
+
+        builder.addMethod(MethodSpec.constructorBuilder().build());
+
+        builder.addMethod(createGetColumnsMethod());
+
+        builder.addMethod(MethodSpec.methodBuilder("bindTo")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(objectClassInfo.objectClassName, "instance")
+                .addParameter(SQLiteStatement.class, "statement")
+                .addException(IOException.class)
+                .addStatement("bindTo(instance, statement, null)")
+                .build());
+
+        builder.addMethod(createBindToMethod(fieldInfoList));
+
+        JavaFile.builder(objectClassInfo.getPackageName(), builder.build()).build().writeTo(appendable);
+    }
+
+    private List<CursorObjectClassInfo.CursorFieldInfo> getBindFieldInfoList() {
+        List<CursorObjectClassInfo.CursorFieldInfo> result = new ArrayList<>();
+        for (CursorObjectClassInfo.CursorFieldInfo fieldInfo : objectClassInfo.getTableColumnFieldInfoList()) {
+            if (fieldInfo.annotation.excludeWrite() || fieldInfo.columnName.isEmpty()) continue;
+            result.add(fieldInfo);
+        }
+        return result;
+    }
+
+    private FieldSpec getColumnsField(List<CursorObjectClassInfo.CursorFieldInfo> fieldInfoList) {
+        final FieldSpec.Builder builder = FieldSpec.builder(String[].class, "COLUMNS", Modifier.PUBLIC, Modifier.STATIC,
+                Modifier.FINAL);
+        final CodeBlock.Builder init = CodeBlock.builder();
+        init.add("{\n");
+        init.indent();
+        for (CursorObjectClassInfo.CursorFieldInfo fieldInfo : fieldInfoList) {
+            init.add("$S, // $L.$L\n", fieldInfo.columnName, objectClassInfo.objectClassName, fieldInfo.objectFieldName);
+        }
+        init.unindent();
+        init.add("}");
+        builder.initializer(init.build());
+        return builder.build();
+    }
+
+    private List<FieldSpec> getConverterFields() {
+        List<FieldSpec> fieldSpecs = new ArrayList<>();
+        for (ClassName converterClass : objectClassInfo.getCustomConvertersIncludingParents()) {
+            fieldSpecs.add(FieldSpec.builder(converterClass, getConverterFieldName(converterClass), Modifier.FINAL, Modifier.STATIC)
+                    .initializer("new $T()", converterClass)
+                    .build());
+        }
+        return fieldSpecs;
+    }
+
+    private List<FieldSpec> getTypeFields() {
+        List<FieldSpec> fieldSpecs = new ArrayList<>();
+        for (TypeName typeName : objectClassInfo.getCustomTypesIncludingParents()) {
+            // String field is not a custom type
+            if (CursorObjectClassInfo.STRING.equals(typeName)) continue;
+            final FieldSpec.Builder builder = FieldSpec.builder(ParameterizedType.class,
+                    getConverterFieldName(typeName), Modifier.FINAL, Modifier.STATIC);
+            if (typeName instanceof ParameterizedTypeName) {
+                ParameterizedTypeName parameterizedTypeName = (ParameterizedTypeName) typeName;
+                Object[] formatArgs = new Object[2 + parameterizedTypeName.typeArguments.size()];
+                final StringBuilder placeHolders = new StringBuilder();
+                formatArgs[0] = ParameterizedTypeImpl.class;
+                formatArgs[1] = parameterizedTypeName.rawType;
+                for (int i = 0, j = parameterizedTypeName.typeArguments.size(); i < j; i++) {
+                    placeHolders.append(", $T.class");
+                    formatArgs[i + 2] = parameterizedTypeName.typeArguments.get(i);
+                }
+                final String format = String.format(Locale.ROOT, "$T.get($T.class, null%s)", placeHolders);
+                builder.initializer(format, formatArgs);
+            } else {
+                builder.initializer("$T.get($T.class, null)", ParameterizedTypeImpl.class, typeName);
+            }
+            fieldSpecs.add(builder.build());
+        }
+        return fieldSpecs;
+    }
+
+    private MethodSpec createGetColumnsMethod() {
+        final MethodSpec.Builder builder = MethodSpec.methodBuilder("getColumns");
+        builder.addAnnotation(Override.class);
+        builder.addModifiers(Modifier.PUBLIC);
+        builder.returns(String[].class);
+        builder.addStatement("return COLUMNS");
+        return builder.build();
+    }
+
+    private MethodSpec createBindToMethod(List<CursorObjectClassInfo.CursorFieldInfo> fieldInfoList) {
+        final MethodSpec.Builder builder = MethodSpec.methodBuilder("bindTo");
+        builder.addAnnotation(Override.class);
+        builder.addModifiers(Modifier.PUBLIC);
+        builder.addParameter(objectClassInfo.objectClassName, "instance");
+        builder.addParameter(SQLiteStatement.class, "statement");
+        builder.addParameter(ContentValues.class, "scratch");
+        builder.addException(IOException.class);
+
+        boolean hasConvertedValues = false;
+        for (CursorObjectClassInfo.CursorFieldInfo fieldInfo : fieldInfoList) {
+            if (fieldInfo.lazy) {
+                hasConvertedValues = true;
+                break;
+            }
+            // Primitive converters are bound directly
+            if (objectClassInfo.getConverter(fieldInfo.objectFieldName, true) != null && !isDirectType(fieldInfo)
+                    && objectClassInfo.getPrimitiveConverterType(fieldInfo.objectFieldName, true) == null) {
+                hasConvertedValues = true;
+                break;
+            }
+        }
+        if (hasConvertedValues) {
+            // Converters can only write into ContentValues
+            builder.addStatement("final $T converted = scratch != null ? scratch : new $T()", ContentValues.class,
+                    ContentValues.class);
+        }
+
+        for (int i = 0, j = fieldInfoList.size(); i < j; i++) {
+            addBindStatement(builder, fieldInfoList.get(i), i + 1);
+        }
+        return builder.build();
+    }
+
+    private boolean isDirectType(CursorObjectClassInfo.CursorFieldInfo fieldInfo) {
+        TypeName fieldType = fieldInfo.type;
+        try {
+            fieldType = fieldType.unbox();
+        } catch (UnsupportedOperationException e) {
+            // Ignore
+        }
+        return fieldType == TypeName.BOOLEAN || fieldType == TypeName.BYTE || fieldType == TypeName.CHAR
+                || fieldType == TypeName.SHORT || fieldType == TypeName.INT || fieldType == TypeName.LONG
+                || fieldType == TypeName.FLOAT || fieldType == TypeName.DOUBLE
+                || fieldType.equals(CursorObjectClassInfo.STRING);
+    }
+
+    private void addBindStatement(MethodSpec.Builder builder, CursorObjectClassInfo.CursorFieldInfo fieldInfo, int index)
+            throws UnsupportedFieldTypeException {
+        boolean supported = true;
+        final TypeName rawType = fieldInfo.type;
+        TypeName fieldType = rawType;
+        try {
+            fieldType = fieldType.unbox();
+        } catch (UnsupportedOperationException e) {
+            // Ignore
+        }
+        // Boxed value may be null
+        final boolean nullable = !fieldType.equals(rawType) || !isPrimitive(fieldType);
+        final String valueName = "value" + index;
+        builder.addStatement("final $T $L = instance.$L", rawType, valueName, fieldInfo.getReadAccessCode());
+        if (nullable) {
+            builder.beginControlFlow("if ($L == null)", valueName);
+            builder.addStatement("statement.bindNull($L)", index);
+            builder.nextControlFlow("else");
+        }
+        final TypeName primitiveConverterType = objectClassInfo.getPrimitiveConverterType(fieldInfo.objectFieldName,
+                true);
+        if (fieldInfo.lazy) {
+            // Unread lazy value is bound as captured, without running converter
+            final ClassName converterClass = objectClassInfo.getConverter(fieldInfo.objectFieldName, true);
+            builder.addStatement("converted.clear()");
+            builder.addStatement("$L.writeTo(converted, $S, $L, $L)", valueName, fieldInfo.columnName,
+                    getConverterFieldName(converterClass), getConverterFieldName(fieldInfo.valueType));
+            builder.addStatement("$T.bindObjectToProgram(statement, $L, converted.get($S))", DatabaseUtils.class,
+                    index, fieldInfo.columnName);
+        } else if (primitiveConverterType != null) {
+            final ClassName converterClass = objectClassInfo.getConverter(fieldInfo.objectFieldName, true);
+            builder.addStatement("statement.$L($L, $L.to$L($L))",
+                    primitiveConverterType == TypeName.DOUBLE ? "bindDouble" : "bindLong", index,
+                    getConverterFieldName(converterClass),
+                    CursorObjectClassInfo.getPrimitiveConverterSuffix(primitiveConverterType), valueName);
+        } else if (fieldType == TypeName.BOOLEAN) {
+            builder.addStatement("statement.bindLong($L, $L ? 1 : 0)", index, valueName);
+        } else if (fieldType == TypeName.BYTE || fieldType == TypeName.CHAR || fieldType == TypeName.SHORT
+                || fieldType == TypeName.INT || fieldType == TypeName.LONG) {
+            builder.addStatement("statement.bindLong($L, $L)", index, valueName);
+        } else if (fieldType == TypeName.FLOAT || fieldType == TypeName.DOUBLE) {
+            builder.addStatement("statement.bindDouble($L, $L)", index, valueName);
+        } else if (fieldType.equals(CursorObjectClassInfo.STRING)) {
+            builder.addStatement("statement.bindString($L, $L)", index, valueName);
+        } else {
+            final ClassName converterClass = objectClassInfo.getConverter(fieldInfo.objectFieldName, true);
+            if (converterClass != null) {
+                builder.addStatement("converted.clear()");
+                builder.addStatement("$L.writeField(converted, $L, $S, $L)", getConverterFieldName(converterClass),
+                        valueName, fieldInfo.columnName, getConverterFieldName(fieldType));
+                builder.addStatement("$T.bindObjectToProgram(statement, $L, converted.get($S))", DatabaseUtils.class,
+                        index, fieldInfo.columnName);
+            } else if (fieldType instanceof ArrayTypeName) {
+                if (((ArrayTypeName) fieldType).componentType == TypeName.BYTE) {
+                    builder.addStatement("statement.bindBlob($L, $L)", index, valueName);
+                } else {
+                    supported = false;
+                }
+            } else {
+                supported = false;
+            }
+        }
+        if (nullable) {
+            builder.endControlFlow();
+        }
+        if (!supported) {
+            throw new UnsupportedFieldTypeException(String.format("Unsupported type %s in %s.%s", fieldInfo.type,
+                    objectClassInfo.objectClassName, fieldInfo.objectFieldName));
+        }
+    }
+
+    private static boolean isPrimitive(TypeName typeName) {
+        return typeName == TypeName.BOOLEAN || typeName == TypeName.BYTE || typeName == TypeName.CHAR
+                || typeName == TypeName.SHORT || typeName == TypeName.INT || typeName == TypeName.LONG
+                || typeName == TypeName.FLOAT || typeName == TypeName.DOUBLE;
+    }
+
+    public void saveStatementBinderFile(Filer filer, Elements elements, Types types) throws IOException {
+        JavaFileObject fileObj = filer.createSourceFile(binderClassName.toString(),
+                objectClassInfo.getOriginatingElements());
+        try (Writer writer = fileObj.openWriter()) {
+            writeContent(writer, elements, types);
+            writer.flush();
+        }
+    }
+}
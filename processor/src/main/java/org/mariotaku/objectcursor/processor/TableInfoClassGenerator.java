@@ -5,14 +5,20 @@ import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
 
+import org.mariotaku.library.objectcursor.ObjectCursor;
 import org.mariotaku.library.objectcursor.annotation.CursorField;
+import org.mariotaku.library.objectcursor.annotation.CursorIndex;
+import org.mariotaku.library.objectcursor.annotation.CursorObject;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import javax.annotation.processing.Filer;
@@ -25,7 +31,7 @@ import javax.tools.JavaFileObject;
  * Created by mariotaku on 16/3/31.
  */
 public class TableInfoClassGenerator {
-    public static final String TABLE_INFO_SUFFIX = "TableInfo";
+    public static final String TABLE_INFO_SUFFIX = ObjectCursor.TableInfo.TABLE_INFO_SUFFIX;
 
     private final CursorObjectClassInfo objectClassInfo;
     private final ClassName infoClassName;
@@ -42,12 +48,41 @@ public class TableInfoClassGenerator {
     void writeContent(Appendable appendable, Elements elements, Types types) throws IOException {
         final TypeSpec.Builder builder = TypeSpec.classBuilder(infoClassNameWithoutPackage);
 
+        builder.addSuperinterface(ObjectCursor.TableInfo.class);
+
         builder.addModifiers(Modifier.PUBLIC);
 
+        builder.addField(FieldSpec.builder(infoClassName, "INSTANCE", Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                .initializer("new $T()", infoClassName)
+                .build());
+
         builder.addField(getColumnsField());
 
         builder.addField(getTypesField());
 
+        builder.addMethod(createArrayGetterMethod("getColumns", "COLUMNS"));
+
+        builder.addMethod(createArrayGetterMethod("getTypes", "TYPES"));
+
+        final String columnDefinitions = getColumnDefinitions();
+        final List<IndexDefinition> indices = getIndexDefinitions();
+
+        builder.addField(FieldSpec.builder(String.class, "COLUMN_DEFINITIONS", Modifier.PUBLIC, Modifier.STATIC,
+                Modifier.FINAL)
+                .initializer("$S", columnDefinitions)
+                .build());
+
+        builder.addField(FieldSpec.builder(TypeName.INT, "SCHEMA_HASH", Modifier.PUBLIC, Modifier.STATIC,
+                Modifier.FINAL)
+                .initializer("$L", getSchemaHash(columnDefinitions, indices))
+                .build());
+
+        builder.addMethod(createGetCreateTableSqlMethod());
+
+        builder.addMethod(createGetCreateIndexSqlMethod(indices));
+
+        builder.addMethod(createGetSchemaHashMethod());
+
         JavaFile.builder(objectClassInfo.getPackageName(), builder.build()).build().writeTo(appendable);
     }
 
@@ -58,13 +93,12 @@ public class TableInfoClassGenerator {
         init.add("{\n");
         init.indent();
         Set<String> columnNames = new HashSet<>();
-        for (CursorObjectClassInfo.CursorFieldInfo fieldInfo : objectClassInfo.getFieldInfoListIncludingParents()) {
-            if (fieldInfo.annotation.excludeInfo()) continue;
-            if (!columnNames.add(fieldInfo.columnName)) {
+        for (TableColumn column : getTableColumns()) {
+            if (!columnNames.add(column.name)) {
                 throw new DuplicateColumnException(String.format("Duplicate column %s.%s -> %s",
-                        objectClassInfo.objectClassName, fieldInfo.objectFieldName, fieldInfo.columnName));
+                        column.classInfo.objectClassName, column.fieldInfo.objectFieldName, column.name));
             }
-            init.add("$S, // $L.$L\n", fieldInfo.columnName, objectClassInfo.objectClassName, fieldInfo.objectFieldName);
+            init.add("$S, // $L.$L\n", column.name, column.classInfo.objectClassName, column.fieldInfo.objectFieldName);
         }
         init.unindent();
         init.add("}");
@@ -78,9 +112,8 @@ public class TableInfoClassGenerator {
         final CodeBlock.Builder init = CodeBlock.builder();
         init.add("{\n");
         init.indent();
-        for (CursorObjectClassInfo.CursorFieldInfo fieldInfo : objectClassInfo.getFieldInfoListIncludingParents()) {
-            if (fieldInfo.annotation.excludeInfo()) continue;
-            init.add("$S, // $L\n", getColumnType(fieldInfo), fieldInfo.columnName);
+        for (TableColumn column : getTableColumns()) {
+            init.add("$S, // $L\n", column.type, column.name);
         }
         init.unindent();
         init.add("}");
@@ -88,7 +121,202 @@ public class TableInfoClassGenerator {
         return builder.build();
     }
 
-    private String getColumnType(CursorObjectClassInfo.CursorFieldInfo fieldInfo) {
+    private MethodSpec createArrayGetterMethod(String name, String fieldName) {
+        final MethodSpec.Builder builder = MethodSpec.methodBuilder(name);
+        builder.addAnnotation(Override.class);
+        builder.addModifiers(Modifier.PUBLIC);
+        builder.returns(String[].class);
+        builder.addStatement("return $L", fieldName);
+        return builder.build();
+    }
+
+    private MethodSpec createGetCreateTableSqlMethod() {
+        final MethodSpec.Builder builder = MethodSpec.methodBuilder("getCreateTableSql");
+        builder.addAnnotation(Override.class);
+        builder.addModifiers(Modifier.PUBLIC);
+        builder.addParameter(String.class, "table");
+        builder.returns(String.class);
+        builder.addStatement("return \"CREATE TABLE IF NOT EXISTS \" + table + \" (\" + COLUMN_DEFINITIONS + \")\"");
+        return builder.build();
+    }
+
+    private MethodSpec createGetCreateIndexSqlMethod(List<IndexDefinition> indices) {
+        final MethodSpec.Builder builder = MethodSpec.methodBuilder("getCreateIndexSql");
+        builder.addAnnotation(Override.class);
+        builder.addModifiers(Modifier.PUBLIC);
+        builder.addParameter(String.class, "table");
+        builder.returns(String[].class);
+        final CodeBlock.Builder code = CodeBlock.builder();
+        code.add("return new $T[]{\n", String.class);
+        code.indent();
+        for (IndexDefinition index : indices) {
+            code.add("$S + table + $S + table + $S,\n", index.unique ? "CREATE UNIQUE INDEX IF NOT EXISTS "
+                    : "CREATE INDEX IF NOT EXISTS ", "_" + index.name + " ON ", index.getDefinition());
+        }
+        code.unindent();
+        code.add("};\n");
+        builder.addCode(code.build());
+        return builder.build();
+    }
+
+    private MethodSpec createGetSchemaHashMethod() {
+        final MethodSpec.Builder builder = MethodSpec.methodBuilder("getSchemaHash");
+        builder.addAnnotation(Override.class);
+        builder.addModifiers(Modifier.PUBLIC);
+        builder.returns(TypeName.INT);
+        builder.addStatement("return SCHEMA_HASH");
+        return builder.build();
+    }
+
+    /**
+     * @return Column definitions of {@code CREATE TABLE}, followed by primary key constraint if composite
+     */
+    private String getColumnDefinitions() {
+        final List<TableColumn> columns = getTableColumns();
+        final Set<String> columnNames = new HashSet<>();
+        for (TableColumn column : columns) {
+            columnNames.add(column.name);
+        }
+        CursorObjectClassInfo.CursorFieldInfo primaryKeyField = null;
+        for (CursorObjectClassInfo.CursorFieldInfo fieldInfo : objectClassInfo.getTableColumnFieldInfoList()) {
+            if (!fieldInfo.primaryKey) continue;
+            if (primaryKeyField != null) {
+                throw new IllegalArgumentException(String.format("%s has more than one primary key field, " +
+                        "use CursorObject.primaryKey for composite primary key", objectClassInfo.objectClassName));
+            }
+            primaryKeyField = fieldInfo;
+        }
+        final String[] primaryKey = getCompositePrimaryKey();
+        if (primaryKey.length > 0 && primaryKeyField != null) {
+            throw new IllegalArgumentException(String.format("%s declares both CursorObject.primaryKey and " +
+                    "primary key field %s", objectClassInfo.objectClassName, primaryKeyField.objectFieldName));
+        }
+        final StringBuilder sb = new StringBuilder();
+        for (TableColumn column : columns) {
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(column.name).append(' ').append(column.type);
+            if (column.fieldInfo == primaryKeyField) {
+                sb.append(" PRIMARY KEY");
+            }
+        }
+        if (primaryKey.length > 0) {
+            sb.append(", PRIMARY KEY (");
+            for (int i = 0; i < primaryKey.length; i++) {
+                checkColumn(columnNames, primaryKey[i], "Primary key");
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                sb.append(primaryKey[i]);
+            }
+            sb.append(')');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return Composite primary key declared by this class or the nearest parent declaring one
+     */
+    private String[] getCompositePrimaryKey() {
+        for (CursorObjectClassInfo info = objectClassInfo; info != null; info = info.parentClassInfo) {
+            final String[] primaryKey = info.objectType.getAnnotation(CursorObject.class).primaryKey();
+            if (primaryKey.length > 0) return primaryKey;
+        }
+        return new String[0];
+    }
+
+    /**
+     * @return Single column indices in field order, then composite ones of parent classes and this class
+     */
+    private List<IndexDefinition> getIndexDefinitions() {
+        final List<IndexDefinition> result = new ArrayList<>();
+        final Set<String> columnNames = new HashSet<>();
+        for (TableColumn column : getTableColumns()) {
+            columnNames.add(column.name);
+        }
+        for (CursorObjectClassInfo.CursorFieldInfo fieldInfo : objectClassInfo.getFieldInfoListIncludingParents()) {
+            final CursorIndex index = fieldInfo.index;
+            if (index == null) continue;
+            if (fieldInfo.annotation.excludeInfo()) {
+                throw new IllegalArgumentException(String.format("Indexed field %s.%s can't be excluded from " +
+                        "TableInfo", objectClassInfo.objectClassName, fieldInfo.objectFieldName));
+            }
+            if (index.columns().length > 0) {
+                throw new IllegalArgumentException(String.format("Index of field %s.%s can't declare columns",
+                        objectClassInfo.objectClassName, fieldInfo.objectFieldName));
+            }
+            result.add(new IndexDefinition(index, new String[]{fieldInfo.columnName}));
+        }
+        final List<CursorObjectClassInfo> classInfoChain = new ArrayList<>();
+        for (CursorObjectClassInfo info = objectClassInfo; info != null; info = info.parentClassInfo) {
+            classInfoChain.add(0, info);
+        }
+        for (CursorObjectClassInfo info : classInfoChain) {
+            for (CursorIndex index : info.objectType.getAnnotation(CursorObject.class).indices()) {
+                if (index.columns().length == 0) {
+                    throw new IllegalArgumentException(String.format("Index %s of %s has no columns",
+                            index.name(), info.objectClassName));
+                }
+                for (String column : index.columns()) {
+                    checkColumn(columnNames, column, "Index");
+                }
+                result.add(new IndexDefinition(index, index.columns()));
+            }
+        }
+        final Set<String> names = new HashSet<>();
+        for (IndexDefinition index : result) {
+            if (!names.add(index.name)) {
+                throw new IllegalArgumentException(String.format("Duplicate index %s in %s", index.name,
+                        objectClassInfo.objectClassName));
+            }
+        }
+        return result;
+    }
+
+    private void checkColumn(Set<String> columnNames, String column, String kind) {
+        if (!columnNames.contains(IndexDefinition.getColumnName(column))) {
+            throw new IllegalArgumentException(String.format("%s column %s is not a column of %s", kind, column,
+                    objectClassInfo.objectClassName));
+        }
+    }
+
+    private static int getSchemaHash(String columnDefinitions, List<IndexDefinition> indices) {
+        int hash = columnDefinitions.hashCode();
+        for (IndexDefinition index : indices) {
+            hash = hash * 31 + (index.unique ? 1 : 0);
+            hash = hash * 31 + index.name.hashCode();
+            hash = hash * 31 + index.getDefinition().hashCode();
+        }
+        return hash;
+    }
+
+    /**
+     * @return Columns of fields including parents, followed by prefixed columns of embedded objects
+     */
+    private List<TableColumn> getTableColumns() {
+        final List<TableColumn> result = new ArrayList<>();
+        addTableColumns(result, objectClassInfo, "", false);
+        return result;
+    }
+
+    private static void addTableColumns(List<TableColumn> result, CursorObjectClassInfo classInfo, String prefix,
+                                        boolean embedded) {
+        for (CursorObjectClassInfo.CursorFieldInfo fieldInfo : classInfo.getTableColumnFieldInfoList()) {
+            result.add(new TableColumn(prefix + fieldInfo.columnName, getColumnType(classInfo, fieldInfo, embedded),
+                    classInfo, fieldInfo));
+        }
+        for (CursorObjectClassInfo.CursorEmbeddedInfo embeddedInfo : classInfo.getEmbeddedInfoListIncludingParents()) {
+            addTableColumns(result, embeddedInfo.classInfo, prefix + embeddedInfo.prefix, true);
+        }
+    }
+
+    /**
+     * @param embedded Column of embedded object, which can't be {@code NOT NULL} since object may be null
+     */
+    private static String getColumnType(CursorObjectClassInfo objectClassInfo,
+                                        CursorObjectClassInfo.CursorFieldInfo fieldInfo, boolean embedded) {
+        final boolean nonNull = fieldInfo.nonNull && !embedded;
         String columnType = fieldInfo.annotation.type();
         if (!CursorField.AUTO.equals(columnType)) return columnType;
         TypeName fieldType = fieldInfo.type;
@@ -109,12 +337,16 @@ public class TableInfoClassGenerator {
         } else if (fieldType == TypeName.CHAR) {
             return CursorField.INTEGER;
         } else if (fieldType.equals(CursorObjectClassInfo.STRING)) {
-            return fieldInfo.nonNull ? CursorField.TEXT_NOT_NULL : CursorField.TEXT;
+            return nonNull ? CursorField.TEXT_NOT_NULL : CursorField.TEXT;
         } else {
             final ClassName converterClass = objectClassInfo.getConverter(fieldInfo.objectFieldName,
                     true);
-            if (converterClass != null) {
-                return fieldInfo.nonNull ? CursorField.TEXT_NOT_NULL : CursorField.TEXT;
+            final TypeName primitiveConverterType = objectClassInfo.getPrimitiveConverterType(
+                    fieldInfo.objectFieldName, true);
+            if (primitiveConverterType != null) {
+                return primitiveConverterType == TypeName.DOUBLE ? CursorField.FLOAT : CursorField.INTEGER;
+            } else if (converterClass != null) {
+                return nonNull ? CursorField.TEXT_NOT_NULL : CursorField.TEXT;
             } else if (fieldType instanceof ArrayTypeName) {
                 if (((ArrayTypeName) fieldType).componentType == TypeName.BYTE) {
                     return CursorField.BLOB;
@@ -125,8 +357,76 @@ public class TableInfoClassGenerator {
                 objectClassInfo.objectClassName, fieldInfo.objectFieldName));
     }
 
+    static class TableColumn {
+        final String name;
+        final String type;
+        final CursorObjectClassInfo classInfo;
+        final CursorObjectClassInfo.CursorFieldInfo fieldInfo;
+
+        TableColumn(String name, String type, CursorObjectClassInfo classInfo,
+                    CursorObjectClassInfo.CursorFieldInfo fieldInfo) {
+            this.name = name;
+            this.type = type;
+            this.classInfo = classInfo;
+            this.fieldInfo = fieldInfo;
+        }
+    }
+
+    static class IndexDefinition {
+        final String name;
+        final String[] columns;
+        final boolean unique;
+        final String where;
+
+        IndexDefinition(CursorIndex index, String[] columns) {
+            this.columns = columns;
+            this.unique = index.unique();
+            this.where = index.where();
+            if (index.name().isEmpty()) {
+                final StringBuilder sb = new StringBuilder();
+                for (String column : columns) {
+                    if (sb.length() > 0) {
+                        sb.append('_');
+                    }
+                    sb.append(getColumnName(column));
+                }
+                this.name = sb.toString();
+            } else {
+                this.name = index.name();
+            }
+        }
+
+        /**
+         * @return Part after table name, e.g. {@code (account_id, timestamp DESC) WHERE is_gap = 0}
+         */
+        String getDefinition() {
+            final StringBuilder sb = new StringBuilder(" (");
+            for (int i = 0; i < columns.length; i++) {
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                sb.append(columns[i].trim());
+            }
+            sb.append(')');
+            if (!where.isEmpty()) {
+                sb.append(" WHERE ").append(where);
+            }
+            return sb.toString();
+        }
+
+        /**
+         * @return Column name without ordering or collation
+         */
+        static String getColumnName(String column) {
+            final String trimmed = column.trim();
+            final int space = trimmed.indexOf(' ');
+            return space < 0 ? trimmed : trimmed.substring(0, space);
+        }
+    }
+
     public void saveValuesCreatorFile(Filer filer, Elements elements, Types types) throws IOException {
-        JavaFileObject fileObj = filer.createSourceFile(infoClassName.toString());
+        JavaFileObject fileObj = filer.createSourceFile(infoClassName.toString(),
+                objectClassInfo.getOriginatingElements());
         try (Writer writer = fileObj.openWriter()) {
             writeContent(writer, elements, types);
             writer.flush();
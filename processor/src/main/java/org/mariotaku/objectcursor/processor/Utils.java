@@ -3,8 +3,10 @@ package org.mariotaku.objectcursor.processor;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.TypeKind;
-import javax.lang.model.util.ElementFilter;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.TypeVariable;
 import javax.lang.model.util.Elements;
 import java.util.ArrayList;
 import java.util.List;
@@ -15,6 +17,10 @@ import java.util.List;
 public class Utils {
 
     public static String getGetter(Element element, Elements elements) {
+        return getGetter(element, new MemberCache(elements));
+    }
+
+    public static String getGetter(Element element, MemberCache memberCache) {
         TypeElement enclosingElement = (TypeElement) element.getEnclosingElement();
 
         TypeKind elementTypeKind = element.asType().getKind();
@@ -40,18 +46,11 @@ public class Utils {
             }
         }
 
-        List<? extends Element> elementMembers = elements.getAllMembers(enclosingElement);
-        List<ExecutableElement> elementMethods = ElementFilter.methodsIn(elementMembers);
-        for (ExecutableElement methodElement : elementMethods) {
-            if (methodElement.getParameters().size() == 0) {
-                String methodNameString = methodElement.getSimpleName().toString();
-                String methodNameLowerCase = methodNameString.toLowerCase();
-
-                if (possibleMethodNames.contains(methodNameLowerCase)) {
-                    if (methodElement.getParameters().size() == 0) {
-                        if (methodElement.getReturnType().toString().equals(element.asType().toString())) {
-                            return methodNameString;
-                        }
+        for (String possibleMethodName : possibleMethodNames) {
+            for (ExecutableElement methodElement : memberCache.getMethods(enclosingElement, possibleMethodName)) {
+                if (methodElement.getParameters().size() == 0) {
+                    if (methodElement.getReturnType().toString().equals(element.asType().toString())) {
+                        return methodElement.getSimpleName().toString();
                     }
                 }
             }
@@ -61,6 +60,10 @@ public class Utils {
     }
 
     public static String getSetter(Element element, Elements elements) {
+        return getSetter(element, new MemberCache(elements));
+    }
+
+    public static String getSetter(Element element, MemberCache memberCache) {
         TypeElement enclosingElement = (TypeElement) element.getEnclosingElement();
 
         String elementName = element.getSimpleName().toString();
@@ -74,16 +77,11 @@ public class Utils {
             possibleMethodNames.add("set" + elementNameLowerCase.substring(1));
         }
 
-        List<? extends Element> elementMembers = elements.getAllMembers(enclosingElement);
-        List<ExecutableElement> elementMethods = ElementFilter.methodsIn(elementMembers);
-        for (ExecutableElement methodElement : elementMethods) {
-            String methodNameString = methodElement.getSimpleName().toString();
-            String methodNameLowerCase = methodNameString.toLowerCase();
-
-            if (possibleMethodNames.contains(methodNameLowerCase)) {
+        for (String possibleMethodName : possibleMethodNames) {
+            for (ExecutableElement methodElement : memberCache.getMethods(enclosingElement, possibleMethodName)) {
                 if (methodElement.getParameters().size() == 1) {
                     if (methodElement.getParameters().get(0).asType().toString().equals(element.asType().toString())) {
-                        return methodNameString;
+                        return methodElement.getSimpleName().toString();
                     }
                 }
             }
@@ -91,4 +89,48 @@ public class Utils {
 
         return null;
     }
+
+    public static boolean isSubtypeOf(TypeElement type, String qualifiedName) {
+        if (type == null) return false;
+        if (type.getQualifiedName().contentEquals(qualifiedName)) return true;
+        for (TypeMirror anInterface : type.getInterfaces()) {
+            if (anInterface.getKind() == TypeKind.DECLARED
+                    && isSubtypeOf((TypeElement) ((DeclaredType) anInterface).asElement(), qualifiedName)) {
+                return true;
+            }
+        }
+        final TypeMirror superclass = type.getSuperclass();
+        return superclass.getKind() == TypeKind.DECLARED
+                && isSubtypeOf((TypeElement) ((DeclaredType) superclass).asElement(), qualifiedName);
+    }
+
+    /**
+     * @return Type argument {@code index} of {@code qualifiedName} as implemented by {@code type}, type variables
+     * of generic super types are resolved. Null if {@code type} is not its subtype, or argument is still a type
+     * variable.
+     */
+    public static TypeMirror getTypeArgument(TypeMirror type, String qualifiedName, int index) {
+        if (type.getKind() != TypeKind.DECLARED) return null;
+        final DeclaredType declaredType = (DeclaredType) type;
+        final TypeElement element = (TypeElement) declaredType.asElement();
+        if (element.getQualifiedName().contentEquals(qualifiedName)) {
+            final List<? extends TypeMirror> arguments = declaredType.getTypeArguments();
+            return index < arguments.size() ? arguments.get(index) : null;
+        }
+        final List<TypeMirror> superTypes = new ArrayList<>(element.getInterfaces());
+        superTypes.add(element.getSuperclass());
+        for (TypeMirror superType : superTypes) {
+            final TypeMirror argument = getTypeArgument(superType, qualifiedName, index);
+            if (argument == null) continue;
+            if (argument.getKind() != TypeKind.TYPEVAR) return argument;
+            // Declared as type parameter of this type, take actual argument
+            final Element variable = ((TypeVariable) argument).asElement();
+            final int position = element.getTypeParameters().indexOf(variable);
+            final List<? extends TypeMirror> arguments = declaredType.getTypeArguments();
+            if (position < 0 || position >= arguments.size()) return null;
+            final TypeMirror actual = arguments.get(position);
+            return actual.getKind() == TypeKind.TYPEVAR ? null : actual;
+        }
+        return null;
+    }
 }
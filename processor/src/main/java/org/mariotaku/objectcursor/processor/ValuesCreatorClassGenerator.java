@@ -11,16 +11,21 @@ import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
 
+import org.mariotaku.library.objectcursor.CursorSnapshot;
 import org.mariotaku.library.objectcursor.ObjectCursor;
 import org.mariotaku.library.objectcursor.annotation.CursorObject;
 import org.mariotaku.library.objectcursor.internal.ParameterizedTypeImpl;
+import org.mariotaku.library.objectcursor.internal.Snapshots;
+import org.mariotaku.library.objectcursor.metrics.Metrics;
 
 import java.io.IOException;
 import java.io.Writer;
 import java.lang.reflect.ParameterizedType;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 
 import javax.annotation.processing.Filer;
 import javax.lang.model.element.Element;
@@ -72,6 +77,10 @@ public class ValuesCreatorClassGenerator {
                 .initializer("new $T()", typeName)
                 .build());
 
+        builder.addField(FieldSpec.builder(TypeName.INT, "COLUMN_COUNT", Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                .initializer("$L", getColumnCount())
+                .build());
+
         builder.addFields(getConverterFields());
 
         builder.addFields(getTypeFields());
@@ -80,14 +89,34 @@ public class ValuesCreatorClassGenerator {
 
         builder.addMethod(createWriteToMethod(parentCreatorClass));
 
+        builder.addMethod(createWriteChangedToMethod());
+
+        builder.addMethod(createWriteChangedToWithScratchMethod(parentCreatorClass));
+
+        builder.addMethod(createUpdateSnapshotMethod());
+
+        builder.addMethod(createUpdateSnapshotWithScratchMethod());
+
+        if (objectClassInfo.wantTrackChanges) {
+            builder.addMethod(createUpdateSnapshotSlotsMethod(parentCreatorClass));
+        }
+
         builder.addMethod(createCreateMethod());
 
+        builder.addMethod(createCreateWithValuesMethod());
+
+        builder.addMethod(createGetColumnCountMethod());
+
         JavaFile.builder(objectClassInfo.getPackageName(), builder.build()).build().writeTo(appendable);
     }
 
     private List<FieldSpec> getConverterFields() {
+        final Set<ClassName> converters = new LinkedHashSet<>(objectClassInfo.getCustomConverters());
+        for (CursorObjectClassInfo embeddedClassInfo : getEmbeddedClassInfoList(objectClassInfo.embeddedInfoList)) {
+            converters.addAll(embeddedClassInfo.getCustomConvertersIncludingParents());
+        }
         List<FieldSpec> fieldSpecs = new ArrayList<>();
-        for (ClassName converterClass : objectClassInfo.getCustomConverters()) {
+        for (ClassName converterClass : converters) {
             fieldSpecs.add(FieldSpec.builder(converterClass, getConverterFieldName(converterClass), Modifier.FINAL, Modifier.STATIC)
                     .initializer("new $T()", converterClass)
                     .build());
@@ -96,8 +125,12 @@ public class ValuesCreatorClassGenerator {
     }
 
     private List<FieldSpec> getTypeFields() {
+        final Set<TypeName> types = new LinkedHashSet<>(objectClassInfo.getCustomTypes());
+        for (CursorObjectClassInfo embeddedClassInfo : getEmbeddedClassInfoList(objectClassInfo.embeddedInfoList)) {
+            types.addAll(embeddedClassInfo.getCustomTypesIncludingParents());
+        }
         List<FieldSpec> fieldSpecs = new ArrayList<>();
-        for (TypeName typeName : objectClassInfo.getCustomTypes()) {
+        for (TypeName typeName : types) {
             // String field is not a custom type
             if (CursorObjectClassInfo.STRING.equals(typeName)) continue;
             final FieldSpec.Builder builder = FieldSpec.builder(ParameterizedType.class,
@@ -122,6 +155,19 @@ public class ValuesCreatorClassGenerator {
         return fieldSpecs;
     }
 
+    /**
+     * @return Class info of embedded types, including types embedded by them, their fields are written inline
+     */
+    private static List<CursorObjectClassInfo> getEmbeddedClassInfoList(
+            List<CursorObjectClassInfo.CursorEmbeddedInfo> embeddedInfoList) {
+        final List<CursorObjectClassInfo> result = new ArrayList<>();
+        for (CursorObjectClassInfo.CursorEmbeddedInfo embeddedInfo : embeddedInfoList) {
+            result.add(embeddedInfo.classInfo);
+            result.addAll(getEmbeddedClassInfoList(embeddedInfo.classInfo.getEmbeddedInfoListIncludingParents()));
+        }
+        return result;
+    }
+
     private MethodSpec createWriteToMethod(ClassName parentCreatorClass) {
         final MethodSpec.Builder builder = MethodSpec.methodBuilder("writeTo");
         builder.addAnnotation(Override.class);
@@ -138,12 +184,76 @@ public class ValuesCreatorClassGenerator {
             builder.addStatement("$T.INSTANCE.writeTo(instance, values)", parentCreatorClass);
         }
 
-        for (CursorObjectClassInfo.CursorFieldInfo fieldInfo : objectClassInfo.getFieldInfoList()) {
+        final List<CursorObjectClassInfo.CursorFieldInfo> fieldInfoList = objectClassInfo.getFieldInfoList();
+        for (int i = 0, j = fieldInfoList.size(); i < j; i++) {
+            final CursorObjectClassInfo.CursorFieldInfo fieldInfo = fieldInfoList.get(i);
             if (!fieldInfo.annotation.excludeWrite()) {
+                addMeasuredSetValueStatement(builder, fieldInfo, i);
+            }
+        }
+
+        addEmbeddedValuesStatements(builder);
+
+        for (Element element : objectClassInfo.afterValueWrite) {
+            builder.addStatement("instance.$L(values)", element.getSimpleName());
+        }
+
+        return builder.build();
+    }
+
+    private MethodSpec createWriteChangedToMethod() {
+        final MethodSpec.Builder builder = MethodSpec.methodBuilder("writeChangedTo");
+        builder.addAnnotation(Override.class);
+        builder.addModifiers(Modifier.PUBLIC);
+        builder.addParameter(objectClassInfo.objectClassName, "instance");
+        builder.addParameter(ContentValues.class, "values");
+        builder.addException(IOException.class);
+        builder.addStatement("writeChangedTo(instance, values, null)");
+        return builder.build();
+    }
+
+    private MethodSpec createWriteChangedToWithScratchMethod(ClassName parentCreatorClass) {
+        final MethodSpec.Builder builder = MethodSpec.methodBuilder("writeChangedTo");
+        builder.addAnnotation(Override.class);
+        builder.addModifiers(Modifier.PUBLIC);
+        builder.addParameter(objectClassInfo.objectClassName, "instance");
+        builder.addParameter(ContentValues.class, "values");
+        builder.addParameter(ContentValues.class, "scratch");
+        builder.addException(IOException.class);
+
+        if (!objectClassInfo.wantTrackChanges) {
+            builder.addStatement("writeTo(instance, values)");
+            return builder.build();
+        }
+
+        builder.addStatement("final $T snapshot = instance.getCursorSnapshot()", CursorSnapshot.class);
+        builder.beginControlFlow("if (snapshot == null)");
+        builder.addStatement("writeTo(instance, values)");
+        builder.addStatement("return");
+        builder.endControlFlow();
+
+        for (Element element : objectClassInfo.beforeValueWrite) {
+            builder.addStatement("instance.$L(values)", element.getSimpleName());
+        }
+
+        final String scratchCode = addConvertedStatement(builder);
+        if (parentCreatorClass != null) {
+            builder.addStatement("$T.INSTANCE.writeChangedTo(instance, values, $L)", parentCreatorClass, scratchCode);
+        }
+
+        for (CursorObjectClassInfo.CursorFieldInfo fieldInfo : objectClassInfo.getFieldInfoList()) {
+            if (fieldInfo.annotation.excludeWrite()) continue;
+            if (fieldInfo.columnName.isEmpty()) {
+                // Not in snapshot, always write
                 addSetValueStatement(builder, fieldInfo);
+            } else {
+                addChangedValueStatement(builder, fieldInfo);
             }
         }
 
+        // Embedded objects are not in snapshot, always write
+        addEmbeddedValuesStatements(builder);
+
         for (Element element : objectClassInfo.afterValueWrite) {
             builder.addStatement("instance.$L(values)", element.getSimpleName());
         }
@@ -151,6 +261,316 @@ public class ValuesCreatorClassGenerator {
         return builder.build();
     }
 
+    private MethodSpec createUpdateSnapshotMethod() {
+        final MethodSpec.Builder builder = MethodSpec.methodBuilder("updateSnapshot");
+        builder.addAnnotation(Override.class);
+        builder.addModifiers(Modifier.PUBLIC);
+        builder.addParameter(objectClassInfo.objectClassName, "instance");
+        builder.addException(IOException.class);
+        if (!objectClassInfo.wantTrackChanges) return builder.build();
+        builder.addStatement("updateSnapshot(instance, null)");
+        return builder.build();
+    }
+
+    private MethodSpec createUpdateSnapshotWithScratchMethod() {
+        final MethodSpec.Builder builder = MethodSpec.methodBuilder("updateSnapshot");
+        builder.addAnnotation(Override.class);
+        builder.addModifiers(Modifier.PUBLIC);
+        builder.addParameter(objectClassInfo.objectClassName, "instance");
+        builder.addParameter(ContentValues.class, "scratch");
+        builder.addException(IOException.class);
+        if (!objectClassInfo.wantTrackChanges) return builder.build();
+
+        builder.addStatement("$T snapshot = instance.getCursorSnapshot()", CursorSnapshot.class);
+        builder.beginControlFlow("if (snapshot == null)");
+        builder.addStatement("snapshot = new $T($L, $L)", CursorSnapshot.class,
+                objectClassInfo.getSnapshotLongCount(), objectClassInfo.getSnapshotObjectCount());
+        builder.addStatement("updateSnapshot(instance, snapshot, true, scratch)");
+        builder.addStatement("instance.setCursorSnapshot(snapshot)");
+        builder.nextControlFlow("else");
+        builder.addStatement("updateSnapshot(instance, snapshot, false, scratch)");
+        builder.endControlFlow();
+        return builder.build();
+    }
+
+    /**
+     * Generates {@code updateSnapshot(T, CursorSnapshot, boolean, ContentValues)}, used by subclasses to update slots
+     * of parent fields
+     */
+    private MethodSpec createUpdateSnapshotSlotsMethod(ClassName parentCreatorClass) {
+        final MethodSpec.Builder builder = MethodSpec.methodBuilder("updateSnapshot");
+        builder.addJavadoc("@param all     Fill absent slots as well\n");
+        builder.addJavadoc("@param scratch Values used by converters only, or null to create one when needed\n");
+        builder.addModifiers(Modifier.PUBLIC);
+        builder.addParameter(objectClassInfo.objectClassName, "instance");
+        builder.addParameter(CursorSnapshot.class, "snapshot");
+        builder.addParameter(TypeName.BOOLEAN, "all");
+        builder.addParameter(ContentValues.class, "scratch");
+        builder.addException(IOException.class);
+
+        final String scratchCode = addConvertedStatement(builder);
+        if (parentCreatorClass != null && objectClassInfo.isParentTrackChanges()) {
+            builder.addStatement("$T.INSTANCE.updateSnapshot(instance, snapshot, all, $L)", parentCreatorClass,
+                    scratchCode);
+        }
+        for (CursorObjectClassInfo.CursorFieldInfo fieldInfo : objectClassInfo.getFieldInfoList()) {
+            // Not written by writeChangedTo, so values in database are still the old ones
+            if (fieldInfo.annotation.excludeWrite() || fieldInfo.columnName.isEmpty()) continue;
+            final String readAccessCode = fieldInfo.getReadAccessCode();
+            final int slot = objectClassInfo.getSnapshotSlot(fieldInfo);
+            final TypeName primitiveConverterType = objectClassInfo.getPrimitiveConverterType(
+                    fieldInfo.objectFieldName, false);
+            if (objectClassInfo.isLongInSnapshot(fieldInfo) && primitiveConverterType != null) {
+                final ClassName converterClass = objectClassInfo.getConverter(fieldInfo.objectFieldName, false);
+                builder.beginControlFlow("if (all || snapshot.hasLong($L))", slot);
+                builder.beginControlFlow("if (instance.$L != null)", readAccessCode);
+                builder.addStatement("snapshot.put$L($L, $L.to$L(instance.$L))",
+                        objectClassInfo.getSnapshotLongSuffix(fieldInfo), slot, getConverterFieldName(converterClass),
+                        CursorObjectClassInfo.getPrimitiveConverterSuffix(primitiveConverterType), readAccessCode);
+                builder.nextControlFlow("else");
+                builder.addStatement("snapshot.putLongNull($L)", slot);
+                builder.endControlFlow();
+                builder.endControlFlow();
+                continue;
+            } else if (objectClassInfo.isLongInSnapshot(fieldInfo)) {
+                builder.beginControlFlow("if (all || snapshot.hasLong($L))", slot);
+                builder.addStatement("snapshot.put$L($L, instance.$L)",
+                        objectClassInfo.getSnapshotLongSuffix(fieldInfo), slot, readAccessCode);
+                builder.endControlFlow();
+                continue;
+            }
+            builder.beginControlFlow("if (all || snapshot.hasObject($L))", slot);
+            if (!objectClassInfo.isSerializedInSnapshot(fieldInfo)) {
+                if (fieldInfo.type instanceof ArrayTypeName) {
+                    builder.addStatement("snapshot.putObject($L, $T.copyOf(instance.$L))", slot, Snapshots.class,
+                            readAccessCode);
+                } else {
+                    builder.addStatement("snapshot.putObject($L, instance.$L)", slot, readAccessCode);
+                }
+                builder.endControlFlow();
+                continue;
+            }
+            final ClassName converterClass = objectClassInfo.getConverter(fieldInfo.objectFieldName, false);
+            if (fieldInfo.lazy) {
+                builder.beginControlFlow("if (instance.$L == null)", readAccessCode);
+                builder.addStatement("snapshot.putObject($L, null)", slot);
+                builder.nextControlFlow("else if (!instance.$L.isHydrated())", readAccessCode);
+                builder.addStatement("snapshot.putObject($L, instance.$L.getRawValue())", slot, readAccessCode);
+                builder.nextControlFlow("else");
+                builder.addStatement("converted.clear()");
+                builder.addStatement("instance.$L.writeTo(converted, $S, $L, $L)", readAccessCode,
+                        fieldInfo.columnName, getConverterFieldName(converterClass),
+                        getConverterFieldName(fieldInfo.valueType));
+                builder.addStatement("snapshot.putObject($L, converted.get($S))", slot, fieldInfo.columnName);
+                builder.endControlFlow();
+            } else {
+                builder.addStatement("converted.clear()");
+                builder.addStatement("$L.writeField(converted, instance.$L, $S, $L)",
+                        getConverterFieldName(converterClass), readAccessCode, fieldInfo.columnName,
+                        getConverterFieldName(fieldInfo.valueType));
+                builder.addStatement("snapshot.putObject($L, converted.get($S))", slot, fieldInfo.columnName);
+            }
+            builder.endControlFlow();
+        }
+        return builder.build();
+    }
+
+    /**
+     * Declares {@code converted} from {@code scratch} if own fields need it
+     *
+     * @return Scratch values to pass to parent class, the one created here is shared as well
+     */
+    private String addConvertedStatement(MethodSpec.Builder builder) {
+        if (!hasSerializedSnapshotFields()) return "scratch";
+        builder.addStatement("final $T converted = scratch != null ? scratch : new $T()", ContentValues.class,
+                ContentValues.class);
+        return "converted";
+    }
+
+    /**
+     * @return True if any own written field holds raw column value in snapshot
+     */
+    private boolean hasSerializedSnapshotFields() {
+        for (CursorObjectClassInfo.CursorFieldInfo fieldInfo : objectClassInfo.getFieldInfoList()) {
+            if (!fieldInfo.annotation.excludeWrite() && !fieldInfo.columnName.isEmpty()
+                    && objectClassInfo.isSerializedInSnapshot(fieldInfo)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes own embedded objects, columns are set to null if object is null
+     */
+    private void addEmbeddedValuesStatements(MethodSpec.Builder builder) {
+        for (CursorObjectClassInfo.CursorEmbeddedInfo embeddedInfo : objectClassInfo.embeddedInfoList) {
+            addEmbeddedValuesStatements(builder, embeddedInfo, "instance", "");
+        }
+    }
+
+    /**
+     * Puts fields of embedded object with prefixed column names directly, no intermediate ContentValues is created
+     *
+     * @param instanceCode Expression of object holding embedded field
+     * @param prefix       Column prefix of object holding embedded field
+     */
+    private void addEmbeddedValuesStatements(MethodSpec.Builder builder,
+                                             CursorObjectClassInfo.CursorEmbeddedInfo embeddedInfo,
+                                             String instanceCode, String prefix) {
+        final CursorObjectClassInfo embeddedClassInfo = embeddedInfo.classInfo;
+        final String embeddedPrefix = prefix + embeddedInfo.prefix;
+        final String embeddedCode = instanceCode + "." + embeddedInfo.getReadAccessCode();
+        // Parent classes first, same order as their columns
+        final List<CursorObjectClassInfo> classInfoList = new ArrayList<>();
+        for (CursorObjectClassInfo info = embeddedClassInfo; info != null; info = info.parentClassInfo) {
+            // Callbacks expect column names without prefix
+            if (!info.beforeValueWrite.isEmpty() || !info.afterValueWrite.isEmpty()) {
+                throw new IllegalArgumentException(String.format("Embedded type %s can't have value write callbacks",
+                        embeddedInfo.type));
+            }
+            classInfoList.add(0, info);
+        }
+        builder.beginControlFlow("if ($L != null)", embeddedCode);
+        for (CursorObjectClassInfo info : classInfoList) {
+            for (CursorObjectClassInfo.CursorFieldInfo fieldInfo : info.getFieldInfoList()) {
+                if (fieldInfo.annotation.excludeWrite() || fieldInfo.columnName.isEmpty()) continue;
+                addSetValueStatement(builder, info, fieldInfo, embeddedCode, embeddedPrefix + fieldInfo.columnName);
+            }
+        }
+        for (CursorObjectClassInfo.CursorEmbeddedInfo nestedInfo : embeddedClassInfo.getEmbeddedInfoListIncludingParents()) {
+            addEmbeddedValuesStatements(builder, nestedInfo, embeddedCode, embeddedPrefix);
+        }
+        builder.nextControlFlow("else");
+        for (String columnName : embeddedClassInfo.getWriteColumnNames(embeddedPrefix)) {
+            builder.addStatement("values.putNull($S)", columnName);
+        }
+        builder.endControlFlow();
+    }
+
+    private MethodSpec createCreateWithValuesMethod() {
+        final MethodSpec.Builder builder = MethodSpec.methodBuilder("create");
+        builder.addAnnotation(Override.class);
+        builder.addModifiers(Modifier.PUBLIC);
+        builder.addParameter(objectClassInfo.objectClassName, "object");
+        builder.addParameter(ContentValues.class, "values");
+        builder.addException(IOException.class);
+        builder.returns(ContentValues.class);
+
+        builder.beginControlFlow("if (values == null)");
+        builder.addStatement("values = new $T(COLUMN_COUNT)", ContentValues.class);
+        builder.nextControlFlow("else");
+        builder.addStatement("values.clear()");
+        builder.endControlFlow();
+        builder.addStatement("writeTo(object, values)");
+        if (objectClassInfo.generateMetrics) {
+            builder.addStatement("$T.get().onValuesCreated($T.class, values.size())", Metrics.class,
+                    objectClassInfo.objectClassName);
+        }
+        builder.addStatement("return values");
+        return builder.build();
+    }
+
+    private MethodSpec createGetColumnCountMethod() {
+        final MethodSpec.Builder builder = MethodSpec.methodBuilder("getColumnCount");
+        builder.addAnnotation(Override.class);
+        builder.addModifiers(Modifier.PUBLIC);
+        builder.returns(TypeName.INT);
+        builder.addStatement("return COLUMN_COUNT");
+        return builder.build();
+    }
+
+    /**
+     * @return Columns written by writeTo, including ones of parent classes and embedded objects
+     */
+    private int getColumnCount() {
+        int count = 0;
+        for (CursorObjectClassInfo.CursorFieldInfo fieldInfo : objectClassInfo.getFieldInfoListIncludingParents()) {
+            if (!fieldInfo.annotation.excludeWrite()) {
+                count++;
+            }
+        }
+        for (CursorObjectClassInfo.CursorEmbeddedInfo embeddedInfo : objectClassInfo.getEmbeddedInfoListIncludingParents()) {
+            count += embeddedInfo.classInfo.getWriteColumnNames(embeddedInfo.prefix).size();
+        }
+        return count;
+    }
+
+    private void addMeasuredSetValueStatement(MethodSpec.Builder builder,
+                                              CursorObjectClassInfo.CursorFieldInfo fieldInfo, int fieldIndex) {
+        if (!objectClassInfo.generateMetrics || !objectClassInfo.isConvertedField(fieldInfo, true)) {
+            addSetValueStatement(builder, fieldInfo);
+            return;
+        }
+        final String startName = "writeStart" + fieldIndex;
+        builder.addStatement("final long $L = System.nanoTime()", startName);
+        addSetValueStatement(builder, fieldInfo);
+        builder.addStatement("$T.get().onConverterWrite($T.class, System.nanoTime() - $L)", Metrics.class,
+                objectClassInfo.getConverter(fieldInfo.objectFieldName, false), startName);
+    }
+
+    private void addChangedValueStatement(MethodSpec.Builder builder, CursorObjectClassInfo.CursorFieldInfo fieldInfo) {
+        final String readAccessCode = fieldInfo.getReadAccessCode();
+        final int slot = objectClassInfo.getSnapshotSlot(fieldInfo);
+        final TypeName primitiveConverterType = objectClassInfo.getPrimitiveConverterType(fieldInfo.objectFieldName,
+                false);
+        if (objectClassInfo.isLongInSnapshot(fieldInfo) && primitiveConverterType != null) {
+            // Converted once, compared and written as column value
+            final ClassName converterClass = objectClassInfo.getConverter(fieldInfo.objectFieldName, false);
+            final String columnValueName = fieldInfo.objectFieldName + "Column";
+            builder.beginControlFlow("if (instance.$L != null)", readAccessCode);
+            builder.addStatement("final $T $L = $L.to$L(instance.$L)", primitiveConverterType, columnValueName,
+                    getConverterFieldName(converterClass),
+                    CursorObjectClassInfo.getPrimitiveConverterSuffix(primitiveConverterType), readAccessCode);
+            builder.beginControlFlow("if (snapshot.is$LChanged($L, $L))",
+                    objectClassInfo.getSnapshotLongSuffix(fieldInfo), slot, columnValueName);
+            builder.addStatement("values.put($S, $L)", fieldInfo.columnName, columnValueName);
+            builder.endControlFlow();
+            builder.nextControlFlow("else if (snapshot.isLongNullChanged($L))", slot);
+            builder.addStatement("values.putNull($S)", fieldInfo.columnName);
+            builder.endControlFlow();
+            return;
+        } else if (objectClassInfo.isLongInSnapshot(fieldInfo)) {
+            builder.beginControlFlow("if (snapshot.is$LChanged($L, instance.$L))",
+                    objectClassInfo.getSnapshotLongSuffix(fieldInfo), slot, readAccessCode);
+            addSetValueStatement(builder, fieldInfo);
+            builder.endControlFlow();
+            return;
+        } else if (!objectClassInfo.isSerializedInSnapshot(fieldInfo)) {
+            builder.beginControlFlow("if (snapshot.isObjectChanged($L, instance.$L))", slot, readAccessCode);
+            addSetValueStatement(builder, fieldInfo);
+            builder.endControlFlow();
+            return;
+        }
+        final ClassName converterClass = objectClassInfo.getConverter(fieldInfo.objectFieldName, false);
+        // Column not in projection
+        builder.beginControlFlow("if (snapshot.hasObject($L))", slot);
+        if (fieldInfo.lazy) {
+            builder.beginControlFlow("if (instance.$L == null)", readAccessCode);
+            builder.beginControlFlow("if (snapshot.getObject($L) != null)", slot);
+            builder.addStatement("values.putNull($S)", fieldInfo.columnName);
+            builder.endControlFlow();
+            // Untouched lazy field holds the same raw value as snapshot
+            builder.nextControlFlow("else if (instance.$L.isHydrated() || instance.$L.getRawValue() != snapshot.getObject($L))",
+                    readAccessCode, readAccessCode, slot);
+            builder.addStatement("converted.clear()");
+            builder.addStatement("instance.$L.writeTo(converted, $S, $L, $L)", readAccessCode, fieldInfo.columnName,
+                    getConverterFieldName(converterClass), getConverterFieldName(fieldInfo.valueType));
+        } else {
+            builder.addStatement("converted.clear()");
+            builder.addStatement("$L.writeField(converted, instance.$L, $S, $L)", getConverterFieldName(converterClass),
+                    readAccessCode, fieldInfo.columnName, getConverterFieldName(fieldInfo.valueType));
+        }
+        builder.beginControlFlow("if ($T.changed(snapshot.getObject($L), converted.get($S)))", Snapshots.class, slot,
+                fieldInfo.columnName);
+        builder.addStatement("values.putAll(converted)");
+        builder.endControlFlow();
+        if (fieldInfo.lazy) {
+            builder.endControlFlow();
+        }
+        builder.endControlFlow();
+    }
+
     private MethodSpec createCreateMethod() {
         final MethodSpec.Builder builder = MethodSpec.methodBuilder("create");
         builder.addAnnotation(Override.class);
@@ -159,14 +579,28 @@ public class ValuesCreatorClassGenerator {
         builder.addException(IOException.class);
         builder.returns(ContentValues.class);
 
-        builder.addStatement("$T values = new $T()", ContentValues.class, ContentValues.class);
+        builder.addStatement("$T values = new $T(COLUMN_COUNT)", ContentValues.class, ContentValues.class);
         builder.addStatement("writeTo(object, values)");
+        if (objectClassInfo.generateMetrics) {
+            builder.addStatement("$T.get().onValuesCreated($T.class, values.size())", Metrics.class,
+                    objectClassInfo.objectClassName);
+        }
         builder.addStatement("return values");
         return builder.build();
     }
 
     private void addSetValueStatement(MethodSpec.Builder builder, CursorObjectClassInfo.CursorFieldInfo fieldInfo)
             throws UnsupportedFieldTypeException {
+        addSetValueStatement(builder, objectClassInfo, fieldInfo, "instance", fieldInfo.columnName);
+    }
+
+    /**
+     * @param classInfo    Class declaring {@code fieldInfo}
+     * @param instanceCode Expression of object holding the field
+     */
+    private void addSetValueStatement(MethodSpec.Builder builder, CursorObjectClassInfo classInfo,
+                                      CursorObjectClassInfo.CursorFieldInfo fieldInfo, String instanceCode,
+                                      String columnName) throws UnsupportedFieldTypeException {
         boolean supported = true;
         TypeName fieldType = fieldInfo.type;
         try {
@@ -175,33 +609,53 @@ public class ValuesCreatorClassGenerator {
             // Ignore
         }
         final String readAccessCode = fieldInfo.useGetter() ? fieldInfo.objectFieldGetter + "()" : fieldInfo.objectFieldName;
-        if (fieldType == TypeName.BOOLEAN) {
-            builder.addStatement("values.put($S, instance.$L)", fieldInfo.columnName, readAccessCode);
+        final TypeName primitiveConverterType = classInfo.getPrimitiveConverterType(fieldInfo.objectFieldName,
+                false);
+        if (fieldInfo.lazy) {
+            final ClassName converterClass = classInfo.getConverter(fieldInfo.objectFieldName, false);
+            builder.beginControlFlow("if ($L.$L != null)", instanceCode, readAccessCode);
+            builder.addStatement("$L.$L.writeTo(values, $S, $L, $L)", instanceCode, readAccessCode, columnName,
+                    getConverterFieldName(converterClass), getConverterFieldName(fieldInfo.valueType));
+            builder.nextControlFlow("else");
+            builder.addStatement("values.putNull($S)", columnName);
+            builder.endControlFlow();
+        } else if (primitiveConverterType != null) {
+            final ClassName converterClass = classInfo.getConverter(fieldInfo.objectFieldName, false);
+            builder.beginControlFlow("if ($L.$L != null)", instanceCode, readAccessCode);
+            builder.addStatement("values.put($S, $L.to$L($L.$L))", columnName,
+                    getConverterFieldName(converterClass),
+                    CursorObjectClassInfo.getPrimitiveConverterSuffix(primitiveConverterType), instanceCode,
+                    readAccessCode);
+            builder.nextControlFlow("else");
+            builder.addStatement("values.putNull($S)", columnName);
+            builder.endControlFlow();
+        } else if (fieldType == TypeName.BOOLEAN) {
+            builder.addStatement("values.put($S, $L.$L)", columnName, instanceCode, readAccessCode);
         } else if (fieldType == TypeName.BYTE) {
-            builder.addStatement("values.put($S, instance.$L)", fieldInfo.columnName, readAccessCode);
+            builder.addStatement("values.put($S, $L.$L)", columnName, instanceCode, readAccessCode);
         } else if (fieldType == TypeName.CHAR) {
-            builder.addStatement("values.put($S, (int) instance.$L)", fieldInfo.columnName, readAccessCode);
+            builder.addStatement("values.put($S, (int) $L.$L)", columnName, instanceCode, readAccessCode);
         } else if (fieldType == TypeName.SHORT) {
-            builder.addStatement("values.put($S, instance.$L)", fieldInfo.columnName, readAccessCode);
+            builder.addStatement("values.put($S, $L.$L)", columnName, instanceCode, readAccessCode);
         } else if (fieldType == TypeName.INT) {
-            builder.addStatement("values.put($S, instance.$L)", fieldInfo.columnName, readAccessCode);
+            builder.addStatement("values.put($S, $L.$L)", columnName, instanceCode, readAccessCode);
         } else if (fieldType == TypeName.LONG) {
-            builder.addStatement("values.put($S, instance.$L)", fieldInfo.columnName, readAccessCode);
+            builder.addStatement("values.put($S, $L.$L)", columnName, instanceCode, readAccessCode);
         } else if (fieldType == TypeName.FLOAT) {
-            builder.addStatement("values.put($S, instance.$L)", fieldInfo.columnName, readAccessCode);
+            builder.addStatement("values.put($S, $L.$L)", columnName, instanceCode, readAccessCode);
         } else if (fieldType == TypeName.DOUBLE) {
-            builder.addStatement("values.put($S, instance.$L)", fieldInfo.columnName, readAccessCode);
+            builder.addStatement("values.put($S, $L.$L)", columnName, instanceCode, readAccessCode);
         } else if (fieldType.equals(CursorObjectClassInfo.STRING)) {
-            builder.addStatement("values.put($S, instance.$L)", fieldInfo.columnName, readAccessCode);
+            builder.addStatement("values.put($S, $L.$L)", columnName, instanceCode, readAccessCode);
         } else {
-            final ClassName converterClass = objectClassInfo.getConverter(fieldInfo.objectFieldName,
+            final ClassName converterClass = classInfo.getConverter(fieldInfo.objectFieldName,
                     false);
             if (converterClass != null) {
-                builder.addStatement("$L.writeField(values, instance.$L, $S, $L)", getConverterFieldName(converterClass),
-                        readAccessCode, fieldInfo.columnName, getConverterFieldName(fieldType));
+                builder.addStatement("$L.writeField(values, $L.$L, $S, $L)", getConverterFieldName(converterClass),
+                        instanceCode, readAccessCode, columnName, getConverterFieldName(fieldType));
             } else if (fieldType instanceof ArrayTypeName) {
                 if (((ArrayTypeName) fieldType).componentType == TypeName.BYTE) {
-                    builder.addStatement("values.put($S, instance.$L)", fieldInfo.columnName, readAccessCode);
+                    builder.addStatement("values.put($S, $L.$L)", columnName, instanceCode, readAccessCode);
                 } else {
                     supported = false;
                 }
@@ -211,13 +665,14 @@ public class ValuesCreatorClassGenerator {
         }
         if (!supported) {
             throw new UnsupportedFieldTypeException(String.format("Unsupported type %s in %s.%s", fieldInfo.type,
-                    objectClassInfo.objectClassName, fieldInfo.objectFieldName));
+                    classInfo.objectClassName, fieldInfo.objectFieldName));
         }
     }
 
 
     public void saveValuesCreatorFile(Filer filer, Elements elements, Types types) throws IOException {
-        JavaFileObject fileObj = filer.createSourceFile(creatorClassName.toString());
+        JavaFileObject fileObj = filer.createSourceFile(creatorClassName.toString(),
+                objectClassInfo.getOriginatingElements());
         try (Writer writer = fileObj.openWriter()) {
             writeContent(writer, elements, types);
             writer.flush();